@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.benchmark;
+
+import org.midao.jdbc.core.db.Student;
+import org.midao.jdbc.core.handlers.utils.BeanAccessor;
+import org.midao.jdbc.core.handlers.utils.GeneratedBeanAccessorFactory;
+import org.midao.jdbc.core.handlers.utils.ReflectionBeanAccessorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cost of populating and reading bean via {@link BeanAccessor} implementations
+ * compared to hand-written code.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanAccessorBenchmark {
+
+    private BeanAccessor generatedAccessor;
+    private BeanAccessor reflectionAccessor;
+
+    private int idIndex;
+    private int nameIndex;
+    private int addressIndex;
+
+    private Integer id = 1;
+    private String name = "Student";
+    private String address = "Address";
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generatedAccessor = new GeneratedBeanAccessorFactory().getBeanAccessor(Student.class);
+        reflectionAccessor = new ReflectionBeanAccessorFactory().getBeanAccessor(Student.class);
+
+        idIndex = generatedAccessor.getPropertyIndex("id");
+        nameIndex = generatedAccessor.getPropertyIndex("name");
+        addressIndex = generatedAccessor.getPropertyIndex("address");
+    }
+
+    @Benchmark
+    public Student handWritten() {
+        Student student = new Student();
+
+        student.setId(id);
+        student.setName(name);
+        student.setAddress(address);
+
+        return student;
+    }
+
+    @Benchmark
+    public Student generatedAccessor() {
+        return populate(generatedAccessor);
+    }
+
+    @Benchmark
+    public Student reflectionAccessor() {
+        return populate(reflectionAccessor);
+    }
+
+    @Benchmark
+    public Object generatedAccessorGet() {
+        return read(generatedAccessor);
+    }
+
+    @Benchmark
+    public Object reflectionAccessorGet() {
+        return read(reflectionAccessor);
+    }
+
+    private Student populate(BeanAccessor accessor) {
+        Student student = new Student();
+
+        accessor.setValue(student, idIndex, id);
+        accessor.setValue(student, nameIndex, name);
+        accessor.setValue(student, addressIndex, address);
+
+        return student;
+    }
+
+    private Object read(BeanAccessor accessor) {
+        Student student = handWritten();
+
+        accessor.getValue(student, idIndex);
+        accessor.getValue(student, nameIndex);
+
+        return accessor.getValue(student, addressIndex);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.benchmark;
+
+import org.midao.jdbc.core.MjdbcFactory;
+import org.midao.jdbc.core.db.DBConstants;
+import org.midao.jdbc.core.handlers.utils.MappingUtils;
+import org.midao.jdbc.core.service.QueryRunnerService;
+
+import javax.sql.DataSource;
+import java.beans.PropertyDescriptor;
+import java.sql.SQLException;
+
+/**
+ * Embedded (in-memory) Derby database used by benchmarks.
+ * <p/>
+ * Uses the same students table as functional tests (see {@link DBConstants}).
+ */
+public class BenchmarkDatabase {
+    public static final String DERBY_DATA_SOURCE_CLASS = "org.apache.derby.jdbc.EmbeddedDataSource";
+    public static final String DERBY_DATABASE_NAME = "memory:benchmarkDb";
+
+    /**
+     * Creates new in-memory Derby DataSource
+     *
+     * @return new Derby DataSource
+     */
+    public static DataSource createDataSource() {
+        DataSource ds = null;
+
+        try {
+            ds = (DataSource) Class.forName(DERBY_DATA_SOURCE_CLASS).newInstance();
+        } catch (Exception ex) {
+            throw new IllegalStateException("Failed to create Derby DataSource. Please check that Derby is in classpath", ex);
+        }
+
+        invokeSetFunction(ds, "createDatabase", "create");
+        invokeSetFunction(ds, "databaseName", DERBY_DATABASE_NAME);
+
+        return ds;
+    }
+
+    /**
+     * Creates students table and fills it with @rows rows
+     *
+     * @param runner query runner
+     * @param rows   amount of rows which should be inserted
+     * @throws SQLException
+     */
+    public static void createStudents(QueryRunnerService runner, int rows) throws SQLException {
+        runner.update(DBConstants.CREATE_STUDENT_TABLE_DERBY);
+
+        if (rows > 0) {
+            runner.batch("INSERT INTO students (name, address) VALUES (?, ?)", studentRows(rows));
+        }
+    }
+
+    /**
+     * Drops students table
+     *
+     * @param runner query runner
+     * @throws SQLException
+     */
+    public static void dropStudents(QueryRunnerService runner) throws SQLException {
+        runner.update(DBConstants.DROP_STUDENT_TABLE);
+    }
+
+    /**
+     * Generates batch parameters for students table
+     *
+     * @param rows amount of rows
+     * @return array of (name, address) pairs
+     */
+    public static Object[][] studentRows(int rows) {
+        Object[][] result = new Object[rows][];
+
+        for (int i = 0; i < rows; i++) {
+            result[i] = new Object[]{"Student " + i, "Address " + i};
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates new QueryRunner which works with specified DataSource
+     *
+     * @param ds DataSource
+     * @return new QueryRunner
+     */
+    public static QueryRunnerService getQueryRunner(DataSource ds) {
+        return MjdbcFactory.getQueryRunner(ds);
+    }
+
+    private static void invokeSetFunction(Object bean, String functionName, Object value) {
+        PropertyDescriptor[] descriptions = MappingUtils.propertyDescriptors(bean.getClass());
+
+        for (PropertyDescriptor property : descriptions) {
+            if (property.getName().equals(functionName) == true) {
+                MappingUtils.callSetter(bean, property, value);
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.benchmark;
+
+import org.midao.jdbc.core.MjdbcFactory;
+import org.midao.jdbc.core.db.DBConstants;
+import org.midao.jdbc.core.db.Student;
+import org.midao.jdbc.core.handlers.output.BeanListOutputHandler;
+import org.midao.jdbc.core.handlers.output.KeyedOutputHandler;
+import org.midao.jdbc.core.handlers.output.MapListOutputHandler;
+import org.midao.jdbc.core.handlers.output.lazy.*;
+import org.midao.jdbc.core.service.QueryRunnerService;
+import org.midao.jdbc.core.statement.BaseStatementHandler;
+import org.midao.jdbc.core.statement.LazyStatementHandler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link QueryRunnerService#query(String, org.midao.jdbc.core.handlers.output.OutputHandler, Object...)}
+ * throughput for every commonly used output handler.
+ * <p/>
+ * Cached handlers are executed via runner in automatic transaction mode, lazy handlers - via runner in manual
+ * transaction mode (as required by lazy handlers). Every lazy result is read till the end and closed, scroll
+ * handlers are read back to the beginning afterwards and update handlers are updating every row they read.
+ * <p/>
+ * {@link KeyedOutputHandler} is executed via runner with {@link BaseStatementHandler}, as it needs
+ * whole result to be read into memory (it requests size of the result list).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int rows;
+
+    private DataSource dataSource;
+    private QueryRunnerService runner;
+    private QueryRunnerService baseRunner;
+    private QueryRunnerService manualRunner;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dataSource = BenchmarkDatabase.createDataSource();
+
+        runner = BenchmarkDatabase.getQueryRunner(dataSource);
+
+        baseRunner = MjdbcFactory.getQueryRunner(dataSource, null, BaseStatementHandler.class);
+
+        manualRunner = MjdbcFactory.getQueryRunner(dataSource, null, LazyStatementHandler.class);
+        manualRunner.setTransactionManualMode(true);
+
+        BenchmarkDatabase.createStudents(runner, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        BenchmarkDatabase.dropStudents(runner);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> mapListOutputHandler() throws SQLException {
+        return runner.query(DBConstants.SELECT_STUDENT_TABLE_ALL, new MapListOutputHandler());
+    }
+
+    @Benchmark
+    public List<Student> beanListOutputHandler() throws SQLException {
+        return runner.query(DBConstants.SELECT_STUDENT_TABLE_ALL, new BeanListOutputHandler<Student>(Student.class));
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> mapListOutputHandlerWParams() throws SQLException {
+        return runner.query("SELECT id, name, address FROM students WHERE id > ?", new MapListOutputHandler(), 0);
+    }
+
+    @Benchmark
+    public Map<Object, Map<String, Object>> keyedOutputHandler() throws SQLException {
+        return baseRunner.query(DBConstants.SELECT_STUDENT_TABLE_ALL, new KeyedOutputHandler<Object>("id"));
+    }
+
+    @Benchmark
+    public void mapLazyOutputHandler(Blackhole blackhole) throws SQLException {
+        MapLazyOutputHandler handler = manualRunner.query(DBConstants.SELECT_STUDENT_TABLE_ALL, new MapLazyOutputHandler());
+
+        read(handler, blackhole);
+    }
+
+    @Benchmark
+    public void beanLazyOutputHandler(Blackhole blackhole) throws SQLException {
+        BeanLazyOutputHandler<Student> handler = manualRunner.query(DBConstants.SELECT_STUDENT_TABLE_ALL,
+                new BeanLazyOutputHandler<Student>(Student.class));
+
+        read(handler, blackhole);
+    }
+
+    @Benchmark
+    public void mapLazyScrollOutputHandler(Blackhole blackhole) throws SQLException {
+        MapLazyScrollOutputHandler handler = manualRunner.query(DBConstants.SELECT_STUDENT_TABLE_ALL,
+                new MapLazyScrollOutputHandler());
+
+        scroll(handler, blackhole);
+    }
+
+    @Benchmark
+    public void beanLazyScrollOutputHandler(Blackhole blackhole) throws SQLException {
+        BeanLazyScrollOutputHandler<Student> handler = manualRunner.query(DBConstants.SELECT_STUDENT_TABLE_ALL,
+                new BeanLazyScrollOutputHandler<Student>(Student.class));
+
+        scroll(handler, blackhole);
+    }
+
+    @Benchmark
+    public void mapLazyUpdateOutputHandler() throws SQLException {
+        MapLazyUpdateOutputHandler handler = manualRunner.query(DBConstants.SELECT_STUDENT_TABLE_ALL,
+                new MapLazyUpdateOutputHandler());
+
+        update(handler);
+    }
+
+    @Benchmark
+    public void beanLazyUpdateOutputHandler() throws SQLException {
+        BeanLazyUpdateOutputHandler<Student> handler = manualRunner.query(DBConstants.SELECT_STUDENT_TABLE_ALL,
+                new BeanLazyUpdateOutputHandler<Student>(Student.class));
+
+        update(handler);
+    }
+
+    @Benchmark
+    public void mapLazyScrollUpdateOutputHandler(Blackhole blackhole) throws SQLException {
+        MapLazyScrollUpdateOutputHandler handler = manualRunner.query(DBConstants.SELECT_STUDENT_TABLE_ALL,
+                new MapLazyScrollUpdateOutputHandler());
+
+        scrollUpdate(handler, blackhole);
+    }
+
+    @Benchmark
+    public void beanLazyScrollUpdateOutputHandler(Blackhole blackhole) throws SQLException {
+        BeanLazyScrollUpdateOutputHandler<Student> handler = manualRunner.query(DBConstants.SELECT_STUDENT_TABLE_ALL,
+                new BeanLazyScrollUpdateOutputHandler<Student>(Student.class));
+
+        scrollUpdate(handler, blackhole);
+    }
+
+    /**
+     * Reads lazy handler till the end, closes it and finishes transaction
+     *
+     * @param handler   lazy output handler
+     * @param blackhole JMH blackhole which consumes rows
+     * @throws SQLException
+     */
+    private void read(LazyOutputHandler<?, ?> handler, Blackhole blackhole) throws SQLException {
+        try {
+            while (handler.hasNext() == true) {
+                blackhole.consume(handler.getNext());
+            }
+        } finally {
+            handler.close();
+            manualRunner.commit();
+        }
+    }
+
+    /**
+     * Reads lazy scroll handler till the end and back to the beginning, closes it and finishes transaction
+     *
+     * @param handler   lazy scroll output handler
+     * @param blackhole JMH blackhole which consumes rows
+     * @throws SQLException
+     */
+    private void scroll(LazyScrollOutputHandler<?, ?> handler, Blackhole blackhole) throws SQLException {
+        try {
+            while (handler.hasNext() == true) {
+                blackhole.consume(handler.getNext());
+            }
+
+            while (handler.hasPrev() == true) {
+                blackhole.consume(handler.getPrev());
+            }
+        } finally {
+            handler.close();
+            manualRunner.commit();
+        }
+    }
+
+    /**
+     * Reads lazy update handler till the end (updating every row), closes it and finishes transaction
+     *
+     * @param handler lazy update output handler
+     * @throws SQLException
+     */
+    private <S> void update(LazyUpdateOutputHandler<?, S> handler) throws SQLException {
+        try {
+            while (handler.hasNext() == true) {
+                handler.updateRow(handler.getNext());
+            }
+        } finally {
+            handler.close();
+            manualRunner.commit();
+        }
+    }
+
+    /**
+     * Reads lazy scroll update handler till the end (updating every row) and back to the beginning,
+     * closes it and finishes transaction
+     *
+     * @param handler   lazy scroll update output handler
+     * @param blackhole JMH blackhole which consumes rows
+     * @throws SQLException
+     */
+    private <S> void scrollUpdate(LazyScrollUpdateOutputHandler<?, S> handler, Blackhole blackhole) throws SQLException {
+        try {
+            while (handler.hasNext() == true) {
+                handler.updateRow(handler.getNext());
+            }
+
+            while (handler.hasPrev() == true) {
+                blackhole.consume(handler.getPrev());
+            }
+        } finally {
+            handler.close();
+            manualRunner.commit();
+        }
+    }
+}
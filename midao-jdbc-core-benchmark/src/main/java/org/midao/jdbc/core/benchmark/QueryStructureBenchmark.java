@@ -0,0 +1,250 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.benchmark;
+
+import org.midao.jdbc.core.MjdbcFactory;
+import org.midao.jdbc.core.db.*;
+import org.midao.jdbc.core.handlers.model.CallResults;
+import org.midao.jdbc.core.handlers.output.lazy.LazyOutputHandler;
+import org.midao.jdbc.core.service.QueryRunnerService;
+import org.midao.jdbc.core.statement.LazyStatementHandler;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures QueryRunner query/update/batch/call throughput by executing the same query structures
+ * which are used by functional tests ({@link DBQueryQueryStructure}, {@link DBUpdateQueryStructure},
+ * {@link DBBatchQueryStructure} and {@link DBCallQueryStructure}).
+ * <p/>
+ * As structures are inserting rows on every execution - students table is recreated before every iteration.
+ * <p/>
+ * Lazy call is executed via runner with {@link LazyStatementHandler} in manual transaction mode,
+ * lazy result is read till the end and closed during every execution.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryStructureBenchmark {
+
+    @Param({"queryOutputHandler", "queryInputHandler", "updateGeneratedKeys", "updateRowCountHandler",
+            "updateInputHandler", "batchWParams", "batchInputHandler", "callQueryParameters", "callFunction",
+            "callOutputHandlerMap", "callOutputHandlerListMap", "callOutputHandlerBean", "callOutputHandlerListBean",
+            "callLazyOutputHandlerMap"})
+    public String scenario;
+
+    private QueryRunnerService runner;
+    private QueryStructure structure;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws SQLException {
+        DataSource dataSource = BenchmarkDatabase.createDataSource();
+
+        if ("callLazyOutputHandlerMap".equals(scenario) == true) {
+            runner = MjdbcFactory.getQueryRunner(dataSource, null, LazyStatementHandler.class);
+            runner.setTransactionManualMode(true);
+        } else {
+            runner = BenchmarkDatabase.getQueryRunner(dataSource);
+        }
+
+        structure = createStructure(scenario, new HashMap<String, Object>());
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() throws SQLException {
+        structure.create(runner);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws SQLException {
+        structure.drop(runner);
+    }
+
+    @Benchmark
+    public Map<String, Object> execute() throws SQLException {
+        structure.execute(runner);
+
+        return structure.values;
+    }
+
+    /**
+     * Creates query structure for specified scenario.
+     * Structures which do not create students table by themselves are wrapped to do so.
+     *
+     * @param scenario scenario name
+     * @param values   map which would be used by structure to store execution results
+     * @return query structure
+     * @throws SQLException
+     */
+    private static QueryStructure createStructure(String scenario, Map<String, Object> values) throws SQLException {
+        QueryStructure result = null;
+
+        if ("queryOutputHandler".equals(scenario) == true) {
+            result = withStudentTable(DBQueryQueryStructure.queryOutputHandlerDS(values));
+        } else if ("queryInputHandler".equals(scenario) == true) {
+            result = withStudentTable(DBQueryQueryStructure.queryInputHandler2DS(values));
+        } else if ("updateGeneratedKeys".equals(scenario) == true) {
+            result = withStudentTable(DBUpdateQueryStructure.updateGeneratedKeysDS(values));
+        } else if ("updateRowCountHandler".equals(scenario) == true) {
+            result = withStudentTable(DBUpdateQueryStructure.updateRowCountHandlerDS(values));
+        } else if ("updateInputHandler".equals(scenario) == true) {
+            result = withStudentTable(DBUpdateQueryStructure.updateInputHandler1DS(values));
+        } else if ("batchWParams".equals(scenario) == true) {
+            result = DBBatchQueryStructure.batchWParamsDS(values);
+        } else if ("batchInputHandler".equals(scenario) == true) {
+            result = DBBatchQueryStructure.batchInputHandler1DS(values);
+        } else if ("callQueryParameters".equals(scenario) == true) {
+            final QueryStructure defaultStructure = DBCallQueryStructure.callQueryParameters(values);
+
+            result = new QueryStructure(values) {
+                @Override
+                public void create(QueryRunnerService runner) throws SQLException {
+                    runner.update(DBConstants.DERBY_PROCEDURE_INOUT);
+                    defaultStructure.create(runner);
+                }
+
+                @Override
+                public void execute(QueryRunnerService runner) throws SQLException {
+                    defaultStructure.execute(runner);
+                }
+
+                @Override
+                public void drop(QueryRunnerService runner) throws SQLException {
+                    defaultStructure.drop(runner);
+                }
+            };
+        } else if ("callFunction".equals(scenario) == true) {
+            result = withProcedure(DBCallQueryStructure.callFunction(values), DBConstants.DERBY_FUNCTION);
+        } else if ("callOutputHandlerMap".equals(scenario) == true) {
+            result = withProcedure(DBCallQueryStructure.callOutputHandlerMap(values), DBConstants.DERBY_PROCEDURE_RETURN);
+        } else if ("callOutputHandlerListMap".equals(scenario) == true) {
+            result = withProcedure(DBCallQueryStructure.callOutputHandlerListMap(values), DBConstants.DERBY_PROCEDURE_MULTIPLE_RETURN);
+        } else if ("callOutputHandlerBean".equals(scenario) == true) {
+            result = withProcedure(DBCallQueryStructure.callOutputHandlerBean(values), DBConstants.DERBY_PROCEDURE_RETURN);
+        } else if ("callOutputHandlerListBean".equals(scenario) == true) {
+            result = withProcedure(DBCallQueryStructure.callOutputHandlerListBean(values), DBConstants.DERBY_PROCEDURE_MULTIPLE_RETURN);
+        } else if ("callLazyOutputHandlerMap".equals(scenario) == true) {
+            result = withLazyResultRead(withProcedure(DBCallQueryStructure.callLazyOutputHandlerMap(values), DBConstants.DERBY_PROCEDURE_RETURN));
+        } else {
+            throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        }
+
+        return result;
+    }
+
+    /**
+     * Wraps structure, so students table would be created before it.
+     * Used for structures which expect table to be created by test itself.
+     *
+     * @param defaultStructure structure which should be wrapped
+     * @return wrapped structure
+     */
+    private static QueryStructure withStudentTable(final QueryStructure defaultStructure) {
+        return new QueryStructure(defaultStructure.values) {
+            @Override
+            public void create(QueryRunnerService runner) throws SQLException {
+                runner.update(DBConstants.CREATE_STUDENT_TABLE_DERBY);
+                defaultStructure.create(runner);
+            }
+
+            @Override
+            public void execute(QueryRunnerService runner) throws SQLException {
+                defaultStructure.execute(runner);
+            }
+
+            @Override
+            public void drop(QueryRunnerService runner) throws SQLException {
+                defaultStructure.drop(runner);
+            }
+        };
+    }
+
+    /**
+     * Wraps call structure, so students table would be created before it and procedure/function - after it
+     * (same order as used by functional tests).
+     *
+     * @param defaultStructure structure which should be wrapped
+     * @param procedure        procedure/function create statement
+     * @return wrapped structure
+     */
+    private static QueryStructure withProcedure(final QueryStructure defaultStructure, final String procedure) {
+        return new QueryStructure(defaultStructure.values) {
+            @Override
+            public void create(QueryRunnerService runner) throws SQLException {
+                runner.update(DBConstants.CREATE_STUDENT_TABLE_DERBY);
+                defaultStructure.create(runner);
+                runner.update(procedure);
+            }
+
+            @Override
+            public void execute(QueryRunnerService runner) throws SQLException {
+                defaultStructure.execute(runner);
+            }
+
+            @Override
+            public void drop(QueryRunnerService runner) throws SQLException {
+                defaultStructure.drop(runner);
+            }
+        };
+    }
+
+    /**
+     * Wraps lazy call structure, so lazy result would be read till the end and closed after every execution.
+     *
+     * @param defaultStructure structure which should be wrapped
+     * @return wrapped structure
+     */
+    private static QueryStructure withLazyResultRead(final QueryStructure defaultStructure) {
+        return new QueryStructure(defaultStructure.values) {
+            @Override
+            public void create(QueryRunnerService runner) throws SQLException {
+                defaultStructure.create(runner);
+                runner.commit();
+            }
+
+            @Override
+            public void execute(QueryRunnerService runner) throws SQLException {
+                defaultStructure.execute(runner);
+
+                LazyOutputHandler<?, ?> handler = (LazyOutputHandler<?, ?>) ((CallResults<?, ?>) this.values.get("result")).getCallOutput();
+
+                try {
+                    while (handler.hasNext() == true) {
+                        handler.getNext();
+                    }
+                } finally {
+                    handler.close();
+                    runner.commit();
+                }
+            }
+
+            @Override
+            public void drop(QueryRunnerService runner) throws SQLException {
+                defaultStructure.drop(runner);
+            }
+        };
+    }
+}
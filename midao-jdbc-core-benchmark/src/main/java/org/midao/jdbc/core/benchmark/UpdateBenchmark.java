@@ -0,0 +1,106 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.benchmark;
+
+import org.midao.jdbc.core.db.DBConstants;
+import org.midao.jdbc.core.handlers.input.named.MapInputHandler;
+import org.midao.jdbc.core.handlers.output.MapOutputHandler;
+import org.midao.jdbc.core.handlers.output.RowCountOutputHandler;
+import org.midao.jdbc.core.service.QueryRunnerService;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures QueryRunner update and batch throughput.
+ * <p/>
+ * Batch benchmarks are parametrized by batch size, so per-row cost of {@link org.midao.jdbc.core.AbstractQueryRunner}
+ * batch processing can be compared with plain update.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateBenchmark {
+    private static final String INSERT_STUDENT = "INSERT INTO students (name, address) VALUES (?, ?)";
+
+    @Param({"10", "1000"})
+    public int batchSize;
+
+    private QueryRunnerService runner;
+    private Object[][] batchParams;
+    private MapInputHandler[] batchInputHandlers;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        DataSource dataSource = BenchmarkDatabase.createDataSource();
+
+        runner = BenchmarkDatabase.getQueryRunner(dataSource);
+        batchParams = BenchmarkDatabase.studentRows(batchSize);
+
+        batchInputHandlers = new MapInputHandler[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            Map<String, Object> values = new HashMap<String, Object>();
+            values.put("studentName", "Student " + i);
+
+            batchInputHandlers[i] = new MapInputHandler(DBConstants.INSERT_NAMED_STUDENT_TABLE, values);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.createStudents(runner, 0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws SQLException {
+        BenchmarkDatabase.dropStudents(runner);
+    }
+
+    @Benchmark
+    public int update() throws SQLException {
+        return runner.update(INSERT_STUDENT, "Student", "Address");
+    }
+
+    @Benchmark
+    public Integer updateRowCountOutputHandler() throws SQLException {
+        return runner.update(INSERT_STUDENT, new RowCountOutputHandler<Integer>(), "Student", "Address");
+    }
+
+    @Benchmark
+    public Map<String, Object> updateGeneratedKeys() throws SQLException {
+        return runner.update(INSERT_STUDENT, new MapOutputHandler(), "Student", "Address");
+    }
+
+    @Benchmark
+    public int[] batch() throws SQLException {
+        return runner.batch(INSERT_STUDENT, batchParams);
+    }
+
+    @Benchmark
+    public int[] batchInputHandler() throws SQLException {
+        return runner.batch(batchInputHandlers);
+    }
+}
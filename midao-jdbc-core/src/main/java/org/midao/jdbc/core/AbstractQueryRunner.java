@@ -26,26 +26,43 @@ import org.midao.jdbc.core.handlers.model.QueryParameters;
 import org.midao.jdbc.core.handlers.model.QueryParametersLazyList;
 import org.midao.jdbc.core.handlers.output.OutputHandler;
 import org.midao.jdbc.core.handlers.output.RowCountOutputHandler;
+import org.midao.jdbc.core.handlers.output.StreamingOutputHandler;
 import org.midao.jdbc.core.handlers.output.lazy.LazyOutputHandler;
 import org.midao.jdbc.core.handlers.output.lazy.LazyScrollOutputHandler;
 import org.midao.jdbc.core.handlers.output.lazy.LazyScrollUpdateOutputHandler;
 import org.midao.jdbc.core.handlers.output.lazy.LazyUpdateOutputHandler;
+import org.midao.jdbc.core.handlers.type.BaseTypeHandler;
+import org.midao.jdbc.core.handlers.type.EmptyTypeHandler;
+import org.midao.jdbc.core.handlers.type.OracleTypeHandler;
 import org.midao.jdbc.core.handlers.type.TypeHandler;
+import org.midao.jdbc.core.handlers.type.TypeHandlerUtils;
 import org.midao.jdbc.core.handlers.utils.CallableUtils;
 import org.midao.jdbc.core.handlers.utils.MappingUtils;
 import org.midao.jdbc.core.metadata.MetadataHandler;
 import org.midao.jdbc.core.metadata.MetadataUtils;
+import org.midao.jdbc.core.metrics.MetricsCollector;
+import org.midao.jdbc.core.processor.BatchInsertRewriter;
+import org.midao.jdbc.core.profiler.SlowQueryLog;
 import org.midao.jdbc.core.service.QueryRunnerService;
+import org.midao.jdbc.core.statement.BaseStatementHandler;
 import org.midao.jdbc.core.statement.LazyStatementHandler;
+import org.midao.jdbc.core.statement.PreparedStatementCache;
 import org.midao.jdbc.core.statement.StatementHandler;
+import org.midao.jdbc.core.statement.StreamingStatementHandler;
 import org.midao.jdbc.core.transaction.TransactionHandler;
+import org.midao.jdbc.core.utils.ConcurrentCache;
 import org.midao.jdbc.core.utils.MjdbcUtils;
+import org.midao.jdbc.core.wrappers.ConnectionProxy;
 
 import javax.sql.DataSource;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.*;
 
 /**
  * Core of QueryRunner implementation.
@@ -54,6 +71,19 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
     private static final String ERROR_SH_INIT_FAILED = "Error! Failed to initialize Statement Handler class. Please make sure there is public constructor which accepts Overrider class";
     private static final String ERROR_TyH_INIT_FAILED = "Error! Failed to initialize Type Handler class. Please make sure there is public constructor which accepts Overrider class";
 
+    // execution start time if execution is not measured
+    private static final long NOT_MEASURED = Long.MIN_VALUE;
+
+    // type handlers which process list of rows row by row, so their output is the same when it is streamed
+    private static final List<Class<?>> ROW_BY_ROW_TYPE_HANDLERS = Arrays.<Class<?>>asList(BaseTypeHandler.class,
+            OracleTypeHandler.class, EmptyTypeHandler.class);
+
+    // type handler classes which allow query output streaming
+    private static final ConcurrentCache<Class<?>, Boolean> streamingHandlers = new ConcurrentCache<Class<?>, Boolean>(64);
+
+    // statement handler classes which do not override setStatement(Statement, QueryParameters)
+    private static final ConcurrentCache<Class<?>, Boolean> sqlStatementHandlers = new ConcurrentCache<Class<?>, Boolean>(64);
+
     protected final Overrider overrider;
 
     private TypeHandler typeHandler;
@@ -66,6 +96,16 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
 
     private ExceptionHandler exceptionHandler;
 
+    /**
+     * Prepared statement cache. Created only if statement cache size is set
+     */
+    private PreparedStatementCache statementCache;
+
+    /**
+     * True if QueryRunner was created with Connection (which is kept between executions)
+     */
+    private final boolean connectionKept;
+
     /**
      * Creates new AbstractQueryRunner instance
      *
@@ -103,7 +143,23 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
      * @param statementHandlerClazz StatementHandler implementation class (from which new StatementHandler instance would be created)
      */
     AbstractQueryRunner(DataSource ds, Connection conn, Class<? extends TypeHandler> typeHandlerClazz, Class<? extends StatementHandler> statementHandlerClazz) {
+        this(ds, conn, typeHandlerClazz, statementHandlerClazz, null);
+    }
+
+    /**
+     * Creates new AbstractQueryRunner instance.
+     * If environment is specified - it is used instead of borrowing connection to detect database name and JDBC version
+     *
+     * @param ds                    SQL DataSource
+     * @param conn                  SQL Connection
+     * @param typeHandlerClazz      TypeHandler implementation class (from which new TypeHandler instance would be created)
+     * @param statementHandlerClazz StatementHandler implementation class (from which new StatementHandler instance would be created)
+     * @param environment           DataSource environment (shared between QueryRunner instances), might be null
+     */
+    AbstractQueryRunner(DataSource ds, Connection conn, Class<? extends TypeHandler> typeHandlerClazz, Class<? extends StatementHandler> statementHandlerClazz,
+                        DataSourceEnvironment environment) {
         this.overrider = MjdbcConfig.getDefaultOverrider();
+        this.connectionKept = (ds == null);
 
         if (typeHandlerClazz != null) {
             setTypeHandler(getTypeHandler(typeHandlerClazz));
@@ -125,7 +181,9 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
             throw new MjdbcRuntimeException("Either DataSource or Connection should be specified");
         }
 
-        if (ds != null) {
+        if (environment != null) {
+            setMetadataHandler(environment.getMetadataHandler());
+        } else if (ds != null) {
             setMetadataHandler(MjdbcConfig.getDefaultMetadataHandler(ds));
         } else if (conn != null) {
             setMetadataHandler(MjdbcConfig.getDefaultMetadataHandler(conn));
@@ -135,7 +193,11 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
 
         String dbName = "absent";
 
-        if (this.isTransactionManualMode() == false) {
+        if (environment != null) {
+            if (environment.isJDBC3() == true) {
+                overrider.override(MjdbcConstants.OVERRIDE_INT_JDBC3, true);
+            }
+        } else if (this.isTransactionManualMode() == false) {
             try {
                 // might create issue for PostgreSQL
                 Connection metadataConn = transactionHandler.getConnection();
@@ -152,7 +214,9 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
             }
         }
 
-        if (ds != null) {
+        if (environment != null) {
+            setExceptionHandler(environment.getExceptionHandler());
+        } else if (ds != null) {
             setExceptionHandler(MjdbcConfig.getDefaultExceptionHandler(dbName));
         } else if (conn != null) {
             setExceptionHandler(MjdbcConfig.getDefaultExceptionHandler(dbName));
@@ -195,6 +259,7 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
      */
     public void commit() throws SQLException {
         this.transactionHandler.commit();
+        purgeStatementCache();
     }
 
     /**
@@ -202,6 +267,7 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
      */
     public void rollback() throws SQLException {
         this.transactionHandler.rollback();
+        purgeStatementCache();
     }
 
     /**
@@ -380,6 +446,11 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
             }
         }
 
+        if (outputHandler instanceof LazyScrollOutputHandler && isLazySpillToDisk(outputHandler) == true) {
+            // rows are kept in spill file, so forward only ResultSet is enough
+            resultSetType = null;
+        }
+
         if (outputHandler instanceof LazyUpdateOutputHandler) {
             resultSetConcurrency = ResultSet.CONCUR_UPDATABLE;
         }
@@ -426,10 +497,17 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
             }
         }
 
+        if (outputHandler instanceof LazyScrollOutputHandler && isLazySpillToDisk(outputHandler) == true) {
+            // rows are kept in spill file, so forward only ResultSet is enough
+            resultSetType = null;
+        }
+
         if (outputHandler instanceof LazyUpdateOutputHandler) {
             resultSetConcurrency = ResultSet.CONCUR_UPDATABLE;
         }
 
+        int autoGeneratedKeys = Statement.NO_GENERATED_KEYS;
+
         if (getGeneratedKeys == true || this.overrider.hasOverride(MjdbcConstants.OVERRIDE_INT_GET_GENERATED_KEYS) == true) {
 
             // if generated values should be returned - it cannot be updateable/scrollable
@@ -440,14 +518,37 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
 
             if (this.overrider.hasOverride(MjdbcConstants.OVERRIDE_GENERATED_COLUMN_NAMES) == true) {
                 overrideGeneratedKeysArr = (String[]) this.overrider.getOverride(MjdbcConstants.OVERRIDE_GENERATED_COLUMN_NAMES);
-                result = conn.prepareStatement(sql, overrideGeneratedKeysArr);
             } else {
-                result = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                autoGeneratedKeys = Statement.RETURN_GENERATED_KEYS;
             }
 
             if (this.overrider.hasOverride(MjdbcConstants.OVERRIDE_INT_GET_GENERATED_KEYS) == false) {
                 this.overrider.overrideOnce(MjdbcConstants.OVERRIDE_INT_GET_GENERATED_KEYS, true);
             }
+        }
+
+        PreparedStatementCache cache = getStatementCache(outputHandler);
+        PreparedStatementCache.Key cacheKey = null;
+        Connection physicalConn = null;
+
+        if (cache != null) {
+            cacheKey = new PreparedStatementCache.Key(sql, false,
+                    (resultSetType == null ? ResultSet.TYPE_FORWARD_ONLY : resultSetType),
+                    (resultSetConcurrency == null ? ResultSet.CONCUR_READ_ONLY : resultSetConcurrency),
+                    autoGeneratedKeys, overrideGeneratedKeysArr);
+            physicalConn = ConnectionProxy.getTarget(conn);
+
+            result = cache.take(physicalConn, cacheKey);
+
+            if (result != null) {
+                return result;
+            }
+        }
+
+        if (overrideGeneratedKeysArr != null) {
+            result = conn.prepareStatement(sql, overrideGeneratedKeysArr);
+        } else if (autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS) {
+            result = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
         } else {
 
             if (resultSetType == null && resultSetConcurrency == null) {
@@ -460,6 +561,10 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
             }
         }
 
+        if (cache != null) {
+            cache.register(physicalConn, cacheKey, result);
+        }
+
         return result;
     }
 
@@ -490,10 +595,33 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
             }
         }
 
+        if (outputHandler instanceof LazyScrollOutputHandler && isLazySpillToDisk(outputHandler) == true) {
+            // rows are kept in spill file, so forward only ResultSet is enough
+            resultSetType = null;
+        }
+
         if (outputHandler instanceof LazyUpdateOutputHandler) {
             resultSetConcurrency = ResultSet.CONCUR_UPDATABLE;
         }
 
+        PreparedStatementCache cache = getStatementCache(outputHandler);
+        PreparedStatementCache.Key cacheKey = null;
+        Connection physicalConn = null;
+
+        if (cache != null) {
+            cacheKey = new PreparedStatementCache.Key(sql, true,
+                    (resultSetType == null ? ResultSet.TYPE_FORWARD_ONLY : resultSetType),
+                    (resultSetConcurrency == null ? ResultSet.CONCUR_READ_ONLY : resultSetConcurrency),
+                    Statement.NO_GENERATED_KEYS, null);
+            physicalConn = ConnectionProxy.getTarget(conn);
+
+            result = (CallableStatement) cache.take(physicalConn, cacheKey);
+
+            if (result != null) {
+                return result;
+            }
+        }
+
         if (resultSetType == null && resultSetConcurrency == null) {
             result = conn.prepareCall(sql);
         } else {
@@ -504,6 +632,10 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
             result = conn.prepareCall(sql, resultSetType, resultSetConcurrency);
         }
 
+        if (cache != null) {
+            cache.register(physicalConn, cacheKey, result);
+        }
+
         return result;
     }
 
@@ -519,6 +651,9 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
 
     /**
      * Execute a batch of SQL INSERT, UPDATE, or DELETE queries.
+     * <p/>
+     * If batch chunk size is set (via {@link MjdbcConstants#OVERRIDE_BATCH_CHUNK_SIZE} or
+     * {@link MjdbcConfig#setDefaultBatchChunkSize(int)}) - batch is executed every chunk size rows.
      *
      * @param stmtHandler {@link StatementHandler} implementation
      * @param sql         The SQL query to execute.
@@ -528,7 +663,9 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
      * @throws SQLException if exception would be thrown by Driver/Database
      */
     protected int[] batch(StatementHandler stmtHandler, String sql, QueryParameters[] params) throws SQLException {
+        long startTime = startTimer();
         Connection conn = this.transactionHandler.getConnection();
+        long connectionTime = connectionAcquired(startTime);
 
         if (sql == null) {
             this.transactionHandler.rollback();
@@ -544,46 +681,227 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
             throw new SQLException("Null parameters. If parameters aren't need, pass an empty array.");
         }
 
-        PreparedStatement stmt = null;
-        int[] rows = null;
-        QueryParameters[] processedParams = new QueryParameters[params.length];
+        return batch(stmtHandler, conn, sql, new BatchInputIterator(sql, Arrays.asList(params).iterator()),
+                getBatchChunkSize(params.length), startTime, connectionTime, true).rows;
+    }
+
+    /**
+     * Execute a batch of SQL INSERT, UPDATE, or DELETE queries.
+     * Rows are read from iterator lazily - only one chunk of rows is kept in memory.
+     *
+     * @param stmtHandler {@link StatementHandler} implementation
+     * @param sql         The SQL query to execute. Might be null if rows are {@link InputHandler} instances
+     * @param params      batch rows: {@link QueryParameters}, Object[], {@link InputHandler}, Map or Java Bean.
+     *                    See {@link BatchInputIterator}
+     * @param chunkSize   amount of rows executed by one {@link java.sql.Statement#executeBatch()} call
+     * @return total amount of rows affected. Rows reported as {@link java.sql.Statement#SUCCESS_NO_INFO} are not counted
+     * @throws SQLException if exception would be thrown by Driver/Database
+     */
+    protected long batch(StatementHandler stmtHandler, String sql, Iterator<?> params, int chunkSize) throws SQLException {
+        long startTime = startTimer();
+        Connection conn = this.transactionHandler.getConnection();
+        long connectionTime = connectionAcquired(startTime);
+        BatchInputIterator input = null;
+
+        if (params == null) {
+            this.transactionHandler.rollback();
+            this.transactionHandler.closeConnection();
+
+            throw new SQLException("Null parameters. If parameters aren't need, pass an empty iterator.");
+        }
+
+        if (chunkSize <= 0) {
+            this.transactionHandler.rollback();
+            this.transactionHandler.closeConnection();
+
+            throw new SQLException("Batch chunk size should be positive. Was: " + chunkSize);
+        }
+
+        input = new BatchInputIterator(sql, params);
 
         try {
+            sql = input.getQueryString();
+        } catch (RuntimeException ex) {
+            this.transactionHandler.rollback();
+            this.transactionHandler.closeConnection();
 
-            stmt = this.prepareStatement(conn, null, sql, false);
+            throw new MjdbcSQLException(ex);
+        }
 
-            for (int i = 0; i < params.length; i++) {
-                processedParams[i] = typeHandler.processInput(stmt, params[i]);
+        if (sql == null) {
+            this.transactionHandler.rollback();
+            this.transactionHandler.closeConnection();
 
-                stmtHandler.setStatement(stmt, processedParams[i]);
-                stmt.addBatch();
-            }
-            rows = stmt.executeBatch();
+            throw new SQLException("Null SQL statement");
+        }
+
+        return batch(stmtHandler, conn, sql, input, chunkSize, startTime, connectionTime, false).affected;
+    }
+
+    /**
+     * Executes batch rows chunk by chunk.
+     * If batch is pipelined (see {@link #isBatchPipelined()}) - next chunk rows are converted into
+     * {@link QueryParameters} (Java Beans, Maps and Input Handlers are read) on separate thread while current one
+     * is executed. Rows source, Type Handler and Statement are used only by calling thread: Type Handler creates
+     * LOBs/Arrays via Connection, which cannot be used concurrently with executed Statement.
+     * Pipeline thread is created for this batch execution only and is stopped before return.
+     *
+     * @param stmtHandler {@link StatementHandler} implementation
+     * @param conn        SQL Connection
+     * @param sql         The SQL query to execute.
+     * @param params      batch rows
+     * @param chunkSize      amount of rows executed by one {@link java.sql.Statement#executeBatch()} call
+     * @param startTime      execution start time (see {@link #startTimer()})
+     * @param connectionTime connection acquisition time (nanoseconds)
+     * @param keepRows       if true - per row results are accumulated, otherwise only total amount of affected rows is
+     *                       calculated and memory usage doesn't depend on amount of rows
+     * @return batch result
+     * @throws SQLException if exception would be thrown by Driver/Database
+     */
+    private BatchResult batch(StatementHandler stmtHandler, Connection conn, String sql, BatchInputIterator params, int chunkSize,
+                              long startTime, long connectionTime, boolean keepRows) throws SQLException {
+        PreparedStatement stmt = null;
+        int[] rows = new int[0];
+        int rowsCount = 0;
+        long affected = 0;
+        int[] chunkRows = null;
+        QueryParameters[] chunkParams = new QueryParameters[0];
+        BatchChunk chunk = null;
+        Future<QueryParameters[]> nextChunk = null;
+        ExecutorService pipeline = null;
+        BatchInsertRewriter insertRewriter = null;
+        int insertRowCount = 0;
+        boolean chunkCommit = isBatchChunkCommit();
+        boolean pipelined = isBatchPipelined();
+        boolean executed = false;
+
+        if (isBatchInsertRewrite() == true) {
+            insertRewriter = BatchInsertRewriter.getInstance(sql);
+        }
+
+        try {
 
-            for (int i = 0; i < params.length; i++) {
-                typeHandler.afterExecute(stmt, processedParams[i], params[i]);
+            if (insertRewriter != null) {
+                // rewritten statement is used instead of original one. Usually all its executions insert the same amount of rows
+                insertRowCount = Math.min(insertRewriter.getMaxRowCount(MjdbcConfig.getDefaultBatchInsertParameterLimit()), chunkSize);
+                stmt = this.prepareStatement(conn, null, insertRewriter.getSql(insertRowCount), false);
+            } else {
+                stmt = this.prepareStatement(conn, null, sql, false);
             }
 
+            chunkParams = convertBatchRows(params, readBatchRows(params, chunkSize));
+
+            do {
+                // next chunk is converted while current one is executed
+                if (pipelined == true && params.hasNext() == true) {
+                    if (pipeline == null) {
+                        pipeline = createBatchPipeline();
+                    }
+
+                    nextChunk = submitBatchRows(pipeline, params, readBatchRows(params, chunkSize));
+                }
+
+                chunk = new BatchChunk(chunkParams);
+                processBatchChunk(stmt, chunk);
+
+                if (insertRewriter != null) {
+                    chunkRows = new int[chunk.params.length];
+                    executeInsertChunk(stmtHandler, conn, insertRewriter, stmt, insertRowCount, chunk, chunkRows, 0);
+                } else {
+                    for (int i = 0; i < chunk.params.length; i++) {
+                        setStatement(stmtHandler, stmt, sql, chunk.processedParams[i]);
+                        stmt.addBatch();
+                    }
+
+                    chunkRows = stmt.executeBatch();
+                }
+
+                if (chunkRows != null) {
+                    for (int i = 0; i < Math.min(chunkRows.length, chunk.params.length); i++) {
+                        if (chunkRows[i] > 0) {
+                            affected += chunkRows[i];
+                        }
+                    }
+
+                    if (keepRows == true) {
+                        if (rows.length < rowsCount + chunk.params.length) {
+                            rows = copyOf(rows, Math.max(rows.length * 2, rowsCount + chunk.params.length));
+                        }
+
+                        System.arraycopy(chunkRows, 0, rows, rowsCount, Math.min(chunkRows.length, chunk.params.length));
+                    }
+                }
+                rowsCount += chunk.params.length;
+
+                releaseBatchChunk(stmt, chunk);
+
+                if (nextChunk != null || params.hasNext() == true) {
+                    if (chunkCommit == true && this.isTransactionManualMode() == false) {
+                        this.transactionHandler.commit();
+                    }
+
+                    if (nextChunk != null) {
+                        chunkParams = getBatchRows(nextChunk);
+                        nextChunk = null;
+                    } else {
+                        chunkParams = convertBatchRows(params, readBatchRows(params, chunkSize));
+                    }
+                } else {
+                    chunkParams = null;
+                }
+            } while (chunkParams != null);
+
             if (this.isTransactionManualMode() == false) {
                 this.transactionHandler.commit();
             }
 
+            recordExecution(sql, null, startTime, connectionTime, rowsCount, true);
+            executed = true;
+
         } catch (SQLException e) {
+            recordFailure(sql, null, startTime, connectionTime, e);
+
             if (this.isTransactionManualMode() == false) {
                 this.transactionHandler.rollback();
             }
 
-            rethrow(conn, e, sql, (Object[]) params);
+            rethrow(conn, e, sql, (Object[]) (chunkParams != null ? chunkParams : new Object[0]));
+        } catch (MjdbcRuntimeException e) {
+            recordFailure(sql, null, startTime, connectionTime, e);
+
+            if (this.isTransactionManualMode() == false) {
+                this.transactionHandler.rollback();
+            }
+
+            rethrow(conn, new MjdbcSQLException(e), sql, (Object[]) (chunkParams != null ? chunkParams : new Object[0]));
         } finally {
+            if (nextChunk != null) {
+                nextChunk.cancel(true);
+            }
+
+            if (pipeline != null) {
+                pipeline.shutdownNow();
+            }
+
+            // LOBs created for failed chunk should be freed as well
+            if (chunk != null) {
+                try {
+                    releaseBatchChunk(stmt, chunk);
+                } catch (SQLException ex) {
+                    // keeping it quiet, as original exception is already thrown
+                }
+            }
 
             stmtHandler.beforeClose();
-            MjdbcUtils.closeQuietly(stmt);
+            closeStatement(stmt, executed);
             stmtHandler.afterClose();
 
-            this.transactionHandler.closeConnection();
+            closeConnection();
+
+            removeOnceOverride(MjdbcConstants.OVERRIDE_STREAM_LOBS);
         }
 
-        return rows;
+        return new BatchResult(keepRows == true ? copyOf(rows, rowsCount) : null, affected);
     }
 
     /**
@@ -599,7 +917,10 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
      */
     protected <T> T query(StatementHandler stmtHandler, String sql, OutputHandler<T> outputHandler, QueryParameters params)
             throws SQLException {
+        long startTime = startTimer();
         Connection conn = this.transactionHandler.getConnection();
+        long connectionTime = connectionAcquired(startTime);
+        boolean executed = false;
 
         if (sql == null) {
             this.transactionHandler.rollback();
@@ -637,10 +958,12 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
                 stmt = this.createStatement(conn, outputHandler, sql);
             }
 
+            setFetchSize(stmt);
+
             // Input/Output is present only for PreparedStatement and CallableStatement
             if (stmt instanceof PreparedStatement) {
                 processedParams = typeHandler.processInput(stmt, params);
-                stmtHandler.setStatement(stmt, processedParams);
+                setStatement(stmtHandler, stmt, sql, processedParams);
             }
 
             if (stmt instanceof PreparedStatement) {
@@ -654,44 +977,66 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
                 typeHandler.afterExecute(stmt, processedParams, params);
             }
 
-            paramsList = stmtHandler.wrap(stmt);
+            if (isStreamingOutput(stmtHandler, outputHandler) == true) {
 
-            // For LazyOutputHandlers output should not be processed and will be done by cache by itself
-            if ((outputHandler instanceof LazyOutputHandler) == false) {
-                paramsList = typeHandler.processOutput(stmt, paramsList);
+                // query output is passed to output handler row by row, without caching it
+                result = ((StreamingStatementHandler) stmtHandler).wrap(stmt, typeHandler,
+                        ((StreamingOutputHandler<T>) outputHandler).createRowHandler());
             } else {
+                paramsList = stmtHandler.wrap(stmt);
 
-                // limiting size of cache in case LazyOutputHandler is used
-                if (this.overrider.hasOverride(MjdbcConstants.OVERRIDE_LAZY_CACHE_MAX_SIZE) == true) {
-                    ((QueryParametersLazyList) paramsList).setMaxCacheSize((Integer) this.overrider.getOverride(
-                            MjdbcConstants.OVERRIDE_LAZY_CACHE_MAX_SIZE));
+                // For LazyOutputHandlers output should not be processed and will be done by cache by itself
+                if ((outputHandler instanceof LazyOutputHandler) == false) {
+                    paramsList = typeHandler.processOutput(stmt, paramsList);
                 } else {
-                    ((QueryParametersLazyList) paramsList).setMaxCacheSize((Integer) MjdbcConfig.getDefaultLazyCacheMaxSize());
-                }
 
-                // changing the type of lazy output cache
-                if (outputHandler instanceof LazyScrollUpdateOutputHandler) {
-                    ((QueryParametersLazyList) paramsList).setType(QueryParametersLazyList.Type.UPDATE_SCROLL);
-                } else if (outputHandler instanceof LazyScrollOutputHandler) {
-                    ((QueryParametersLazyList) paramsList).setType(QueryParametersLazyList.Type.READ_ONLY_SCROLL);
-                } else if (outputHandler instanceof LazyUpdateOutputHandler) {
-                    ((QueryParametersLazyList) paramsList).setType(QueryParametersLazyList.Type.UPDATE_FORWARD);
+                    // limiting size of cache in case LazyOutputHandler is used
+                    if (this.overrider.hasOverride(MjdbcConstants.OVERRIDE_LAZY_CACHE_MAX_SIZE) == true) {
+                        ((QueryParametersLazyList) paramsList).setMaxCacheSize((Integer) this.overrider.getOverride(
+                                MjdbcConstants.OVERRIDE_LAZY_CACHE_MAX_SIZE));
+                    } else {
+                        ((QueryParametersLazyList) paramsList).setMaxCacheSize((Integer) MjdbcConfig.getDefaultLazyCacheMaxSize());
+                    }
+
+                    ((QueryParametersLazyList) paramsList).setReadAheadSize(getLazyReadAheadSize());
+                    ((QueryParametersLazyList) paramsList).setStreamLobs(TypeHandlerUtils.isStreamLobs(this.overrider));
+
+                    if (this.overrider.hasOverride(MjdbcConstants.OVERRIDE_INT_LAZY_SPILL_TO_DISK) == true) {
+                        ((QueryParametersLazyList) paramsList).setSpillToDisk((Boolean) this.overrider.getOverride(
+                                MjdbcConstants.OVERRIDE_INT_LAZY_SPILL_TO_DISK));
+                    }
+
+                    // changing the type of lazy output cache
+                    if (outputHandler instanceof LazyScrollUpdateOutputHandler) {
+                        ((QueryParametersLazyList) paramsList).setType(QueryParametersLazyList.Type.UPDATE_SCROLL);
+                    } else if (outputHandler instanceof LazyScrollOutputHandler) {
+                        ((QueryParametersLazyList) paramsList).setType(QueryParametersLazyList.Type.READ_ONLY_SCROLL);
+                    } else if (outputHandler instanceof LazyUpdateOutputHandler) {
+                        ((QueryParametersLazyList) paramsList).setType(QueryParametersLazyList.Type.UPDATE_FORWARD);
+                    }
                 }
-            }
 
-            result = outputHandler.handle(paramsList);
+                result = outputHandler.handle(paramsList);
+            }
 
             if (this.isTransactionManualMode() == false) {
                 this.transactionHandler.commit();
             }
 
+            recordExecution(sql, params, startTime, connectionTime, getRowCount(paramsList), false);
+            executed = true;
+
         } catch (SQLException ex) {
+            recordFailure(sql, params, startTime, connectionTime, ex);
+
             if (this.isTransactionManualMode() == false) {
                 this.transactionHandler.rollback();
             }
 
             rethrow(conn, ex, sql, params);
         } catch (MjdbcException ex) {
+            recordFailure(sql, params, startTime, connectionTime, ex);
+
             if (this.isTransactionManualMode() == false) {
                 this.transactionHandler.rollback();
             }
@@ -703,12 +1048,14 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
 
             // Lazy output handler is responsible for closing statement
             if ((outputHandler instanceof LazyOutputHandler) == false) {
-                MjdbcUtils.closeQuietly(stmt);
+                closeStatement(stmt, executed);
             }
 
             stmtHandler.afterClose();
 
-            this.transactionHandler.closeConnection();
+            closeConnection();
+
+            removeOnceOverride(MjdbcConstants.OVERRIDE_STREAM_LOBS);
         }
 
         return result;
@@ -727,7 +1074,10 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
      * @throws SQLException if exception would be thrown by Driver/Database
      */
     protected <T> T update(StatementHandler stmtHandler, String sql, OutputHandler<T> outputHandler, QueryParameters params) throws SQLException {
+        long startTime = startTimer();
         Connection conn = this.transactionHandler.getConnection();
+        long connectionTime = connectionAcquired(startTime);
+        boolean executed = false;
 
         if (sql == null) {
             this.transactionHandler.rollback();
@@ -757,6 +1107,7 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
         List<QueryParameters> paramsList = null;
         T result = null;
         QueryParameters processedParams = null;
+        int updated = -1;
 
         try {
 
@@ -772,15 +1123,17 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
                 stmt = this.prepareStatement(conn, outputHandler, sql, true);
             }
 
+            setFetchSize(stmt);
+
             // Input/Output is present only for PreparedStatement and CallableStatement
             if (stmt instanceof PreparedStatement) {
                 processedParams = typeHandler.processInput(stmt, params);
-                stmtHandler.setStatement(stmt, processedParams);
+                setStatement(stmtHandler, stmt, sql, processedParams);
             }
 
             if (stmt instanceof PreparedStatement) {
                 pstmt = (PreparedStatement) stmt;
-                pstmt.executeUpdate();
+                updated = pstmt.executeUpdate();
             } else {
                 stmt.execute(sql);
             }
@@ -804,6 +1157,14 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
                     ((QueryParametersLazyList) paramsList).setMaxCacheSize((Integer) MjdbcConfig.getDefaultLazyCacheMaxSize());
                 }
 
+                ((QueryParametersLazyList) paramsList).setReadAheadSize(getLazyReadAheadSize());
+                ((QueryParametersLazyList) paramsList).setStreamLobs(TypeHandlerUtils.isStreamLobs(this.overrider));
+
+                if (this.overrider.hasOverride(MjdbcConstants.OVERRIDE_INT_LAZY_SPILL_TO_DISK) == true) {
+                    ((QueryParametersLazyList) paramsList).setSpillToDisk((Boolean) this.overrider.getOverride(
+                            MjdbcConstants.OVERRIDE_INT_LAZY_SPILL_TO_DISK));
+                }
+
                 // changing the type of lazy output cache
                 if (outputHandler instanceof LazyScrollUpdateOutputHandler) {
                     ((QueryParametersLazyList) paramsList).setType(QueryParametersLazyList.Type.UPDATE_SCROLL);
@@ -820,13 +1181,20 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
                 this.transactionHandler.commit();
             }
 
+            recordExecution(sql, params, startTime, connectionTime, updated, false);
+            executed = true;
+
         } catch (SQLException e) {
+            recordFailure(sql, params, startTime, connectionTime, e);
+
             if (this.isTransactionManualMode() == false) {
                 this.transactionHandler.rollback();
             }
 
             rethrow(conn, e, sql, params);
         } catch (MjdbcException ex) {
+            recordFailure(sql, params, startTime, connectionTime, ex);
+
             if (this.isTransactionManualMode() == false) {
                 this.transactionHandler.rollback();
             }
@@ -838,12 +1206,14 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
 
             // Lazy output handler is responsible for closing statement
             if ((outputHandler instanceof LazyOutputHandler) == false) {
-                MjdbcUtils.closeQuietly(stmt);
+                closeStatement(stmt, executed);
             }
 
             stmtHandler.afterClose();
 
-            this.transactionHandler.closeConnection();
+            closeConnection();
+
+            removeOnceOverride(MjdbcConstants.OVERRIDE_STREAM_LOBS);
         }
 
         return result;
@@ -863,7 +1233,10 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
      */
     protected <T> QueryParameters call(StatementHandler stmtHandler, String sql, QueryParameters params, OutputHandler<T> outputHandler)
             throws SQLException {
+        long startTime = startTimer();
         Connection conn = this.transactionHandler.getConnection();
+        long connectionTime = connectionAcquired(startTime);
+        boolean executed = false;
 
         QueryParameters resultParams = new QueryParameters(params);
 
@@ -892,13 +1265,15 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
 
             stmt = this.prepareCall(conn, outputHandler, sql);
 
+            setFetchSize(stmt);
+
             if (params.size() > 0) {
                 processedParams = typeHandler.processInput(stmt, params);
             } else {
                 processedParams = params;
             }
 
-            stmtHandler.setStatement(stmt, processedParams);
+            setStatement(stmtHandler, stmt, sql, processedParams);
 
             stmt.execute();
 
@@ -925,6 +1300,14 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
                     ((QueryParametersLazyList) paramsList).setMaxCacheSize((Integer) MjdbcConfig.getDefaultLazyCacheMaxSize());
                 }
 
+                ((QueryParametersLazyList) paramsList).setReadAheadSize(getLazyReadAheadSize());
+                ((QueryParametersLazyList) paramsList).setStreamLobs(TypeHandlerUtils.isStreamLobs(this.overrider));
+
+                if (this.overrider.hasOverride(MjdbcConstants.OVERRIDE_INT_LAZY_SPILL_TO_DISK) == true) {
+                    ((QueryParametersLazyList) paramsList).setSpillToDisk((Boolean) this.overrider.getOverride(
+                            MjdbcConstants.OVERRIDE_INT_LAZY_SPILL_TO_DISK));
+                }
+
                 // changing the type of lazy output cache
                 if (outputHandler instanceof LazyScrollUpdateOutputHandler) {
                     ((QueryParametersLazyList) paramsList).setType(QueryParametersLazyList.Type.UPDATE_SCROLL);
@@ -942,6 +1325,12 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
             }
 
             if (params.size() > 0) {
+
+                // statement is left open only for lazy output, so only then OUT LOBs can be returned as streams
+                if (outputHandler instanceof LazyOutputHandler && TypeHandlerUtils.isStreamLobs(this.overrider) == true) {
+                    resultParams = TypeHandlerUtils.convertLobsToStreams(resultParams);
+                }
+
                 resultParams = typeHandler.processOutput(stmt, resultParams);
             }
 
@@ -949,13 +1338,20 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
                 this.transactionHandler.commit();
             }
 
+            recordExecution(sql, params, startTime, connectionTime, getRowCount(paramsList), false);
+            executed = true;
+
         } catch (SQLException e) {
+            recordFailure(sql, params, startTime, connectionTime, e);
+
             if (this.isTransactionManualMode() == false) {
                 this.transactionHandler.rollback();
             }
 
             rethrow(conn, e, sql, params);
         } catch (MjdbcException ex) {
+            recordFailure(sql, params, startTime, connectionTime, ex);
+
             if (this.isTransactionManualMode() == false) {
                 this.transactionHandler.rollback();
             }
@@ -967,12 +1363,14 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
 
             // Lazy output handler is responsible for closing statement
             if (outputHandler == null || (outputHandler instanceof LazyOutputHandler) == false) {
-                MjdbcUtils.closeQuietly(stmt);
+                closeStatement(stmt, executed);
             }
 
             stmtHandler.afterClose();
 
-            this.transactionHandler.closeConnection();
+            closeConnection();
+
+            removeOnceOverride(MjdbcConstants.OVERRIDE_STREAM_LOBS);
         }
 
         return resultParams;
@@ -1091,6 +1489,435 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
         return result;
     }
 
+    /**
+     * Sets statement parameters via {@link StatementHandler#setStatement(java.sql.Statement, org.midao.jdbc.core.handlers.model.QueryParameters)}.
+     * SQL string is passed to {@link BaseStatementHandler} (it is used as parameter metadata cache key), unless
+     * setStatement was overridden by it's descendant
+     *
+     * @param stmtHandler {@link StatementHandler} implementation
+     * @param stmt        statement which should be filled
+     * @param sql         SQL string statement was prepared from
+     * @param params      parameter values
+     * @throws SQLException if exception would be thrown by Driver/Database
+     */
+    private void setStatement(StatementHandler stmtHandler, Statement stmt, String sql, QueryParameters params) throws SQLException {
+        if (stmtHandler instanceof BaseStatementHandler && isSqlStatementHandler(stmtHandler.getClass()) == true) {
+            ((BaseStatementHandler) stmtHandler).setStatement(stmt, sql, params);
+        } else {
+            stmtHandler.setStatement(stmt, params);
+        }
+    }
+
+    /**
+     * Returns amount of rows which should be executed by one {@link java.sql.Statement#executeBatch()} call.
+     * Chunk size is read from {@link MjdbcConstants#OVERRIDE_BATCH_CHUNK_SIZE} override
+     * or {@link MjdbcConfig#getDefaultBatchChunkSize()}
+     *
+     * @param batchSize amount of rows in batch
+     * @return chunk size. Is equal to batch size if batch shouldn't be split
+     */
+    private int getBatchChunkSize(int batchSize) {
+        int chunkSize = 0;
+
+        if (this.overrider.hasOverride(MjdbcConstants.OVERRIDE_BATCH_CHUNK_SIZE) == true) {
+            chunkSize = (Integer) this.overrider.getOverride(MjdbcConstants.OVERRIDE_BATCH_CHUNK_SIZE);
+        } else {
+            chunkSize = MjdbcConfig.getDefaultBatchChunkSize();
+        }
+
+        if (chunkSize <= 0 || chunkSize > batchSize) {
+            chunkSize = Math.max(1, batchSize);
+        }
+
+        return chunkSize;
+    }
+
+    /**
+     * Returns if batch INSERT statements should be rewritten into multi-row INSERT statements.
+     * Value is read from {@link MjdbcConstants#OVERRIDE_BATCH_INSERT_REWRITE} override
+     * or {@link MjdbcConfig#isDefaultBatchInsertRewrite()}
+     *
+     * @return true if batch INSERT statements should be rewritten
+     */
+    private boolean isBatchInsertRewrite() {
+        boolean result = false;
+
+        if (this.overrider.hasOverride(MjdbcConstants.OVERRIDE_BATCH_INSERT_REWRITE) == true) {
+            result = (Boolean) this.overrider.getOverride(MjdbcConstants.OVERRIDE_BATCH_INSERT_REWRITE);
+        } else {
+            result = MjdbcConfig.isDefaultBatchInsertRewrite();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns if transaction should be committed after every batch chunk.
+     * Value is read from {@link MjdbcConstants#OVERRIDE_BATCH_CHUNK_COMMIT} override
+     * or {@link MjdbcConfig#isDefaultBatchChunkCommit()}
+     *
+     * @return true if transaction should be committed after every batch chunk
+     */
+    private boolean isBatchChunkCommit() {
+        boolean result = false;
+
+        if (this.overrider.hasOverride(MjdbcConstants.OVERRIDE_BATCH_CHUNK_COMMIT) == true) {
+            result = (Boolean) this.overrider.getOverride(MjdbcConstants.OVERRIDE_BATCH_CHUNK_COMMIT);
+        } else {
+            result = MjdbcConfig.isDefaultBatchChunkCommit();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns if next batch chunk should be read while current one is executed.
+     * Value is read from {@link MjdbcConstants#OVERRIDE_BATCH_PIPELINED} override
+     * or {@link MjdbcConfig#isDefaultBatchPipelined()}
+     *
+     * @return true if batch chunks should be pipelined
+     */
+    private boolean isBatchPipelined() {
+        boolean result = false;
+
+        if (this.overrider.hasOverride(MjdbcConstants.OVERRIDE_BATCH_PIPELINED) == true) {
+            result = (Boolean) this.overrider.getOverride(MjdbcConstants.OVERRIDE_BATCH_PIPELINED);
+        } else {
+            result = MjdbcConfig.isDefaultBatchPipelined();
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads next chunk of batch rows (without converting them)
+     *
+     * @param params    batch rows
+     * @param chunkSize max amount of rows in chunk
+     * @return chunk rows
+     */
+    private Object[] readBatchRows(BatchInputIterator params, int chunkSize) {
+        List<Object> chunkRows = new ArrayList<Object>();
+
+        while (chunkRows.size() < chunkSize && params.hasNext() == true) {
+            chunkRows.add(params.nextRow());
+        }
+
+        return chunkRows.toArray();
+    }
+
+    /**
+     * Converts chunk of batch rows into {@link QueryParameters}
+     *
+     * @param params batch rows
+     * @param rows   chunk rows
+     * @return chunk parameters
+     */
+    private QueryParameters[] convertBatchRows(BatchInputIterator params, Object[] rows) {
+        QueryParameters[] result = new QueryParameters[rows.length];
+
+        for (int i = 0; i < rows.length; i++) {
+            result[i] = params.convert(rows[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates pipeline which converts next batch chunk while current one is executed.
+     * Has single daemon thread and is owned by one batch execution, which shuts it down
+     *
+     * @return batch pipeline
+     */
+    private ExecutorService createBatchPipeline() {
+        return Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "mjdbc-batch-pipeline");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Submits conversion of next batch chunk into pipeline thread
+     *
+     * @param pipeline batch pipeline
+     * @param params   batch rows
+     * @param rows     next chunk rows
+     * @return next chunk future
+     */
+    private Future<QueryParameters[]> submitBatchRows(ExecutorService pipeline, final BatchInputIterator params, final Object[] rows) {
+        return pipeline.submit(new Callable<QueryParameters[]>() {
+            public QueryParameters[] call() throws Exception {
+                return convertBatchRows(params, rows);
+            }
+        });
+    }
+
+    /**
+     * Waits for batch chunk converted by pipeline thread
+     *
+     * @param chunk next chunk future
+     * @return next chunk rows
+     * @throws SQLException if conversion failed or was interrupted
+     */
+    private QueryParameters[] getBatchRows(Future<QueryParameters[]> chunk) throws SQLException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MjdbcSQLException("Batch parameters conversion was interrupted", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof MjdbcRuntimeException) {
+                throw (MjdbcRuntimeException) ex.getCause();
+            }
+            throw new MjdbcSQLException("Batch parameters conversion failed", ex.getCause());
+        }
+    }
+
+    /**
+     * Converts chunk rows via
+     * {@link TypeHandler#processInput(java.sql.Statement, org.midao.jdbc.core.handlers.model.QueryParameters)}
+     *
+     * @param stmt  statement batch is executed with
+     * @param chunk chunk of batch rows
+     * @throws SQLException if exception would be thrown by Driver/Database
+     */
+    private void processBatchChunk(Statement stmt, BatchChunk chunk) throws SQLException {
+        for (int i = 0; i < chunk.params.length; i++) {
+            chunk.processedParams[i] = typeHandler.processInput(stmt, chunk.params[i]);
+        }
+    }
+
+    /**
+     * Releases resources (LOBs, Arrays) created for chunk rows via
+     * {@link TypeHandler#afterExecute(java.sql.Statement, org.midao.jdbc.core.handlers.model.QueryParameters, org.midao.jdbc.core.handlers.model.QueryParameters)}.
+     * Rows which were already released are skipped
+     *
+     * @param stmt  statement batch is executed with
+     * @param chunk chunk of batch rows
+     * @throws SQLException if exception would be thrown by Driver/Database
+     */
+    private void releaseBatchChunk(Statement stmt, BatchChunk chunk) throws SQLException {
+        for (int i = 0; i < chunk.params.length; i++) {
+            if (chunk.processedParams[i] != null) {
+                typeHandler.afterExecute(stmt, chunk.processedParams[i], chunk.params[i]);
+                chunk.processedParams[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Executes chunk of batch rows via multi-row INSERT statements.
+     * Every statement inserts up to {@link MjdbcConfig#getDefaultBatchInsertParameterLimit()} parameters.
+     *
+     * @param stmtHandler    {@link StatementHandler} implementation
+     * @param conn           SQL Connection
+     * @param insertRewriter rewriter of executed INSERT statement
+     * @param insertStmt     statement which inserts insertRowCount rows (is reused, closed after batch execution)
+     * @param insertRowCount amount of rows inserted by insertStmt
+     * @param chunk          chunk of batch rows
+     * @param rows           array of rows affected
+     * @param rowsOffset     position of first chunk row in rows array
+     * @throws SQLException if exception would be thrown by Driver/Database
+     */
+    private void executeInsertChunk(StatementHandler stmtHandler, Connection conn, BatchInsertRewriter insertRewriter,
+                                    PreparedStatement insertStmt, int insertRowCount, BatchChunk chunk, int[] rows, int rowsOffset) throws SQLException {
+        int rowCount = 0;
+        int updated = 0;
+        String insertSql = null;
+        PreparedStatement stmt = null;
+
+        for (int start = 0; start < chunk.params.length; start += rowCount) {
+            rowCount = Math.min(insertRowCount, chunk.params.length - start);
+            insertSql = insertRewriter.getSql(rowCount);
+
+            // statement for usual amount of rows is reused, the rest are closed straight away
+            if (rowCount == insertRowCount) {
+                stmt = insertStmt;
+            } else {
+                stmt = this.prepareStatement(conn, null, insertSql, false);
+            }
+
+            boolean executed = false;
+
+            try {
+                setStatement(stmtHandler, stmt, insertSql, mergeBatchParameters(chunk.processedParams, start, rowCount));
+
+                updated = stmt.executeUpdate();
+                executed = true;
+            } finally {
+                if (stmt != insertStmt) {
+                    closeStatement(stmt, executed);
+                }
+            }
+
+            for (int i = 0; i < rowCount; i++) {
+                rows[rowsOffset + start + i] = (updated == rowCount ? 1 : Statement.SUCCESS_NO_INFO);
+            }
+        }
+    }
+
+    /**
+     * Merges parameters of several batch rows into one positional {@link QueryParameters}
+     *
+     * @param params batch rows parameters
+     * @param start  first merged row
+     * @param count  amount of merged rows
+     * @return merged parameters
+     */
+    private QueryParameters mergeBatchParameters(QueryParameters[] params, int start, int count) {
+        QueryParameters result = new QueryParameters();
+        String parameterName = null;
+        int position = 0;
+
+        for (int i = start; i < start + count; i++) {
+            for (int j = 0; j < params[i].orderSize(); j++) {
+                parameterName = params[i].getNameByPosition(j);
+
+                result.set(Integer.toString(position), params[i].getValue(parameterName),
+                        params[i].getType(parameterName), params[i].getDirection(parameterName));
+                position++;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns copy of array with specified length
+     *
+     * @param array  source array
+     * @param length length of new array
+     * @return array copy
+     */
+    private static int[] copyOf(int[] array, int length) {
+        int[] result = new int[length];
+
+        System.arraycopy(array, 0, result, 0, Math.min(array.length, length));
+
+        return result;
+    }
+
+    /**
+     * Result of batch execution: per row results (if they were kept) and total amount of affected rows
+     */
+    private static class BatchResult {
+        private final int[] rows;
+        private final long affected;
+
+        private BatchResult(int[] rows, long affected) {
+            this.rows = rows;
+            this.affected = affected;
+        }
+    }
+
+    /**
+     * Chunk of batch rows: original parameters and parameters converted by {@link TypeHandler}
+     */
+    private static class BatchChunk {
+        private final QueryParameters[] params;
+        private final QueryParameters[] processedParams;
+
+        private BatchChunk(QueryParameters[] params) {
+            this.params = params;
+            this.processedParams = new QueryParameters[params.length];
+        }
+    }
+
+    /**
+     * Returns prepared statement cache which should be used for statement created for this output handler.
+     * Cache size is read from {@link MjdbcConstants#OVERRIDE_STATEMENT_CACHE_SIZE} override
+     * or {@link MjdbcConfig#getDefaultStatementCacheSize()}
+     * <p/>
+     * Statements are cached only while Connection is kept between executions: manual transaction mode or
+     * QueryRunner created with Connection. In automatic transaction mode pooled Connection is closed after
+     * every execution, so there is nothing to reuse
+     *
+     * @param outputHandler output handler which would process statement output (might be null)
+     * @return prepared statement cache, null if statement shouldn't be cached
+     */
+    private PreparedStatementCache getStatementCache(OutputHandler outputHandler) {
+        int cacheSize = 0;
+
+        if (this.overrider.hasOverride(MjdbcConstants.OVERRIDE_STATEMENT_CACHE_SIZE) == true) {
+            cacheSize = (Integer) this.overrider.getOverride(MjdbcConstants.OVERRIDE_STATEMENT_CACHE_SIZE);
+        } else {
+            cacheSize = MjdbcConfig.getDefaultStatementCacheSize();
+        }
+
+        if (cacheSize > 0) {
+            if (this.statementCache == null) {
+                this.statementCache = new PreparedStatementCache(cacheSize);
+            } else {
+                this.statementCache.setMaxSize(cacheSize);
+            }
+        } else if (this.statementCache != null) {
+            this.statementCache.setMaxSize(0);
+            this.statementCache.clear();
+        }
+
+        // Lazy output handler is responsible for closing statement, so it cannot be returned into cache
+        if (cacheSize <= 0 || outputHandler instanceof LazyOutputHandler) {
+            return null;
+        }
+
+        if (this.connectionKept == false && this.transactionHandler.getManualMode() == false) {
+            return null;
+        }
+
+        return this.statementCache;
+    }
+
+    /**
+     * Closes statement or returns it into prepared statement cache (if it was taken from there).
+     * Statement which failed is always closed, as it's state is unknown
+     *
+     * @param stmt     statement which is no longer used
+     * @param executed true - if statement was executed successfully
+     */
+    private void closeStatement(Statement stmt, boolean executed) {
+        if (this.statementCache != null && executed == true) {
+            this.statementCache.release(stmt);
+        } else if (this.statementCache != null) {
+            this.statementCache.discard(stmt);
+        } else {
+            MjdbcUtils.closeQuietly(stmt);
+        }
+    }
+
+    /**
+     * Closes connection via {@link TransactionHandler#closeConnection()}.
+     * Statements cached for closed connections are closed as well
+     */
+    private void closeConnection() {
+        this.transactionHandler.closeConnection();
+        purgeStatementCache();
+    }
+
+    /**
+     * Removes override which should be used once. Is used for overrides which are read (without removing)
+     * few times during one execution, like {@link MjdbcConstants#OVERRIDE_STREAM_LOBS}
+     *
+     * @param operation name of the operation
+     */
+    private void removeOnceOverride(String operation) {
+        if (this.overrider.hasOverride(operation) == true) {
+            // permanent override is not removed by this call
+            this.overrider.getOverride(operation);
+        }
+    }
+
+    /**
+     * Removes statements of closed connections from prepared statement cache
+     */
+    private void purgeStatementCache() {
+        if (this.statementCache != null) {
+            this.statementCache.purge();
+        }
+    }
+
     /**
      * Creates new TypeHandler instance
      *
@@ -1173,6 +2000,243 @@ public abstract class AbstractQueryRunner implements QueryRunnerService {
         this.exceptionHandler = exceptionHandler;
     }
 
+    /**
+     * Sets fetch size of the statement if it was specified via {@link Overrider} or {@link MjdbcConfig}.
+     * If fetch size wasn't specified - it is reset to 0 (driver default), as statement might be taken from the
+     * statement cache with fetch size set by previous execution
+     *
+     * @param stmt SQL Statement
+     * @throws SQLException if exception would be thrown by Driver/Database
+     */
+    private void setFetchSize(Statement stmt) throws SQLException {
+        int fetchSize = MjdbcConfig.getDefaultFetchSize();
+
+        if (this.overrider.hasOverride(MjdbcConstants.OVERRIDE_FETCH_SIZE) == true) {
+            fetchSize = (Integer) this.overrider.getOverride(MjdbcConstants.OVERRIDE_FETCH_SIZE);
+        }
+
+        if (fetchSize > 0) {
+            stmt.setFetchSize(fetchSize);
+        } else if (stmt.getFetchSize() != 0) {
+            stmt.setFetchSize(0);
+        }
+    }
+
+    /**
+     * Returns amount of rows which should be read at once by lazy query output
+     *
+     * @return lazy read ahead size from {@link Overrider} or {@link MjdbcConfig}
+     */
+    private int getLazyReadAheadSize() {
+        int result = MjdbcConfig.getDefaultLazyReadAheadSize();
+
+        if (this.overrider.hasOverride(MjdbcConstants.OVERRIDE_LAZY_READ_AHEAD_SIZE) == true) {
+            result = (Integer) this.overrider.getOverride(MjdbcConstants.OVERRIDE_LAZY_READ_AHEAD_SIZE);
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks if rows of lazy scrollable output should be kept in spill file (instead of using scrollable ResultSet).
+     * Value is taken from {@link Overrider} or {@link MjdbcConfig} and is passed to lazy query output via
+     * {@link MjdbcConstants#OVERRIDE_INT_LAZY_SPILL_TO_DISK}
+     *
+     * @param outputHandler output handler
+     * @return true - if ResultSet should be read forward only and rows should be kept in spill file
+     */
+    private boolean isLazySpillToDisk(OutputHandler outputHandler) {
+        boolean result = MjdbcConfig.isDefaultLazySpillToDisk();
+
+        if (this.overrider.hasOverride(MjdbcConstants.OVERRIDE_LAZY_SPILL_TO_DISK) == true) {
+            result = (Boolean) this.overrider.getOverride(MjdbcConstants.OVERRIDE_LAZY_SPILL_TO_DISK);
+        }
+
+        // updates are performed via ResultSet, so it has to be scrollable
+        if (outputHandler instanceof LazyUpdateOutputHandler) {
+            result = false;
+        }
+
+        if (result == true) {
+            this.overrider.overrideOnce(MjdbcConstants.OVERRIDE_INT_LAZY_SPILL_TO_DISK, true);
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks if query output can be passed into output handler row by row (see {@link StreamingStatementHandler}).
+     * Streaming is used for non lazy output handlers only if statement handler supports it
+     * (see {@link StreamingStatementHandler#supportsStreaming()}) and type handler doesn't override
+     * {@link TypeHandler#processOutput(Statement, List)}.
+     * Generated keys are not streamed, so streaming is not used if they were requested
+     *
+     * @param stmtHandler   statement handler
+     * @param outputHandler output handler
+     * @return true - if query output can be streamed
+     */
+    private boolean isStreamingOutput(StatementHandler stmtHandler, OutputHandler outputHandler) {
+        boolean result = false;
+
+        if (outputHandler instanceof StreamingOutputHandler && (outputHandler instanceof LazyOutputHandler) == false
+                && stmtHandler instanceof StreamingStatementHandler
+                && this.overrider.hasOverride(MjdbcConstants.OVERRIDE_INT_GET_GENERATED_KEYS) == false) {
+            result = ((StreamingStatementHandler) stmtHandler).supportsStreaming() == true
+                    && isStreamingTypeHandler(this.typeHandler.getClass()) == true;
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks (once for every class) if type handler class allows query output streaming:
+     * list output of type handler should be processed by one of {@link #ROW_BY_ROW_TYPE_HANDLERS}
+     *
+     * @param clazz type handler class
+     * @return true - if class allows query output streaming
+     */
+    private static boolean isStreamingTypeHandler(Class<?> clazz) {
+        Boolean result = streamingHandlers.get(clazz);
+
+        if (result == null) {
+            try {
+                result = ROW_BY_ROW_TYPE_HANDLERS.contains(
+                        clazz.getMethod("processOutput", Statement.class, List.class).getDeclaringClass());
+            } catch (NoSuchMethodException ex) {
+                result = false;
+            }
+
+            streamingHandlers.put(clazz, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks (once for every class) if {@link BaseStatementHandler} descendant doesn't override
+     * {@link StatementHandler#setStatement(Statement, QueryParameters)}, so SQL string can be passed to it
+     *
+     * @param clazz statement handler class
+     * @return true - if setStatement which accepts SQL string can be used
+     */
+    private static boolean isSqlStatementHandler(Class<?> clazz) {
+        Boolean result = sqlStatementHandlers.get(clazz);
+
+        if (result == null) {
+            try {
+                result = clazz.getMethod("setStatement", Statement.class, QueryParameters.class).getDeclaringClass() == BaseStatementHandler.class;
+            } catch (NoSuchMethodException ex) {
+                result = false;
+            }
+
+            sqlStatementHandlers.put(clazz, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns execution start time if execution should be measured (metrics are collected or slow query log is enabled)
+     *
+     * @return current time (nanoseconds), {@link #NOT_MEASURED} if execution is not measured
+     */
+    private long startTimer() {
+        long result = NOT_MEASURED;
+
+        if (MjdbcConfig.getMetricsCollector() != null || SlowQueryLog.isEnabled() == true) {
+            result = System.nanoTime();
+        }
+
+        return result;
+    }
+
+    /**
+     * Records connection acquisition time if execution is measured
+     *
+     * @param startTime execution start time (see {@link #startTimer()})
+     * @return connection acquisition time (nanoseconds), 0 if execution is not measured
+     */
+    private long connectionAcquired(long startTime) {
+        long result = 0;
+
+        if (startTime != NOT_MEASURED) {
+            MetricsCollector metrics = MjdbcConfig.getMetricsCollector();
+
+            result = System.nanoTime() - startTime;
+
+            if (metrics != null) {
+                metrics.connectionAcquired(result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Records successful execution if execution is measured
+     *
+     * @param sql            SQL query
+     * @param params         query parameters (null for batch)
+     * @param startTime      execution start time (see {@link #startTimer()})
+     * @param connectionTime connection acquisition time (nanoseconds)
+     * @param rows           amount of rows returned/updated or batch size. -1 if unknown
+     * @param batch          true if batch was executed
+     */
+    private void recordExecution(String sql, QueryParameters params, long startTime, long connectionTime, int rows, boolean batch) {
+        if (startTime != NOT_MEASURED) {
+            MetricsCollector metrics = MjdbcConfig.getMetricsCollector();
+            long elapsedTime = System.nanoTime() - startTime - connectionTime;
+
+            if (metrics != null) {
+                if (batch == true) {
+                    metrics.batchExecuted(sql, elapsedTime, rows);
+                } else {
+                    metrics.statementExecuted(sql, elapsedTime, rows);
+                }
+            }
+
+            SlowQueryLog.record(sql, params, elapsedTime, connectionTime, rows, null);
+        }
+    }
+
+    /**
+     * Records failed execution if execution is measured
+     *
+     * @param sql            SQL query
+     * @param params         query parameters (null for batch)
+     * @param startTime      execution start time (see {@link #startTimer()})
+     * @param connectionTime connection acquisition time (nanoseconds)
+     * @param error          failure cause
+     */
+    private void recordFailure(String sql, QueryParameters params, long startTime, long connectionTime, Throwable error) {
+        if (startTime != NOT_MEASURED) {
+            MetricsCollector metrics = MjdbcConfig.getMetricsCollector();
+            long elapsedTime = System.nanoTime() - startTime - connectionTime;
+
+            if (metrics != null) {
+                metrics.statementFailed(sql, elapsedTime, error);
+            }
+
+            SlowQueryLog.record(sql, params, elapsedTime, connectionTime, -1, error);
+        }
+    }
+
+    /**
+     * Returns amount of rows in statement output (first element is statement description, not a row)
+     *
+     * @param paramsList statement output
+     * @return amount of rows. -1 if unknown (lazy/streaming output)
+     */
+    private static int getRowCount(List<QueryParameters> paramsList) {
+        int result = -1;
+
+        if (paramsList != null && (paramsList instanceof QueryParametersLazyList) == false) {
+            result = Math.max(paramsList.size() - 1, 0);
+        }
+
+        return result;
+    }
+
     /**
      * Throws a new exception with a more informative error message.
      *
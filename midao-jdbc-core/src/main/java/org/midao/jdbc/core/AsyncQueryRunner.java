@@ -29,6 +29,7 @@ import org.midao.jdbc.core.service.QueryRunnerService;
 
 import java.sql.SQLException;
 import java.sql.Savepoint;
+import java.util.Iterator;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -84,6 +85,56 @@ public class AsyncQueryRunner implements AsyncQueryRunnerService {
         });
     }
 
+    /**
+     * Execute a batch of SQL INSERT, UPDATE, or DELETE queries asynchronously.
+     * Same as {@link QueryRunner#batch(String, java.util.Iterator, int)}, so runner should be {@link QueryRunner}
+     *
+     * @param sql       The SQL to execute. Might be null if rows are {@link InputHandler} instances
+     * @param params    batch rows
+     * @param chunkSize amount of rows executed at once
+     * @return total amount of rows updated
+     * @throws SQLException if runner isn't {@link QueryRunner}
+     */
+    public Future<Long> batch(final String sql, final Iterator<?> params, final int chunkSize) throws SQLException {
+        final QueryRunner runner = getQueryRunner();
+
+        return executorService.submit(new Callable<Long>() {
+
+            /**
+             * {@inheritDoc}
+             */
+            public Long call() throws Exception {
+                return runner.batch(sql, params, chunkSize);
+            }
+
+        });
+    }
+
+    /**
+     * Execute a batch of SQL INSERT, UPDATE, or DELETE queries asynchronously.
+     * Same as {@link QueryRunner#batch(String, Iterable, int)}, so runner should be {@link QueryRunner}
+     *
+     * @param sql       The SQL to execute. Might be null if rows are {@link InputHandler} instances
+     * @param params    batch rows
+     * @param chunkSize amount of rows executed at once
+     * @return total amount of rows updated
+     * @throws SQLException if runner isn't {@link QueryRunner}
+     */
+    public Future<Long> batch(final String sql, final Iterable<?> params, final int chunkSize) throws SQLException {
+        final QueryRunner runner = getQueryRunner();
+
+        return executorService.submit(new Callable<Long>() {
+
+            /**
+             * {@inheritDoc}
+             */
+            public Long call() throws Exception {
+                return runner.batch(sql, params, chunkSize);
+            }
+
+        });
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -404,4 +455,18 @@ public class AsyncQueryRunner implements AsyncQueryRunnerService {
 
         return this;
     }
+
+    /**
+     * Returns runner as {@link QueryRunner}. Used by methods which aren't part of {@link QueryRunnerService}
+     *
+     * @return query runner
+     * @throws SQLException if runner isn't {@link QueryRunner}
+     */
+    private QueryRunner getQueryRunner() throws SQLException {
+        if (queryRunner instanceof QueryRunner == false) {
+            throw new SQLException("Iterator batch is supported only by " + QueryRunner.class.getName());
+        }
+
+        return (QueryRunner) queryRunner;
+    }
 }
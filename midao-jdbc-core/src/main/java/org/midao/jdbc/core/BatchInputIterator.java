@@ -0,0 +1,211 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core;
+
+import org.midao.jdbc.core.exception.MjdbcRuntimeException;
+import org.midao.jdbc.core.handlers.input.InputHandler;
+import org.midao.jdbc.core.handlers.input.named.BeanInputHandler;
+import org.midao.jdbc.core.handlers.input.named.MapInputHandler;
+import org.midao.jdbc.core.handlers.model.QueryParameters;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily converts batch input rows into {@link QueryParameters}.
+ * Used during batch invocation with {@link Iterator} as source.
+ * <p/>
+ * Supported row types:
+ * <ul>
+ * <li>{@link QueryParameters} - used as is</li>
+ * <li>Object[] - positional parameter values</li>
+ * <li>{@link InputHandler} - parameters and SQL are taken from handler</li>
+ * <li>{@link Map} - processed via {@link MapInputHandler}</li>
+ * <li>any other object is treated as Java Bean and processed via {@link BeanInputHandler}</li>
+ * </ul>
+ * Maps, Java Beans and Input Handlers produce parsed SQL, so all of them should produce the same SQL string.
+ * <p/>
+ * Source is read via {@link #hasNext()} and {@link #nextRow()} only, so during pipelined batch execution it is used
+ * by calling thread. Exceptions thrown by source are wrapped into {@link MjdbcRuntimeException}.
+ */
+class BatchInputIterator implements Iterator<QueryParameters> {
+    private final String encodedSql;
+    private final Iterator<?> source;
+
+    private String sql;
+    private boolean sqlParsed = false;
+    private QueryParameters peeked;
+
+    /**
+     * Creates new BatchInputIterator instance
+     *
+     * @param encodedSql SQL string (might be null if rows are Input Handlers)
+     * @param source     source of batch rows
+     */
+    BatchInputIterator(String encodedSql, Iterator<?> source) {
+        this.encodedSql = encodedSql;
+        this.sql = encodedSql;
+        this.source = source;
+    }
+
+    /**
+     * Returns SQL string which should be executed. If rows produce parsed SQL - first row is read
+     *
+     * @return SQL string
+     */
+    public String getQueryString() {
+        if (this.peeked == null && sourceHasNext() == true) {
+            this.peeked = convert(sourceNext());
+        }
+
+        return this.sql;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean hasNext() {
+        return this.peeked != null || sourceHasNext() == true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public QueryParameters next() {
+        return convert(nextRow());
+    }
+
+    /**
+     * Reads next batch row without converting it. Should be converted via {@link #convert(Object)}
+     *
+     * @return next batch row
+     */
+    Object nextRow() {
+        Object result = null;
+
+        if (this.peeked != null) {
+            result = this.peeked;
+            this.peeked = null;
+        } else if (sourceHasNext() == true) {
+            result = sourceNext();
+        } else {
+            throw new NoSuchElementException();
+        }
+
+        return result;
+    }
+
+    /**
+     * Is not supported
+     */
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Converts batch row into {@link QueryParameters}.
+     * Doesn't use source, so might be invoked by separate thread (one at a time)
+     *
+     * @param row batch row
+     * @return query parameters
+     */
+    QueryParameters convert(Object row) {
+        QueryParameters result = null;
+        InputHandler inputHandler = null;
+
+        if (row instanceof QueryParameters) {
+            result = (QueryParameters) row;
+        } else if (row instanceof Object[]) {
+            result = new QueryParameters((Object[]) row);
+        } else if (row instanceof InputHandler) {
+            inputHandler = (InputHandler) row;
+        } else if (row instanceof Map) {
+            inputHandler = new MapInputHandler(this.encodedSql, toStringKeyMap((Map<?, ?>) row));
+        } else if (row != null) {
+            inputHandler = new BeanInputHandler<Object>(this.encodedSql, row);
+        } else {
+            throw new MjdbcRuntimeException("Batch row cannot be null");
+        }
+
+        if (inputHandler != null) {
+            result = inputHandler.getQueryParameters();
+
+            if (this.sqlParsed == false) {
+                this.sql = inputHandler.getQueryString();
+                this.sqlParsed = true;
+            } else if (this.sql.equals(inputHandler.getQueryString()) == false) {
+                throw new MjdbcRuntimeException("All batch rows should share the same SQL query and the same parameters set");
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Copies Map batch row into Map with String keys
+     *
+     * @param row batch row
+     * @return Map with String keys
+     */
+    private Map<String, Object> toStringKeyMap(Map<?, ?> row) {
+        Map<String, Object> result = new HashMap<String, Object>(row.size() * 2);
+
+        for (Map.Entry<?, ?> entry : row.entrySet()) {
+            if ((entry.getKey() instanceof String) == false) {
+                throw new MjdbcRuntimeException("Batch row Map keys should be Strings. Was: " + entry.getKey());
+            }
+
+            result.put((String) entry.getKey(), entry.getValue());
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks if source has more rows
+     *
+     * @return true if source has more rows
+     */
+    private boolean sourceHasNext() {
+        try {
+            return this.source.hasNext();
+        } catch (MjdbcRuntimeException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            throw new MjdbcRuntimeException("Failed to read batch row", ex);
+        }
+    }
+
+    /**
+     * Reads next row from source
+     *
+     * @return next source row
+     */
+    private Object sourceNext() {
+        try {
+            return this.source.next();
+        } catch (MjdbcRuntimeException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            throw new MjdbcRuntimeException("Failed to read batch row", ex);
+        }
+    }
+}
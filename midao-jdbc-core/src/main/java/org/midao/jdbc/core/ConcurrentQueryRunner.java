@@ -0,0 +1,397 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core;
+
+import org.midao.jdbc.core.handlers.input.InputHandler;
+import org.midao.jdbc.core.handlers.output.OutputHandler;
+import org.midao.jdbc.core.handlers.output.lazy.LazyOutputHandler;
+import org.midao.jdbc.core.handlers.type.TypeHandler;
+import org.midao.jdbc.core.profiler.ProfilerFactory;
+import org.midao.jdbc.core.service.QueryRunnerService;
+import org.midao.jdbc.core.service.QueryTask;
+import org.midao.jdbc.core.statement.StatementHandler;
+import org.midao.jdbc.core.transaction.TransactionHandler;
+import org.midao.jdbc.core.utils.AssertUtils;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Asynchronous query runner which executes every task on it's own {@link QueryRunnerService}.
+ * <p/>
+ * Unlike {@link AsyncQueryRunner} (which shares one runner, and therefore one transaction handler,
+ * between all tasks) every task receives new runner with independent {@link TransactionHandler}, so
+ * tasks might be executed in parallel and might use manual transaction mode.
+ * <p/>
+ * Amount of tasks which are executed at the same time is limited per DataSource: the limit is shared by all runners
+ * of the same DataSource. Tasks above the limit are queued and are handed to the executor only after free slot
+ * is obtained, so waiting tasks don't occupy executor threads.
+ * <p/>
+ * Runner should be closed via {@link #close()} once it is not needed anymore.
+ * <p/>
+ * Query output can also be streamed via {@link #publish(String, org.midao.jdbc.core.handlers.output.lazy.LazyOutputHandler, Object...)}.
+ */
+public class ConcurrentQueryRunner {
+
+    private final DataSource dataSource;
+    private final ExecutorService executorService;
+    private final Class<? extends TypeHandler> typeHandlerClazz;
+    private final Class<? extends StatementHandler> statementHandlerClazz;
+    private final TransactionHandler transactionHandler;
+    private final InFlightLimiter limiter;
+
+    // true - executor is shut down when runner is closed
+    private final boolean shutdownExecutor;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates new ConcurrentQueryRunner instance
+     *
+     * @param ds              SQL DataSource
+     * @param executorService {@link ExecutorService} implementation. It is shut down when runner is closed
+     * @param maxInFlight     max amount of tasks which are executed at the same time for this DataSource.
+     *                        Should be the same for all runners of the DataSource
+     */
+    public ConcurrentQueryRunner(DataSource ds, ExecutorService executorService, int maxInFlight) {
+        this(ds, null, null, null, executorService, maxInFlight);
+    }
+
+    /**
+     * Creates new ConcurrentQueryRunner instance
+     *
+     * @param ds                    SQL DataSource
+     * @param typeHandlerClazz      TypeHandler implementation class (null - default)
+     * @param statementHandlerClazz StatementHandler implementation class (null - default)
+     * @param transactionHandler    TransactionHandler which is used as prototype: every task receives
+     *                              new instance created via {@link TransactionHandler#newInstance(javax.sql.DataSource)}.
+     *                              null - default TransactionHandler
+     * @param executorService       {@link ExecutorService} implementation. It is shut down when runner is closed
+     * @param maxInFlight           max amount of tasks which are executed at the same time for this DataSource.
+     *                              Should be the same for all runners of the DataSource
+     */
+    public ConcurrentQueryRunner(DataSource ds, Class<? extends TypeHandler> typeHandlerClazz,
+                                 Class<? extends StatementHandler> statementHandlerClazz, TransactionHandler transactionHandler,
+                                 ExecutorService executorService, int maxInFlight) {
+        this(ds, typeHandlerClazz, statementHandlerClazz, transactionHandler, executorService, true, maxInFlight);
+    }
+
+    /**
+     * Creates new ConcurrentQueryRunner instance
+     *
+     * @param ds                    SQL DataSource
+     * @param typeHandlerClazz      TypeHandler implementation class (null - default)
+     * @param statementHandlerClazz StatementHandler implementation class (null - default)
+     * @param transactionHandler    TransactionHandler prototype (null - default TransactionHandler)
+     * @param executorService       {@link ExecutorService} implementation
+     * @param shutdownExecutor      true - executor is shut down when runner is closed. Should be false if executor
+     *                              is shared with other runners
+     * @param maxInFlight           max amount of tasks which are executed at the same time for this DataSource
+     */
+    ConcurrentQueryRunner(DataSource ds, Class<? extends TypeHandler> typeHandlerClazz,
+                          Class<? extends StatementHandler> statementHandlerClazz, TransactionHandler transactionHandler,
+                          ExecutorService executorService, boolean shutdownExecutor, int maxInFlight) {
+        AssertUtils.assertNotNull(ds, "DataSource cannot be null");
+        AssertUtils.assertNotNull(executorService, "ExecutorService cannot be null");
+
+        this.limiter = InFlightLimiter.getInstance(ds, maxInFlight);
+        this.dataSource = ds;
+        this.typeHandlerClazz = typeHandlerClazz;
+        this.statementHandlerClazz = statementHandlerClazz;
+        this.transactionHandler = transactionHandler;
+        this.executorService = executorService;
+        this.shutdownExecutor = shutdownExecutor;
+    }
+
+    /**
+     * Submits task for execution. If all in-flight slots are taken - task is queued till one of them is free
+     *
+     * @param task task
+     * @param <T>  task result type
+     * @return task result
+     */
+    public <T> QueryFuture<T> submit(final QueryTask<T> task) {
+        QueryFuture<T> result = newFuture(new RunnerCallable<T>() {
+            public T call(QueryRunnerService runner) throws Exception {
+                return task.execute(runner);
+            }
+        });
+
+        dispatch(result);
+
+        return result;
+    }
+
+    /**
+     * Submits query for execution.
+     *
+     * @param sql           SQL query
+     * @param outputHandler handler which would be used to handle query output
+     * @param params        query parameters
+     * @param <T>           query result type
+     * @return query result
+     * @see QueryRunnerService#query(String, org.midao.jdbc.core.handlers.output.OutputHandler, Object...)
+     */
+    public <T> QueryFuture<T> query(final String sql, final OutputHandler<T> outputHandler, final Object... params) {
+        return submit(new QueryTask<T>() {
+            public T execute(QueryRunnerService runner) throws SQLException {
+                return runner.query(sql, outputHandler, params);
+            }
+        });
+    }
+
+    /**
+     * Submits query for execution.
+     *
+     * @param inputHandler  handler which would be used to handle query input
+     * @param outputHandler handler which would be used to handle query output
+     * @param <T>           query result type
+     * @return query result
+     * @see QueryRunnerService#query(org.midao.jdbc.core.handlers.input.InputHandler, org.midao.jdbc.core.handlers.output.OutputHandler)
+     */
+    public <T> QueryFuture<T> query(final InputHandler inputHandler, final OutputHandler<T> outputHandler) {
+        return submit(new QueryTask<T>() {
+            public T execute(QueryRunnerService runner) throws SQLException {
+                return runner.query(inputHandler, outputHandler);
+            }
+        });
+    }
+
+    /**
+     * Submits update for execution.
+     *
+     * @param sql    SQL query
+     * @param params query parameters
+     * @return amount of updated rows
+     * @see QueryRunnerService#update(String, Object...)
+     */
+    public QueryFuture<Integer> update(final String sql, final Object... params) {
+        return submit(new QueryTask<Integer>() {
+            public Integer execute(QueryRunnerService runner) throws SQLException {
+                return runner.update(sql, params);
+            }
+        });
+    }
+
+    /**
+     * Submits update for execution.
+     *
+     * @param inputHandler handler which would be used to handle query input
+     * @return amount of updated rows
+     * @see QueryRunnerService#update(org.midao.jdbc.core.handlers.input.InputHandler)
+     */
+    public QueryFuture<Integer> update(final InputHandler inputHandler) {
+        return submit(new QueryTask<Integer>() {
+            public Integer execute(QueryRunnerService runner) throws SQLException {
+                return runner.update(inputHandler);
+            }
+        });
+    }
+
+    /**
+     * Returns max amount of tasks which are executed at the same time for the DataSource
+     *
+     * @return max amount of in-flight tasks
+     */
+    public int getMaxInFlight() {
+        return limiter.getMaxInFlight();
+    }
+
+    /**
+     * Returns amount of tasks which are executed at the moment for the DataSource (by all its runners)
+     *
+     * @return amount of in-flight tasks
+     */
+    public int getInFlight() {
+        return limiter.getInFlight();
+    }
+
+    /**
+     * Returns amount of tasks which are waiting for free in-flight slot for the DataSource (estimate)
+     *
+     * @return amount of tasks waiting for free slot
+     */
+    public int getWaiting() {
+        return limiter.getWaiting();
+    }
+
+    /**
+     * Closes runner: new tasks are rejected, tasks which are waiting for in-flight slot fail with
+     * {@link RejectedExecutionException} once slot is obtained. Tasks which are already executed are finished.
+     * <p/>
+     * Executor is shut down (without waiting for executed tasks), unless it is shared with other runners
+     */
+    public void close() {
+        closed = true;
+
+        if (shutdownExecutor == true) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Returns if runner was closed
+     *
+     * @return true - if runner was closed via {@link #close()}
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Submits query for reactive execution. Query is executed only after subscriber requests first element,
+     * rows are read only as they are requested.
+     * <p/>
+     * Unlike usual lazy output handler usage - there is no need to use manual transaction mode or close resources:
+     * they are released after publishing is completed, failed or cancelled.
+     *
+     * @param sql           SQL query
+     * @param outputHandler lazy output handler (for example {@link org.midao.jdbc.core.handlers.output.lazy.BeanLazyOutputHandler})
+     * @param params        query parameters
+     * @param <S>           published element type
+     * @return query output publisher
+     */
+    public <S> QueryPublisher<S> publish(final String sql, final LazyOutputHandler<? extends LazyOutputHandler, S> outputHandler, final Object... params) {
+        return new QueryPublisher<S>(this, new QueryTask<LazyOutputHandler>() {
+            public LazyOutputHandler execute(QueryRunnerService runner) throws SQLException {
+                return runner.query(sql, outputHandler, params);
+            }
+        });
+    }
+
+    /**
+     * Submits query for reactive execution.
+     *
+     * @param inputHandler  handler which would be used to handle query input
+     * @param outputHandler lazy output handler (for example {@link org.midao.jdbc.core.handlers.output.lazy.BeanLazyOutputHandler})
+     * @param <S>           published element type
+     * @return query output publisher
+     * @see #publish(String, org.midao.jdbc.core.handlers.output.lazy.LazyOutputHandler, Object...)
+     */
+    public <S> QueryPublisher<S> publish(final InputHandler inputHandler, final LazyOutputHandler<? extends LazyOutputHandler, S> outputHandler) {
+        return new QueryPublisher<S>(this, new QueryTask<LazyOutputHandler>() {
+            public LazyOutputHandler execute(QueryRunnerService runner) throws SQLException {
+                return runner.query(inputHandler, outputHandler);
+            }
+        });
+    }
+
+    /**
+     * Creates new {@link QueryRunnerService} instance for the task
+     *
+     * @param statementHandlerClazz StatementHandler implementation class (null - default)
+     * @return new {@link QueryRunnerService} instance
+     */
+    protected QueryRunnerService createQueryRunner(Class<? extends StatementHandler> statementHandlerClazz) {
+        QueryRunner runner = new QueryRunner(dataSource, typeHandlerClazz, statementHandlerClazz,
+                DataSourceEnvironment.getInstance(dataSource));
+
+        if (transactionHandler != null) {
+            runner.setTransactionHandler(transactionHandler.newInstance(dataSource));
+        }
+
+        return (QueryRunnerService) ProfilerFactory.newInstance(runner);
+    }
+
+    /**
+     * Creates new future which would execute specified callable. Future should be submitted via
+     * {@link #dispatch(QueryFuture)}, so it is executed only while holding in-flight slot
+     *
+     * @param callable task
+     * @param <T>      task result type
+     * @return new (not submitted) future
+     */
+    <T> QueryFuture<T> newFuture(final RunnerCallable<T> callable) {
+        return new QueryFuture<T>(this, new Callable<T>() {
+            public T call() throws Exception {
+                return callable.call(createQueryRunner(statementHandlerClazz));
+            }
+        });
+    }
+
+    /**
+     * Submits future for execution as soon as in-flight slot is obtained.
+     * Slot is released by the future after it is executed
+     *
+     * @param future future
+     */
+    void dispatch(final QueryFuture<?> future) {
+        if (closed == true) {
+            future.setException(new RejectedExecutionException("Runner is closed"));
+        } else {
+            acquireInFlight(new InFlightTask() {
+                public void acquired() {
+                    future.start();
+                }
+            });
+        }
+    }
+
+    /**
+     * Submits task for execution
+     *
+     * @param task task
+     * @throws RejectedExecutionException if runner is closed or if executor rejected the task
+     */
+    void execute(Runnable task) {
+        if (closed == true) {
+            throw new RejectedExecutionException("Runner is closed");
+        }
+
+        executorService.execute(task);
+    }
+
+    /**
+     * Requests in-flight slot. Doesn't block: task is notified (possibly in current thread) once slot is obtained
+     *
+     * @param task task which is waiting for slot
+     */
+    void acquireInFlight(InFlightTask task) {
+        limiter.acquire(task);
+    }
+
+    /**
+     * Releases in-flight slot and hands it to the next waiting task (if any)
+     */
+    void releaseInFlight() {
+        limiter.release();
+    }
+
+    /**
+     * Task which is waiting for in-flight slot
+     */
+    interface InFlightTask {
+        /**
+         * Invoked once in-flight slot is obtained. Slot should be released via {@link #releaseInFlight()}.
+         * Implementation should not block as it might be invoked by thread which released the slot
+         */
+        void acquired();
+    }
+
+    /**
+     * Task which receives it's own {@link QueryRunnerService}
+     *
+     * @param <T> task result type
+     */
+    interface RunnerCallable<T> {
+        T call(QueryRunnerService runner) throws Exception;
+    }
+}
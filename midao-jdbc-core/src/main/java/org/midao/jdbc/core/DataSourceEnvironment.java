@@ -0,0 +1,200 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core;
+
+import org.midao.jdbc.core.exception.ExceptionHandler;
+import org.midao.jdbc.core.handlers.utils.MappingUtils;
+import org.midao.jdbc.core.metadata.MetadataHandler;
+import org.midao.jdbc.core.metadata.MetadataUtils;
+import org.midao.jdbc.core.utils.MjdbcUtils;
+import org.midao.jdbc.core.wrappers.WeakDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * DataSource environment: database product name, JDBC level, exception handler and metadata handler.
+ * <p/>
+ * Environment is detected once (one connection is borrowed from DataSource) and is shared by all
+ * {@link QueryRunner} instances created via {@link MjdbcFactory#getQueryRunner(javax.sql.DataSource)} for that DataSource,
+ * so creating new QueryRunner doesn't require connection.
+ * <p/>
+ * If environment couldn't be detected (connection failed) - it is not cached and detection is repeated next time.
+ * Cached environments are removed once default exception/metadata handler is changed via {@link MjdbcConfig}.
+ */
+public class DataSourceEnvironment {
+    private static final String DB_NAME_ABSENT = "absent";
+
+    // cached environments. Environment references DataSource only weakly (see WeakDataSourceProxy), so entry is
+    // removed once DataSource is collected
+    private static final Map<DataSource, DataSourceEnvironment> environments = new WeakHashMap<DataSource, DataSourceEnvironment>();
+
+    private final String dbName;
+    private final boolean jdbc3;
+    private final ExceptionHandler exceptionHandler;
+    private final MetadataHandler metadataHandler;
+
+    /**
+     * Creates new DataSourceEnvironment instance
+     *
+     * @param dbName           database product name (processed by {@link MetadataUtils#processDatabaseProductName(String)})
+     * @param jdbc3            true - if driver supports only JDBC3
+     * @param exceptionHandler exception handler for this database
+     * @param metadataHandler  metadata handler for this DataSource
+     */
+    DataSourceEnvironment(String dbName, boolean jdbc3, ExceptionHandler exceptionHandler, MetadataHandler metadataHandler) {
+        this.dbName = dbName;
+        this.jdbc3 = jdbc3;
+        this.exceptionHandler = exceptionHandler;
+        this.metadataHandler = metadataHandler;
+    }
+
+    /**
+     * Returns environment of the DataSource. It is detected only during first invocation (for every DataSource)
+     *
+     * @param ds SQL DataSource
+     * @return DataSource environment
+     */
+    public static DataSourceEnvironment getInstance(DataSource ds) {
+        DataSourceEnvironment result = getCached(ds);
+
+        if (result == null) {
+            // detection borrows connection, so it is performed without holding the lock. If environment was
+            // detected by other thread at the same time - the one which was cached first is returned
+            DataSourceEnvironment detected = detect(ds);
+
+            if (DB_NAME_ABSENT.equals(detected.getDbName()) == false) {
+                synchronized (environments) {
+                    result = getCached(ds);
+
+                    if (result == null) {
+                        environments.put(ds, detected);
+                    }
+                }
+            }
+
+            if (result == null) {
+                result = detected;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns cached environment of the DataSource
+     *
+     * @param ds SQL DataSource
+     * @return cached environment, null if it wasn't detected yet (or was collected)
+     */
+    private static DataSourceEnvironment getCached(DataSource ds) {
+        synchronized (environments) {
+            return environments.get(ds);
+        }
+    }
+
+    /**
+     * Removes cached environment of the DataSource, so it is detected again next time
+     *
+     * @param ds SQL DataSource
+     */
+    public static void remove(DataSource ds) {
+        synchronized (environments) {
+            environments.remove(ds);
+        }
+    }
+
+    /**
+     * Removes all cached environments. Is invoked by {@link MjdbcConfig} when default exception/metadata handler is changed
+     */
+    public static void clear() {
+        synchronized (environments) {
+            environments.clear();
+        }
+    }
+
+    /**
+     * Detects DataSource environment (borrows one connection)
+     *
+     * @param ds SQL DataSource
+     * @return new DataSourceEnvironment instance
+     */
+    static DataSourceEnvironment detect(DataSource ds) {
+        String dbName = DB_NAME_ABSENT;
+        boolean jdbc3 = false;
+        Connection conn = null;
+
+        try {
+            conn = ds.getConnection();
+
+            // JDBC3 drivers do not implement createClob
+            if (MappingUtils.hasFunction(conn, "createClob", new Class[]{}) == false) {
+                jdbc3 = true;
+            }
+
+            dbName = MetadataUtils.processDatabaseProductName(conn.getMetaData().getDatabaseProductName());
+        } catch (Exception ex) {
+            jdbc3 = true;
+        } finally {
+            MjdbcUtils.closeQuietly(conn);
+        }
+
+        // metadata handler is cached together with environment, so it receives weak DataSource reference
+        return new DataSourceEnvironment(dbName, jdbc3, MjdbcConfig.getDefaultExceptionHandler(dbName),
+                MjdbcConfig.getDefaultMetadataHandler(WeakDataSourceProxy.newInstance(ds)));
+    }
+
+    /**
+     * Returns database product name
+     *
+     * @return database product name
+     */
+    public String getDbName() {
+        return this.dbName;
+    }
+
+    /**
+     * Returns if driver supports only JDBC3
+     *
+     * @return true - if driver supports only JDBC3
+     */
+    public boolean isJDBC3() {
+        return this.jdbc3;
+    }
+
+    /**
+     * Returns exception handler for this database
+     *
+     * @return exception handler
+     */
+    public ExceptionHandler getExceptionHandler() {
+        return this.exceptionHandler;
+    }
+
+    /**
+     * Returns metadata handler for this DataSource
+     *
+     * @return metadata handler
+     */
+    public MetadataHandler getMetadataHandler() {
+        return this.metadataHandler;
+    }
+}
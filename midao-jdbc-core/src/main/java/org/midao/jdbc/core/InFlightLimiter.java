@@ -0,0 +1,148 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.midao.jdbc.core;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits amount of {@link ConcurrentQueryRunner} tasks which are executed at the same time.
+ * <p/>
+ * Limit is shared by all runners of the same DataSource (see {@link #getInstance(javax.sql.DataSource, int)}), as
+ * it protects DataSource (connection pool) rather than the runner. Tasks above the limit are queued and are notified
+ * once slot is free, so waiting doesn't block any thread.
+ */
+class InFlightLimiter {
+
+    // limiters of DataSources. Limiter doesn't reference DataSource, so entry is removed once DataSource is collected
+    private static final Map<DataSource, InFlightLimiter> limiters = new WeakHashMap<DataSource, InFlightLimiter>();
+
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+
+    // tasks which are waiting for free in-flight slot
+    private final Queue<ConcurrentQueryRunner.InFlightTask> waiting = new ConcurrentLinkedQueue<ConcurrentQueryRunner.InFlightTask>();
+
+    /**
+     * Creates new InFlightLimiter instance
+     *
+     * @param maxInFlight max amount of tasks which are executed at the same time
+     */
+    InFlightLimiter(int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in-flight tasks should be positive");
+        }
+
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Returns limiter of the DataSource. Limiter is created during first invocation (for every DataSource)
+     *
+     * @param ds          SQL DataSource
+     * @param maxInFlight max amount of tasks which are executed at the same time for this DataSource
+     * @return DataSource limiter
+     * @throws IllegalArgumentException if limit is not positive or if DataSource already has different limit
+     */
+    static InFlightLimiter getInstance(DataSource ds, int maxInFlight) {
+        InFlightLimiter result = null;
+
+        synchronized (limiters) {
+            result = limiters.get(ds);
+
+            if (result == null) {
+                result = new InFlightLimiter(maxInFlight);
+
+                limiters.put(ds, result);
+            } else if (result.getMaxInFlight() != maxInFlight) {
+                throw new IllegalArgumentException("DataSource in-flight limit is already set to " + result.getMaxInFlight() +
+                        ". Requested: " + maxInFlight);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns max amount of tasks which are executed at the same time
+     *
+     * @return max amount of in-flight tasks
+     */
+    int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Returns amount of tasks which are executed at the moment
+     *
+     * @return amount of in-flight tasks
+     */
+    int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    /**
+     * Returns amount of tasks which are waiting for free in-flight slot (estimate)
+     *
+     * @return amount of tasks waiting for free slot
+     */
+    int getWaiting() {
+        return waiting.size();
+    }
+
+    /**
+     * Requests in-flight slot. Doesn't block: task is notified (possibly in current thread) once slot is obtained
+     *
+     * @param task task which is waiting for slot
+     */
+    void acquire(ConcurrentQueryRunner.InFlightTask task) {
+        waiting.add(task);
+
+        dispatchWaiting();
+    }
+
+    /**
+     * Releases in-flight slot and hands it to the next waiting task (if any)
+     */
+    void release() {
+        inFlight.release();
+
+        dispatchWaiting();
+    }
+
+    /**
+     * Hands free in-flight slots to waiting tasks
+     */
+    private void dispatchWaiting() {
+        while (waiting.isEmpty() == false && inFlight.tryAcquire() == true) {
+            ConcurrentQueryRunner.InFlightTask task = waiting.poll();
+
+            if (task != null) {
+                task.acquired();
+            } else {
+                // queue was drained by other thread - returning the slot and checking again
+                inFlight.release();
+            }
+        }
+    }
+}
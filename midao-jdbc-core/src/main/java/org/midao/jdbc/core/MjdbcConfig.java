@@ -24,13 +24,17 @@ import org.midao.jdbc.core.exception.MjdbcRuntimeException;
 import org.midao.jdbc.core.handlers.output.OutputHandler;
 import org.midao.jdbc.core.handlers.type.EmptyTypeHandler;
 import org.midao.jdbc.core.handlers.type.TypeHandler;
+import org.midao.jdbc.core.handlers.utils.BeanAccessorFactory;
+import org.midao.jdbc.core.handlers.utils.GeneratedBeanAccessorFactory;
 import org.midao.jdbc.core.metadata.BaseMetadataHandler;
 import org.midao.jdbc.core.metadata.MetadataHandler;
+import org.midao.jdbc.core.metrics.MetricsCollector;
 import org.midao.jdbc.core.processor.BasicQueryInputProcessor;
 import org.midao.jdbc.core.processor.BasicQueryOutputProcessor;
 import org.midao.jdbc.core.processor.QueryInputProcessor;
 import org.midao.jdbc.core.processor.QueryOutputProcessor;
 import org.midao.jdbc.core.statement.LazyStatementHandler;
+import org.midao.jdbc.core.statement.ParameterMetadataCache;
 import org.midao.jdbc.core.statement.StatementHandler;
 import org.midao.jdbc.core.transaction.BaseTransactionHandler;
 import org.midao.jdbc.core.transaction.TransactionHandler;
@@ -67,10 +71,14 @@ public class MjdbcConfig {
 
     // query parameters processor config
     private boolean queryInputProcessorUseCache = true;
+    private int queryInputProcessorCacheSize = 256;
 
     // Output Handler processor
     private QueryOutputProcessor defaultQueryOutputProcessor = new BasicQueryOutputProcessor();
 
+    // Bean accessor factory (used to read/write bean properties)
+    private BeanAccessorFactory defaultBeanAccessorFactory = new GeneratedBeanAccessorFactory();
+
     // Statement handler config
     private Class<? extends StatementHandler> defaultStatementHandler = LazyStatementHandler.class;
 
@@ -93,9 +101,47 @@ public class MjdbcConfig {
     private boolean profilerEnabled = false;
     private String profilerOutputFormat = "Invoked class [%s].\n - Method [%s{}]\n - Args   [%s]\n - Time   [%5.3f] sec ";
 
+    // Slow query log config. 0 - disabled
+    private long slowQueryThreshold = 0;
+    private int slowQuerySampleRate = 0;
+    private String slowQueryOutputFormat = "%s query.\n - SQL    [%s]\n - Params [%s]\n - Rows   [%d]\n - Time   [%.3f] ms\n - Conn   [%.3f] ms\n - Error  [%s]";
+
     // Lazy query max cache size
     private int defaultLazyCacheMaxSize = 20;
 
+    // Amount of rows read at once by lazy query output (forward only). 0 - rows are read one by one
+    private int defaultLazyReadAheadSize = 0;
+
+    // Keep rows evicted from lazy scrollable (read only) query output in temporary file
+    private boolean defaultLazySpillToDisk = false;
+
+    // Statement fetch size. 0 - driver default is used
+    private int defaultFetchSize = 0;
+
+    // Parameter metadata validation mode
+    private ParameterMetadataCache.ValidationMode defaultParameterValidationMode = ParameterMetadataCache.ValidationMode.ALWAYS;
+
+    // Prepared statement cache size (per connection). 0 - statements are not cached
+    private int defaultStatementCacheSize = 0;
+
+    // LOB streaming. If false - LOBs are fully read into memory
+    private boolean defaultStreamLobs = false;
+
+    // Batch chunk size. 0 - whole batch is executed at once
+    private int defaultBatchChunkSize = 0;
+    private boolean defaultBatchChunkCommit = false;
+    private boolean defaultBatchPipelined = false;
+
+    // Batch INSERT rewriting into multi-row INSERT
+    private boolean defaultBatchInsertRewrite = false;
+    private int defaultBatchInsertParameterLimit = 1000;
+
+    // Direct connection mode: connection state is cached and connection is returned without Proxy
+    private boolean defaultDirectConnection = false;
+
+    // Metrics collector. null - metrics are not collected
+    private MetricsCollector metricsCollector = null;
+
     // default output handlers configuration for xml input/output handlers
     private static String OUTPUT_HANDLER_PACKAGE = "org.midao.jdbc.core.handlers.output.";
 
@@ -152,6 +198,25 @@ public class MjdbcConfig {
         instance().queryInputProcessorUseCache = queryInputProcessorUseCache;
     }
 
+    /**
+     * Returns max amount of processed SQL strings cached by query input processor
+     *
+     * @return max amount of cached processed SQL strings
+     */
+    public static int getQueryInputProcessorCacheSize() {
+        return instance().queryInputProcessorCacheSize;
+    }
+
+    /**
+     * Sets max amount of processed SQL strings cached by query input processor.
+     * New value is applied during next put into the cache
+     *
+     * @param queryInputProcessorCacheSize max amount of cached processed SQL strings
+     */
+    public static void setQueryInputProcessorCacheSize(int queryInputProcessorCacheSize) {
+        instance().queryInputProcessorCacheSize = queryInputProcessorCacheSize;
+    }
+
     /**
      * Returns default {@link QueryOutputProcessor} implementation
      *
@@ -170,6 +235,25 @@ public class MjdbcConfig {
         instance().defaultQueryOutputProcessor = defaultQueryOutputProcessor;
     }
 
+    /**
+     * Returns default {@link BeanAccessorFactory} implementation
+     *
+     * @return default {@link BeanAccessorFactory} implementation
+     */
+    public static BeanAccessorFactory getDefaultBeanAccessorFactory() {
+        return instance().defaultBeanAccessorFactory;
+    }
+
+    /**
+     * Specifies default {@link BeanAccessorFactory} implementation.
+     * Used by {@link BasicQueryOutputProcessor} and Bean input handlers to read/write bean properties
+     *
+     * @param defaultBeanAccessorFactory new default {@link BeanAccessorFactory} implementation
+     */
+    public static void setDefaultBeanAccessorFactory(BeanAccessorFactory defaultBeanAccessorFactory) {
+        instance().defaultBeanAccessorFactory = defaultBeanAccessorFactory;
+    }
+
     /**
      * Creates new {@link StatementHandler} implementation instance based on default statement handler
      * implementation class set via {@link #setDefaultStatementHandler(Class)}
@@ -361,12 +445,16 @@ public class MjdbcConfig {
     }
 
     /**
-     * Sets default {@link ExceptionHandler} implementation
+     * Sets default {@link ExceptionHandler} implementation.
+     * Environments cached by {@link DataSourceEnvironment} are removed, so new implementation is used by new runners.
      *
      * @param defaultExceptionHandler new default {@link ExceptionHandler} implementation
      */
     public static void setDefaultExceptionHandler(Class<? extends ExceptionHandler> defaultExceptionHandler) {
         instance().defaultExceptionHandler = defaultExceptionHandler;
+
+        // shared environments keep exception handler created by previous implementation
+        DataSourceEnvironment.clear();
     }
 
     /**
@@ -436,12 +524,16 @@ public class MjdbcConfig {
     }
 
     /**
-     * Sets default {@link MetadataHandler} implementation
+     * Sets default {@link MetadataHandler} implementation.
+     * Environments cached by {@link DataSourceEnvironment} are removed, so new implementation is used by new runners.
      *
      * @param defaultMetadataHandler new default {@link MetadataHandler} implementation
      */
     public static void setDefaultMetadataHandler(Class<? extends MetadataHandler> defaultMetadataHandler) {
         instance().defaultMetadataHandler = defaultMetadataHandler;
+
+        // shared environments keep metadata handler created by previous implementation
+        DataSourceEnvironment.clear();
     }
 
     /**
@@ -529,6 +621,343 @@ public class MjdbcConfig {
         instance().defaultLazyCacheMaxSize = lazyCacheMaxSize;
     }
 
+    /**
+     * Returns current lazy read ahead size
+     *
+     * @return current lazy read ahead size. 0 - rows are read one by one
+     */
+    public static int getDefaultLazyReadAheadSize() {
+        return instance().defaultLazyReadAheadSize;
+    }
+
+    /**
+     * Sets new lazy read ahead size: amount of rows which are read and converted at once by
+     * forward only (not scrollable and not updateable) lazy query output.
+     * Read ahead size is limited by lazy cache max size.
+     *
+     * @param lazyReadAheadSize new lazy read ahead size. 0 - rows are read one by one
+     */
+    public static void setDefaultLazyReadAheadSize(int lazyReadAheadSize) {
+        instance().defaultLazyReadAheadSize = lazyReadAheadSize;
+    }
+
+    /**
+     * Returns if rows evicted from lazy scrollable query output are kept in temporary file
+     *
+     * @return true - if evicted rows are kept in temporary file
+     */
+    public static boolean isDefaultLazySpillToDisk() {
+        return instance().defaultLazySpillToDisk;
+    }
+
+    /**
+     * Sets if rows evicted from lazy scrollable (not updateable) query output should be kept in temporary file.
+     * If enabled - query output is read forward only (scrollable ResultSet is not requested from the driver) and
+     * only lazy cache max size rows are kept in memory (except rows with values which cannot be serialized, for example
+     * LOBs returned as streams). Temporary file is deleted when query output is closed.
+     *
+     * @param lazySpillToDisk true - if evicted rows should be kept in temporary file
+     */
+    public static void setDefaultLazySpillToDisk(boolean lazySpillToDisk) {
+        instance().defaultLazySpillToDisk = lazySpillToDisk;
+    }
+
+    /**
+     * Returns current statement fetch size
+     *
+     * @return current statement fetch size. 0 - driver default is used
+     */
+    public static int getDefaultFetchSize() {
+        return instance().defaultFetchSize;
+    }
+
+    /**
+     * Sets new statement fetch size (see {@link java.sql.Statement#setFetchSize(int)}).
+     * It is applied to statements used by query, update and call.
+     *
+     * @param fetchSize new statement fetch size. 0 - driver default is used
+     */
+    public static void setDefaultFetchSize(int fetchSize) {
+        instance().defaultFetchSize = fetchSize;
+    }
+
+    /**
+     * Returns current parameter metadata validation mode
+     *
+     * @return current parameter metadata validation mode
+     */
+    public static ParameterMetadataCache.ValidationMode getDefaultParameterValidationMode() {
+        return instance().defaultParameterValidationMode;
+    }
+
+    /**
+     * Sets new parameter metadata validation mode. Specifies if {@link java.sql.ParameterMetaData} should be read
+     * during every execution, only during first execution of the SQL string or never.
+     *
+     * @param parameterValidationMode new parameter metadata validation mode
+     */
+    public static void setDefaultParameterValidationMode(ParameterMetadataCache.ValidationMode parameterValidationMode) {
+        instance().defaultParameterValidationMode = parameterValidationMode;
+    }
+
+    /**
+     * Returns current prepared statement cache size (per connection)
+     *
+     * @return current prepared statement cache size. 0 if statements are not cached
+     */
+    public static int getDefaultStatementCacheSize() {
+        return instance().defaultStatementCacheSize;
+    }
+
+    /**
+     * Sets new prepared statement cache size (per connection).
+     * Statements are closed only when they are evicted from cache or connection is closed.
+     * <p/>
+     * Cache is used only while connection is kept: manual transaction mode or query runner created with
+     * Connection. Statements of query runner in automatic transaction mode are never cached.
+     * 0 disables statement cache
+     *
+     * @param statementCacheSize new prepared statement cache size
+     */
+    public static void setDefaultStatementCacheSize(int statementCacheSize) {
+        instance().defaultStatementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Returns slow query threshold
+     *
+     * @return slow query threshold (milliseconds). 0 - slow queries are not logged
+     */
+    public static long getSlowQueryThreshold() {
+        return instance().slowQueryThreshold;
+    }
+
+    /**
+     * Sets slow query threshold. Executions which took longer (connection acquisition time included) are logged by
+     * {@link org.midao.jdbc.core.profiler.SlowQueryLog}
+     *
+     * @param slowQueryThreshold slow query threshold (milliseconds). 0 - slow queries are not logged
+     */
+    public static void setSlowQueryThreshold(long slowQueryThreshold) {
+        instance().slowQueryThreshold = slowQueryThreshold;
+    }
+
+    /**
+     * Returns slow query log sample rate
+     *
+     * @return sample rate (every N-th execution is logged). 0 - sampling is disabled
+     */
+    public static int getSlowQuerySampleRate() {
+        return instance().slowQuerySampleRate;
+    }
+
+    /**
+     * Sets slow query log sample rate. Every N-th execution (which is not slow) is logged by
+     * {@link org.midao.jdbc.core.profiler.SlowQueryLog}
+     *
+     * @param slowQuerySampleRate sample rate (every N-th execution is logged). 0 - sampling is disabled
+     */
+    public static void setSlowQuerySampleRate(int slowQuerySampleRate) {
+        instance().slowQuerySampleRate = slowQuerySampleRate;
+    }
+
+    /**
+     * Returns slow query log output format
+     *
+     * @return slow query log output format
+     */
+    public static String getSlowQueryOutputFormat() {
+        return instance().slowQueryOutputFormat;
+    }
+
+    /**
+     * Sets slow query log output format.
+     * Arguments: type (Slow/Sampled), SQL, parameters, rows, execution time (ms), connection acquisition time (ms), error
+     *
+     * @param slowQueryOutputFormat new slow query log output format
+     */
+    public static void setSlowQueryOutputFormat(String slowQueryOutputFormat) {
+        instance().slowQueryOutputFormat = slowQueryOutputFormat;
+    }
+
+    /**
+     * Returns if LOBs are streamed by Type Handlers
+     *
+     * @return true if LOBs are streamed
+     */
+    public static boolean isDefaultStreamLobs() {
+        return instance().defaultStreamLobs;
+    }
+
+    /**
+     * Sets if LOBs should be streamed by Type Handlers.
+     * If enabled - InputStream values of BLOB and Reader values of CLOB/SQLXML IN parameters are bound as streams
+     * (instead of being read into memory). byte[]/String values of BLOB/CLOB IN parameters are bound via
+     * length-aware stream functions, without creating LOB objects. InputStream values of CLOB/SQLXML are still
+     * read into memory, as their charset is unknown.
+     * <p/>
+     * OUT LOBs and LOB columns of ResultSet are returned as InputStream/Reader only if Lazy output handler is used
+     * (as Statement is left open), otherwise they are read into memory.
+     * Might be overridden via {@link MjdbcConstants#OVERRIDE_STREAM_LOBS}
+     *
+     * @param streamLobs true if LOBs should be streamed
+     */
+    public static void setDefaultStreamLobs(boolean streamLobs) {
+        instance().defaultStreamLobs = streamLobs;
+    }
+
+    /**
+     * Returns current batch chunk size
+     *
+     * @return current batch chunk size. 0 if batch is executed at once
+     */
+    public static int getDefaultBatchChunkSize() {
+        return instance().defaultBatchChunkSize;
+    }
+
+    /**
+     * Sets new batch chunk size. If set - batch is executed (via {@link java.sql.Statement#executeBatch()}) every
+     * chunk size rows, which limits amount of memory used by Driver.
+     * Might be overridden via {@link MjdbcConstants#OVERRIDE_BATCH_CHUNK_SIZE}. 0 - batch is executed at once
+     *
+     * @param batchChunkSize new batch chunk size
+     */
+    public static void setDefaultBatchChunkSize(int batchChunkSize) {
+        instance().defaultBatchChunkSize = batchChunkSize;
+    }
+
+    /**
+     * Returns if transaction is committed after every batch chunk
+     *
+     * @return true if transaction is committed after every batch chunk
+     */
+    public static boolean isDefaultBatchChunkCommit() {
+        return instance().defaultBatchChunkCommit;
+    }
+
+    /**
+     * Sets if transaction should be committed after every batch chunk.
+     * Is ignored in manual transaction mode. Please be aware that in case of failure - only last
+     * chunk would be rolled back.
+     * Might be overridden via {@link MjdbcConstants#OVERRIDE_BATCH_CHUNK_COMMIT}
+     *
+     * @param batchChunkCommit true if transaction should be committed after every batch chunk
+     */
+    public static void setDefaultBatchChunkCommit(boolean batchChunkCommit) {
+        instance().defaultBatchChunkCommit = batchChunkCommit;
+    }
+
+    /**
+     * Returns if batch chunks are pipelined
+     *
+     * @return true if batch chunks are pipelined
+     */
+    public static boolean isDefaultBatchPipelined() {
+        return instance().defaultBatchPipelined;
+    }
+
+    /**
+     * Sets if batch chunks should be pipelined. If enabled - rows of the next chunk are converted (Java Beans, Maps
+     * and Input Handlers are read into parameters) on separate thread while current chunk is executed.
+     * Statement, Connection and {@link org.midao.jdbc.core.handlers.type.TypeHandler} are used only by calling
+     * thread, so type conversion (LOB/Array creation) doesn't overlap with execution.
+     * Pipeline thread is created for every batch execution and is stopped when it is finished.
+     * <p/>
+     * Used only if batch chunk size is set.
+     * Might be overridden via {@link MjdbcConstants#OVERRIDE_BATCH_PIPELINED}
+     *
+     * @param batchPipelined true if batch chunks should be pipelined
+     */
+    public static void setDefaultBatchPipelined(boolean batchPipelined) {
+        instance().defaultBatchPipelined = batchPipelined;
+    }
+
+    /**
+     * Returns if batch INSERT statements are rewritten into multi-row INSERT statements
+     *
+     * @return true if batch INSERT statements are rewritten
+     */
+    public static boolean isDefaultBatchInsertRewrite() {
+        return instance().defaultBatchInsertRewrite;
+    }
+
+    /**
+     * Sets if batch INSERT statements should be rewritten into multi-row INSERT statements.
+     * If enabled - simple "INSERT ... VALUES (...)" statement is executed as "INSERT ... VALUES (...), (...), ..."
+     * instead of JDBC batch. Useful for Drivers with slow batch execution.
+     * <p/>
+     * Please be aware that Database should support multi-row VALUES. Amount of rows affected by every
+     * statement is not returned separately, so {@link java.sql.Statement#SUCCESS_NO_INFO} might be returned.
+     * Might be overridden via {@link MjdbcConstants#OVERRIDE_BATCH_INSERT_REWRITE}
+     *
+     * @param batchInsertRewrite true if batch INSERT statements should be rewritten
+     */
+    public static void setDefaultBatchInsertRewrite(boolean batchInsertRewrite) {
+        instance().defaultBatchInsertRewrite = batchInsertRewrite;
+    }
+
+    /**
+     * Returns max amount of parameters in rewritten multi-row INSERT statement
+     *
+     * @return max amount of parameters in rewritten INSERT statement
+     */
+    public static int getDefaultBatchInsertParameterLimit() {
+        return instance().defaultBatchInsertParameterLimit;
+    }
+
+    /**
+     * Sets max amount of parameters in rewritten multi-row INSERT statement.
+     * Please check limitations of used Database (for example MsSQL allows 2100 parameters)
+     *
+     * @param batchInsertParameterLimit max amount of parameters in rewritten INSERT statement
+     */
+    public static void setDefaultBatchInsertParameterLimit(int batchInsertParameterLimit) {
+        instance().defaultBatchInsertParameterLimit = batchInsertParameterLimit;
+    }
+
+    /**
+     * Returns if direct connection mode is used by {@link org.midao.jdbc.core.transaction.BaseTransactionHandler}
+     *
+     * @return true if direct connection mode is used
+     */
+    public static boolean isDefaultDirectConnection() {
+        return instance().defaultDirectConnection;
+    }
+
+    /**
+     * Sets if direct connection mode should be used by newly created {@link org.midao.jdbc.core.transaction.BaseTransactionHandler}.
+     * <p/>
+     * In direct connection mode auto-commit/isolation level are set only once per physical connection (state is
+     * cached by transaction handler) and connection is returned as is (without Proxy which prevents it from being
+     * closed). Please do not close connection or change it's auto-commit/isolation level directly while it is used
+     * by transaction handler.
+     *
+     * @param directConnection true if direct connection mode should be used
+     */
+    public static void setDefaultDirectConnection(boolean directConnection) {
+        instance().defaultDirectConnection = directConnection;
+    }
+
+    /**
+     * Returns metrics collector used by Query Runners
+     *
+     * @return metrics collector, null if metrics are not collected
+     */
+    public static MetricsCollector getMetricsCollector() {
+        return instance().metricsCollector;
+    }
+
+    /**
+     * Sets metrics collector which would be used by all Query Runners.
+     * Unlike profiler - doesn't wrap Query Runner into Proxy and doesn't build any strings, so it can be used in
+     * production. {@link org.midao.jdbc.core.metrics.BaseMetricsCollector} is default implementation.
+     *
+     * @param metricsCollector metrics collector, null - metrics are not collected
+     */
+    public static void setMetricsCollector(MetricsCollector metricsCollector) {
+        instance().metricsCollector = metricsCollector;
+    }
+
     public static String getOutputHandlerPackage() {
         return OUTPUT_HANDLER_PACKAGE;
     }
@@ -42,11 +42,21 @@ public class MjdbcConstants {
     public static final String OVERRIDE_CONTROL_PARAM_COUNT = "__OverrideControlParamCount";
     public static final String OVERRIDE_LAZY_CACHE_MAX_SIZE = "__OverrideLazyCacheMaxSize";
     public static final String OVERRIDE_LAZY_SCROLL_CHANGE_SENSITIVE = "__OverrideLazyScrollChangeSensitive";
+    public static final String OVERRIDE_STATEMENT_CACHE_SIZE = "__OverrideStatementCacheSize";
+    public static final String OVERRIDE_STREAM_LOBS = "__OverrideStreamLobs";
+    public static final String OVERRIDE_BATCH_CHUNK_SIZE = "__OverrideBatchChunkSize";
+    public static final String OVERRIDE_BATCH_CHUNK_COMMIT = "__OverrideBatchChunkCommit";
+    public static final String OVERRIDE_BATCH_PIPELINED = "__OverrideBatchPipelined";
+    public static final String OVERRIDE_BATCH_INSERT_REWRITE = "__OverrideBatchInsertRewrite";
+    public static final String OVERRIDE_FETCH_SIZE = "__OverrideFetchSize";
+    public static final String OVERRIDE_LAZY_READ_AHEAD_SIZE = "__OverrideLazyReadAheadSize";
+    public static final String OVERRIDE_LAZY_SPILL_TO_DISK = "__OverrideLazySpillToDisk";
 
     public static final String OVERRIDE_INT_GET_GENERATED_KEYS = "__OverrideInternalGetGeneratedKeys";
     public static final String OVERRIDE_INT_IS_MANUAL_MODE = "__OverrideInternalIsManualMode";
     public static final String OVERRIDE_INT_TYPE_HANDLER = "__OverrideInternalTypeHandler";
     public static final String OVERRIDE_INT_JDBC3 = "__OverrideInternalJDBC3";
+    public static final String OVERRIDE_INT_LAZY_SPILL_TO_DISK = "__OverrideInternalLazySpillToDisk";
     public static final List<String> EMPTY_STRING_LIST = new ArrayList<String>();
     public static final Map<String, Object> EMPTY_VALUE_MAP = new HashMap<String, Object>();
 
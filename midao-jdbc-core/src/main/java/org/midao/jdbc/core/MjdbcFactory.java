@@ -18,7 +18,9 @@
 
 package org.midao.jdbc.core;
 
+import org.midao.jdbc.core.exception.MjdbcException;
 import org.midao.jdbc.core.handlers.type.TypeHandler;
+import org.midao.jdbc.core.handlers.utils.MappingUtils;
 import org.midao.jdbc.core.pool.MjdbcPoolBinder;
 import org.midao.jdbc.core.profiler.ProfilerFactory;
 import org.midao.jdbc.core.service.AsyncQueryRunnerService;
@@ -28,15 +30,25 @@ import org.midao.jdbc.core.statement.StatementHandler;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Map;
 import java.util.Properties;
+import java.util.WeakHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Midao JDBC Factory is responsible for creating core classes instances
  */
 public class MjdbcFactory {
+    // max pool size getters of DBCP 1.x/Tomcat JDBC, DBCP 2.x, C3P0 and HikariCP
+    private static final String[] POOL_SIZE_GETTERS = new String[]{"getMaxActive", "getMaxTotal", "getMaxPoolSize", "getMaximumPoolSize"};
     private static final String ERROR_COULDNT_FIND_POOL_PROVIDER = "Error. Couldn't find any accepted pool provider. Please put midao-jdbc-c3p0(>=0.9.2), midao-jdbc-dbcp(>=1.3/4.2) etc. into CLASSPATH.";
 
+    // executors shared by runners of the DataSource. Executor doesn't reference DataSource, so entry is removed once DataSource is collected
+    private static final Map<DataSource, ExecutorService> taskExecutors = new WeakHashMap<DataSource, ExecutorService>();
+
     /**
      * Returns new {@link org.midao.jdbc.core.service.QueryRunnerService} instance
      *
@@ -44,7 +56,7 @@ public class MjdbcFactory {
      * @return new {@link org.midao.jdbc.core.service.QueryRunnerService} instance
      */
     public static QueryRunnerService getQueryRunner(DataSource ds) {
-        return (QueryRunnerService) ProfilerFactory.newInstance(new QueryRunner(ds));
+        return (QueryRunnerService) ProfilerFactory.newInstance(new QueryRunner(ds, null, null, DataSourceEnvironment.getInstance(ds)));
     }
 
     /**
@@ -55,7 +67,7 @@ public class MjdbcFactory {
      * @return new {@link org.midao.jdbc.core.service.QueryRunnerService} instance
      */
     public static QueryRunnerService getQueryRunner(DataSource ds, Class<? extends TypeHandler> typeHandlerClazz) {
-        return (QueryRunnerService) ProfilerFactory.newInstance(new QueryRunner(ds, typeHandlerClazz));
+        return (QueryRunnerService) ProfilerFactory.newInstance(new QueryRunner(ds, typeHandlerClazz, null, DataSourceEnvironment.getInstance(ds)));
     }
 
     /**
@@ -67,7 +79,7 @@ public class MjdbcFactory {
      * @return new {@link org.midao.jdbc.core.service.QueryRunnerService} instance
      */
     public static QueryRunnerService getQueryRunner(DataSource ds, Class<? extends TypeHandler> typeHandlerClazz, Class<? extends StatementHandler> statementHandlerClazz) {
-        return (QueryRunnerService) ProfilerFactory.newInstance(new QueryRunner(ds, typeHandlerClazz, statementHandlerClazz));
+        return (QueryRunnerService) ProfilerFactory.newInstance(new QueryRunner(ds, typeHandlerClazz, statementHandlerClazz, DataSourceEnvironment.getInstance(ds)));
     }
 
     /**
@@ -114,6 +126,113 @@ public class MjdbcFactory {
         return new AsyncQueryRunner(runner, executorService);
     }
 
+    /**
+     * Returns new {@link ExecutorService} which starts new thread for every task.
+     * Virtual threads are used if they are supported by JVM (Java 21+), otherwise cached thread pool (of daemon threads)
+     * is returned. Executor should be shut down by the caller.
+     *
+     * @return new {@link ExecutorService} instance
+     */
+    public static ExecutorService createTaskExecutor() {
+        ExecutorService result = null;
+
+        try {
+            result = (ExecutorService) MappingUtils.invokeStaticFunction(Executors.class, "newVirtualThreadPerTaskExecutor", new Class[0], new Object[0]);
+        } catch (MjdbcException ex) {
+            // virtual threads are not supported
+            result = Executors.newCachedThreadPool(new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger(0);
+
+                public Thread newThread(Runnable task) {
+                    Thread thread = new Thread(task, "mjdbc-task-" + count.incrementAndGet());
+
+                    // executor shouldn't prevent JVM from exiting
+                    thread.setDaemon(true);
+
+                    return thread;
+                }
+            });
+        }
+
+        return result;
+    }
+
+    /**
+     * Shuts down executor which is shared by runners returned by {@link #getConcurrentQueryRunner(javax.sql.DataSource)}
+     * for this DataSource. Tasks which are already submitted are finished, new tasks of existing runners are rejected.
+     * Runners which are created afterwards receive new executor.
+     *
+     * @param ds SQL DataSource
+     */
+    public static void shutdownTaskExecutor(DataSource ds) {
+        ExecutorService executor = null;
+
+        synchronized (taskExecutors) {
+            executor = taskExecutors.remove(ds);
+        }
+
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Returns executor which is shared by runners of the DataSource. Executor is created during first invocation
+     * (for every DataSource) via {@link #createTaskExecutor()}
+     *
+     * @param ds SQL DataSource
+     * @return DataSource executor
+     */
+    static ExecutorService getTaskExecutor(DataSource ds) {
+        ExecutorService result = null;
+
+        synchronized (taskExecutors) {
+            result = taskExecutors.get(ds);
+
+            if (result == null || result.isShutdown() == true) {
+                result = createTaskExecutor();
+
+                taskExecutors.put(ds, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns new {@link ConcurrentQueryRunner} instance
+     *
+     * @param ds              SQL DataSource
+     * @param executorService {@link ExecutorService} implementation. It is shut down when runner is closed
+     * @param maxInFlight     max amount of tasks which are executed at the same time for this DataSource
+     * @return new {@link ConcurrentQueryRunner} instance
+     */
+    public static ConcurrentQueryRunner getConcurrentQueryRunner(DataSource ds, ExecutorService executorService, int maxInFlight) {
+        return new ConcurrentQueryRunner(ds, executorService, maxInFlight);
+    }
+
+    /**
+     * Returns new {@link ConcurrentQueryRunner} instance which is executed by {@link #createTaskExecutor()} executor.
+     * Executor is created once per DataSource and is shared by all its runners, so closing runner doesn't shut it
+     * down - use {@link #shutdownTaskExecutor(javax.sql.DataSource)} instead.
+     * <p/>
+     * As executor creates thread per task - amount of tasks executed at the same time is limited by DataSource
+     * pool size (if it can be read from DataSource: DBCP, C3P0, HikariCP, Tomcat JDBC pool). Otherwise there is no limit.
+     * The limit is shared by all runners of the DataSource.
+     *
+     * @param ds SQL DataSource
+     * @return new {@link ConcurrentQueryRunner} instance
+     */
+    public static ConcurrentQueryRunner getConcurrentQueryRunner(DataSource ds) {
+        int poolSize = getPoolSize(ds);
+
+        if (poolSize == 0) {
+            poolSize = Integer.MAX_VALUE;
+        }
+
+        return new ConcurrentQueryRunner(ds, null, null, null, getTaskExecutor(ds), false, poolSize);
+    }
+
     /**
      * Returns new Pooled {@link DataSource} implementation
      *
@@ -206,4 +325,32 @@ public class MjdbcFactory {
             throw new NoClassDefFoundError(ERROR_COULDNT_FIND_POOL_PROVIDER);
         }
     }
+
+    /**
+     * Reads max pool size from known pooled DataSource implementations
+     *
+     * @param ds SQL DataSource
+     * @return max pool size, 0 if it cannot be read
+     */
+    private static int getPoolSize(DataSource ds) {
+        int result = 0;
+        Object value = null;
+
+        for (String getter : POOL_SIZE_GETTERS) {
+            if (MappingUtils.hasFunction(ds, getter, new Class[0]) == true) {
+                try {
+                    value = MappingUtils.invokeFunction(ds, getter, new Class[0], new Object[0]);
+                } catch (MjdbcException ex) {
+                    value = null;
+                }
+
+                if (value instanceof Number && ((Number) value).intValue() > 0) {
+                    result = ((Number) value).intValue();
+                    break;
+                }
+            }
+        }
+
+        return result;
+    }
 }
@@ -116,6 +116,24 @@ public class Overrider {
         return result;
     }
 
+    /**
+     * Return override value without removing it (override which should be used once stays present)
+     *
+     * @param operation name of the operation
+     * @return override value
+     */
+    public Object peekOverride(String operation) {
+        Object result = null;
+
+        if (this.overrideOnce.containsKey(operation) == true) {
+            result = this.overrideOnce.get(operation);
+        } else if (this.override.containsKey(operation) == true) {
+            result = this.override.get(operation);
+        }
+
+        return result;
+    }
+
     /**
      * Returned copy of override once values.
      * Might be used to construct copy of this instance
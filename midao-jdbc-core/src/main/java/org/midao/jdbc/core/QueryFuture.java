@@ -0,0 +1,238 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core;
+
+import org.midao.jdbc.core.service.QueryContinuation;
+import org.midao.jdbc.core.service.QueryRunnerService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Result of {@link ConcurrentQueryRunner} task.
+ * <p/>
+ * Besides standard {@link java.util.concurrent.Future} functionality allows to chain tasks via
+ * {@link #then(org.midao.jdbc.core.service.QueryContinuation)}: continuation is submitted only after this task is
+ * finished, so no executor thread is blocked while waiting for previous result.
+ *
+ * @param <T> task result type
+ */
+public class QueryFuture<T> extends FutureTask<T> {
+
+    private final ConcurrentQueryRunner runner;
+
+    // listeners are executed once task is finished. null - task is already finished
+    private List<Runnable> listeners = new ArrayList<Runnable>();
+
+    // true - future holds in-flight slot which should be released after execution
+    private final AtomicBoolean inFlight = new AtomicBoolean(false);
+
+    /**
+     * Creates new QueryFuture instance
+     *
+     * @param runner   runner which would execute continuations
+     * @param callable task
+     */
+    QueryFuture(ConcurrentQueryRunner runner, Callable<T> callable) {
+        super(callable);
+
+        this.runner = runner;
+    }
+
+    /**
+     * Submits continuation which would be executed after this task is finished successfully.
+     * If this task had failed (or was cancelled) - returned future would fail with the same cause, without
+     * waiting for in-flight slot and without creating query runner.
+     *
+     * @param continuation continuation which would receive result of this task
+     * @param <R>          continuation result type
+     * @return continuation result
+     */
+    public <R> QueryFuture<R> then(final QueryContinuation<T, R> continuation) {
+        final QueryFuture<T> previous = this;
+
+        final QueryFuture<R> next = runner.newFuture(new ConcurrentQueryRunner.RunnerCallable<R>() {
+            public R call(QueryRunnerService queryRunner) throws Exception {
+                return continuation.execute(queryRunner, previous.getResult());
+            }
+        });
+
+        addListener(new Runnable() {
+            public void run() {
+                Exception failure = previous.getFailure();
+
+                if (failure != null) {
+                    next.setException(failure);
+                } else {
+                    runner.dispatch(next);
+                }
+            }
+        });
+
+        return next;
+    }
+
+    /**
+     * Adds listener which would be executed after this task is finished (successfully or not).
+     * If task is already finished - listener is executed immediately in current thread
+     *
+     * @param listener listener
+     */
+    public void addListener(Runnable listener) {
+        boolean finished = false;
+
+        synchronized (this) {
+            if (listeners != null) {
+                listeners.add(listener);
+            } else {
+                finished = true;
+            }
+        }
+
+        if (finished == true) {
+            listener.run();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+        try {
+            super.run();
+        } finally {
+            // slot is usually released by set/setException, but task might be cancelled before it was started
+            releaseInFlight();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * In-flight slot is released before result is set, so it is already free once result is available
+     */
+    @Override
+    protected void set(T value) {
+        releaseInFlight();
+
+        super.set(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setException(Throwable ex) {
+        releaseInFlight();
+
+        super.setException(ex);
+    }
+
+    /**
+     * Submits this future to the executor. Invoked by runner after in-flight slot is obtained
+     */
+    void start() {
+        inFlight.set(true);
+
+        if (isDone() == true) {
+            // cancelled while waiting for slot
+            releaseInFlight();
+        } else {
+            try {
+                runner.execute(this);
+            } catch (RejectedExecutionException ex) {
+                setException(ex);
+            }
+        }
+    }
+
+    /**
+     * Releases in-flight slot (if it is held by this future)
+     */
+    private void releaseInFlight() {
+        if (inFlight.compareAndSet(true, false) == true) {
+            runner.releaseInFlight();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void done() {
+        List<Runnable> finishedListeners = null;
+
+        synchronized (this) {
+            finishedListeners = listeners;
+            listeners = null;
+        }
+
+        for (Runnable listener : finishedListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Returns exception of finished task
+     *
+     * @return exception which would be thrown by {@link #getResult()}, null - if task was finished successfully
+     */
+    private Exception getFailure() {
+        Exception result = null;
+
+        try {
+            getResult();
+        } catch (Exception ex) {
+            result = ex;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns result of finished task. Exception which was thrown by the task is rethrown as is
+     *
+     * @return task result
+     * @throws Exception if task had failed or was cancelled
+     */
+    private T getResult() throws Exception {
+        T result = null;
+
+        try {
+            result = get();
+        } catch (CancellationException ex) {
+            throw new ExecutionException("Previous task was cancelled", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception) {
+                throw (Exception) ex.getCause();
+            } else {
+                throw ex;
+            }
+        }
+
+        return result;
+    }
+}
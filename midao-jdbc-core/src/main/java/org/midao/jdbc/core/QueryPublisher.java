@@ -0,0 +1,288 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core;
+
+import org.midao.jdbc.core.handlers.output.lazy.LazyOutputHandler;
+import org.midao.jdbc.core.reactive.Publisher;
+import org.midao.jdbc.core.reactive.Subscriber;
+import org.midao.jdbc.core.reactive.Subscription;
+import org.midao.jdbc.core.service.QueryRunnerService;
+import org.midao.jdbc.core.service.QueryTask;
+import org.midao.jdbc.core.statement.LazyStatementHandler;
+
+import java.sql.SQLException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Publisher} of query output. Created by {@link ConcurrentQueryRunner#publish(String, org.midao.jdbc.core.handlers.output.lazy.LazyOutputHandler, Object...)}
+ * <p/>
+ * Query is executed (on {@link ConcurrentQueryRunner} executor) only after first element is requested.
+ * Rows are read from the ResultSet via {@link LazyOutputHandler} only as they are requested, so amount of memory
+ * used doesn't depend on amount of rows returned.
+ * <p/>
+ * Connection, Statement and in-flight slot are held till publishing is completed, failed or cancelled.
+ * Every subscription executes query again.
+ *
+ * @param <S> published element type
+ */
+public class QueryPublisher<S> implements Publisher<S> {
+    private final ConcurrentQueryRunner runner;
+    private final QueryTask<LazyOutputHandler> query;
+
+    /**
+     * Creates new QueryPublisher instance
+     *
+     * @param runner runner which is used to obtain connection and executor
+     * @param query  task which executes query and returns lazy output handler
+     */
+    QueryPublisher(ConcurrentQueryRunner runner, QueryTask<LazyOutputHandler> query) {
+        this.runner = runner;
+        this.query = query;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void subscribe(Subscriber<? super S> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null");
+        }
+
+        QuerySubscription<S> subscription = new QuerySubscription<S>(runner, query, subscriber);
+
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Subscription which reads rows according to the demand.
+     * <p/>
+     * All work (query execution, reading and cleanup) is performed by single drain loop on runner executor, so
+     * subscriber methods are never invoked concurrently.
+     */
+    private static class QuerySubscription<S> implements Subscription, Runnable {
+        private static final int SLOT_NONE = 0;
+        private static final int SLOT_WAITING = 1;
+        private static final int SLOT_ACQUIRED = 2;
+        private static final int SLOT_RELEASED = 3;
+
+        private final ConcurrentQueryRunner runner;
+        private final QueryTask<LazyOutputHandler> query;
+        private final Subscriber<? super S> subscriber;
+
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicInteger slot = new AtomicInteger(SLOT_NONE);
+        private volatile boolean cancelled = false;
+        private volatile IllegalArgumentException invalidRequest;
+
+        // accessed only by drain loop
+        private QueryRunnerService queryRunner;
+        private LazyOutputHandler<?, S> output;
+        private boolean done = false;
+
+        private QuerySubscription(ConcurrentQueryRunner runner, QueryTask<LazyOutputHandler> query, Subscriber<? super S> subscriber) {
+            this.runner = runner;
+            this.query = query;
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested amount should be positive, but was: " + n);
+            } else {
+                long current = 0;
+                long updated = 0;
+
+                do {
+                    current = requested.get();
+                    updated = current + n;
+
+                    if (updated < 0) {
+                        // overflow - unbounded demand
+                        updated = Long.MAX_VALUE;
+                    }
+                } while (requested.compareAndSet(current, updated) == false);
+            }
+
+            schedule();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void cancel() {
+            cancelled = true;
+
+            schedule();
+        }
+
+        /**
+         * Drain loop. Repeated until there are no missed signals
+         */
+        public void run() {
+            int missed = 1;
+
+            do {
+                drain();
+
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Starts drain loop if it is not running already
+         */
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    runner.execute(this);
+                } catch (RejectedExecutionException ex) {
+                    // executor is shut down - draining in current thread, so resources are released
+                    cancelled = true;
+                    run();
+                }
+            }
+        }
+
+        private void drain() {
+            Throwable error = null;
+            boolean complete = false;
+
+            if (done == true) {
+                return;
+            }
+
+            if (cancelled == true) {
+                cleanup(true);
+                return;
+            }
+
+            if (invalidRequest != null) {
+                cleanup(true);
+                subscriber.onError(invalidRequest);
+                return;
+            }
+
+            try {
+                if (output == null && requested.get() > 0 && obtainSlot() == true) {
+                    open();
+                }
+
+                while (output != null && requested.get() > 0 && cancelled == false) {
+                    if (output.hasNext() == false) {
+                        complete = true;
+                        break;
+                    }
+
+                    S item = output.getNext();
+
+                    if (requested.get() != Long.MAX_VALUE) {
+                        requested.decrementAndGet();
+                    }
+
+                    subscriber.onNext(item);
+                }
+            } catch (Throwable th) {
+                error = th;
+            }
+
+            if (error != null) {
+                cleanup(false);
+                subscriber.onError(error);
+            } else if (complete == true) {
+                cleanup(true);
+                subscriber.onComplete();
+            } else if (cancelled == true) {
+                cleanup(true);
+            }
+        }
+
+        /**
+         * Requests in-flight slot (if it wasn't requested yet). Doesn't block: drain loop is scheduled again once
+         * slot is obtained
+         *
+         * @return true - slot is obtained
+         */
+        private boolean obtainSlot() {
+            if (slot.compareAndSet(SLOT_NONE, SLOT_WAITING) == true) {
+                runner.acquireInFlight(new ConcurrentQueryRunner.InFlightTask() {
+                    public void acquired() {
+                        if (slot.compareAndSet(SLOT_WAITING, SLOT_ACQUIRED) == true) {
+                            schedule();
+                        } else {
+                            // subscription was finished while waiting
+                            runner.releaseInFlight();
+                        }
+                    }
+                });
+            }
+
+            return slot.get() == SLOT_ACQUIRED;
+        }
+
+        /**
+         * Executes query. Should be invoked only after in-flight slot is obtained
+         */
+        @SuppressWarnings("unchecked")
+        private void open() throws Exception {
+            queryRunner = runner.createQueryRunner(LazyStatementHandler.class);
+            queryRunner.setTransactionManualMode(true);
+
+            output = (LazyOutputHandler<?, S>) query.execute(queryRunner);
+        }
+
+        /**
+         * Closes lazy output handler, finishes transaction (connection is closed by transaction handler)
+         * and releases in-flight slot
+         *
+         * @param success true - transaction is committed, false - rolled back
+         */
+        private void cleanup(boolean success) {
+            done = true;
+
+            if (output != null) {
+                output.close();
+                output = null;
+            }
+
+            if (queryRunner != null) {
+                try {
+                    if (success == true) {
+                        queryRunner.commit();
+                    } else {
+                        queryRunner.rollback();
+                    }
+                } catch (SQLException ex) {
+                    // connection is closed by transaction handler anyway
+                }
+
+                queryRunner = null;
+            }
+
+            if (slot.getAndSet(SLOT_RELEASED) == SLOT_ACQUIRED) {
+                runner.releaseInFlight();
+            }
+        }
+    }
+}
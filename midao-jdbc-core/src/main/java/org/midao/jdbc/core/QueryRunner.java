@@ -37,6 +37,7 @@ import org.midao.jdbc.core.utils.AssertUtils;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Iterator;
 
 /**
  * Base {@link org.midao.jdbc.core.service.QueryRunnerService} implementation
@@ -83,6 +84,19 @@ public class QueryRunner extends AbstractQueryRunner {
         super(ds, null, typeHandlerClazz, statementHandlerClazz);
     }
 
+    /**
+     * Creates new QueryRunner instance which uses shared DataSource environment (no connection is borrowed)
+     *
+     * @param ds                    SQL DataSource
+     * @param typeHandlerClazz      TypeHandler implementation class (from which new TypeHandler instance would be created)
+     * @param statementHandlerClazz StatementHandler implementation class (from which new TypeHandler instance would be created)
+     * @param environment           DataSource environment
+     */
+    QueryRunner(DataSource ds, Class<? extends TypeHandler> typeHandlerClazz, Class<? extends StatementHandler> statementHandlerClazz,
+                DataSourceEnvironment environment) {
+        super(ds, null, typeHandlerClazz, statementHandlerClazz, environment);
+    }
+
     /**
      * Creates new QueryRunner instance
      *
@@ -125,6 +139,44 @@ public class QueryRunner extends AbstractQueryRunner {
         return this.batch(this.getStatementHandler(), sql, getQueryParams(inputHandlers));
     }
 
+    /**
+     * Execute a batch of SQL INSERT, UPDATE, or DELETE queries.
+     * Rows are read from iterator lazily and executed every chunk size rows, so whole input
+     * doesn't have to be kept in memory. Per row results aren't accumulated either - only total amount
+     * of affected rows is returned.
+     * <p/>
+     * Each row might be: {@link org.midao.jdbc.core.handlers.model.QueryParameters}, Object[] (parameter values),
+     * {@link InputHandler}, Map or Java Bean. Maps and Java Beans are processed with named SQL (same as
+     * {@link org.midao.jdbc.core.handlers.input.named.MapInputHandler} and {@link org.midao.jdbc.core.handlers.input.named.BeanInputHandler}).
+     *
+     * @param sql       The SQL to execute. Might be null if rows are {@link InputHandler} instances
+     * @param params    batch rows
+     * @param chunkSize amount of rows executed at once
+     * @return total amount of rows updated. Rows reported as {@link java.sql.Statement#SUCCESS_NO_INFO} are not counted
+     * @throws SQLException if exception would be thrown by Driver/Database
+     */
+    public long batch(String sql, Iterator<?> params, int chunkSize) throws SQLException {
+        AssertUtils.assertNotNull(params, nullException());
+
+        return this.batch(this.getStatementHandler(), sql, params, chunkSize);
+    }
+
+    /**
+     * Execute a batch of SQL INSERT, UPDATE, or DELETE queries.
+     * Same as {@link #batch(String, java.util.Iterator, int)}
+     *
+     * @param sql       The SQL to execute. Might be null if rows are {@link InputHandler} instances
+     * @param params    batch rows
+     * @param chunkSize amount of rows executed at once
+     * @return total amount of rows updated. Rows reported as {@link java.sql.Statement#SUCCESS_NO_INFO} are not counted
+     * @throws SQLException if exception would be thrown by Driver/Database
+     */
+    public long batch(String sql, Iterable<?> params, int chunkSize) throws SQLException {
+        AssertUtils.assertNotNull(params, nullException());
+
+        return this.batch(this.getStatementHandler(), sql, params.iterator(), chunkSize);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -18,10 +18,11 @@
 
 package org.midao.jdbc.core.handlers.input.named;
 
+import org.midao.jdbc.core.MjdbcConfig;
 import org.midao.jdbc.core.handlers.input.AbstractInputHandler;
 import org.midao.jdbc.core.handlers.model.QueryParameters;
+import org.midao.jdbc.core.handlers.utils.BeanAccessor;
 import org.midao.jdbc.core.handlers.utils.InputUtils;
-import org.midao.jdbc.core.handlers.utils.MappingUtils;
 import org.midao.jdbc.core.processor.QueryInputProcessor;
 
 import java.beans.PropertyDescriptor;
@@ -94,7 +95,7 @@ public abstract class AbstractNamedInputHandler<T> extends AbstractInputHandler<
     }
 
     /**
-     * Updates bean by using PropertyDescriptors. Values are read from
+     * Updates bean by using {@link BeanAccessor}. Values are read from
      * source.
      * Is used by {@link #updateBean(Object, java.util.Map)}
      *
@@ -102,11 +103,18 @@ public abstract class AbstractNamedInputHandler<T> extends AbstractInputHandler<
      * @param source source Map
      */
     private void updateProperties(T target, Map<String, Object> source) {
-        Map<String, PropertyDescriptor> mapTargetProps = MappingUtils.mapPropertyDescriptors(target.getClass());
+        BeanAccessor targetAccessor = MjdbcConfig.getDefaultBeanAccessorFactory().getBeanAccessor(target.getClass());
+        int propertyIndex = -1;
 
-        for (String sourceKey : source.keySet()) {
-            if (mapTargetProps.containsKey(sourceKey) == true) {
-                MappingUtils.callSetter(target, mapTargetProps.get(sourceKey), source.get(sourceKey));
+        for (Map.Entry<String, Object> sourceEntry : source.entrySet()) {
+            if ("class".equals(sourceEntry.getKey()) == true) {
+                continue;
+            }
+
+            propertyIndex = targetAccessor.getPropertyIndex(sourceEntry.getKey());
+
+            if (propertyIndex != -1) {
+                targetAccessor.setValue(target, propertyIndex, sourceEntry.getValue());
             }
         }
     }
@@ -121,15 +129,20 @@ public abstract class AbstractNamedInputHandler<T> extends AbstractInputHandler<
     private T copyProperties(T source) {
         T target = createEmpty(source.getClass());
 
-        Map<String, PropertyDescriptor> mapTargetProps = MappingUtils.mapPropertyDescriptors(target.getClass());
-        Map<String, PropertyDescriptor> mapSourceProps = MappingUtils.mapPropertyDescriptors(source.getClass());
+        // target is created from source Class, so the same accessor is used for both
+        BeanAccessor accessor = MjdbcConfig.getDefaultBeanAccessorFactory().getBeanAccessor(source.getClass());
+        PropertyDescriptor[] props = accessor.getPropertyDescriptors();
 
         Object value = null;
 
-        for (String propertyName : mapSourceProps.keySet()) {
-            value = MappingUtils.callGetter(source, mapSourceProps.get(propertyName));
+        for (int i = 0; i < props.length; i++) {
+            if ("class".equals(props[i].getName()) == true) {
+                continue;
+            }
+
+            value = accessor.getValue(source, i);
 
-            MappingUtils.callSetter(target, mapTargetProps.get(propertyName), value);
+            accessor.setValue(target, i, value);
         }
 
         return target;
@@ -23,10 +23,8 @@ import org.midao.jdbc.core.handlers.HandlersConstants;
 import org.midao.jdbc.core.handlers.model.ProcessedInput;
 import org.midao.jdbc.core.handlers.model.QueryParameters;
 import org.midao.jdbc.core.handlers.utils.InputUtils;
-import org.midao.jdbc.core.handlers.utils.MappingUtils;
 import org.midao.jdbc.core.processor.QueryInputProcessor;
 
-import java.beans.PropertyDescriptor;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -88,9 +86,7 @@ public class BeanInputHandler<T> extends AbstractNamedInputHandler<T> {
         this.parameterName = parameterName;
 
         if (inputParameter != null) {
-            PropertyDescriptor[] props = MappingUtils.propertyDescriptors(inputParameter.getClass());
-
-            beanPropertiesMap = MappingUtils.toMap(inputParameter, props);
+            beanPropertiesMap = MjdbcConfig.getDefaultBeanAccessorFactory().getBeanAccessor(inputParameter.getClass()).toMap(inputParameter);
             InputUtils.setClassName(beanPropertiesMap, this.parameterName);
 
             beanList.add(beanPropertiesMap);
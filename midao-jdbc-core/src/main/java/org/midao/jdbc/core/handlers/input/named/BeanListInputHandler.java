@@ -23,10 +23,8 @@ import org.midao.jdbc.core.handlers.HandlersConstants;
 import org.midao.jdbc.core.handlers.model.ProcessedInput;
 import org.midao.jdbc.core.handlers.model.QueryParameters;
 import org.midao.jdbc.core.handlers.utils.InputUtils;
-import org.midao.jdbc.core.handlers.utils.MappingUtils;
 import org.midao.jdbc.core.processor.QueryInputProcessor;
 
-import java.beans.PropertyDescriptor;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -76,9 +74,7 @@ public class BeanListInputHandler<T> extends AbstractNamedListInputHandler<T> {
         if (inputParameter != null) {
             for (String parameterName : inputParameter.keySet()) {
                 parameter = inputParameter.get(parameterName);
-                PropertyDescriptor[] props = MappingUtils.propertyDescriptors(parameter.getClass());
-
-                beanPropertiesMap = MappingUtils.toMap(parameter, props);
+                beanPropertiesMap = MjdbcConfig.getDefaultBeanAccessorFactory().getBeanAccessor(parameter.getClass()).toMap(parameter);
                 InputUtils.setClassName(beanPropertiesMap, parameterName);
 
                 beanList.add(beanPropertiesMap);
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.model;
+
+import org.midao.jdbc.core.utils.AssertUtils;
+
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * LOB parameter value: InputStream or Reader together with it's length.
+ * <p/>
+ * Is bound by {@link org.midao.jdbc.core.statement.BaseStatementHandler} via length-aware setBinaryStream or
+ * setCharacterStream (regardless of parameter type), so Driver doesn't need to buffer the stream to find out it's
+ * length. Streams with length are supported by JDBC3 Drivers as well (if length doesn't exceed
+ * {@link Integer#MAX_VALUE}).
+ */
+public class LobStream {
+    private final InputStream binaryStream;
+    private final Reader characterStream;
+    private final long length;
+
+    /**
+     * Creates new binary LobStream instance
+     *
+     * @param binaryStream binary stream
+     * @param length       amount of bytes which would be read from stream
+     */
+    public LobStream(InputStream binaryStream, long length) {
+        AssertUtils.assertNotNull(binaryStream);
+
+        this.binaryStream = binaryStream;
+        this.characterStream = null;
+        this.length = length;
+    }
+
+    /**
+     * Creates new character LobStream instance
+     *
+     * @param characterStream character stream
+     * @param length          amount of characters which would be read from stream
+     */
+    public LobStream(Reader characterStream, long length) {
+        AssertUtils.assertNotNull(characterStream);
+
+        this.binaryStream = null;
+        this.characterStream = characterStream;
+        this.length = length;
+    }
+
+    /**
+     * Returns if stream is binary
+     *
+     * @return true if stream is binary, false - if it is character stream
+     */
+    public boolean isBinary() {
+        return this.binaryStream != null;
+    }
+
+    /**
+     * Returns binary stream
+     *
+     * @return binary stream, null if it is character stream
+     */
+    public InputStream getBinaryStream() {
+        return this.binaryStream;
+    }
+
+    /**
+     * Returns character stream
+     *
+     * @return character stream, null if it is binary stream
+     */
+    public Reader getCharacterStream() {
+        return this.characterStream;
+    }
+
+    /**
+     * Returns length of the stream
+     *
+     * @return amount of bytes (for binary stream) or characters (for character stream)
+     */
+    public long getLength() {
+        return this.length;
+    }
+}
@@ -23,6 +23,7 @@ import org.midao.jdbc.core.handlers.HandlersConstants;
 import org.midao.jdbc.core.utils.AssertUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -41,8 +42,14 @@ public class ProcessedInput {
     private List<String> sqlParameterTypes;
     private List<String> sqlParameterDirections;
 
+    // text blocks, quoted identifiers and comments (in parsed SQL string). Never modified after parsing
+    private List<int[]> parsedSqlBlockBoundaries;
+
     private List<Object> sqlParameterValues;
 
+    // true if parameter names/boundaries/types/directions are shared with other instances and cannot be modified
+    private boolean sharedStructure = false;
+
     /**
      * Creates new QueryParameters instance
      *
@@ -64,19 +71,36 @@ public class ProcessedInput {
      * @param processedInput Processed Input which would be "cloned"
      */
     public ProcessedInput(ProcessedInput processedInput) {
+        this(processedInput, false);
+    }
+
+    /**
+     * Creates new QueryParameters instance which shares parameter names, boundaries, types and directions with
+     * ProcessedInput (without copying them). Shared lists are unmodifiable: they are copied if this instance
+     * (or the original one) is modified via {@link #addParameter(String, int, int, String, String)}.
+     * <p/>
+     * Parameter values are copied.
+     *
+     * @param processedInput Processed Input which would be "cloned"
+     * @param shareStructure true if parameters structure should be shared, false if it should be copied
+     */
+    public ProcessedInput(ProcessedInput processedInput, boolean shareStructure) {
         this.originalSql = processedInput.getOriginalSql();
         this.parsedSql = processedInput.getParsedSql();
+        this.parsedSqlBlockBoundaries = processedInput.getParsedSqlBlockBoundaries();
 
-        if (processedInput.getSqlParameterNames() != null) {
-            this.sqlParameterNames = new ArrayList<String>(processedInput.getSqlParameterNames());
+        if (shareStructure == false) {
+            copyStructure(processedInput);
         } else {
-            this.sqlParameterNames = null;
-        }
+            if (processedInput.sharedStructure == false) {
+                processedInput.shareStructure();
+            }
 
-        if (processedInput.getSqlParameterBoundaries() != null) {
-            this.sqlParameterBoundaries = new ArrayList<int[]>(processedInput.getSqlParameterBoundaries());
-        } else {
-            this.sqlParameterBoundaries = null;
+            this.sqlParameterNames = processedInput.getSqlParameterNames();
+            this.sqlParameterBoundaries = processedInput.getSqlParameterBoundaries();
+            this.sqlParameterTypes = processedInput.getSqlParameterTypes();
+            this.sqlParameterDirections = processedInput.getSqlParameterDirections();
+            this.sharedStructure = true;
         }
 
         if (processedInput.getSqlParameterValues() != null) {
@@ -84,18 +108,6 @@ public class ProcessedInput {
         } else {
             this.sqlParameterValues = null;
         }
-
-        if (processedInput.getSqlParameterTypes() != null) {
-            this.sqlParameterTypes = new ArrayList<String>(processedInput.getSqlParameterTypes());
-        } else {
-            this.sqlParameterTypes = null;
-        }
-
-        if (processedInput.getSqlParameterDirections() != null) {
-            this.sqlParameterDirections = new ArrayList<String>(processedInput.getSqlParameterDirections());
-        } else {
-            this.sqlParameterDirections = null;
-        }
     }
 
     /**
@@ -142,6 +154,10 @@ public class ProcessedInput {
      * @param parameterDirection parameter direction
      */
     public void addParameter(String parameterName, int parameterStart, int parameterEnd, String parameterType, String parameterDirection) {
+        if (this.sharedStructure == true) {
+            copyStructure(this);
+        }
+
         if (this.sqlParameterNames == null) {
             this.sqlParameterNames = new ArrayList<String>();
             this.sqlParameterBoundaries = new ArrayList<int[]>();
@@ -192,6 +208,14 @@ public class ProcessedInput {
         return sqlParameterBoundaries;
     }
 
+    /**
+     * @return list of text block, quoted identifier and comment boundaries (in parsed SQL string).
+     *         Null if they weren't collected during parsing
+     */
+    public List<int[]> getParsedSqlBlockBoundaries() {
+        return parsedSqlBlockBoundaries;
+    }
+
     /**
      * @return list of parameters value
      */
@@ -222,6 +246,20 @@ public class ProcessedInput {
         this.parsedSql = parsedSql;
     }
 
+    /**
+     * Sets list of text block, quoted identifier and comment boundaries (in parsed SQL string).
+     * List is not copied, so it shouldn't be modified afterwards
+     *
+     * @param parsedSqlBlockBoundaries list of block boundaries
+     */
+    public void setParsedSqlBlockBoundaries(List<int[]> parsedSqlBlockBoundaries) {
+        if (parsedSqlBlockBoundaries != null) {
+            this.parsedSqlBlockBoundaries = Collections.unmodifiableList(parsedSqlBlockBoundaries);
+        } else {
+            this.parsedSqlBlockBoundaries = null;
+        }
+    }
+
     /**
      * Sets list of parameter values
      *
@@ -335,4 +373,42 @@ public class ProcessedInput {
         }
     }
 
+    /**
+     * Copies parameter names, boundaries, types and directions. After copying they can be modified
+     *
+     * @param processedInput Processed Input from which parameters structure would be copied
+     */
+    private void copyStructure(ProcessedInput processedInput) {
+        List<String> names = processedInput.getSqlParameterNames();
+        List<int[]> boundaries = processedInput.getSqlParameterBoundaries();
+        List<String> types = processedInput.getSqlParameterTypes();
+        List<String> directions = processedInput.getSqlParameterDirections();
+
+        this.sqlParameterNames = (names != null ? new ArrayList<String>(names) : null);
+        this.sqlParameterBoundaries = (boundaries != null ? new ArrayList<int[]>(boundaries) : null);
+        this.sqlParameterTypes = (types != null ? new ArrayList<String>(types) : null);
+        this.sqlParameterDirections = (directions != null ? new ArrayList<String>(directions) : null);
+        this.sharedStructure = false;
+    }
+
+    /**
+     * Makes parameter names, boundaries, types and directions unmodifiable, so they can be shared
+     */
+    private void shareStructure() {
+        if (this.sqlParameterNames != null) {
+            this.sqlParameterNames = Collections.unmodifiableList(this.sqlParameterNames);
+        }
+        if (this.sqlParameterBoundaries != null) {
+            this.sqlParameterBoundaries = Collections.unmodifiableList(this.sqlParameterBoundaries);
+        }
+        if (this.sqlParameterTypes != null) {
+            this.sqlParameterTypes = Collections.unmodifiableList(this.sqlParameterTypes);
+        }
+        if (this.sqlParameterDirections != null) {
+            this.sqlParameterDirections = Collections.unmodifiableList(this.sqlParameterDirections);
+        }
+
+        this.sharedStructure = true;
+    }
+
 }
@@ -18,6 +18,7 @@
 
 package org.midao.jdbc.core.handlers.model;
 
+import org.midao.jdbc.core.MjdbcConfig;
 import org.midao.jdbc.core.MjdbcTypes;
 import org.midao.jdbc.core.exception.MjdbcException;
 import org.midao.jdbc.core.exception.MjdbcRuntimeException;
@@ -25,7 +26,6 @@ import org.midao.jdbc.core.handlers.utils.InputUtils;
 import org.midao.jdbc.core.handlers.utils.MappingUtils;
 import org.midao.jdbc.core.utils.AssertUtils;
 
-import java.beans.PropertyDescriptor;
 import java.util.*;
 
 /**
@@ -52,11 +52,11 @@ public class QueryParameters {
     private static final String ERROR_INCORRECT_LENGTH = "Error! Incorrect length of updated values";
     private static final String ERROR_ORDER_NOT_INIT = "Error! Order is not initialized properly";
 
-    private final Map<String, Object> values = new HashMap<String, Object>();
-    private final Map<String, Integer> types = new HashMap<String, Integer>();
-    private final Map<String, Direction> direction = new HashMap<String, Direction>();
+    private final Map<String, Object> values;
+    private final Map<String, Integer> types;
+    private final Map<String, Direction> direction;
     // one parameter can be used few times, but it will share same value and direction
-    private final List<String> order = new ArrayList<String>();
+    private final List<String> order;
 
     private boolean isCaseSensitive = false;
 
@@ -64,6 +64,23 @@ public class QueryParameters {
      * Creates new QueryParameters instance
      */
     public QueryParameters() {
+        this.values = new HashMap<String, Object>();
+        this.types = new HashMap<String, Integer>();
+        this.direction = new HashMap<String, Direction>();
+        this.order = new ArrayList<String>();
+    }
+
+    /**
+     * Creates new QueryParameters instance without own storage.
+     * Used by {@link QueryParametersRow} which keeps values in array and overrides all functions accessing storage.
+     *
+     * @param rowIndex row column index
+     */
+    QueryParameters(QueryParametersRowIndex rowIndex) {
+        this.values = null;
+        this.types = null;
+        this.direction = null;
+        this.order = null;
     }
 
     /**
@@ -73,6 +90,8 @@ public class QueryParameters {
      * @param map source of values for new QueryParameters
      */
     public QueryParameters(Map<String, Object> map) {
+        this();
+
         if (map != null) {
             this.importValues(map);
         }
@@ -86,12 +105,12 @@ public class QueryParameters {
      * @param bean  source of values for new QueryParameters
      */
     public QueryParameters(Class<?> clazz, Object bean) {
+        this();
+
         Map<String, Object> beanPropertiesMap = null;
 
         if (bean != null) {
-            PropertyDescriptor[] props = MappingUtils.propertyDescriptors(bean.getClass());
-
-            beanPropertiesMap = MappingUtils.toMap(bean, props);
+            beanPropertiesMap = MjdbcConfig.getDefaultBeanAccessorFactory().getBeanAccessor(bean.getClass()).toMap(bean);
 
             this.importValues(beanPropertiesMap);
         }
@@ -103,6 +122,7 @@ public class QueryParameters {
      * @param parameters QueryParameters object which would be "cloned"
      */
     public QueryParameters(QueryParameters parameters) {
+        this();
 
         if (parameters != null) {
             for (String key : parameters.keySet()) {
@@ -128,6 +148,8 @@ public class QueryParameters {
      * @param processedInput ProcessedInput object which would be used read
      */
     public QueryParameters(ProcessedInput processedInput) {
+        this();
+
         if (processedInput.getAmountOfParameters() > 0) {
             String parameterName = null;
             String parameterTypeName = null;
@@ -173,6 +195,8 @@ public class QueryParameters {
      * @param params "array" of values which would be used to fill new Instance
      */
     public QueryParameters(Object... params) {
+        this();
+
         String parameterName = null;
 
         if ((params == null) || (params.length == 1 && params[0] == null)) {
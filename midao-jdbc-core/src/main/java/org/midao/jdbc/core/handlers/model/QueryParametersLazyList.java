@@ -23,10 +23,12 @@ import org.midao.jdbc.core.exception.MjdbcRuntimeException;
 import org.midao.jdbc.core.exception.MjdbcSQLException;
 import org.midao.jdbc.core.handlers.HandlersConstants;
 import org.midao.jdbc.core.handlers.type.TypeHandler;
+import org.midao.jdbc.core.handlers.type.TypeHandlerUtils;
 import org.midao.jdbc.core.handlers.utils.MappingUtils;
 import org.midao.jdbc.core.utils.AssertUtils;
 import org.midao.jdbc.core.utils.MjdbcUtils;
 
+import java.io.IOException;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -49,6 +51,11 @@ public class QueryParametersLazyList implements List<QueryParameters> {
     private static final String ERROR_NOT_ALLOWED = "This function is not allowed to be executed in lazy cache implementation.";
     private int maxCacheSize;
 
+    /**
+     * Amount of rows read (and converted) at once. Used only by {@link Type#READ_ONLY_FORWARD}
+     */
+    private int readAheadSize;
+
     /**
      * {@link TypeHandler} which would be used to process returned values
      */
@@ -67,6 +74,29 @@ public class QueryParametersLazyList implements List<QueryParameters> {
      * Capped {@link #maxCacheSize} cache for values read from ResultSet
      */
     private Map<Integer, QueryParameters> resultSetCacheMap;
+    /**
+     * Capped {@link #maxCacheSize} cache for values read from ResultSet. Used instead of {@link #resultSetCacheMap}
+     * by {@link Type#READ_ONLY_FORWARD}, as rows are read (and cached) one after another
+     */
+    private QueryParametersRingBuffer resultSetCacheBuffer;
+
+    /**
+     * Instructs to keep rows evicted from cache in {@link #spillFile} ({@link Type#READ_ONLY_SCROLL} only).
+     * In this mode ResultSet is read forward only, so it doesn't have to be scrollable
+     */
+    private boolean spillToDisk = false;
+    private QueryParametersSpillFile spillFile;
+    private int spillRowsRead;
+    private boolean spillEndReached;
+    /**
+     * Rows which cannot be written into {@link #spillFile} (for example LOBs are returned as streams). Kept in memory
+     */
+    private Map<Integer, QueryParameters> unspilledRows;
+
+    /**
+     * Instructs to return BLOB/CLOB/SQLXML values of ResultSet as streams (instead of reading them into memory)
+     */
+    private boolean streamLobs = false;
 
     /**
      * Lazy Cache type. {@link Type}
@@ -84,6 +114,12 @@ public class QueryParametersLazyList implements List<QueryParameters> {
      */
     private ResultSet currentResultSet;
 
+    /**
+     * Column index of {@link #rowIndexResultSet}. Column names are read only once for every ResultSet
+     */
+    private QueryParametersRowIndex rowIndex;
+    private ResultSet rowIndexResultSet;
+
     /**
      * Current Lazy Cache index. Please be aware that {@link LazyCacheIterator} have it's own index
      */
@@ -126,6 +162,8 @@ public class QueryParametersLazyList implements List<QueryParameters> {
             }
         };
 
+        resultSetCacheBuffer = new QueryParametersRingBuffer(maxCacheSize);
+
         generatedCacheMap = new TreeMap<Integer, QueryParameters>();
         generatedCacheMap.put(0, statementParams);
 
@@ -194,6 +232,7 @@ public class QueryParametersLazyList implements List<QueryParameters> {
             this.maxCacheSize = maxCacheSize;
         }
 
+        this.resultSetCacheBuffer.setMaxSize(this.maxCacheSize);
     }
 
     /**
@@ -205,6 +244,67 @@ public class QueryParametersLazyList implements List<QueryParameters> {
         return this.maxCacheSize;
     }
 
+    /**
+     * Sets amount of rows which are read from ResultSet (and converted) at once.
+     * Is used only by forward only, read only cache ({@link Type#READ_ONLY_FORWARD}).
+     * Read ahead is limited by max cache size, so requested row is never removed from cache by read ahead.
+     *
+     * @param readAheadSize new read ahead size. 0 or 1 - rows are read one by one
+     */
+    public void setReadAheadSize(int readAheadSize) {
+        this.readAheadSize = (readAheadSize > 0 ? readAheadSize : 0);
+    }
+
+    /**
+     * Returns current read ahead size
+     *
+     * @return current read ahead size
+     */
+    public int getReadAheadSize() {
+        return this.readAheadSize;
+    }
+
+    /**
+     * Instructs to keep rows evicted from cache in temporary file, so they can be read again without scrolling
+     * the ResultSet. Is used only by {@link Type#READ_ONLY_SCROLL} - in this mode ResultSet is read forward only.
+     * This function is intended for internal use by {@link org.midao.jdbc.core.AbstractQueryRunner}.
+     *
+     * @param spillToDisk true - if evicted rows should be kept in temporary file
+     */
+    public void setSpillToDisk(boolean spillToDisk) {
+        this.spillToDisk = spillToDisk;
+    }
+
+    /**
+     * Checks if rows evicted from cache are kept in temporary file
+     *
+     * @return true - if evicted rows are kept in temporary file
+     */
+    public boolean isSpillToDisk() {
+        return this.spillToDisk;
+    }
+
+    /**
+     * Instructs to return BLOB/CLOB/SQLXML values of ResultSet rows as InputStream/Reader, so they are not read into
+     * memory. Streams are valid only while this list is open (some Drivers invalidate them as soon as ResultSet
+     * cursor is moved to the next row).
+     * This function is intended for internal use by {@link org.midao.jdbc.core.AbstractQueryRunner}.
+     *
+     * @param streamLobs true - if LOBs should be returned as streams
+     */
+    public void setStreamLobs(boolean streamLobs) {
+        this.streamLobs = streamLobs;
+    }
+
+    /**
+     * Checks if BLOB/CLOB/SQLXML values of ResultSet rows are returned as streams
+     *
+     * @return true - if LOBs are returned as streams
+     */
+    public boolean isStreamLobs() {
+        return this.streamLobs;
+    }
+
     /**
      * Changes type of this Lazy Cache.
      * This function is intended for internal use by {@link org.midao.jdbc.core.AbstractQueryRunner}.
@@ -212,7 +312,29 @@ public class QueryParametersLazyList implements List<QueryParameters> {
      * @param type
      */
     public void setType(Type type) {
-        this.type = type;
+        if (this.type != type) {
+            // moving already cached values into the cache used by new type
+            List<QueryParameters> cachedValues = null;
+            int firstIndex = generatedCacheMap.size();
+
+            if (this.type == Type.READ_ONLY_FORWARD) {
+                cachedValues = resultSetCacheBuffer.values();
+                firstIndex = currentIndex - cachedValues.size() + 1;
+                resultSetCacheBuffer.clear();
+            } else if (type == Type.READ_ONLY_FORWARD) {
+                cachedValues = new ArrayList<QueryParameters>(resultSetCacheMap.values());
+                firstIndex = (resultSetCacheMap.isEmpty() == false ? resultSetCacheMap.keySet().iterator().next() : firstIndex);
+                resultSetCacheMap.clear();
+            }
+
+            this.type = type;
+
+            if (cachedValues != null) {
+                for (int i = 0; i < cachedValues.size(); i++) {
+                    updateCache(firstIndex + i, cachedValues.get(i));
+                }
+            }
+        }
     }
 
     /**
@@ -241,7 +363,7 @@ public class QueryParametersLazyList implements List<QueryParameters> {
      * @return size of cached elements
      */
     public int sizeCached() {
-        return generatedCacheMap.size() + resultSetCacheMap.size();
+        return generatedCacheMap.size() + (useCacheBuffer() == true ? resultSetCacheBuffer.size() : resultSetCacheMap.size());
     }
 
     /**
@@ -263,7 +385,7 @@ public class QueryParametersLazyList implements List<QueryParameters> {
      */
     public Object[] toArrayCached() {
         Object[] readCacheArray = generatedCacheMap.values().toArray();
-        Object[] writeCacheArray = resultSetCacheMap.values().toArray();
+        Object[] writeCacheArray = getResultSetCacheValues().toArray();
 
         Object[] combinedCacheArray = new Object[readCacheArray.length + writeCacheArray.length];
 
@@ -294,7 +416,7 @@ public class QueryParametersLazyList implements List<QueryParameters> {
      */
     public <T> T[] toArrayCached(T[] a) {
         T[] readCacheArray = generatedCacheMap.values().toArray(a);
-        T[] writeCacheArray = resultSetCacheMap.values().toArray(a);
+        T[] writeCacheArray = getResultSetCacheValues().toArray(a);
 
         T[] combinedCacheArray = (T[]) java.lang.reflect.Array.
                 newInstance(a.getClass().getComponentType(), readCacheArray.length + writeCacheArray.length);
@@ -326,7 +448,7 @@ public class QueryParametersLazyList implements List<QueryParameters> {
         ArrayList<QueryParameters> result = new ArrayList<QueryParameters>();
 
         result.addAll(generatedCacheMap.values());
-        result.addAll(resultSetCacheMap.values());
+        result.addAll(getResultSetCacheValues());
 
         return result.subList(fromIndex, toIndex);
     }
@@ -356,7 +478,9 @@ public class QueryParametersLazyList implements List<QueryParameters> {
                 }
 
                 if (this.type == Type.READ_ONLY_FORWARD) {
-                    for (int i = currentIndex; i < index; i++) {
+                    int lastIndex = getReadAheadIndex(index);
+
+                    for (int i = currentIndex; i < lastIndex; i++) {
                         params = null;
 
                         do {
@@ -377,6 +501,19 @@ public class QueryParametersLazyList implements List<QueryParameters> {
                             }
                         }
                     }
+
+                    if (lastIndex > index) {
+                        // requested row is not the last one read
+                        params = readCachedValue(index);
+                    }
+                } else if (this.type == Type.READ_ONLY_SCROLL && this.spillToDisk == true) {
+
+                    params = readSpilledRow((index + 1) - generatedCacheMap.size());
+
+                    if (params != null) {
+                        updateCache(index, params);
+                    }
+
                 } else if (this.type == Type.READ_ONLY_SCROLL || this.type == Type.UPDATE_SCROLL) {
 
                     params = readResultSetRow((index + 1) - generatedCacheMap.size());
@@ -401,6 +538,27 @@ public class QueryParametersLazyList implements List<QueryParameters> {
         return params;
     }
 
+    /**
+     * Returns index of the last row which should be read in order to read row at specified index.
+     * Rows after specified index are read only if read ahead is enabled and they fit into the cache
+     *
+     * @param index index of requested row
+     * @return index of the last row which should be read
+     */
+    private int getReadAheadIndex(int index) {
+        int result = index;
+
+        if (this.readAheadSize > 1 && currentIndex + this.readAheadSize > index) {
+            result = currentIndex + this.readAheadSize;
+
+            if (getMaxCacheSize() > 0) {
+                result = Math.min(result, index + getMaxCacheSize() - 1);
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Performs cleanup of all resources used by this lazy query output list implementation: {@link Statement} and {@link ResultSet}
      */
@@ -417,6 +575,13 @@ public class QueryParametersLazyList implements List<QueryParameters> {
         }
 
         MjdbcUtils.closeQuietly(stmt);
+
+        if (spillFile != null) {
+            spillFile.close();
+            spillFile = null;
+        }
+
+        unspilledRows = null;
     }
 
     /**
@@ -907,8 +1072,10 @@ public class QueryParametersLazyList implements List<QueryParameters> {
      * @param params element to be inserted
      */
     private void updateCache(int index, QueryParameters params) {
-        if (generatedCacheMap.containsKey(index) == true) {
+        if (isGeneratedValue(index) == true) {
             this.generatedCacheMap.put(index, params);
+        } else if (useCacheBuffer() == true) {
+            this.resultSetCacheBuffer.put(index, params);
         } else {
             this.resultSetCacheMap.put(index, params);
         }
@@ -923,15 +1090,19 @@ public class QueryParametersLazyList implements List<QueryParameters> {
     private boolean valueCached(int index) {
         boolean result = false;
 
-        if (generatedCacheMap.containsKey(index) == true || resultSetCacheMap.containsKey(index) == true) {
+        if (isGeneratedValue(index) == true) {
             result = true;
+        } else if (useCacheBuffer() == true) {
+            result = resultSetCacheBuffer.contains(index);
+        } else {
+            result = resultSetCacheMap.containsKey(index);
         }
 
         return result;
     }
 
     /**
-     * Reads cached values from {@link #generatedCacheMap} (first) and {@link #resultSetCacheMap} (second).
+     * Reads cached values from {@link #generatedCacheMap} (first) and {@link #resultSetCacheMap}/{@link #resultSetCacheBuffer} (second).
      *
      * @param index row index which should be read
      * @return value from cache, or null if it is not present in cache.
@@ -939,15 +1110,53 @@ public class QueryParametersLazyList implements List<QueryParameters> {
     private QueryParameters readCachedValue(int index) {
         QueryParameters result = null;
 
-        if (generatedCacheMap.containsKey(index) == true) {
+        if (isGeneratedValue(index) == true) {
             result = generatedCacheMap.get(index);
-        } else if (resultSetCacheMap.containsKey(index) == true) {
+        } else if (useCacheBuffer() == true) {
+            result = resultSetCacheBuffer.get(index);
+        } else {
             result = resultSetCacheMap.get(index);
         }
 
         return result;
     }
 
+    /**
+     * Checks if index belongs to {@link #generatedCacheMap}. Its keys always go from zero without gaps
+     *
+     * @param index row index
+     * @return true if value at this index is kept in {@link #generatedCacheMap}
+     */
+    private boolean isGeneratedValue(int index) {
+        return index >= 0 && index < generatedCacheMap.size();
+    }
+
+    /**
+     * Checks if values read from ResultSet are cached in {@link #resultSetCacheBuffer}
+     *
+     * @return true for {@link Type#READ_ONLY_FORWARD}
+     */
+    private boolean useCacheBuffer() {
+        return this.type == Type.READ_ONLY_FORWARD;
+    }
+
+    /**
+     * Returns values read from ResultSet which are currently cached (in order they were cached)
+     *
+     * @return cached values
+     */
+    private Collection<QueryParameters> getResultSetCacheValues() {
+        Collection<QueryParameters> result = null;
+
+        if (useCacheBuffer() == true) {
+            result = resultSetCacheBuffer.values();
+        } else {
+            result = resultSetCacheMap.values();
+        }
+
+        return result;
+    }
+
     /**
      * Returns this instance of {@link QueryParametersLazyList}. Is used by {@link #getLazyCacheIterator(int)}
      *
@@ -975,6 +1184,77 @@ public class QueryParametersLazyList implements List<QueryParameters> {
         return result;
     }
 
+    /**
+     * Reads row when evicted rows are kept in {@link #spillFile}. Rows which were already read are taken from the file,
+     * otherwise ResultSet is read forward (rows in between are cached). Every row read from ResultSet is written
+     * into the file straight away, so it can be evicted from cache at any time.
+     *
+     * @param row row which should be read (starting from 1)
+     * @return read value, null if there is no such row
+     * @throws SQLException
+     */
+    private QueryParameters readSpilledRow(int row) throws SQLException {
+        QueryParameters result = null;
+
+        if (row > 0 && row <= spillRowsRead) {
+            // row is not cached, so it was evicted into spill file
+            if (unspilledRows != null && unspilledRows.containsKey(row) == true) {
+                result = unspilledRows.get(row);
+            } else if (spillFile != null) {
+                try {
+                    result = spillFile.read(row - 1);
+                } catch (IOException ex) {
+                    throw new MjdbcSQLException("Failed to read row from spill file", ex);
+                }
+            }
+        } else if (row > 0) {
+            while (spillRowsRead < row && spillEndReached == false) {
+                result = convertResultSetNextLine(getCurrentResultSet());
+
+                if (result == null) {
+                    spillEndReached = true;
+                    closeResultSet(getCurrentResultSet());
+                } else {
+                    spillRowsRead++;
+
+                    spillRow(spillRowsRead, result);
+
+                    if (spillRowsRead < row) {
+                        updateCache(spillRowsRead - 1 + generatedCacheMap.size(), result);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes row read from ResultSet into {@link #spillFile}. Rows are written in order they are read.
+     * Row which cannot be written (one of it's values cannot be serialized) is kept in memory instead.
+     *
+     * @param row    row number (starting from 1)
+     * @param params row
+     * @throws SQLException if row cannot be written into spill file
+     */
+    private void spillRow(int row, QueryParameters params) throws SQLException {
+        try {
+            if (spillFile == null) {
+                spillFile = new QueryParametersSpillFile();
+            }
+
+            if (spillFile.append(params) == false) {
+                if (unspilledRows == null) {
+                    unspilledRows = new HashMap<Integer, QueryParameters>();
+                }
+
+                unspilledRows.put(row, params);
+            }
+        } catch (IOException ex) {
+            throw new MjdbcSQLException("Failed to write row into spill file", ex);
+        }
+    }
+
     /**
      * This is reference implementation of universal read function for scrollable ResultSets.
      * <p/>
@@ -1090,20 +1370,15 @@ public class QueryParametersLazyList implements List<QueryParameters> {
      * @throws SQLException
      */
     private QueryParameters convertResultSetCurrentLine(ResultSet rs) throws SQLException {
-        ResultSetMetaData rsmd = rs.getMetaData();
-        int cols = rsmd.getColumnCount();
-        String columnName = null;
-        QueryParameters result = new QueryParameters();
-
-        for (int i = 1; i <= cols; i++) {
+        if (rs != rowIndexResultSet) {
+            rowIndex = new QueryParametersRowIndex(MappingUtils.getColumnNames(rs.getMetaData()));
+            rowIndexResultSet = rs;
+        }
 
-            columnName = rsmd.getColumnLabel(i);
-            if (null == columnName || 0 == columnName.length()) {
-                columnName = rsmd.getColumnName(i);
-            }
+        QueryParameters result = MappingUtils.convertResultSetRow(rs, rowIndex);
 
-            result.set(columnName, rs.getObject(i));
-            result.updatePosition(columnName, i - 1);
+        if (result != null && this.streamLobs == true) {
+            result = TypeHandlerUtils.convertResultSetLobsToStreams(result);
         }
 
         if (result != null) {
@@ -1143,7 +1418,11 @@ public class QueryParametersLazyList implements List<QueryParameters> {
             columnIndex = rs.findColumn(parameterName);
             readOnly = rsmd.isReadOnly(columnIndex) || rsmd.isAutoIncrement(columnIndex);
 
-            if (readOnly == false) {
+            if (readOnly == false && value instanceof LobStream && ((LobStream) value).isBinary() == true) {
+                rs.updateBinaryStream(parameterName, ((LobStream) value).getBinaryStream(), (int) ((LobStream) value).getLength());
+            } else if (readOnly == false && value instanceof LobStream) {
+                rs.updateCharacterStream(parameterName, ((LobStream) value).getCharacterStream(), (int) ((LobStream) value).getLength());
+            } else if (readOnly == false) {
                 rs.updateObject(parameterName, value);
             }
         }
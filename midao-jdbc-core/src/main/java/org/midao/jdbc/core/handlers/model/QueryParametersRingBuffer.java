@@ -0,0 +1,214 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed capacity row cache for forward only lazy query output ({@link QueryParametersLazyList.Type#READ_ONLY_FORWARD}).
+ * <p/>
+ * Rows are expected to be added one after another (by increasing row index), so they are kept in the array
+ * and are addressed by row index without any boxing or map entries. If max size is reached - the oldest row is removed.
+ * <p/>
+ * This class is not thread safe.
+ */
+public class QueryParametersRingBuffer {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private QueryParameters[] buffer;
+
+    /**
+     * Maximum amount of rows kept. 0 or less - unlimited
+     */
+    private int maxSize;
+
+    /**
+     * Position (in {@link #buffer}) and row index of the oldest row
+     */
+    private int head;
+    private int firstIndex;
+    private int size;
+
+    /**
+     * Creates new QueryParametersRingBuffer instance
+     *
+     * @param maxSize maximum amount of rows kept. 0 or less - unlimited
+     */
+    public QueryParametersRingBuffer(int maxSize) {
+        this.maxSize = maxSize;
+        this.buffer = new QueryParameters[(maxSize > 0 ? Math.min(maxSize, INITIAL_CAPACITY) : INITIAL_CAPACITY)];
+    }
+
+    /**
+     * Sets maximum amount of rows kept. If it is already exceeded - the oldest rows are removed
+     *
+     * @param maxSize maximum amount of rows kept. 0 or less - unlimited
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+
+        while (maxSize > 0 && this.size > maxSize) {
+            removeFirst();
+        }
+    }
+
+    /**
+     * Returns maximum amount of rows kept
+     *
+     * @return maximum amount of rows kept. 0 or less - unlimited
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Adds/replaces row.
+     * Row is expected to be next after the last one added. Otherwise all rows are removed and
+     * buffer starts from this row.
+     *
+     * @param index  row index
+     * @param params row
+     */
+    public void put(int index, QueryParameters params) {
+        if (contains(index) == true) {
+            this.buffer[position(index)] = params;
+            return;
+        }
+
+        if (this.size == 0 || index != this.firstIndex + this.size) {
+            clear();
+            this.firstIndex = index;
+        }
+
+        if (this.maxSize > 0 && this.size >= this.maxSize) {
+            removeFirst();
+        }
+
+        if (this.size == this.buffer.length) {
+            grow();
+        }
+
+        this.buffer[position(this.firstIndex + this.size)] = params;
+        this.size++;
+    }
+
+    /**
+     * Returns row by it's index
+     *
+     * @param index row index
+     * @return row, null if it is not present in buffer
+     */
+    public QueryParameters get(int index) {
+        QueryParameters result = null;
+
+        if (contains(index) == true) {
+            result = this.buffer[position(index)];
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks if row is present in buffer
+     *
+     * @param index row index
+     * @return true if row is present in buffer
+     */
+    public boolean contains(int index) {
+        return this.size > 0 && index >= this.firstIndex && index - this.firstIndex < this.size;
+    }
+
+    /**
+     * Returns amount of rows in buffer
+     *
+     * @return amount of rows in buffer
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns rows from buffer (from the oldest to the newest)
+     *
+     * @return list of rows
+     */
+    public List<QueryParameters> values() {
+        List<QueryParameters> result = new ArrayList<QueryParameters>(this.size);
+
+        for (int i = 0; i < this.size; i++) {
+            result.add(this.buffer[(this.head + i) % this.buffer.length]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes all rows from buffer
+     */
+    public void clear() {
+        for (int i = 0; i < this.size; i++) {
+            this.buffer[(this.head + i) % this.buffer.length] = null;
+        }
+
+        this.head = 0;
+        this.firstIndex = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Returns position of the row (which is present in buffer or is next after the last one) in {@link #buffer}
+     *
+     * @param index row index
+     * @return position in {@link #buffer}
+     */
+    private int position(int index) {
+        return (this.head + (index - this.firstIndex)) % this.buffer.length;
+    }
+
+    /**
+     * Removes the oldest row
+     */
+    private void removeFirst() {
+        this.buffer[this.head] = null;
+        this.head = (this.head + 1) % this.buffer.length;
+        this.firstIndex++;
+        this.size--;
+    }
+
+    /**
+     * Increases capacity of the buffer (up to max size). Rows are copied from the oldest to the newest
+     */
+    private void grow() {
+        int capacity = this.buffer.length * 2;
+
+        if (this.maxSize > 0 && capacity > this.maxSize) {
+            capacity = this.maxSize;
+        }
+
+        QueryParameters[] newBuffer = new QueryParameters[capacity];
+
+        for (int i = 0; i < this.size; i++) {
+            newBuffer[i] = this.buffer[(this.head + i) % this.buffer.length];
+        }
+
+        this.buffer = newBuffer;
+        this.head = 0;
+    }
+}
@@ -0,0 +1,431 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.model;
+
+import org.midao.jdbc.core.MjdbcTypes;
+import org.midao.jdbc.core.utils.AssertUtils;
+
+import java.util.*;
+
+/**
+ * Query output row.
+ * <p/>
+ * Compact {@link QueryParameters} implementation: values are stored in array, column names/positions are
+ * stored in {@link QueryParametersRowIndex} which is shared by all rows of the same ResultSet.
+ * Type of every value is {@link MjdbcTypes#OTHER}, direction - {@link Direction#IN}.
+ * <p/>
+ * Values can be updated in place. Any other modification (new key, type/direction/position change, removal etc.)
+ * converts this row into usual QueryParameters (all further calls are delegated to it).
+ */
+public class QueryParametersRow extends QueryParameters {
+    private final QueryParametersRowIndex index;
+    private final Object[] rowValues;
+
+    // created when this row is modified in a way which cannot be stored in array
+    private QueryParameters delegate = null;
+
+    /**
+     * Creates new QueryParametersRow instance
+     *
+     * @param index     column index
+     * @param rowValues row values (index in array is column position). Array is not copied
+     */
+    public QueryParametersRow(QueryParametersRowIndex index, Object[] rowValues) {
+        super(index);
+
+        if (index.size() != rowValues.length) {
+            throw new IllegalArgumentException("Row values amount should be equal to amount of columns");
+        }
+
+        this.index = index;
+        this.rowValues = rowValues;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public QueryParameters setClassName(String className) {
+        inflate().setClassName(className);
+
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public QueryParameters updateType(String key, Integer type) {
+        if (this.delegate != null || containsKey(key) == false || type == null || type.intValue() != MjdbcTypes.OTHER) {
+            inflate().updateType(key, type);
+        }
+
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public QueryParameters updateDirection(String key, Direction direction) {
+        if (this.delegate != null || containsKey(key) == false || direction != Direction.IN) {
+            inflate().updateDirection(key, direction);
+        }
+
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public QueryParameters updatePosition(String key, Integer position) {
+        if (this.delegate != null || position >= this.index.size()
+                || this.index.getName(position).equals(processKey(key)) == false) {
+            inflate().updatePosition(key, position);
+        }
+
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public QueryParameters updateValue(String key, Object value) {
+        int position = -1;
+
+        if (this.delegate == null) {
+            position = getPosition(key);
+        }
+
+        if (position != -1) {
+            this.rowValues[position] = value;
+        } else {
+            inflate().updateValue(key, value);
+        }
+
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer getFirstPosition(String key) {
+        if (this.delegate != null) {
+            return this.delegate.getFirstPosition(key);
+        }
+
+        String processedKey = processKey(key);
+
+        for (int i = 0; i < this.index.size(); i++) {
+            if (this.index.getName(i).equals(processedKey) == true) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Integer> getOrderList(String key) {
+        if (this.delegate != null) {
+            return this.delegate.getOrderList(key);
+        }
+
+        List<Integer> result = new ArrayList<Integer>();
+        String processedKey = processKey(key);
+
+        for (int i = 0; i < this.index.size(); i++) {
+            if (this.index.getName(i).equals(processedKey) == true) {
+                result.add(i);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean usedOnce(String key) {
+        if (this.delegate != null) {
+            return this.delegate.usedOnce(key);
+        }
+
+        return getOrderList(key).size() == 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Direction getDirection(String key) {
+        if (this.delegate != null) {
+            return this.delegate.getDirection(key);
+        }
+
+        return (containsKey(key) == true ? Direction.IN : null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer getType(String key) {
+        if (this.delegate != null) {
+            return this.delegate.getType(key);
+        }
+
+        return (containsKey(key) == true ? MjdbcTypes.OTHER : null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getValue(String key) {
+        if (this.delegate != null) {
+            return this.delegate.getValue(key);
+        }
+
+        int position = getPosition(key);
+
+        return (position != -1 ? this.rowValues[position] : null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> toMap() {
+        if (this.delegate != null) {
+            return this.delegate.toMap();
+        }
+
+        Map<String, Object> result = new HashMap<String, Object>();
+
+        for (String key : this.index.keySet()) {
+            result.put(key, this.rowValues[this.index.getPosition(key)]);
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keySet() {
+        if (this.delegate != null) {
+            return this.delegate.keySet();
+        }
+
+        return this.index.keySet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getNameByPosition(Integer position) {
+        if (this.delegate != null) {
+            return this.delegate.getNameByPosition(position);
+        }
+
+        return this.index.getName(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        if (this.delegate != null) {
+            return this.delegate.containsKey(key);
+        }
+
+        return getPosition(key) != -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void remove(String key) {
+        inflate().remove(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clearOrder() {
+        inflate().clearOrder();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        if (this.delegate != null) {
+            return this.delegate.size();
+        }
+
+        return this.index.keySet().size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int orderSize() {
+        if (this.delegate != null) {
+            return this.delegate.orderSize();
+        }
+
+        return this.index.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setCaseSensitive(boolean newValue) {
+        if (this.delegate != null || newValue == true) {
+            inflate().setCaseSensitive(newValue);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isCaseSensitive() {
+        if (this.delegate != null) {
+            return this.delegate.isCaseSensitive();
+        }
+
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(Object[] newValues, boolean updateOutOnly) {
+        inflate().update(newValues, updateOutOnly);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object[] getValuesArray() {
+        if (this.delegate != null) {
+            return this.delegate.getValuesArray();
+        }
+
+        this.assertIncorrectOrder();
+
+        return this.rowValues.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isOrderSet() {
+        if (this.delegate != null) {
+            return this.delegate.isOrderSet();
+        }
+
+        return this.index.keySet().size() == this.index.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        if (this.delegate != null) {
+            return this.delegate.toString();
+        }
+
+        return new QueryParameters(this).toString();
+    }
+
+    /**
+     * Converts this row into usual QueryParameters, which would be used for all further calls
+     *
+     * @return QueryParameters which should be used instead of arrays
+     */
+    private QueryParameters inflate() {
+        if (this.delegate == null) {
+            this.delegate = new QueryParameters(this);
+        }
+
+        return this.delegate;
+    }
+
+    /**
+     * Same as in QueryParameters: row is case insensitive (till it is converted)
+     *
+     * @param key Key
+     * @return Processed Key
+     */
+    private String processKey(String key) {
+        AssertUtils.assertNotNull(key, "Key cannot be null");
+
+        return key.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Returns value of the column. Unlike {@link #getValue(String)} - if column name is used few times, value of
+     * this exact column is returned
+     *
+     * @param position column position
+     * @return column value
+     */
+    Object getColumnValue(int position) {
+        if (this.delegate != null) {
+            return this.delegate.getValue(this.delegate.getNameByPosition(position));
+        }
+
+        return this.rowValues[position];
+    }
+
+    /**
+     * Returns position of the key in the row. Lower case conversion is performed only if key wasn't found as is
+     *
+     * @param key Key
+     * @return column position or -1 if not found
+     */
+    private int getPosition(String key) {
+        AssertUtils.assertNotNull(key, "Key cannot be null");
+
+        return this.index.getPosition(key);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.model;
+
+import java.util.*;
+
+/**
+ * Column index shared by all {@link QueryParametersRow} instances read from one ResultSet.
+ * <p/>
+ * Column names are converted to lower case once (as {@link QueryParameters} is case insensitive by default),
+ * so rows do not need to do that on every access.
+ */
+public class QueryParametersRowIndex {
+    private final String[] names;
+    private final Map<String, Integer> positions;
+    private final Set<String> keySet;
+
+    /**
+     * Creates new QueryParametersRowIndex instance
+     *
+     * @param columnNames column names (index in array is column position)
+     */
+    public QueryParametersRowIndex(String[] columnNames) {
+        this.names = new String[columnNames.length];
+        this.positions = new HashMap<String, Integer>();
+
+        for (int i = 0; i < columnNames.length; i++) {
+            this.names[i] = columnNames[i].toLowerCase(Locale.ENGLISH);
+
+            // same as in QueryParameters - if column name is used few times: value of last column is used
+            this.positions.put(this.names[i], i);
+        }
+
+        this.keySet = Collections.unmodifiableSet(this.positions.keySet());
+    }
+
+    /**
+     * Returns amount of columns
+     *
+     * @return amount of columns
+     */
+    public int size() {
+        return this.names.length;
+    }
+
+    /**
+     * Returns (lower case) column name
+     *
+     * @param position column position
+     * @return column name
+     */
+    public String getName(int position) {
+        return this.names[position];
+    }
+
+    /**
+     * Returns position of column. If column name is used few times - last position is returned
+     *
+     * @param key column name (case insensitive)
+     * @return column position or -1 if not found
+     */
+    public int getPosition(String key) {
+        Integer result = this.positions.get(key);
+
+        if (result == null) {
+            result = this.positions.get(key.toLowerCase(Locale.ENGLISH));
+        }
+
+        return (result != null ? result.intValue() : -1);
+    }
+
+    /**
+     * Returns set of (lower case) column names
+     *
+     * @return unmodifiable set of column names
+     */
+    public Set<String> keySet() {
+        return this.keySet;
+    }
+}
@@ -0,0 +1,471 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.model;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Temporary file which keeps query output rows evicted from lazy cache
+ * ({@link QueryParametersLazyList.Type#READ_ONLY_SCROLL}).
+ * <p/>
+ * Rows are appended one after another in compact binary form: column names are written only once for every
+ * set of columns and values of common JDBC types are written without Java serialization. Offset of every row
+ * is kept in memory, so any row can be read back by one positional read. Rows with values which cannot be
+ * serialized (streams, LOBs etc.) are not written: empty entry is appended instead, so row numbers are kept.
+ * <p/>
+ * File is deleted when this instance is closed (or, if it wasn't closed, when it is garbage collected).
+ * This class is not thread safe.
+ */
+public class QueryParametersSpillFile {
+    private static final String FILE_PREFIX = "mjdbc-lazy";
+    private static final String FILE_SUFFIX = ".spill";
+    private static final String CHARSET = "UTF-8";
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INTEGER = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_SHORT = 4;
+    private static final byte TYPE_BYTE = 5;
+    private static final byte TYPE_DOUBLE = 6;
+    private static final byte TYPE_FLOAT = 7;
+    private static final byte TYPE_BOOLEAN = 8;
+    private static final byte TYPE_BIG_DECIMAL = 9;
+    private static final byte TYPE_BIG_INTEGER = 10;
+    private static final byte TYPE_SQL_DATE = 11;
+    private static final byte TYPE_SQL_TIME = 12;
+    private static final byte TYPE_SQL_TIMESTAMP = 13;
+    private static final byte TYPE_DATE = 14;
+    private static final byte TYPE_BYTES = 15;
+    private static final byte TYPE_SERIALIZED = 16;
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+
+    /**
+     * Offset of every row. Offset of row N is offsets[N], it's end is offsets[N + 1]
+     */
+    private long[] offsets;
+    private int size;
+
+    /**
+     * Column sets of rows. Row keeps only the number of it's column set
+     */
+    private final List<QueryParametersRowIndex> rowIndexes;
+    private final List<String[]> rowColumns;
+
+    private final ByteArrayOutputStream buffer;
+    private final DataOutputStream output;
+
+    private boolean closed = false;
+
+    /**
+     * Creates new QueryParametersSpillFile instance. Temporary file is created in default temporary-file directory
+     *
+     * @throws IOException if temporary file cannot be created
+     */
+    public QueryParametersSpillFile() throws IOException {
+        this.file = File.createTempFile(FILE_PREFIX, FILE_SUFFIX);
+
+        try {
+            this.randomAccessFile = new RandomAccessFile(this.file, "rw");
+        } catch (IOException ex) {
+            this.file.delete();
+            throw ex;
+        }
+        this.channel = this.randomAccessFile.getChannel();
+
+        this.offsets = new long[INITIAL_CAPACITY];
+        this.size = 0;
+
+        this.rowIndexes = new ArrayList<QueryParametersRowIndex>();
+        this.rowColumns = new ArrayList<String[]>();
+
+        this.buffer = new ByteArrayOutputStream();
+        this.output = new DataOutputStream(this.buffer);
+    }
+
+    /**
+     * Appends row to the end of the file.
+     * If row has values which cannot be serialized - empty entry is appended instead and false is returned:
+     * such row should be kept by the caller
+     *
+     * @param params row
+     * @return true - if row was written
+     * @throws IOException if row cannot be written
+     */
+    public boolean append(QueryParameters params) throws IOException {
+        boolean result = isSpillable(params);
+        String[] columns = null;
+
+        this.buffer.reset();
+
+        if (result == true) {
+            // positions are used (instead of keys), as column name might be used few times
+            columns = new String[params.orderSize()];
+
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = params.getNameByPosition(i);
+            }
+
+            try {
+                this.output.writeInt(getColumnSet(columns));
+
+                for (int i = 0; i < columns.length; i++) {
+                    writeValue(this.output, getValue(params, i, columns[i]));
+                }
+            } catch (ObjectStreamException ex) {
+                // value isn't serializable after all. Nothing was written into file yet
+                result = false;
+                this.buffer.reset();
+            }
+
+            this.output.flush();
+        }
+
+        if (this.size + 1 == this.offsets.length) {
+            long[] newOffsets = new long[this.offsets.length * 2];
+
+            System.arraycopy(this.offsets, 0, newOffsets, 0, this.offsets.length);
+            this.offsets = newOffsets;
+        }
+
+        long offset = this.offsets[this.size];
+        ByteBuffer bytes = ByteBuffer.wrap(this.buffer.toByteArray());
+
+        while (bytes.hasRemaining() == true) {
+            this.channel.write(bytes, offset + bytes.position());
+        }
+
+        this.offsets[this.size + 1] = offset + bytes.limit();
+        this.size++;
+
+        return result;
+    }
+
+    /**
+     * Reads row from the file
+     *
+     * @param row row number (starting from zero)
+     * @return row, null if row wasn't written
+     * @throws IOException if row cannot be read
+     */
+    public QueryParameters read(int row) throws IOException {
+        QueryParameters result = null;
+
+        if (row >= 0 && row < this.size && this.offsets[row + 1] > this.offsets[row]) {
+            long offset = this.offsets[row];
+            ByteBuffer bytes = ByteBuffer.allocate((int) (this.offsets[row + 1] - offset));
+
+            while (bytes.hasRemaining() == true) {
+                if (this.channel.read(bytes, offset + bytes.position()) < 0) {
+                    throw new EOFException("Unexpected end of spill file " + this.file.getName());
+                }
+            }
+
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.array()));
+
+            QueryParametersRowIndex rowIndex = this.rowIndexes.get(input.readInt());
+            Object[] values = new Object[rowIndex.size()];
+
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readValue(input);
+            }
+
+            result = new QueryParametersRow(rowIndex, values);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns amount of rows written
+     *
+     * @return amount of rows written
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns amount of bytes written
+     *
+     * @return file size
+     */
+    public long length() {
+        return this.offsets[this.size];
+    }
+
+    /**
+     * Closes and deletes the file
+     */
+    public void close() {
+        if (this.closed == false) {
+            this.closed = true;
+
+            try {
+                this.randomAccessFile.close();
+            } catch (IOException ex) {
+                // ignoring: file is deleted anyway
+            }
+
+            this.file.delete();
+        }
+    }
+
+    /**
+     * Deletes the file if it wasn't closed (for example lazy list wasn't closed)
+     *
+     * @throws Throwable
+     */
+    @Override
+    protected void finalize() throws Throwable {
+        try {
+            close();
+        } finally {
+            super.finalize();
+        }
+    }
+
+    /**
+     * Checks if all row values can be written
+     *
+     * @param params row
+     * @return true - if values are either of supported types or are {@link Serializable}
+     */
+    private static boolean isSpillable(QueryParameters params) {
+        boolean result = true;
+
+        for (int i = 0; i < params.orderSize() && result == true; i++) {
+            Object value = getValue(params, i, params.getNameByPosition(i));
+
+            if (value != null && value instanceof Serializable == false) {
+                result = false;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns value of the column at specified position
+     *
+     * @param params   row
+     * @param position column position
+     * @param name     column name
+     * @return column value
+     */
+    private static Object getValue(QueryParameters params, int position, String name) {
+        Object result = null;
+
+        if (params instanceof QueryParametersRow) {
+            result = ((QueryParametersRow) params).getColumnValue(position);
+        } else {
+            result = params.getValue(name);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns number of the column set. New column set is registered if it wasn't seen before
+     *
+     * @param columns column names
+     * @return number of the column set
+     */
+    private int getColumnSet(String[] columns) {
+        int result = -1;
+
+        // usually there is only one column set, so the last one is checked first
+        for (int i = this.rowColumns.size() - 1; i >= 0; i--) {
+            if (Arrays.equals(this.rowColumns.get(i), columns) == true) {
+                result = i;
+                break;
+            }
+        }
+
+        if (result == -1) {
+            this.rowColumns.add(columns);
+            this.rowIndexes.add(new QueryParametersRowIndex(columns));
+            result = this.rowColumns.size() - 1;
+        }
+
+        return result;
+    }
+
+    private static void writeValue(DataOutputStream output, Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(TYPE_NULL);
+        } else if (value instanceof String) {
+            output.writeByte(TYPE_STRING);
+            writeBytes(output, ((String) value).getBytes(CHARSET));
+        } else if (value instanceof Integer) {
+            output.writeByte(TYPE_INTEGER);
+            output.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(TYPE_LONG);
+            output.writeLong((Long) value);
+        } else if (value instanceof Short) {
+            output.writeByte(TYPE_SHORT);
+            output.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            output.writeByte(TYPE_BYTE);
+            output.writeByte((Byte) value);
+        } else if (value instanceof Double) {
+            output.writeByte(TYPE_DOUBLE);
+            output.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            output.writeByte(TYPE_FLOAT);
+            output.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            output.writeByte(TYPE_BOOLEAN);
+            output.writeBoolean((Boolean) value);
+        } else if (value.getClass() == BigDecimal.class) {
+            output.writeByte(TYPE_BIG_DECIMAL);
+            writeBytes(output, ((BigDecimal) value).unscaledValue().toByteArray());
+            output.writeInt(((BigDecimal) value).scale());
+        } else if (value.getClass() == BigInteger.class) {
+            output.writeByte(TYPE_BIG_INTEGER);
+            writeBytes(output, ((BigInteger) value).toByteArray());
+        } else if (value.getClass() == java.sql.Date.class) {
+            output.writeByte(TYPE_SQL_DATE);
+            output.writeLong(((java.sql.Date) value).getTime());
+        } else if (value.getClass() == Time.class) {
+            output.writeByte(TYPE_SQL_TIME);
+            output.writeLong(((Time) value).getTime());
+        } else if (value.getClass() == Timestamp.class) {
+            output.writeByte(TYPE_SQL_TIMESTAMP);
+            output.writeLong(((Timestamp) value).getTime());
+            output.writeInt(((Timestamp) value).getNanos());
+        } else if (value.getClass() == java.util.Date.class) {
+            output.writeByte(TYPE_DATE);
+            output.writeLong(((java.util.Date) value).getTime());
+        } else if (value instanceof byte[]) {
+            output.writeByte(TYPE_BYTES);
+            writeBytes(output, (byte[]) value);
+        } else {
+            ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            ObjectOutputStream objectOutput = new ObjectOutputStream(serialized);
+
+            objectOutput.writeObject(value);
+            objectOutput.close();
+
+            output.writeByte(TYPE_SERIALIZED);
+            writeBytes(output, serialized.toByteArray());
+        }
+    }
+
+    private static Object readValue(DataInputStream input) throws IOException {
+        Object result = null;
+        byte type = input.readByte();
+
+        switch (type) {
+            case TYPE_NULL:
+                result = null;
+                break;
+            case TYPE_STRING:
+                result = new String(readBytes(input), CHARSET);
+                break;
+            case TYPE_INTEGER:
+                result = input.readInt();
+                break;
+            case TYPE_LONG:
+                result = input.readLong();
+                break;
+            case TYPE_SHORT:
+                result = input.readShort();
+                break;
+            case TYPE_BYTE:
+                result = input.readByte();
+                break;
+            case TYPE_DOUBLE:
+                result = input.readDouble();
+                break;
+            case TYPE_FLOAT:
+                result = input.readFloat();
+                break;
+            case TYPE_BOOLEAN:
+                result = input.readBoolean();
+                break;
+            case TYPE_BIG_DECIMAL:
+                BigInteger unscaledValue = new BigInteger(readBytes(input));
+                result = new BigDecimal(unscaledValue, input.readInt());
+                break;
+            case TYPE_BIG_INTEGER:
+                result = new BigInteger(readBytes(input));
+                break;
+            case TYPE_SQL_DATE:
+                result = new java.sql.Date(input.readLong());
+                break;
+            case TYPE_SQL_TIME:
+                result = new Time(input.readLong());
+                break;
+            case TYPE_SQL_TIMESTAMP:
+                Timestamp timestamp = new Timestamp(input.readLong());
+                timestamp.setNanos(input.readInt());
+                result = timestamp;
+                break;
+            case TYPE_DATE:
+                result = new java.util.Date(input.readLong());
+                break;
+            case TYPE_BYTES:
+                result = readBytes(input);
+                break;
+            case TYPE_SERIALIZED:
+                ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(readBytes(input)));
+
+                try {
+                    result = objectInput.readObject();
+                } catch (ClassNotFoundException ex) {
+                    throw new IOException("Failed to read spilled value: " + ex.getMessage());
+                } finally {
+                    objectInput.close();
+                }
+                break;
+            default:
+                throw new IOException("Unknown spilled value type: " + type);
+        }
+
+        return result;
+    }
+
+    private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException {
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream input) throws IOException {
+        byte[] result = new byte[input.readInt()];
+
+        input.readFully(result);
+
+        return result;
+    }
+}
@@ -22,12 +22,13 @@ import org.midao.jdbc.core.exception.MjdbcException;
 import org.midao.jdbc.core.handlers.model.QueryParameters;
 import org.midao.jdbc.core.processor.QueryOutputProcessor;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Converts query output into list of beans
  */
-public class BeanListOutputHandler<T> extends AbstractOutputListHandler<T> {
+public class BeanListOutputHandler<T> extends AbstractOutputListHandler<T> implements StreamingOutputHandler<List<T>> {
 
     /**
      * The Class of beans produced by this handler.
@@ -68,4 +69,25 @@ public class BeanListOutputHandler<T> extends AbstractOutputListHandler<T> {
         return this.outputProcessor.toBeanList(outputList, this.type);
     }
 
+    /**
+     * Creates row handler which converts every query output row into bean
+     *
+     * @return new row handler
+     */
+    public OutputRowHandler<List<T>> createRowHandler() {
+        return new OutputRowHandler<List<T>>() {
+            private final List<T> result = new ArrayList<T>();
+
+            public boolean handleRow(QueryParameters row) throws MjdbcException {
+                result.add(outputProcessor.toBean(row, type));
+
+                return true;
+            }
+
+            public List<T> getResult() {
+                return result;
+            }
+        };
+    }
+
 }
@@ -27,7 +27,7 @@ import java.util.List;
 /**
  * Converts specified column of query output into List
  */
-public class ColumnListOutputHandler<T> extends AbstractOutputListHandler<T> {
+public class ColumnListOutputHandler<T> extends AbstractOutputListHandler<T> implements StreamingOutputHandler<List<T>> {
 
     /**
      * Index of the column which would be used as Key
@@ -85,24 +85,51 @@ public class ColumnListOutputHandler<T> extends AbstractOutputListHandler<T> {
      */
     public List<T> handle(List<QueryParameters> outputList) throws MjdbcException {
         List<T> result = new ArrayList<T>();
-        String parameterName = null;
-        Object parameterValue = null;
 
         for (int i = 1; i < outputList.size(); i++) {
-            if (this.columnName == null) {
-                parameterName = outputList.get(i).getNameByPosition(this.columnIndex);
-                parameterValue = outputList.get(i).getValue(parameterName);
+            result.add(this.readColumn(outputList.get(i)));
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates row handler which adds specified (via constructor) column of every query output row into List
+     *
+     * @return new row handler
+     */
+    public OutputRowHandler<List<T>> createRowHandler() {
+        return new OutputRowHandler<List<T>>() {
+            private final List<T> result = new ArrayList<T>();
 
-                result.add((T) parameterValue);
-            } else {
-                parameterValue = outputList.get(i).getValue(this.columnName);
+            public boolean handleRow(QueryParameters row) {
+                result.add(readColumn(row));
 
-                result.add((T) parameterValue);
+                return true;
             }
 
+            public List<T> getResult() {
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Reads specified (via constructor) column value
+     *
+     * @param row query output row
+     * @return column value
+     */
+    private T readColumn(QueryParameters row) {
+        Object parameterValue = null;
+
+        if (this.columnName == null) {
+            parameterValue = row.getValue(row.getNameByPosition(this.columnIndex));
+        } else {
+            parameterValue = row.getValue(this.columnName);
         }
 
-        return result;
+        return (T) parameterValue;
     }
 
 }
@@ -22,6 +22,7 @@ import org.midao.jdbc.core.exception.MjdbcException;
 import org.midao.jdbc.core.handlers.model.QueryParameters;
 import org.midao.jdbc.core.processor.QueryOutputProcessor;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -40,7 +41,8 @@ import java.util.Map;
  * 1: Map {"name":"henry", "occupation":"mechanic", "age":36}
  * 2: Map {"name":"alison", "occupation":"agent", "age":30}
  */
-public class MapListOutputHandler extends AbstractOutputListHandler<Map<String, Object>> {
+public class MapListOutputHandler extends AbstractOutputListHandler<Map<String, Object>>
+        implements StreamingOutputHandler<List<Map<String, Object>>> {
 
     /**
      * Creates new MapListOutputHandler instance.
@@ -69,4 +71,25 @@ public class MapListOutputHandler extends AbstractOutputListHandler<Map<String,
         return this.outputProcessor.toMapList(outputList);
     }
 
+    /**
+     * Creates row handler which converts every query output row into Map
+     *
+     * @return new row handler
+     */
+    public OutputRowHandler<List<Map<String, Object>>> createRowHandler() {
+        return new OutputRowHandler<List<Map<String, Object>>>() {
+            private final List<Map<String, Object>> result = new ArrayList<Map<String, Object>>();
+
+            public boolean handleRow(QueryParameters row) {
+                result.add(outputProcessor.toMap(row));
+
+                return true;
+            }
+
+            public List<Map<String, Object>> getResult() {
+                return result;
+            }
+        };
+    }
+
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.output;
+
+import org.midao.jdbc.core.exception.MjdbcException;
+import org.midao.jdbc.core.handlers.model.QueryParameters;
+
+/**
+ * Receives query output row by row (see {@link StreamingOutputHandler}).
+ * <p/>
+ * New instance is created for every query execution, so implementations can keep result in
+ * local variables.
+ */
+public interface OutputRowHandler<T> {
+
+    /**
+     * Handles one query output row.
+     * Row is not stored anywhere else, so it should be converted into result right away
+     *
+     * @param row query output row (already processed by {@link org.midao.jdbc.core.handlers.type.TypeHandler})
+     * @return true - if more rows should be read, false - otherwise
+     * @throws MjdbcException
+     */
+    public boolean handleRow(QueryParameters row) throws MjdbcException;
+
+    /**
+     * Returns result built from all handled rows
+     *
+     * @return result
+     * @throws MjdbcException
+     */
+    public T getResult() throws MjdbcException;
+}
@@ -25,7 +25,7 @@ import java.util.List;
 /**
  * Reads specified column of first row of Query output
  */
-public class ScalarOutputHandler<T> extends AbstractOutputHandler<T> {
+public class ScalarOutputHandler<T> extends AbstractOutputHandler<T> implements StreamingOutputHandler<T> {
 
     /**
      * Index of the column which would be used as Key
@@ -81,23 +81,52 @@ public class ScalarOutputHandler<T> extends AbstractOutputHandler<T> {
      */
     public T handle(List<QueryParameters> output) {
         T result = null;
-        String parameterName = null;
-        Object parameterValue = null;
 
         if (output.size() > 1) {
-            if (this.columnName == null) {
-                parameterName = output.get(1).getNameByPosition(columnIndex);
-                parameterValue = output.get(1).getValue(parameterName);
+            result = this.readColumn(output.get(1));
+        }
+
+        return result;
+    }
 
-                result = (T) parameterValue;
-            } else {
-                parameterValue = output.get(1).getValue(this.columnName);
+    /**
+     * Creates row handler which reads specified (via constructor) column of first row.
+     * Rest of the rows are not read
+     *
+     * @return new row handler
+     */
+    public OutputRowHandler<T> createRowHandler() {
+        return new OutputRowHandler<T>() {
+            private T result = null;
 
-                result = (T) parameterValue;
+            public boolean handleRow(QueryParameters row) {
+                result = readColumn(row);
+
+                return false;
             }
+
+            public T getResult() {
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Reads specified (via constructor) column value
+     *
+     * @param row query output row
+     * @return column value
+     */
+    private T readColumn(QueryParameters row) {
+        Object parameterValue = null;
+
+        if (this.columnName == null) {
+            parameterValue = row.getValue(row.getNameByPosition(this.columnIndex));
+        } else {
+            parameterValue = row.getValue(this.columnName);
         }
 
-        return result;
+        return (T) parameterValue;
     }
 
 }
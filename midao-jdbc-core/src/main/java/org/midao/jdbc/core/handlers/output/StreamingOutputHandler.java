@@ -0,0 +1,39 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.output;
+
+/**
+ * OutputHandler which is able to build result directly from ResultSet rows.
+ * <p/>
+ * If {@link org.midao.jdbc.core.statement.StatementHandler} supports it (see
+ * {@link org.midao.jdbc.core.statement.StreamingStatementHandler}) - query output is not cached as
+ * List of QueryParameters, instead every row is passed to {@link OutputRowHandler} as soon as it is read.
+ * Otherwise {@link #handle(java.util.List)} is used as usual.
+ * <p/>
+ * Used only for queries. Update and call output is always handled via {@link #handle(java.util.List)}.
+ */
+public interface StreamingOutputHandler<T> extends OutputHandler<T> {
+
+    /**
+     * Creates new row handler. Invoked once for every query execution
+     *
+     * @return new row handler
+     */
+    public OutputRowHandler<T> createRowHandler();
+}
@@ -22,10 +22,14 @@ import org.midao.jdbc.core.MjdbcLogger;
 import org.midao.jdbc.core.MjdbcTypes;
 import org.midao.jdbc.core.Overrider;
 import org.midao.jdbc.core.exception.MjdbcException;
+import org.midao.jdbc.core.handlers.model.LobStream;
 import org.midao.jdbc.core.handlers.model.QueryParameters;
 import org.midao.jdbc.core.handlers.utils.MappingUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -61,11 +65,21 @@ public class BaseTypeHandler implements TypeHandler {
         QueryParameters result = new QueryParameters(params);
         Object value = null;
         Object convertedValue = null;
+        Integer convertedType = null;
         Connection conn = stmt.getConnection();
 
+        boolean streamLobs = TypeHandlerUtils.isStreamLobs(overrider);
+        // streams without length are bound via JDBC 4.0 functions, so they are not available for JDBC3 Drivers
+        boolean jdbc3 = TypeHandlerUtils.isJDBC3(overrider);
+        boolean streamValue = false;
+
         for (String parameterName : params.keySet()) {
             value = params.getValue(parameterName);
             convertedValue = null;
+            convertedType = null;
+
+            // OUT/INOUT parameters are registered with their declared type, so only IN parameters are bound as streams
+            streamValue = streamLobs == true && params.getDirection(parameterName) == QueryParameters.Direction.IN;
 
             if (params.getType(parameterName) == MjdbcTypes.ARRAY) {
 
@@ -77,6 +91,19 @@ public class BaseTypeHandler implements TypeHandler {
                     convertedValue = value;
                 }
 
+            } else if (params.getType(parameterName) == MjdbcTypes.BLOB && streamValue == true
+                    && value instanceof InputStream && jdbc3 == false) {
+
+                // stream is bound directly, without creating BLOB
+                convertedValue = value;
+                convertedType = MjdbcTypes.VARBINARY;
+
+            } else if (params.getType(parameterName) == MjdbcTypes.BLOB && streamValue == true && value instanceof byte[]) {
+
+                // length is known, so value is bound via length-aware setBinaryStream, without creating BLOB
+                convertedValue = new LobStream(new ByteArrayInputStream((byte[]) value), ((byte[]) value).length);
+                convertedType = MjdbcTypes.VARBINARY;
+
             } else if (params.getType(parameterName) == MjdbcTypes.BLOB) {
 
                 if (value instanceof String) {
@@ -89,6 +116,19 @@ public class BaseTypeHandler implements TypeHandler {
                     convertedValue = value;
                 }
 
+            } else if (params.getType(parameterName) == MjdbcTypes.CLOB && streamValue == true
+                    && value instanceof Reader && jdbc3 == false) {
+
+                // stream is bound directly, without creating CLOB. InputStream is not streamed, as it's charset is unknown
+                convertedValue = value;
+                convertedType = MjdbcTypes.VARCHAR;
+
+            } else if (params.getType(parameterName) == MjdbcTypes.CLOB && streamValue == true && value instanceof String) {
+
+                // length is known, so value is bound via length-aware setCharacterStream, without creating CLOB
+                convertedValue = new LobStream(new StringReader((String) value), ((String) value).length());
+                convertedType = MjdbcTypes.VARCHAR;
+
             } else if (params.getType(parameterName) == MjdbcTypes.CLOB) {
 
                 if (value instanceof String) {
@@ -101,6 +141,13 @@ public class BaseTypeHandler implements TypeHandler {
                     convertedValue = value;
                 }
 
+            } else if (params.getType(parameterName) == MjdbcTypes.SQLXML && streamValue == true
+                    && value instanceof Reader && jdbc3 == false) {
+
+                // stream is bound directly, without creating SQLXML. InputStream is not streamed, as it's charset is unknown
+                convertedValue = value;
+                convertedType = MjdbcTypes.VARCHAR;
+
             } else if (params.getType(parameterName) == MjdbcTypes.SQLXML) {
 
                 if (value instanceof String) {
@@ -120,6 +167,10 @@ public class BaseTypeHandler implements TypeHandler {
             // any other type processing can be added to DataBase specific TypeHandler implementation.
 
             result.updateValue(parameterName, convertedValue);
+
+            if (convertedType != null) {
+                result.updateType(parameterName, convertedType);
+            }
         }
 
         return result;
@@ -18,10 +18,13 @@
 
 package org.midao.jdbc.core.handlers.type;
 
+import org.midao.jdbc.core.MjdbcConfig;
 import org.midao.jdbc.core.MjdbcConstants;
+import org.midao.jdbc.core.MjdbcTypes;
 import org.midao.jdbc.core.Overrider;
 import org.midao.jdbc.core.exception.MjdbcException;
 import org.midao.jdbc.core.exception.MjdbcSQLException;
+import org.midao.jdbc.core.handlers.model.QueryParameters;
 import org.midao.jdbc.core.handlers.utils.MappingUtils;
 
 import java.io.*;
@@ -569,6 +572,93 @@ public class TypeHandlerUtils {
         }
     }
 
+    /**
+     * Returns if LOBs should be streamed instead of being read into memory.
+     * Value is taken from {@link MjdbcConstants#OVERRIDE_STREAM_LOBS} if set, otherwise from
+     * {@link org.midao.jdbc.core.MjdbcConfig#isDefaultStreamLobs()}
+     * <p/>
+     * Value is checked few times during one execution (input and output processing), so override is not removed
+     * here. Once override is removed by {@link org.midao.jdbc.core.AbstractQueryRunner} after execution.
+     *
+     * @return true if LOBs should be streamed
+     */
+    public static boolean isStreamLobs(Overrider overrider) {
+        boolean result = MjdbcConfig.isDefaultStreamLobs();
+
+        if (overrider.hasOverride(MjdbcConstants.OVERRIDE_STREAM_LOBS) == true) {
+            result = (Boolean) overrider.peekOverride(MjdbcConstants.OVERRIDE_STREAM_LOBS);
+        }
+
+        return result;
+    }
+
+    /**
+     * Replaces BLOB/CLOB/SQLXML values with streams returned by getBinaryStream/getCharacterStream.
+     * LOBs are not freed, as streams would be invalidated, so streams are valid only while Statement/Connection
+     * is open.
+     *
+     * @param params values which would be converted
+     * @return converted values
+     * @throws SQLException
+     */
+    public static QueryParameters convertLobsToStreams(QueryParameters params) throws SQLException {
+        Object value = null;
+
+        try {
+            for (String parameterName : params.keySet()) {
+                value = params.getValue(parameterName);
+
+                if (params.getType(parameterName) == MjdbcTypes.BLOB && value != null
+                        && MappingUtils.objectImplements(value, "java.sql.Blob") == true) {
+                    params.updateValue(parameterName, MappingUtils.invokeFunction(value, "getBinaryStream", new Class[]{}, new Object[]{}));
+                } else if (params.getType(parameterName) == MjdbcTypes.CLOB && value != null
+                        && MappingUtils.objectImplements(value, "java.sql.Clob") == true) {
+                    params.updateValue(parameterName, MappingUtils.invokeFunction(value, "getCharacterStream", new Class[]{}, new Object[]{}));
+                } else if (params.getType(parameterName) == MjdbcTypes.SQLXML && value != null
+                        && MappingUtils.objectImplements(value, "java.sql.SQLXML") == true) {
+                    params.updateValue(parameterName, MappingUtils.invokeFunction(value, "getCharacterStream", new Class[]{}, new Object[]{}));
+                }
+            }
+        } catch (MjdbcException ex) {
+            throw new MjdbcSQLException(ex);
+        }
+
+        return params;
+    }
+
+    /**
+     * Replaces BLOB/CLOB/SQLXML values of ResultSet row with streams returned by getBinaryStream/getCharacterStream.
+     * ResultSet values are not typed, so LOBs are detected by interface they implement.
+     * LOBs are not freed, as streams would be invalidated, so streams are valid only while ResultSet is open
+     * (some Drivers invalidate them as soon as cursor is moved to the next row)
+     *
+     * @param row ResultSet row values which would be converted
+     * @return converted values
+     * @throws SQLException
+     */
+    public static QueryParameters convertResultSetLobsToStreams(QueryParameters row) throws SQLException {
+        Object value = null;
+
+        try {
+            for (String parameterName : row.keySet()) {
+                value = row.getValue(parameterName);
+
+                if (value == null) {
+                    // nothing to convert
+                } else if (MappingUtils.objectImplements(value, "java.sql.Blob") == true) {
+                    row.updateValue(parameterName, MappingUtils.invokeFunction(value, "getBinaryStream", new Class[]{}, new Object[]{}));
+                } else if (MappingUtils.objectImplements(value, "java.sql.Clob") == true
+                        || MappingUtils.objectImplements(value, "java.sql.SQLXML") == true) {
+                    row.updateValue(parameterName, MappingUtils.invokeFunction(value, "getCharacterStream", new Class[]{}, new Object[]{}));
+                }
+            }
+        } catch (MjdbcException ex) {
+            throw new MjdbcSQLException(ex);
+        }
+
+        return row;
+    }
+
     /**
      * Transfers data from InputStream into OutputStream
      * Uses {@link #DEFAULT_BUFFER_SIZE} to define buffer size
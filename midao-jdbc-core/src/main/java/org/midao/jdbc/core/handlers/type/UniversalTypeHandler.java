@@ -58,6 +58,9 @@ public class UniversalTypeHandler extends BaseTypeHandler {
         Integer convertedType = null;
         Connection conn = stmt.getConnection();
 
+        // streams are bound via JDBC 4.0 functions, so they are not available for JDBC3 Drivers
+        boolean streamLobs = TypeHandlerUtils.isStreamLobs(overrider) == true && TypeHandlerUtils.isJDBC3(overrider) == false;
+
         for (String parameterName : params.keySet()) {
             value = params.getValue(parameterName);
             convertedValue = null;
@@ -78,6 +81,8 @@ public class UniversalTypeHandler extends BaseTypeHandler {
                 // the most stable way is to assign byte[] array directly while specifying type BINARY
                 if (value instanceof String) {
                     convertedValue = ((String) value).getBytes();
+                } else if (value instanceof InputStream && streamLobs == true) {
+                    convertedValue = value;
                 } else if (value instanceof InputStream) {
                     convertedValue = TypeHandlerUtils.toByteArray((InputStream) value);
                 } else if (value instanceof byte[]) {
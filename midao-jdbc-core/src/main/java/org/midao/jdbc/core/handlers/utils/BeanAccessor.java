@@ -0,0 +1,82 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.utils;
+
+import java.beans.PropertyDescriptor;
+import java.util.Map;
+
+/**
+ * Provides access to properties of beans of one specific Class.
+ * <p/>
+ * Properties are addressed by index in {@link #getPropertyDescriptors()}, so name lookup
+ * can be performed once and reused for every bean.
+ * <p/>
+ * Instances are created by {@link BeanAccessorFactory} and are shared, so implementations should be thread safe.
+ */
+public interface BeanAccessor {
+
+    /**
+     * Returns Class this accessor was created for
+     *
+     * @return bean Class
+     */
+    public Class<?> getType();
+
+    /**
+     * Returns bean Class property descriptors.
+     * Array index is used as property index in all other functions
+     *
+     * @return bean Class property descriptors
+     */
+    public PropertyDescriptor[] getPropertyDescriptors();
+
+    /**
+     * Returns index of property with name @propertyName
+     *
+     * @param propertyName property name
+     * @return property index or -1 if property not found
+     */
+    public int getPropertyIndex(String propertyName);
+
+    /**
+     * Invokes property getter and returns it's value
+     *
+     * @param bean          bean
+     * @param propertyIndex property index
+     * @return value returned by getter
+     */
+    public Object getValue(Object bean, int propertyIndex);
+
+    /**
+     * Invokes property setter. If property doesn't have setter - nothing is done
+     *
+     * @param bean          bean
+     * @param propertyIndex property index
+     * @param value         value which would be set
+     */
+    public void setValue(Object bean, int propertyIndex, Object value);
+
+    /**
+     * Converts bean into Map<String, Object>. "class" property is not included
+     *
+     * @param bean bean
+     * @return Map with values from bean
+     */
+    public Map<String, Object> toMap(Object bean);
+}
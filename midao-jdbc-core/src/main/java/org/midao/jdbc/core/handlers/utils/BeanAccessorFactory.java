@@ -0,0 +1,37 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.utils;
+
+/**
+ * Creates {@link BeanAccessor} instances.
+ * <p/>
+ * Default implementation is {@link GeneratedBeanAccessorFactory}, which falls back to reflection
+ * ({@link ReflectionBeanAccessorFactory}) for properties which cannot be accessed directly.
+ * It can be replaced via {@link org.midao.jdbc.core.MjdbcConfig#setDefaultBeanAccessorFactory(BeanAccessorFactory)}.
+ */
+public interface BeanAccessorFactory {
+
+    /**
+     * Returns accessor for Class @clazz. Implementations are expected to cache accessors
+     *
+     * @param clazz bean Class
+     * @return bean accessor
+     */
+    public BeanAccessor getBeanAccessor(Class<?> clazz);
+}
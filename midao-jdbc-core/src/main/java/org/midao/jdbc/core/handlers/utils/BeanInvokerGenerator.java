@@ -0,0 +1,511 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates classes which invoke bean getter/setter directly (without reflection).
+ * <p/>
+ * For every getter new {@link GeneratedBeanAccessorFactory.PropertyGetter} implementation is generated
+ * and for every setter - {@link GeneratedBeanAccessorFactory.PropertySetter} implementation.
+ * Class files are generated in Java 5 format (so no stack map frames are required) and are defined in
+ * separate ClassLoader (child of bean ClassLoader), so they can be unloaded together with bean Class.
+ */
+class BeanInvokerGenerator {
+    private static final String GENERATED_PACKAGE = "org.midao.jdbc.core.handlers.utils.generated.";
+    private static final String GETTER_NAME = GeneratedBeanAccessorFactory.PropertyGetter.class.getName();
+    private static final String SETTER_NAME = GeneratedBeanAccessorFactory.PropertySetter.class.getName();
+
+    private static final int CLASS_VERSION_JAVA_5 = 49;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int POP = 0x57;
+    private static final int POP2 = 0x58;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int CHECKCAST = 0xc0;
+
+    private static final Map<Class<?>, Class<?>> primitiveWrappers = new HashMap<Class<?>, Class<?>>();
+
+    private static final AtomicLong classCounter = new AtomicLong();
+
+    static {
+        primitiveWrappers.put(Boolean.TYPE, Boolean.class);
+        primitiveWrappers.put(Character.TYPE, Character.class);
+        primitiveWrappers.put(Byte.TYPE, Byte.class);
+        primitiveWrappers.put(Short.TYPE, Short.class);
+        primitiveWrappers.put(Integer.TYPE, Integer.class);
+        primitiveWrappers.put(Long.TYPE, Long.class);
+        primitiveWrappers.put(Float.TYPE, Float.class);
+        primitiveWrappers.put(Double.TYPE, Double.class);
+    }
+
+    private final Class<?> type;
+    private final InvokerClassLoader classLoader;
+
+    /**
+     * Creates new generator for bean Class @type
+     *
+     * @param type bean Class
+     */
+    BeanInvokerGenerator(Class<?> type) {
+        this.type = type;
+        this.classLoader = new InvokerClassLoader(type.getClassLoader());
+    }
+
+    /**
+     * Returns wrapper Class for primitive type. For non primitive types returns the type itself
+     *
+     * @param type Class
+     * @return wrapper Class
+     */
+    static Class<?> wrap(Class<?> type) {
+        Class<?> result = primitiveWrappers.get(type);
+
+        return (result != null ? result : type);
+    }
+
+    /**
+     * Checks if getter/setter can be invoked from generated class
+     *
+     * @param method getter/setter
+     * @return true - if generated class would be able to access it
+     */
+    boolean isSupported(Method method) {
+        boolean result = method != null && this.type.isInterface() == false
+                && isAccessible(this.type) == true && Modifier.isPublic(method.getModifiers()) == true
+                && Modifier.isStatic(method.getModifiers()) == false && isAccessible(method.getReturnType()) == true;
+
+        if (result == true) {
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                result = result && isAccessible(parameterType);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Generates getter invoker
+     *
+     * @param getter bean getter (method without parameters)
+     * @return new getter invoker
+     */
+    GeneratedBeanAccessorFactory.PropertyGetter generateGetter(Method getter) {
+        ClassFile classFile = new ClassFile(GENERATED_PACKAGE + "PropertyGetter$" + classCounter.incrementAndGet(), GETTER_NAME);
+        Class<?> returnType = getter.getReturnType();
+
+        Code code = classFile.code();
+        code.op(ALOAD_1);
+        code.op(CHECKCAST, classFile.pool.classRef(this.type));
+        code.op(INVOKEVIRTUAL, classFile.pool.methodRef(this.type, getter.getName(), methodDescriptor(getter)));
+
+        if (returnType.isPrimitive() == true) {
+            Class<?> wrapper = wrap(returnType);
+
+            code.op(INVOKESTATIC, classFile.pool.methodRef(wrapper, "valueOf",
+                    "(" + typeDescriptor(returnType) + ")" + typeDescriptor(wrapper)));
+        }
+
+        code.op(ARETURN);
+
+        classFile.addMethod("get", "(Ljava/lang/Object;)Ljava/lang/Object;", 2, 2, code);
+
+        return (GeneratedBeanAccessorFactory.PropertyGetter) this.newInstance(classFile);
+    }
+
+    /**
+     * Generates setter invoker.
+     * Invoker doesn't perform any conversion (except unboxing), so value passed to it should be an instance of
+     * setter parameter type (or it's wrapper); null should not be passed for primitive parameter
+     *
+     * @param setter bean setter (method with one parameter)
+     * @return new setter invoker
+     */
+    GeneratedBeanAccessorFactory.PropertySetter generateSetter(Method setter) {
+        ClassFile classFile = new ClassFile(GENERATED_PACKAGE + "PropertySetter$" + classCounter.incrementAndGet(), SETTER_NAME);
+        Class<?> parameterType = setter.getParameterTypes()[0];
+        Class<?> returnType = setter.getReturnType();
+
+        Code code = classFile.code();
+        code.op(ALOAD_1);
+        code.op(CHECKCAST, classFile.pool.classRef(this.type));
+        code.op(ALOAD_2);
+
+        if (parameterType.isPrimitive() == true) {
+            Class<?> wrapper = wrap(parameterType);
+
+            code.op(CHECKCAST, classFile.pool.classRef(wrapper));
+            code.op(INVOKEVIRTUAL, classFile.pool.methodRef(wrapper, parameterType.getName() + "Value",
+                    "()" + typeDescriptor(parameterType)));
+        } else if (parameterType.equals(Object.class) == false) {
+            code.op(CHECKCAST, classFile.pool.classRef(parameterType));
+        }
+
+        code.op(INVOKEVIRTUAL, classFile.pool.methodRef(this.type, setter.getName(), methodDescriptor(setter)));
+
+        if (Long.TYPE.equals(returnType) == true || Double.TYPE.equals(returnType) == true) {
+            code.op(POP2);
+        } else if (Void.TYPE.equals(returnType) == false) {
+            code.op(POP);
+        }
+
+        code.op(RETURN);
+
+        classFile.addMethod("set", "(Ljava/lang/Object;Ljava/lang/Object;)V", 4, 3, code);
+
+        return (GeneratedBeanAccessorFactory.PropertySetter) this.newInstance(classFile);
+    }
+
+    /**
+     * Defines generated class and creates it's instance
+     *
+     * @param classFile generated class
+     * @return instance of generated class
+     */
+    private Object newInstance(ClassFile classFile) {
+        try {
+            return this.classLoader.define(classFile.name, classFile.toByteArray()).newInstance();
+        } catch (InstantiationException ex) {
+            throw new IllegalStateException("Failed to instantiate generated class " + classFile.name, ex);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException("Failed to instantiate generated class " + classFile.name, ex);
+        }
+    }
+
+    /**
+     * Checks if Class is accessible from class in other package
+     *
+     * @param clazz Class
+     * @return true - if Class (or array component Class) is public or primitive
+     */
+    private static boolean isAccessible(Class<?> clazz) {
+        Class<?> componentType = clazz;
+
+        while (componentType.isArray() == true) {
+            componentType = componentType.getComponentType();
+        }
+
+        return componentType.isPrimitive() == true || Modifier.isPublic(componentType.getModifiers()) == true;
+    }
+
+    /**
+     * Returns JVM internal name of Class (used in constant pool)
+     *
+     * @param clazz Class
+     * @return internal name
+     */
+    private static String internalName(Class<?> clazz) {
+        return clazz.getName().replace('.', '/');
+    }
+
+    /**
+     * Returns JVM method descriptor
+     *
+     * @param method method
+     * @return method descriptor
+     */
+    private static String methodDescriptor(Method method) {
+        StringBuilder result = new StringBuilder("(");
+
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            result.append(typeDescriptor(parameterType));
+        }
+
+        return result.append(")").append(typeDescriptor(method.getReturnType())).toString();
+    }
+
+    /**
+     * Returns JVM type descriptor
+     *
+     * @param clazz Class
+     * @return type descriptor
+     */
+    private static String typeDescriptor(Class<?> clazz) {
+        String result = null;
+
+        if (clazz.isArray() == true) {
+            result = internalName(clazz);
+        } else if (clazz.isPrimitive() == true) {
+            if (Boolean.TYPE.equals(clazz) == true) {
+                result = "Z";
+            } else if (Character.TYPE.equals(clazz) == true) {
+                result = "C";
+            } else if (Byte.TYPE.equals(clazz) == true) {
+                result = "B";
+            } else if (Short.TYPE.equals(clazz) == true) {
+                result = "S";
+            } else if (Integer.TYPE.equals(clazz) == true) {
+                result = "I";
+            } else if (Long.TYPE.equals(clazz) == true) {
+                result = "J";
+            } else if (Float.TYPE.equals(clazz) == true) {
+                result = "F";
+            } else if (Double.TYPE.equals(clazz) == true) {
+                result = "D";
+            } else {
+                result = "V";
+            }
+        } else {
+            result = "L" + internalName(clazz) + ";";
+        }
+
+        return result;
+    }
+
+    /**
+     * ClassLoader which defines generated classes.
+     * Invoker interfaces are always resolved to the ones loaded with this class, other classes are loaded via parent
+     * (bean ClassLoader)
+     */
+    private static class InvokerClassLoader extends ClassLoader {
+
+        private InvokerClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            Class<?> result = null;
+
+            if (GETTER_NAME.equals(name) == true) {
+                result = GeneratedBeanAccessorFactory.PropertyGetter.class;
+            } else if (SETTER_NAME.equals(name) == true) {
+                result = GeneratedBeanAccessorFactory.PropertySetter.class;
+            } else {
+                result = super.loadClass(name, resolve);
+            }
+
+            return result;
+        }
+
+        private synchronized Class<?> define(String name, byte[] classBytes) {
+            return defineClass(name, classBytes, 0, classBytes.length);
+        }
+    }
+
+    /**
+     * Constant pool of generated class
+     */
+    private static class ConstantPool {
+        private static final int CONSTANT_UTF8 = 1;
+        private static final int CONSTANT_CLASS = 7;
+        private static final int CONSTANT_METHODREF = 10;
+        private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream output = new DataOutputStream(bytes);
+        private final Map<String, Integer> entries = new HashMap<String, Integer>();
+        private int size = 1;
+
+        private int utf8(String value) {
+            Integer result = this.entries.get("U" + value);
+
+            if (result == null) {
+                try {
+                    this.output.writeByte(CONSTANT_UTF8);
+                    this.output.writeUTF(value);
+                } catch (IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+
+                result = this.add("U" + value);
+            }
+
+            return result;
+        }
+
+        private int classRef(String internalName) {
+            Integer result = this.entries.get("C" + internalName);
+
+            if (result == null) {
+                int nameIndex = this.utf8(internalName);
+
+                this.write(CONSTANT_CLASS, nameIndex);
+
+                result = this.add("C" + internalName);
+            }
+
+            return result;
+        }
+
+        private int classRef(Class<?> clazz) {
+            return this.classRef(internalName(clazz));
+        }
+
+        private int methodRef(String ownerInternalName, String name, String descriptor) {
+            String key = "M" + ownerInternalName + "." + name + descriptor;
+            Integer result = this.entries.get(key);
+
+            if (result == null) {
+                int classIndex = this.classRef(ownerInternalName);
+                int nameIndex = this.utf8(name);
+                int descriptorIndex = this.utf8(descriptor);
+
+                this.write(CONSTANT_NAME_AND_TYPE, nameIndex, descriptorIndex);
+                int nameAndTypeIndex = this.add("N" + name + descriptor);
+
+                this.write(CONSTANT_METHODREF, classIndex, nameAndTypeIndex);
+                result = this.add(key);
+            }
+
+            return result;
+        }
+
+        private int methodRef(Class<?> owner, String name, String descriptor) {
+            return this.methodRef(internalName(owner), name, descriptor);
+        }
+
+        private void write(int tag, int... indexes) {
+            try {
+                this.output.writeByte(tag);
+
+                for (int index : indexes) {
+                    this.output.writeShort(index);
+                }
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        private int add(String key) {
+            int result = this.size;
+
+            this.entries.put(key, result);
+            this.size++;
+
+            return result;
+        }
+    }
+
+    /**
+     * Method bytecode
+     */
+    private static class Code {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private void op(int opcode) {
+            this.bytes.write(opcode);
+        }
+
+        private void op(int opcode, int index) {
+            this.bytes.write(opcode);
+            this.bytes.write((index >> 8) & 0xff);
+            this.bytes.write(index & 0xff);
+        }
+    }
+
+    /**
+     * Generated class: public final class with public no-arg constructor, implementing one interface
+     */
+    private static class ClassFile {
+        private final String name;
+        private final ConstantPool pool = new ConstantPool();
+        private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+        private final int thisClass;
+        private final int superClass;
+        private final int interfaceClass;
+        private int methodCount = 0;
+
+        private ClassFile(String name, String interfaceName) {
+            this.name = name;
+            this.thisClass = this.pool.classRef(name.replace('.', '/'));
+            this.superClass = this.pool.classRef("java/lang/Object");
+            this.interfaceClass = this.pool.classRef(interfaceName.replace('.', '/'));
+
+            Code constructor = this.code();
+            constructor.op(ALOAD_0);
+            constructor.op(INVOKESPECIAL, this.pool.methodRef("java/lang/Object", "<init>", "()V"));
+            constructor.op(RETURN);
+
+            this.addMethod("<init>", "()V", 1, 1, constructor);
+        }
+
+        private Code code() {
+            return new Code();
+        }
+
+        private void addMethod(String name, String descriptor, int maxStack, int maxLocals, Code code) {
+            DataOutputStream output = new DataOutputStream(this.methods);
+            byte[] codeBytes = code.bytes.toByteArray();
+
+            try {
+                output.writeShort(ACC_PUBLIC);
+                output.writeShort(this.pool.utf8(name));
+                output.writeShort(this.pool.utf8(descriptor));
+                output.writeShort(1);
+
+                output.writeShort(this.pool.utf8("Code"));
+                output.writeInt(12 + codeBytes.length);
+                output.writeShort(maxStack);
+                output.writeShort(maxLocals);
+                output.writeInt(codeBytes.length);
+                output.write(codeBytes);
+                output.writeShort(0); // exception table
+                output.writeShort(0); // attributes
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+
+            this.methodCount++;
+        }
+
+        private byte[] toByteArray() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+
+            try {
+                output.writeInt(0xCAFEBABE);
+                output.writeShort(0);
+                output.writeShort(CLASS_VERSION_JAVA_5);
+                output.writeShort(this.pool.size);
+                output.write(this.pool.bytes.toByteArray());
+                output.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+                output.writeShort(this.thisClass);
+                output.writeShort(this.superClass);
+                output.writeShort(1);
+                output.writeShort(this.interfaceClass);
+                output.writeShort(0); // fields
+                output.writeShort(this.methodCount);
+                output.write(this.methods.toByteArray());
+                output.writeShort(0); // attributes
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+
+            return bytes.toByteArray();
+        }
+    }
+}
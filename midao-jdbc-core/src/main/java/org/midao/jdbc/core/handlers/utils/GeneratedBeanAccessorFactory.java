@@ -0,0 +1,159 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.utils;
+
+/**
+ * {@link BeanAccessorFactory} implementation which generates classes invoking bean getters/setters directly.
+ * <p/>
+ * Getters/setters are invoked without reflection (no argument array allocation, no access checks and no
+ * exception wrapping), so bean population cost is close to hand-written code.
+ * Generation is performed once per bean Class (at accessor creation). If getter/setter cannot be invoked
+ * from generated class (non public bean Class, module restrictions etc.) - reflection is used
+ * (see {@link ReflectionBeanAccessorFactory}).
+ * <p/>
+ * Generated classes are in Java 5 class file format, so this implementation can be used with every Java version
+ * supported by this library.
+ */
+public class GeneratedBeanAccessorFactory extends ReflectionBeanAccessorFactory {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected BeanAccessor createBeanAccessor(Class<?> clazz) {
+        return new GeneratedBeanAccessor(clazz);
+    }
+
+    /**
+     * Invokes bean getter. Implemented by generated classes, not intended to be used directly
+     */
+    public static interface PropertyGetter {
+
+        /**
+         * Invokes getter
+         *
+         * @param bean bean
+         * @return value returned by getter (primitives are boxed)
+         */
+        public Object get(Object bean);
+    }
+
+    /**
+     * Invokes bean setter. Implemented by generated classes, not intended to be used directly
+     */
+    public static interface PropertySetter {
+
+        /**
+         * Invokes setter
+         *
+         * @param bean  bean
+         * @param value value (instance of setter parameter type or it's wrapper)
+         */
+        public void set(Object bean, Object value);
+    }
+
+    /**
+     * {@link BeanAccessor} implementation which uses generated getters/setters. Reflection is used for
+     * properties getter/setter of which wasn't generated and for values which require conversion
+     * (for example widening of primitive value), same as it is done by {@link java.lang.reflect.Method#invoke(Object, Object...)}
+     */
+    static class GeneratedBeanAccessor extends ReflectionBeanAccessor {
+        final PropertyGetter[] generatedGetters;
+        final PropertySetter[] generatedSetters;
+        private final Class<?>[] setterValueTypes;
+
+        GeneratedBeanAccessor(Class<?> type) {
+            super(type);
+
+            BeanInvokerGenerator generator = new BeanInvokerGenerator(type);
+
+            this.generatedGetters = new PropertyGetter[this.props.length];
+            this.generatedSetters = new PropertySetter[this.props.length];
+            this.setterValueTypes = new Class<?>[this.props.length];
+
+            for (int i = 0; i < this.props.length; i++) {
+                if (generator.isSupported(this.getters[i]) == true) {
+                    this.generatedGetters[i] = generator.generateGetter(this.getters[i]);
+                }
+
+                if (generator.isSupported(this.setters[i]) == true) {
+                    this.generatedSetters[i] = generator.generateSetter(this.setters[i]);
+                    this.setterValueTypes[i] = this.setters[i].getParameterTypes()[0];
+                }
+            }
+        }
+
+        @Override
+        public Object getValue(Object bean, int propertyIndex) {
+            PropertyGetter getter = this.generatedGetters[propertyIndex];
+
+            if (getter != null) {
+                try {
+                    return getter.get(bean);
+                } catch (IllegalAccessError ex) {
+                    // generated class is not allowed to access bean - reflection would be used from now on
+                    this.generatedGetters[propertyIndex] = null;
+                } catch (RuntimeException ex) {
+                    throw new RuntimeException("Couldn't invoke method: " + this.getters[propertyIndex], ex);
+                }
+            }
+
+            return super.getValue(bean, propertyIndex);
+        }
+
+        @Override
+        public void setValue(Object bean, int propertyIndex, Object value) {
+            PropertySetter setter = this.generatedSetters[propertyIndex];
+
+            if (setter != null && isAssignable(this.setterValueTypes[propertyIndex], value) == true) {
+                try {
+                    setter.set(bean, value);
+
+                    return;
+                } catch (IllegalAccessError ex) {
+                    // generated class is not allowed to access bean - reflection would be used from now on
+                    this.generatedSetters[propertyIndex] = null;
+                } catch (RuntimeException ex) {
+                    throw new RuntimeException("Cannot set " + this.props[propertyIndex].getName() + ": " + ex.getMessage(), ex);
+                }
+            }
+
+            super.setValue(bean, propertyIndex, value);
+        }
+
+        /**
+         * Checks if @value can be passed to generated setter as is
+         *
+         * @param valueType setter parameter type
+         * @param value     value
+         * @return true - if value doesn't require conversion
+         */
+        private static boolean isAssignable(Class<?> valueType, Object value) {
+            boolean result = false;
+
+            if (value == null) {
+                result = valueType.isPrimitive() == false;
+            } else {
+                result = BeanInvokerGenerator.wrap(valueType).isInstance(value);
+            }
+
+            return result;
+        }
+    }
+}
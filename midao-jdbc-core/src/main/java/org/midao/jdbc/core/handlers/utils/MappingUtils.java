@@ -21,6 +21,8 @@ package org.midao.jdbc.core.handlers.utils;
 import org.midao.jdbc.core.MjdbcConstants;
 import org.midao.jdbc.core.exception.MjdbcException;
 import org.midao.jdbc.core.handlers.model.QueryParameters;
+import org.midao.jdbc.core.handlers.model.QueryParametersRow;
+import org.midao.jdbc.core.handlers.model.QueryParametersRowIndex;
 import org.midao.jdbc.core.utils.AssertUtils;
 
 import java.beans.BeanInfo;
@@ -118,9 +120,20 @@ public class MappingUtils {
      * @return Value returned from Getter
      */
     public static Object callGetter(Object target, PropertyDescriptor prop) {
+        return callGetter(target, prop, prop.getReadMethod());
+    }
+
+    /**
+     * Invokes Getter (previously resolved from Property Descriptor) and returns value returned by that function.
+     *
+     * @param target Object Getter of which would be executed
+     * @param prop   Property Descriptor of the Getter
+     * @param getter Getter method, might be null
+     * @return Value returned from Getter
+     */
+    static Object callGetter(Object target, PropertyDescriptor prop, Method getter) {
 
         Object result = null;
-        Method getter = prop.getReadMethod();
 
         if (getter == null) {
             throw new RuntimeException("No read method for bean property "
@@ -150,8 +163,18 @@ public class MappingUtils {
      * @param value  Value which should be set into @target
      */
     public static void callSetter(Object target, PropertyDescriptor prop, Object value) {
+        callSetter(target, prop, prop.getWriteMethod(), value);
+    }
 
-        Method setter = prop.getWriteMethod();
+    /**
+     * Invokes Setter (previously resolved from Property Descriptor) and sets value @value into it.
+     *
+     * @param target Object Setter of which would be executed
+     * @param prop   Property Descriptor of the Setter
+     * @param setter Setter method, might be null
+     * @param value  Value which should be set into @target
+     */
+    static void callSetter(Object target, PropertyDescriptor prop, Method setter, Object value) {
 
         if (setter == null) {
             return;
@@ -184,30 +207,59 @@ public class MappingUtils {
      */
     public static List<QueryParameters> convertResultSet(ResultSet rs) throws SQLException {
         List<QueryParameters> result = new ArrayList<QueryParameters>();
-        String columnName = null;
+
+        // column names are read only once and shared by all rows
+        QueryParametersRowIndex rowIndex = new QueryParametersRowIndex(getColumnNames(rs.getMetaData()));
 
         while (rs.next() == true) {
-            QueryParameters params = new QueryParameters();
-            ResultSetMetaData rsmd = rs.getMetaData();
-            int cols = rsmd.getColumnCount();
+            result.add(convertResultSetRow(rs, rowIndex));
+        }
 
-            for (int i = 1; i <= cols; i++) {
+        return result;
+    }
 
-                columnName = rsmd.getColumnLabel(i);
-                if (null == columnName || 0 == columnName.length()) {
-                    columnName = rsmd.getColumnName(i);
-                }
+    /**
+     * Reads column names from ResultSet metadata. Column label is used if present, column name - otherwise.
+     *
+     * @param rsmd ResultSet metadata
+     * @return column names (index in array is column index - 1)
+     * @throws SQLException propagates SQLException sent from ResultSet metadata
+     */
+    public static String[] getColumnNames(ResultSetMetaData rsmd) throws SQLException {
+        String[] result = new String[rsmd.getColumnCount()];
+        String columnName = null;
 
-                params.set(columnName, rs.getObject(i));
-                params.updatePosition(columnName, i - 1);
+        for (int i = 1; i <= result.length; i++) {
+            columnName = rsmd.getColumnLabel(i);
+            if (null == columnName || 0 == columnName.length()) {
+                columnName = rsmd.getColumnName(i);
             }
 
-            result.add(params);
+            result[i - 1] = columnName;
         }
 
         return result;
     }
 
+    /**
+     * Converts current row of java.sql.ResultSet into QueryParameters.
+     * Returned row keeps values in array and shares column index with other rows of the same ResultSet.
+     *
+     * @param rs       ResultSet values from which would be read
+     * @param rowIndex ResultSet column index (see {@link #getColumnNames(java.sql.ResultSetMetaData)})
+     * @return QueryParameters with current row values
+     * @throws SQLException propagates SQLException sent from ResultSet
+     */
+    public static QueryParameters convertResultSetRow(ResultSet rs, QueryParametersRowIndex rowIndex) throws SQLException {
+        Object[] rowValues = new Object[rowIndex.size()];
+
+        for (int i = 0; i < rowValues.length; i++) {
+            rowValues[i] = rs.getObject(i + 1);
+        }
+
+        return new QueryParametersRow(rowIndex, rowValues);
+    }
+
     /**
      * Creates new Instance of class specified.
      * Default Constructor should be visible in order to create new Instance
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.utils;
+
+import org.midao.jdbc.core.utils.ConcurrentCache;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reflection based {@link BeanAccessorFactory} implementation.
+ * <p/>
+ * Bean Class is introspected only once, getters/setters are resolved at accessor creation.
+ * Accessor keeps it's own copies of getters/setters, which are made accessible (to skip access checks on
+ * every invocation), so {@link PropertyDescriptor} methods shared via Introspector cache are not modified.
+ */
+public class ReflectionBeanAccessorFactory implements BeanAccessorFactory {
+    private static final int DEFAULT_CACHE_LIMIT = 256;
+
+    // cache is size bounded, so classes which are not used anymore are evicted eventually
+    private final ConcurrentCache<Class<?>, BeanAccessor> accessorCache = new ConcurrentCache<Class<?>, BeanAccessor>(
+            DEFAULT_CACHE_LIMIT);
+
+    /**
+     * {@inheritDoc}
+     */
+    public BeanAccessor getBeanAccessor(Class<?> clazz) {
+        BeanAccessor result = this.accessorCache.get(clazz);
+
+        if (result == null) {
+            result = this.createBeanAccessor(clazz);
+
+            this.accessorCache.put(clazz, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates new accessor for Class @clazz. Invoked only if accessor wasn't found in cache
+     *
+     * @param clazz bean Class
+     * @return new bean accessor
+     */
+    protected BeanAccessor createBeanAccessor(Class<?> clazz) {
+        return new ReflectionBeanAccessor(clazz);
+    }
+
+    /**
+     * Reflection based {@link BeanAccessor} implementation
+     */
+    static class ReflectionBeanAccessor implements BeanAccessor {
+        final Class<?> type;
+        final PropertyDescriptor[] props;
+        final Method[] getters;
+        final Method[] setters;
+        private final Map<String, Integer> propertyIndexes;
+
+        ReflectionBeanAccessor(Class<?> type) {
+            this.type = type;
+            this.props = MappingUtils.propertyDescriptors(type);
+            this.getters = new Method[props.length];
+            this.setters = new Method[props.length];
+            this.propertyIndexes = new HashMap<String, Integer>();
+
+            for (int i = 0; i < props.length; i++) {
+                this.getters[i] = accessibleCopy(props[i].getReadMethod());
+                this.setters[i] = accessibleCopy(props[i].getWriteMethod());
+                this.propertyIndexes.put(props[i].getName(), i);
+            }
+        }
+
+        public Class<?> getType() {
+            return this.type;
+        }
+
+        public PropertyDescriptor[] getPropertyDescriptors() {
+            return this.props;
+        }
+
+        public int getPropertyIndex(String propertyName) {
+            Integer result = this.propertyIndexes.get(propertyName);
+
+            return (result != null ? result.intValue() : -1);
+        }
+
+        public Object getValue(Object bean, int propertyIndex) {
+            return MappingUtils.callGetter(bean, this.props[propertyIndex], this.getters[propertyIndex]);
+        }
+
+        public void setValue(Object bean, int propertyIndex, Object value) {
+            MappingUtils.callSetter(bean, this.props[propertyIndex], this.setters[propertyIndex], value);
+        }
+
+        public Map<String, Object> toMap(Object bean) {
+            Map<String, Object> resultMap = new HashMap<String, Object>();
+
+            for (int i = 0; i < this.props.length; i++) {
+                if ("class".equals(this.props[i].getName()) == false) {
+                    resultMap.put(this.props[i].getName(), getValue(bean, i));
+                }
+            }
+
+            return resultMap;
+        }
+
+        /**
+         * Returns copy of the method with access checks disabled (if allowed by SecurityManager).
+         * {@link Class#getMethod(String, Class[])} returns new Method instance on every invocation, so
+         * method instance shared via {@link PropertyDescriptor} is not modified.
+         *
+         * @param method getter/setter
+         * @return accessible copy of the method (or the method itself if copy cannot be made accessible)
+         */
+        private static Method accessibleCopy(Method method) {
+            Method result = method;
+
+            if (method != null) {
+                try {
+                    Method copy = method.getDeclaringClass().getMethod(method.getName(), method.getParameterTypes());
+                    copy.setAccessible(true);
+
+                    result = copy;
+                } catch (NoSuchMethodException ex) {
+                    // not expected, as method was returned by Introspector - access checks would be performed on every invocation
+                } catch (RuntimeException ex) {
+                    // not allowed (SecurityManager/module restrictions) - access checks would be performed on every invocation
+                }
+            }
+
+            return result;
+        }
+    }
+}
@@ -145,7 +145,9 @@ public class BaseMetadataHandler implements MetadataHandler {
 
             MjdbcUtils.closeQuietly(procedureParameters);
 
-            this.procedureParameters.put(procedurePath, procedureParams);
+            synchronized (this.procedureParameters) {
+                this.procedureParameters.put(procedurePath, procedureParams);
+            }
         }
 
         MjdbcUtils.closeQuietly(procedures);
@@ -169,16 +171,32 @@ public class BaseMetadataHandler implements MetadataHandler {
 
         StoredProcedure requiredStoredProcedure = new StoredProcedure(catalogName, schemaName, procedureName);
 
-        if (useCache == false || this.procedureParameters.containsKey(requiredStoredProcedure) == false) {
+        boolean cached = false;
+
+        // metadata handler might be shared between QueryRunner instances (see DataSourceEnvironment)
+        synchronized (this.procedureParameters) {
+            cached = this.procedureParameters.containsKey(requiredStoredProcedure);
+        }
+
+        if (useCache == false || cached == false) {
             updateCache(metaData, catalogNameProcessed, schemaNameProcessed, procedureNameProcessed);
         }
 
         List<StoredProcedure> foundStoredProcedures = new ArrayList<StoredProcedure>();
 
-        // TODO Optimize
-        for (StoredProcedure storedProcedure : this.procedureParameters.keySet()) {
-            if (requiredStoredProcedure.equals(storedProcedure) == true) {
-                foundStoredProcedures.add(storedProcedure);
+        QueryParameters result = null;
+
+        synchronized (this.procedureParameters) {
+            // TODO Optimize
+            for (StoredProcedure storedProcedure : this.procedureParameters.keySet()) {
+                if (requiredStoredProcedure.equals(storedProcedure) == true) {
+                    foundStoredProcedures.add(storedProcedure);
+                }
+            }
+
+            if (foundStoredProcedures.size() == 1) {
+                // copy is returned as cached parameters are shared and caller might modify them
+                result = new QueryParameters(this.procedureParameters.get(foundStoredProcedures.get(0)));
             }
         }
 
@@ -188,7 +206,7 @@ public class BaseMetadataHandler implements MetadataHandler {
             throw new MjdbcSQLException("Found more than one procedure matching required parameters. Searched: " + requiredStoredProcedure + "\nGot: " + foundStoredProcedures.toString());
         }
 
-        return this.procedureParameters.get(foundStoredProcedures.get(0));
+        return result;
     }
 
     /**
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Default {@link MetricsCollector} implementation. Has no external dependencies.
+ * <p/>
+ * Keeps {@link StatementMetrics} per SQL statement and connection acquisition time histogram. Collected values
+ * can be read at any time (for example by monitoring exporter), recording is lock-free and doesn't build strings.
+ * <p/>
+ * Amount of tracked statements is limited (SQL strings with inlined values might produce unlimited amount of
+ * different statements). Statements above the limit are tracked together as {@link #OTHER_STATEMENTS}.
+ */
+public class BaseMetricsCollector implements MetricsCollector {
+    public static final String OTHER_STATEMENTS = "__OtherStatements";
+
+    private static final int DEFAULT_MAX_STATEMENTS = 1000;
+
+    private final int maxStatements;
+    private final ConcurrentMap<String, StatementMetrics> statements = new ConcurrentHashMap<String, StatementMetrics>();
+    private final StatementMetrics otherStatements = new StatementMetrics();
+    private final Histogram connectionAcquisition = new Histogram();
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * Creates new BaseMetricsCollector instance
+     */
+    public BaseMetricsCollector() {
+        this(DEFAULT_MAX_STATEMENTS);
+    }
+
+    /**
+     * Creates new BaseMetricsCollector instance
+     *
+     * @param maxStatements max amount of statements tracked separately
+     */
+    public BaseMetricsCollector(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void connectionAcquired(long elapsedNanos) {
+        connectionAcquisition.record(elapsedNanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void statementExecuted(String sql, long elapsedNanos, int rows) {
+        getMetrics(sql).recordExecution(elapsedNanos, rows);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void batchExecuted(String sql, long elapsedNanos, int batchSize) {
+        getMetrics(sql).recordExecution(elapsedNanos, batchSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void statementFailed(String sql, long elapsedNanos, Throwable error) {
+        getMetrics(sql).recordError(elapsedNanos);
+        errors.incrementAndGet();
+    }
+
+    /**
+     * Returns metrics of specified statement
+     *
+     * @param sql SQL query (or {@link #OTHER_STATEMENTS})
+     * @return statement metrics, null if statement wasn't executed
+     */
+    public StatementMetrics getStatementMetrics(String sql) {
+        StatementMetrics result = null;
+
+        if (OTHER_STATEMENTS.equals(sql) == true) {
+            result = otherStatements;
+        } else {
+            result = statements.get(sql);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns metrics of all separately tracked statements
+     *
+     * @return read-only view: SQL query - statement metrics
+     */
+    public Map<String, StatementMetrics> getStatementMetrics() {
+        return Collections.unmodifiableMap(statements);
+    }
+
+    /**
+     * Returns connection acquisition time histogram (nanoseconds)
+     *
+     * @return connection acquisition time histogram
+     */
+    public Histogram getConnectionAcquisition() {
+        return connectionAcquisition;
+    }
+
+    /**
+     * Returns total amount of failed executions
+     *
+     * @return total amount of failed executions
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Removes all collected values
+     */
+    public void reset() {
+        statements.clear();
+        otherStatements.reset();
+        connectionAcquisition.reset();
+        errors.set(0);
+    }
+
+    private StatementMetrics getMetrics(String sql) {
+        StatementMetrics result = null;
+
+        if (sql != null) {
+            result = statements.get(sql);
+
+            if (result == null && statements.size() < maxStatements) {
+                StatementMetrics created = new StatementMetrics();
+
+                result = statements.putIfAbsent(sql, created);
+
+                if (result == null) {
+                    result = created;
+                }
+            }
+        }
+
+        if (result == null) {
+            result = otherStatements;
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative long values (latency in nanoseconds, row counts etc.)
+ * <p/>
+ * Uses log-linear buckets (same idea as HdrHistogram): every power of two range is split into 8 linear
+ * sub-buckets, so values are recorded with relative precision of 12.5% while whole long range is covered by
+ * 496 counters. Recording is allocation free and requires few atomic increments.
+ * <p/>
+ * Values read while histogram is being updated are not guaranteed to be consistent with each other.
+ */
+public class Histogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Records value. Negative values are recorded as 0
+     *
+     * @param value value
+     */
+    public void record(long value) {
+        long recorded = (value < 0 ? 0 : value);
+        long current = 0;
+
+        counts.incrementAndGet(getIndex(recorded));
+        count.incrementAndGet();
+        sum.addAndGet(recorded);
+
+        current = min.get();
+        while (recorded < current && min.compareAndSet(current, recorded) == false) {
+            current = min.get();
+        }
+
+        current = max.get();
+        while (recorded > current && max.compareAndSet(current, recorded) == false) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Returns amount of recorded values
+     *
+     * @return amount of recorded values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns sum of recorded values
+     *
+     * @return sum of recorded values
+     */
+    public long getSum() {
+        return sum.get();
+    }
+
+    /**
+     * Returns min recorded value
+     *
+     * @return min recorded value. 0 if nothing was recorded
+     */
+    public long getMin() {
+        return (getCount() == 0 ? 0 : min.get());
+    }
+
+    /**
+     * Returns max recorded value
+     *
+     * @return max recorded value. 0 if nothing was recorded
+     */
+    public long getMax() {
+        return (getCount() == 0 ? 0 : max.get());
+    }
+
+    /**
+     * Returns mean of recorded values
+     *
+     * @return mean of recorded values. 0 if nothing was recorded
+     */
+    public double getMean() {
+        long currentCount = getCount();
+
+        return (currentCount == 0 ? 0 : getSum() * 1.0 / currentCount);
+    }
+
+    /**
+     * Returns value at specified percentile. Value is precise within bucket precision (12.5%) and is never
+     * bigger than max recorded value.
+     *
+     * @param percentile percentile (0 - 100)
+     * @return value at specified percentile. 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long result = 0;
+        long total = 0;
+        long target = 0;
+        long cumulative = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+
+        if (total > 0) {
+            target = (long) Math.ceil(Math.min(Math.max(percentile, 0.0), 100.0) / 100.0 * total);
+            target = Math.max(target, 1);
+
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                cumulative += counts.get(i);
+
+                if (cumulative >= target) {
+                    result = Math.min(getUpperBound(i), getMax());
+                    break;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes all recorded values
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+
+        count.set(0);
+        sum.set(0);
+        min.set(Long.MAX_VALUE);
+        max.set(Long.MIN_VALUE);
+    }
+
+    /**
+     * Returns bucket index of specified (non-negative) value
+     *
+     * @param value value
+     * @return bucket index
+     */
+    static int getIndex(long value) {
+        int result = 0;
+
+        if (value < SUB_BUCKET_COUNT) {
+            result = (int) value;
+        } else {
+            int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+
+            result = (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns highest value which is recorded into specified bucket
+     *
+     * @param index bucket index
+     * @return highest value of the bucket
+     */
+    static long getUpperBound(int index) {
+        long result = 0;
+
+        if (index < SUB_BUCKET_COUNT) {
+            result = index;
+        } else {
+            int shift = index / SUB_BUCKET_COUNT - 1;
+            long lowerBound = ((long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT)) << shift;
+
+            result = lowerBound + ((1L << shift) - 1);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.metrics;
+
+/**
+ * Metrics collector SPI. Receives measurements from {@link org.midao.jdbc.core.QueryRunner}.
+ * <p/>
+ * Is set via {@link org.midao.jdbc.core.MjdbcConfig#setMetricsCollector(MetricsCollector)}. If it is not set -
+ * nothing is measured.
+ * <p/>
+ * Methods are invoked on the query thread for every execution, so implementations should be thread safe and
+ * should not perform any expensive operations (string building, logging, I/O).
+ * SQL string is passed as is (the same instance which was passed to Query Runner).
+ */
+public interface MetricsCollector {
+
+    /**
+     * Invoked after connection was received from {@link org.midao.jdbc.core.transaction.TransactionHandler}
+     *
+     * @param elapsedNanos connection acquisition time (nanoseconds)
+     */
+    public void connectionAcquired(long elapsedNanos);
+
+    /**
+     * Invoked after query/update/call was executed and it's output was handled
+     *
+     * @param sql          SQL query
+     * @param elapsedNanos execution time (nanoseconds)
+     * @param rows         amount of rows returned (query, call) or updated (update). -1 if unknown (lazy/streaming output)
+     */
+    public void statementExecuted(String sql, long elapsedNanos, int rows);
+
+    /**
+     * Invoked after batch was executed
+     *
+     * @param sql          SQL query
+     * @param elapsedNanos execution time (nanoseconds)
+     * @param batchSize    amount of rows in batch
+     */
+    public void batchExecuted(String sql, long elapsedNanos, int batchSize);
+
+    /**
+     * Invoked after query/update/call/batch execution failed
+     *
+     * @param sql          SQL query
+     * @param elapsedNanos time spent before failure (nanoseconds)
+     * @param error        failure cause
+     */
+    public void statementFailed(String sql, long elapsedNanos, Throwable error);
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of one SQL statement collected by {@link BaseMetricsCollector}
+ */
+public class StatementMetrics {
+    private final Histogram latency = new Histogram();
+    private final Histogram rows = new Histogram();
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * Returns execution time histogram (nanoseconds). Failed executions are included
+     *
+     * @return execution time histogram
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Returns histogram of rows returned (query/call), rows updated (update) or batch sizes (batch).
+     * Executions with unknown amount of rows (lazy/streaming output) are not recorded
+     *
+     * @return rows histogram
+     */
+    public Histogram getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns amount of executions
+     *
+     * @return amount of executions (including failed)
+     */
+    public long getExecutions() {
+        return latency.getCount();
+    }
+
+    /**
+     * Returns amount of failed executions
+     *
+     * @return amount of failed executions
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    void recordExecution(long elapsedNanos, int rowCount) {
+        latency.record(elapsedNanos);
+
+        if (rowCount >= 0) {
+            rows.record(rowCount);
+        }
+    }
+
+    void recordError(long elapsedNanos) {
+        latency.record(elapsedNanos);
+        errors.incrementAndGet();
+    }
+
+    void reset() {
+        latency.reset();
+        rows.reset();
+        errors.set(0);
+    }
+}
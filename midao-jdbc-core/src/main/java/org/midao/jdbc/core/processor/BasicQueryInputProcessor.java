@@ -22,41 +22,44 @@ import org.midao.jdbc.core.MjdbcConfig;
 import org.midao.jdbc.core.handlers.model.ProcessedInput;
 import org.midao.jdbc.core.handlers.utils.InputUtils;
 import org.midao.jdbc.core.utils.AssertUtils;
+import org.midao.jdbc.core.utils.ConcurrentCache;
 
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Basic {@link QueryInputProcessor} implementation.
  */
 public class BasicQueryInputProcessor implements QueryInputProcessor {
     private static final int DEFAULT_CACHE_LIMIT = 256;
-    private static final int PAD_LIMIT = 8192;
-    private static final char FILL_SYMBOL = '#';
     protected static final String SQL_PARAMETER = "?";
 
     // Caching all processed input based on SQL Query
-    @SuppressWarnings("serial")
-    private final Map<String, ProcessedInput> processedInputCache = new LinkedHashMap<String, ProcessedInput>(
-            DEFAULT_CACHE_LIMIT, 0.75f, true) {
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<String, ProcessedInput> eldest) {
-            return size() > DEFAULT_CACHE_LIMIT;
+    private final ConcurrentCache<String, ProcessedInput> processedInputCache = new ConcurrentCache<String, ProcessedInput>(
+            DEFAULT_CACHE_LIMIT);
+
+    /**
+     * Symbols which are allowed to be in front/after of the parameter: "'&,;()|=+-*%/\<>^{} and whitespaces
+     */
+    private static final boolean[] PARAMETER_SEPARATOR = new boolean[128];
+
+    static {
+        String separators = "\"\'&,;()|=+-*%/\\<>^{} \t\n\u000B\f\r";
+
+        for (int i = 0; i < separators.length(); i++) {
+            PARAMETER_SEPARATOR[separators.charAt(i)] = true;
         }
-    };
+    }
+
+    private static final char PARAMETER_PREFIX = InputUtils.getParameterPrefix().charAt(0);
 
-    //private static final String PARAMETER_SEPARATOR = "[\"\'\\:\\&\\,\\;\\(\\)\\|\\=\\+\\-\\*\\%\\/\\\\<\\>\\^\\ ]";
-    private static final String PARAMETER_SEPARATOR = "[\"\'&,;()|=+\\-*%/\\<>\\^\\s{}]";
-    //private static final String PARAMETER_SEPARATOR = "";
+    private static final String REGEX_PARAMETER_SEPARATOR = "[\"\'&,;()|=+\\-*%/\\<>\\^\\s{}]";
 
     /**
      * RegEx for searching for a parameter in SQL String
      */
-    private static final String REGEX_PARAMETER_SEARCH = PARAMETER_SEPARATOR + "[" + InputUtils.getParameterPrefix() + "][a-zA-Z0-9_\\-.]{1,}?(?=" + PARAMETER_SEPARATOR + ")";
-
-    private static final String REGEX_UNNAMED_PARAMETER_SEARCH = PARAMETER_SEPARATOR + "[?]" + "(?=" + PARAMETER_SEPARATOR + ")";
+    private static final String REGEX_PARAMETER_SEARCH = REGEX_PARAMETER_SEPARATOR + "[" + InputUtils.getParameterPrefix() + "][a-zA-Z0-9_\\-.]{1,}?(?=" + REGEX_PARAMETER_SEPARATOR + ")";
 
     /**
      * RegEx for searching for text and comment blocks
@@ -68,14 +71,10 @@ public class BasicQueryInputProcessor implements QueryInputProcessor {
      */
     public ProcessedInput processInput(String originalSql, Map<String, Object> params) {
         ProcessedInput processedInput = getProcessedInputsFromCache(originalSql);
-        String preProcessedSql = null;
 
         if (processedInput.getParsedSql() == null) {
-            // removing comments and text blocks
-            preProcessedSql = removeBlocks(originalSql);
-
-            // parsing sql(without comments and text blocks)
-            processedInput = parseSqlString(preProcessedSql, processedInput);
+            // parsing sql (comments and text blocks are skipped)
+            processedInput = parseSqlString(originalSql, processedInput);
 
             // saving generated processed input into cache
             putProcessedInputToCache(processedInput);
@@ -103,36 +102,95 @@ public class BasicQueryInputProcessor implements QueryInputProcessor {
      */
     public boolean hasUnnamedParameters(String originalSql) {
         boolean hasUnnamedParameters = false;
-        String preProcessedSql = null;
-
-        // removing comments and text blocks
-        preProcessedSql = removeBlocks(originalSql);
+        boolean afterSeparator = false;
+        int length = originalSql.length();
+        int position = 0;
+        int blockEnd = 0;
 
-        // adding whitespace in the end to allow proper processing if "?" would be the last symbol
-        preProcessedSql = preProcessedSql + " ";
+        while (position < length) {
+            blockEnd = skipBlock(originalSql, position);
 
-        // parsing sql(without comments and text blocks)
-        Pattern regexPattern = null;
-        Matcher regexMatcher = null;
+            if (blockEnd > position) {
+                // symbol in front of parameter cannot be part of block
+                position = blockEnd;
+                afterSeparator = false;
+                continue;
+            }
 
-        regexPattern = Pattern.compile(REGEX_UNNAMED_PARAMETER_SEARCH, Pattern.CASE_INSENSITIVE);
-        regexMatcher = regexPattern.matcher(preProcessedSql);
+            if (afterSeparator == true && originalSql.charAt(position) == SQL_PARAMETER.charAt(0)
+                    && isParameterEnd(originalSql, position + 1) == true) {
+                hasUnnamedParameters = true;
+                break;
+            }
 
-        if (regexMatcher.find() == true) {
-            hasUnnamedParameters = true;
+            afterSeparator = isSeparator(originalSql.charAt(position));
+            position++;
         }
 
         return hasUnnamedParameters;
     }
 
+    /**
+     * Returns RegEx which matches parameter (together with symbol in front of it) in SQL String
+     *
+     * @return parameter RegEx
+     * @deprecated SQL String is parsed by single-pass scanner, this RegEx isn't used anymore.
+     *             Please override {@link #findParameterEnd(String, int)} to change parameter format
+     */
+    @Deprecated
     protected String getRegexParameterSearch() {
         return REGEX_PARAMETER_SEARCH;
     }
 
+    /**
+     * Returns RegEx which matches text and comment blocks in SQL String
+     *
+     * @return text and comment block RegEx
+     * @deprecated SQL String is parsed by single-pass scanner, this RegEx isn't used anymore.
+     *             Please override {@link #isHashComment(String, int)} to change comment handling
+     */
+    @Deprecated
     protected String getRegexSkipBlockSearch() {
         return REGEX_SKIP_BLOCK_SEARCH;
     }
 
+    /**
+     * Checks if parameter starts at specified position and returns it's end.
+     * Symbols around the parameter are checked by caller.
+     * Parameter is expected to be in format ":xxx"
+     *
+     * @param sql      original SQL
+     * @param position position of possible parameter start
+     * @return position after the end of the parameter, -1 if there is no parameter at specified position
+     */
+    protected int findParameterEnd(String sql, int position) {
+        int result = -1;
+        int end = position + 1;
+
+        if (sql.charAt(position) == PARAMETER_PREFIX) {
+            while (end < sql.length() && isParameterNameSymbol(sql.charAt(end)) == true) {
+                end++;
+            }
+
+            if (end > position + 1) {
+                result = end;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks if "#" at specified position starts line comment (MySQL style)
+     *
+     * @param sql      original SQL
+     * @param position position of "#"
+     * @return true if comment starts at specified position
+     */
+    protected boolean isHashComment(String sql, int position) {
+        return true;
+    }
+
     protected String getParameterName(String preProcessedSql, int paramStart, int paramEnd) {
         return preProcessedSql.substring(paramStart + 1, paramEnd).toLowerCase();
     }
@@ -144,105 +202,165 @@ public class BasicQueryInputProcessor implements QueryInputProcessor {
     /**
      * Performs actual input SQL/parameters processing
      * Used by {@link #processInput(String, java.util.Map)}
+     * <p/>
+     * SQL is scanned once: text blocks, quoted identifiers and comments are skipped (their boundaries in parsed SQL
+     * are stored, see {@link ProcessedInput#getParsedSqlBlockBoundaries()}), parameters are replaced with "?"
      *
-     * @param preProcessedSql SQL string with removed blocks (comments etc.)
-     * @param processedInput  Processed Input object which would be filled
+     * @param originalSql    original SQL string
+     * @param processedInput Processed Input object which would be filled
      * @return filled ProcessedInput object
      */
-    private ProcessedInput parseSqlString(String preProcessedSql, ProcessedInput processedInput) {
+    private ProcessedInput parseSqlString(String originalSql, ProcessedInput processedInput) {
         ProcessedInput resultProcessedInput = new ProcessedInput(processedInput);
 
-        String originalSql = resultProcessedInput.getOriginalSql();
-        StringBuilder parsedSql = new StringBuilder(preProcessedSql.length());
-
-        Pattern regexPattern = null;
-        Matcher regexMatcher = null;
-
-        regexPattern = Pattern.compile(getRegexParameterSearch(), Pattern.CASE_INSENSITIVE);
+        int length = originalSql.length();
+        StringBuilder parsedSql = new StringBuilder(length);
+        List<int[]> blockBoundaries = new ArrayList<int[]>();
 
-        // adding whitespace, as parameter might be in the end of the string, but regex is checking for separator on both ends of parameter.
-        regexMatcher = regexPattern.matcher(preProcessedSql + " ");
-
-        int paramStart = 0;
+        boolean afterSeparator = false;
+        int position = 0;
+        int blockEnd = 0;
         int paramEnd = 0;
         int prevParamEnd = 0;
         String paramName = null;
 
-        while (regexMatcher.find() == true) {
-            paramStart = regexMatcher.start() + 1;
-            paramEnd = regexMatcher.end();
-            paramName = getParameterName(preProcessedSql, paramStart, paramEnd);
+        while (position < length) {
+            blockEnd = skipBlock(originalSql, position);
+
+            if (blockEnd > position) {
+                // blocks are never inside of parameter, so offset between original and parsed SQL is known
+                blockBoundaries.add(new int[]{parsedSql.length() + position - prevParamEnd,
+                        parsedSql.length() + blockEnd - prevParamEnd});
+
+                // symbol in front of parameter cannot be part of block
+                position = blockEnd;
+                afterSeparator = false;
+                continue;
+            }
+
+            if (afterSeparator == true) {
+                paramEnd = findParameterEnd(originalSql, position);
+
+                if (paramEnd > position && isParameterEnd(originalSql, paramEnd) == true) {
+                    paramName = getParameterName(originalSql, position, paramEnd);
 
-            parsedSql.append(originalSql.substring(prevParamEnd, paramStart));
+                    parsedSql.append(originalSql, prevParamEnd, position);
 
-            parsedSql.append(SQL_PARAMETER);
+                    parsedSql.append(SQL_PARAMETER);
 
-            addParameter(resultProcessedInput, paramName, paramStart, paramEnd);
+                    addParameter(resultProcessedInput, paramName, position, paramEnd);
 
-            prevParamEnd = paramEnd;
+                    prevParamEnd = paramEnd;
+                    position = paramEnd;
+                    afterSeparator = false;
+                    continue;
+                }
+            }
+
+            afterSeparator = isSeparator(originalSql.charAt(position));
+            position++;
         }
 
-        parsedSql.append(originalSql.substring(prevParamEnd, preProcessedSql.length()));
+        parsedSql.append(originalSql, prevParamEnd, length);
 
         resultProcessedInput.setParsedSql(parsedSql.toString());
+        resultProcessedInput.setParsedSqlBlockBoundaries(blockBoundaries);
 
         return resultProcessedInput;
     }
 
     /**
-     * Removes blocks - such as comments and other possible blocks
+     * Checks if block (text, quoted identifier or comment) starts at specified position and returns it's end.
+     * Unterminated text and quoted identifier are not treated as blocks.
      *
-     * @param originalSql original SQL
-     * @return SQL string with removed(they will be filled with {@link #FILL_SYMBOL} blocks
+     * @param sql      original SQL
+     * @param position current position
+     * @return position after the end of the block, or specified position if there is no block
      */
-    private String removeBlocks(String originalSql) {
-        StringBuilder cleanedSql = new StringBuilder(originalSql.length());
-
-        Pattern regexPattern = null;
-        Matcher regexMatcher = null;
-
-        regexPattern = Pattern.compile(getRegexSkipBlockSearch(), Pattern.CASE_INSENSITIVE);
-        regexMatcher = regexPattern.matcher(originalSql + "\n");
-
-        int prevBlockEnd = 0;
-        int blockStart = 0;
-        int blockEnd = 0;
-        String block = null;
-
-        while (regexMatcher.find() == true) {
-            blockStart = regexMatcher.start();
-            blockEnd = Math.min(originalSql.length(), regexMatcher.end());
+    private int skipBlock(String sql, int position) {
+        int result = position;
+        int length = sql.length();
+        char symbol = sql.charAt(position);
+        char next = (position + 1 < length ? sql.charAt(position + 1) : 0);
+
+        if (symbol == '\'' || symbol == '"') {
+            result = skipQuoted(sql, position, symbol);
+        } else if ((symbol == '-' && next == '-') || (symbol == '#' && isHashComment(sql, position) == true)) {
+            result = sql.indexOf('\n', position);
+
+            if (result == -1) {
+                result = length;
+            }
+        } else if (symbol == '/' && next == '*') {
+            result = sql.indexOf("*/", position + 2);
 
-            block = originalSql.substring(blockStart, blockEnd);
+            if (result == -1) {
+                result = length;
+            } else {
+                result = result + 2;
+            }
+        }
 
-            cleanedSql.append(originalSql.substring(prevBlockEnd, blockStart));
+        return result;
+    }
 
-            prevBlockEnd = blockEnd;
+    /**
+     * Returns position after the closing quote. Doubled quote is treated as escaped.
+     *
+     * @param sql      original SQL
+     * @param position position of opening quote
+     * @param quote    quote symbol
+     * @return position after closing quote, or specified position if quote is not closed
+     */
+    private int skipQuoted(String sql, int position, char quote) {
+        int result = position;
+        int length = sql.length();
+        int current = position + 1;
+
+        while (current < length) {
+            if (sql.charAt(current) == quote) {
+                if (current + 1 < length && sql.charAt(current + 1) == quote) {
+                    current += 2;
+                    continue;
+                }
+
+                result = current + 1;
+                break;
+            }
 
-            cleanedSql.append(fill(FILL_SYMBOL, block.length()));
+            current++;
         }
 
-        cleanedSql.append(originalSql.substring(prevBlockEnd, originalSql.length()));
-
-        return cleanedSql.toString();
+        return result;
     }
 
     /**
-     * Returns string of specified length filled with specified symbol
+     * Checks if parameter might end at specified position: it should be followed by separator
+     * (which is not start of a block) or by end of the string
      *
-     * @param symbol character with which String would be filled
-     * @param times  amount of times character would be copied
-     * @return filled String
+     * @param sql      original SQL
+     * @param position position after the parameter
+     * @return true if parameter can end at specified position
      */
-    private String fill(char symbol, int times) {
-        char[] result = new char[times];
-
+    private boolean isParameterEnd(String sql, int position) {
+        boolean result = false;
 
-        for (int i = 0; i < times; i++) {
-            result[i] = symbol;
+        if (position == sql.length()) {
+            result = true;
+        } else if (isSeparator(sql.charAt(position)) == true && skipBlock(sql, position) == position) {
+            result = true;
         }
 
-        return new String(result);
+        return result;
+    }
+
+    private static boolean isSeparator(char symbol) {
+        return symbol < PARAMETER_SEPARATOR.length && PARAMETER_SEPARATOR[symbol] == true;
+    }
+
+    private static boolean isParameterNameSymbol(char symbol) {
+        return (symbol >= 'a' && symbol <= 'z') || (symbol >= 'A' && symbol <= 'Z') || (symbol >= '0' && symbol <= '9')
+                || symbol == '_' || symbol == '.';
     }
 
     /**
@@ -254,13 +372,15 @@ public class BasicQueryInputProcessor implements QueryInputProcessor {
     private ProcessedInput getProcessedInputsFromCache(String originalSql) {
         ProcessedInput processedInput = null;
 
-        synchronized (this.processedInputCache) {
+        if (MjdbcConfig.isQueryInputProcessorUseCache() == true) {
             processedInput = this.processedInputCache.get(originalSql);
-            if (processedInput == null || MjdbcConfig.isQueryInputProcessorUseCache() == false) {
-                processedInput = new ProcessedInput(originalSql);
-            } else {
-                processedInput = new ProcessedInput(processedInput);
-            }
+        }
+
+        if (processedInput == null) {
+            processedInput = new ProcessedInput(originalSql);
+        } else {
+            // cached value is never modified, so there is no need to copy parameters structure
+            processedInput = new ProcessedInput(processedInput, true);
         }
 
         return processedInput;
@@ -274,13 +394,14 @@ public class BasicQueryInputProcessor implements QueryInputProcessor {
     private void putProcessedInputToCache(ProcessedInput processedInput) {
 
         if (MjdbcConfig.isQueryInputProcessorUseCache() == true) {
-            ProcessedInput clonedProcessedInput = new ProcessedInput(processedInput);
-            synchronized (this.processedInputCache) {
+            ProcessedInput cachedProcessedInput = new ProcessedInput(processedInput, true);
 
-                // no need to keep parameters in the memory. removing just in case
-                clonedProcessedInput.setSqlParameterValues(null);
-                this.processedInputCache.put(processedInput.getOriginalSql(), clonedProcessedInput);
-            }
+            // no need to keep parameters in the memory. removing just in case
+            cachedProcessedInput.setSqlParameterValues(null);
+
+            // cache size might be changed via MjdbcConfig
+            this.processedInputCache.setMaxSize(MjdbcConfig.getQueryInputProcessorCacheSize());
+            this.processedInputCache.put(processedInput.getOriginalSql(), cachedProcessedInput);
         }
     }
 
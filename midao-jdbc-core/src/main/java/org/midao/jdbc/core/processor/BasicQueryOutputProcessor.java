@@ -18,9 +18,12 @@
 
 package org.midao.jdbc.core.processor;
 
+import org.midao.jdbc.core.MjdbcConfig;
 import org.midao.jdbc.core.exception.MjdbcException;
 import org.midao.jdbc.core.handlers.model.QueryParameters;
+import org.midao.jdbc.core.handlers.utils.BeanAccessor;
 import org.midao.jdbc.core.handlers.utils.MappingUtils;
+import org.midao.jdbc.core.utils.ConcurrentCache;
 
 import java.beans.PropertyDescriptor;
 import java.math.BigDecimal;
@@ -37,6 +40,8 @@ public class BasicQueryOutputProcessor implements QueryOutputProcessor {
      */
     protected static final int PROPERTY_NOT_FOUND = -1;
 
+    private static final int DEFAULT_CACHE_LIMIT = 256;
+
     /**
      * If value from DB returned is null - it will be replaced
      * with default value(for specified types) from this map.
@@ -49,6 +54,14 @@ public class BasicQueryOutputProcessor implements QueryOutputProcessor {
      */
     private final Map<String, String> columnToPropertyOverrides;
 
+    // Caching bean mapping plans based on bean Class, query output column names and their overrides
+    private final ConcurrentCache<MappingPlanKey, MappingPlan> mappingPlanCache = new ConcurrentCache<MappingPlanKey, MappingPlan>(
+            DEFAULT_CACHE_LIMIT);
+
+    // Mapping plan used last. Rows are usually converted one by one (lazy output handlers) and have the same columns,
+    // so it is checked before building cache key
+    private volatile MappingPlan lastMappingPlan;
+
     static {
         primitiveDefaults.put(Integer.TYPE, Integer.valueOf(0));
         primitiveDefaults.put(Short.TYPE, Short.valueOf((short) 0));
@@ -170,13 +183,12 @@ public class BasicQueryOutputProcessor implements QueryOutputProcessor {
      */
     public <T> T toBean(QueryParameters params, Class<T> type) throws MjdbcException {
         T result = null;
-        int[] columnToProperty = null;
+        MappingPlan mappingPlan = null;
 
         if (params != null) {
-            PropertyDescriptor[] props = MappingUtils.propertyDescriptors(type);
+            mappingPlan = this.getMappingPlan(params, type);
 
-            columnToProperty = this.mapColumnsToProperties(params, props);
-            result = this.createBean(params, type, props, columnToProperty);
+            result = this.createBean(params, type, mappingPlan.accessor, mappingPlan.columnToProperty);
         }
 
         return result;
@@ -188,8 +200,7 @@ public class BasicQueryOutputProcessor implements QueryOutputProcessor {
     public <T> List<T> toBeanList(List<QueryParameters> paramsList, Class<T> type) throws MjdbcException {
         List<T> result = new ArrayList<T>();
         T bean = null;
-        int[] columnToProperty = null;
-        PropertyDescriptor[] props = MappingUtils.propertyDescriptors(type);
+        MappingPlan mappingPlan = null;
         QueryParameters singleParam = null;
 
         Iterator<QueryParameters> iterator = paramsList.iterator();
@@ -201,8 +212,13 @@ public class BasicQueryOutputProcessor implements QueryOutputProcessor {
 
         while (iterator.hasNext() == true) {
             singleParam = iterator.next();
-            columnToProperty = this.mapColumnsToProperties(singleParam, props);
-            bean = this.createBean(singleParam, type, props, columnToProperty);
+
+            // all rows usually have the same columns, so mapping plan is looked up only if they differ
+            if (mappingPlan == null || mappingPlan.matches(singleParam, type, this.columnToPropertyOverrides) == false) {
+                mappingPlan = this.getMappingPlan(singleParam, type);
+            }
+
+            bean = this.createBean(singleParam, type, mappingPlan.accessor, mappingPlan.columnToProperty);
             result.add(bean);
         }
 
@@ -374,21 +390,52 @@ public class BasicQueryOutputProcessor implements QueryOutputProcessor {
         return columnToProperty;
     }
 
+    /**
+     * Returns mapping plan for @type and columns of @params.
+     * Mapping plan is created (via {@link #mapColumnsToProperties(QueryParameters, PropertyDescriptor[])})
+     * only once for every Class/columns combination and is cached afterwards.
+     *
+     * @param params Query output row
+     * @param type   Java Class definition
+     * @return cached/new mapping plan
+     */
+    private MappingPlan getMappingPlan(QueryParameters params, Class<?> type) {
+        MappingPlan mappingPlan = this.lastMappingPlan;
+
+        if (mappingPlan == null || mappingPlan.matches(params, type, this.columnToPropertyOverrides) == false) {
+            MappingPlanKey key = new MappingPlanKey(type, params, this.columnToPropertyOverrides);
+            mappingPlan = this.mappingPlanCache.get(key);
+
+            if (mappingPlan == null) {
+                BeanAccessor accessor = MjdbcConfig.getDefaultBeanAccessorFactory().getBeanAccessor(type);
+
+                mappingPlan = new MappingPlan(key, accessor, this.mapColumnsToProperties(params, accessor.getPropertyDescriptors()));
+
+                this.mappingPlanCache.put(key, mappingPlan);
+            }
+
+            this.lastMappingPlan = mappingPlan;
+        }
+
+        return mappingPlan;
+    }
+
     /**
      * Creates and fills Java Object with values from @params
      * Is used by toBean* functions
      *
      * @param params           value which used to fill Java Object
      * @param type             Java Class definition which would be instantiated
-     * @param props            Java Class property descriptor which would be used to set values(via setter)
+     * @param accessor         Java Class accessor which would be used to set values(via setter)
      * @param columnToProperty mapping column number to Java Class property
      * @return filled Java Object
      * @throws org.midao.jdbc.core.exception.MjdbcException
      */
     private <T> T createBean(QueryParameters params, Class<T> type,
-                             PropertyDescriptor[] props, int[] columnToProperty) throws MjdbcException {
+                             BeanAccessor accessor, int[] columnToProperty) throws MjdbcException {
 
         T bean = MappingUtils.newInstance(type);
+        PropertyDescriptor[] props = accessor.getPropertyDescriptors();
 
         for (int i = 0; i < columnToProperty.length; i++) {
 
@@ -405,7 +452,7 @@ public class BasicQueryOutputProcessor implements QueryOutputProcessor {
                 value = primitiveDefaults.get(propType);
             }
 
-            MappingUtils.callSetter(bean, prop, value);
+            accessor.setValue(bean, columnToProperty[i], value);
         }
 
         return bean;
@@ -456,4 +503,109 @@ public class BasicQueryOutputProcessor implements QueryOutputProcessor {
         return false;
 
     }
+
+    /**
+     * Mapping plan cache key: bean Class, query output column names (in order) and property name overrides
+     * of those columns.
+     * As overrides map is supplied by user and might be changed after processor was created - overrides
+     * are part of the key, so changed override would not be served by previously created mapping plan.
+     */
+    private static class MappingPlanKey {
+        private final Class<?> type;
+        private final String[] columnNames;
+        private final String[] columnOverrides;
+        private final int hashCode;
+
+        private MappingPlanKey(Class<?> type, QueryParameters params, Map<String, String> overrides) {
+            this.type = type;
+            this.columnNames = new String[params.size()];
+            this.columnOverrides = new String[params.size()];
+
+            for (int i = 0; i < this.columnNames.length; i++) {
+                this.columnNames[i] = params.getNameByPosition(i);
+
+                if (overrides.isEmpty() == false) {
+                    this.columnOverrides[i] = overrides.get(this.columnNames[i]);
+                }
+            }
+
+            this.hashCode = 31 * (31 * type.hashCode() + Arrays.hashCode(this.columnNames)) + Arrays.hashCode(this.columnOverrides);
+        }
+
+        /**
+         * Checks if @params has the same columns (in the same order) and the same overrides as this key
+         *
+         * @param params    Query output row
+         * @param overrides column to property overrides
+         * @return true - if columns and their overrides are the same
+         */
+        private boolean matches(QueryParameters params, Map<String, String> overrides) {
+            if (params.size() != this.columnNames.length) {
+                return false;
+            }
+
+            boolean checkOverrides = overrides.isEmpty() == false;
+
+            for (int i = 0; i < this.columnNames.length; i++) {
+                if (this.columnNames[i].equals(params.getNameByPosition(i)) == false) {
+                    return false;
+                }
+
+                String override = checkOverrides == true ? overrides.get(this.columnNames[i]) : null;
+
+                if (override == null ? this.columnOverrides[i] != null : override.equals(this.columnOverrides[i]) == false) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            MappingPlanKey that = (MappingPlanKey) o;
+
+            return type.equals(that.type) && Arrays.equals(columnNames, that.columnNames)
+                    && Arrays.equals(columnOverrides, that.columnOverrides);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Precomputed mapping of query output columns to bean properties
+     */
+    private static class MappingPlan {
+        private final MappingPlanKey key;
+        private final BeanAccessor accessor;
+        private final int[] columnToProperty;
+
+        private MappingPlan(MappingPlanKey key, BeanAccessor accessor, int[] columnToProperty) {
+            this.key = key;
+            this.accessor = accessor;
+            this.columnToProperty = columnToProperty;
+        }
+
+        /**
+         * Checks if this mapping plan can be used to convert @params into @type
+         *
+         * @param params    Query output row
+         * @param type      Java Class definition
+         * @param overrides column to property overrides
+         * @return true - if mapping plan was resolved for the same Class, the same columns and overrides
+         */
+        private boolean matches(QueryParameters params, Class<?> type, Map<String, String> overrides) {
+            return this.key.type.equals(type) && this.key.matches(params, overrides);
+        }
+    }
 }
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.processor;
+
+import org.midao.jdbc.core.MjdbcConfig;
+import org.midao.jdbc.core.handlers.model.ProcessedInput;
+
+import java.util.List;
+
+/**
+ * Rewrites simple "INSERT ... VALUES (...)" statement into multi-row "INSERT ... VALUES (...), (...), ..." statement.
+ * <p/>
+ * Statement is rewritable only if it has single VALUES group, which is the last element of the statement and
+ * contains all the statement parameters ("?"). Text blocks and comments (as found by {@link BasicQueryInputProcessor},
+ * see {@link ProcessedInput#getParsedSqlBlockBoundaries()}) are skipped.
+ * Used by batch execution if {@link org.midao.jdbc.core.MjdbcConfig#isDefaultBatchInsertRewrite()} is set.
+ */
+public class BatchInsertRewriter {
+    private static final String INSERT = "INSERT";
+    private static final String VALUES = "VALUES";
+
+    // is used if default Query Input Processor doesn't collect block boundaries
+    private static final BasicQueryInputProcessor basicProcessor = new BasicQueryInputProcessor();
+
+    private final String prefix;
+    private final String valuesGroup;
+    private final int parameterCount;
+
+    private int lastRowCount = 0;
+    private String lastSql = null;
+
+    /**
+     * Creates new BatchInsertRewriter instance
+     *
+     * @param prefix         SQL in front of VALUES group
+     * @param valuesGroup    VALUES group (including brackets)
+     * @param parameterCount amount of parameters in VALUES group
+     */
+    private BatchInsertRewriter(String prefix, String valuesGroup, int parameterCount) {
+        this.prefix = prefix;
+        this.valuesGroup = valuesGroup;
+        this.parameterCount = parameterCount;
+    }
+
+    /**
+     * Checks if SQL can be rewritten and returns rewriter for it.
+     * SQL is processed via {@link MjdbcConfig#getDefaultQueryInputProcessor()}
+     *
+     * @param sql parsed SQL (with "?" as parameters)
+     * @return rewriter, null if SQL is not simple INSERT ... VALUES statement
+     */
+    public static BatchInsertRewriter getInstance(String sql) {
+        ProcessedInput processedInput = MjdbcConfig.getDefaultQueryInputProcessor().processInput(sql);
+
+        if (processedInput.getParsedSqlBlockBoundaries() == null) {
+            processedInput = basicProcessor.processInput(sql);
+        }
+
+        // SQL with named parameters is not expected in here
+        if (sql.equals(processedInput.getParsedSql()) == false) {
+            return null;
+        }
+
+        return getInstance(processedInput);
+    }
+
+    /**
+     * Checks if parsed SQL can be rewritten and returns rewriter for it
+     *
+     * @param processedInput processed SQL (with text block and comment boundaries)
+     * @return rewriter, null if SQL is not simple INSERT ... VALUES statement
+     */
+    public static BatchInsertRewriter getInstance(ProcessedInput processedInput) {
+        BatchInsertRewriter result = null;
+        String sql = processedInput.getParsedSql();
+        List<int[]> blocks = processedInput.getParsedSqlBlockBoundaries();
+
+        if (sql == null || blocks == null) {
+            return null;
+        }
+
+        int length = sql.length();
+        int position = skipWhitespaces(sql, 0);
+
+        if (sql.regionMatches(true, position, INSERT, 0, INSERT.length()) == false) {
+            return null;
+        }
+
+        int valuesStart = -1;
+        int groupStart = -1;
+        int groupEnd = -1;
+        int depth = 0;
+        int parameters = 0;
+        int blockIndex = 0;
+        char symbol = 0;
+
+        while (position < length) {
+            if (blockIndex < blocks.size() && blocks.get(blockIndex)[0] == position) {
+                position = blocks.get(blockIndex)[1];
+                blockIndex++;
+                continue;
+            }
+
+            symbol = sql.charAt(position);
+
+            if (groupEnd != -1) {
+                // only whitespaces are allowed after VALUES group
+                if (Character.isWhitespace(symbol) == false) {
+                    return null;
+                }
+            } else if (symbol == '?') {
+                if (groupStart == -1) {
+                    // parameter outside of VALUES group
+                    return null;
+                }
+                parameters++;
+            } else if (symbol == '(') {
+                if (valuesStart != -1 && groupStart == -1) {
+                    groupStart = position;
+                }
+                depth++;
+            } else if (symbol == ')') {
+                depth--;
+                if (groupStart != -1 && depth == 0) {
+                    groupEnd = position;
+                }
+            } else if (valuesStart == -1 && depth == 0 && isKeyword(sql, position, VALUES) == true) {
+                valuesStart = position;
+                position += VALUES.length();
+                continue;
+            } else if (valuesStart != -1 && groupStart == -1 && Character.isWhitespace(symbol) == false) {
+                // VALUES should be followed by bracket
+                return null;
+            }
+
+            position++;
+        }
+
+        if (groupEnd != -1 && parameters > 0) {
+            result = new BatchInsertRewriter(sql.substring(0, groupStart), sql.substring(groupStart, groupEnd + 1), parameters);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns amount of parameters of one row
+     *
+     * @return amount of parameters of one row
+     */
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * Returns max amount of rows which can be inserted by one statement
+     *
+     * @param parameterLimit max amount of parameters per statement
+     * @return max amount of rows per statement (at least one)
+     */
+    public int getMaxRowCount(int parameterLimit) {
+        return Math.max(1, parameterLimit / this.parameterCount);
+    }
+
+    /**
+     * Returns SQL which inserts specified amount of rows
+     *
+     * @param rowCount amount of rows
+     * @return multi-row INSERT statement
+     */
+    public String getSql(int rowCount) {
+        if (rowCount == this.lastRowCount) {
+            return this.lastSql;
+        }
+
+        StringBuilder result = new StringBuilder(this.prefix.length() + (this.valuesGroup.length() + 2) * rowCount);
+
+        result.append(this.prefix).append(this.valuesGroup);
+
+        for (int i = 1; i < rowCount; i++) {
+            result.append(", ").append(this.valuesGroup);
+        }
+
+        this.lastRowCount = rowCount;
+        this.lastSql = result.toString();
+
+        return this.lastSql;
+    }
+
+    private static int skipWhitespaces(String sql, int position) {
+        int result = position;
+
+        while (result < sql.length() && Character.isWhitespace(sql.charAt(result)) == true) {
+            result++;
+        }
+
+        return result;
+    }
+
+    private static boolean isKeyword(String sql, int position, String keyword) {
+        int end = position + keyword.length();
+
+        return sql.regionMatches(true, position, keyword, 0, keyword.length()) == true
+                && (position == 0 || Character.isJavaIdentifierPart(sql.charAt(position - 1)) == false)
+                && (end == sql.length() || Character.isJavaIdentifierPart(sql.charAt(end)) == false);
+    }
+}
@@ -36,31 +36,70 @@ import org.midao.jdbc.core.handlers.model.ProcessedInput;
  * </p>
  */
 public class ExtendedQueryInputProcessor extends BasicQueryInputProcessor {
-    private static final char FILL_SYMBOL = '#';
-
-    private static final String PARAMETER_SEPARATOR = "[\"\'&,;()|=+\\-*%/\\<>\\^\\s{}]";
+    private static final String REGEX_PARAMETER_SEPARATOR = "[\"\'&,;()|=+\\-*%/\\<>\\^\\s{}]";
 
     /**
      * RegEx for searching for a parameter in SQL String
      */
-    private static final String REGEX_PARAMETER_SEARCH = PARAMETER_SEPARATOR + "[#][{][a-zA-Z0-9_\\-.,=]{1,}?[}](?=" + PARAMETER_SEPARATOR + ")";
+    private static final String REGEX_PARAMETER_SEARCH = REGEX_PARAMETER_SEPARATOR + "[#][{][a-zA-Z0-9_\\-.,=]{1,}?[}](?=" + REGEX_PARAMETER_SEPARATOR + ")";
 
     /**
      * RegEx for searching for text and comment blocks
      */
-    //private static final String REGEX_SKIP_BLOCK_SEARCH = "(['].+?['])|([\"].+?[\"])|([-][-].+?[\n])|([/][*].+?[*][/])";
     private static final String REGEX_SKIP_BLOCK_SEARCH = "(['].+?['])|([\"].+?[\"])|([-][-].+?[\n])|([#][^{].+?[\n])|([/][*].+?[*][/])";
 
+    /**
+     * {@inheritDoc}
+     */
+    @Deprecated
     @Override
     protected String getRegexParameterSearch() {
         return REGEX_PARAMETER_SEARCH;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Deprecated
     @Override
     protected String getRegexSkipBlockSearch() {
         return REGEX_SKIP_BLOCK_SEARCH;
     }
 
+    /**
+     * Checks if parameter starts at specified position and returns it's end.
+     * Parameter is expected to be in format "#{xxx}"
+     *
+     * @param sql      original SQL
+     * @param position position of possible parameter start
+     * @return position after the end of the parameter, -1 if there is no parameter at specified position
+     */
+    @Override
+    protected int findParameterEnd(String sql, int position) {
+        int result = -1;
+        int end = position + 2;
+
+        if (sql.charAt(position) == '#' && end < sql.length() && sql.charAt(position + 1) == '{') {
+            while (end < sql.length() && isParameterDescriptionSymbol(sql.charAt(end)) == true) {
+                end++;
+            }
+
+            if (end > position + 2 && end < sql.length() && sql.charAt(end) == '}') {
+                result = end + 1;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * "#{" is parameter start, not a comment
+     */
+    @Override
+    protected boolean isHashComment(String sql, int position) {
+        return position + 1 >= sql.length() || sql.charAt(position + 1) != '{';
+    }
+
     @Override
     protected String getParameterName(String preProcessedSql, int paramStart, int paramEnd) {
         return preProcessedSql.substring(paramStart + 2, paramEnd - 1).toLowerCase();
@@ -88,4 +127,9 @@ public class ExtendedQueryInputProcessor extends BasicQueryInputProcessor {
             processedInput.addParameter(parameterDescription, paramStart, paramEnd);
         }
     }
+
+    private static boolean isParameterDescriptionSymbol(char symbol) {
+        return (symbol >= 'a' && symbol <= 'z') || (symbol >= 'A' && symbol <= 'Z') || (symbol >= '0' && symbol <= '9')
+                || symbol == '_' || symbol == '-' || symbol == '.' || symbol == ',' || symbol == '=';
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.profiler;
+
+import org.midao.jdbc.core.MjdbcConfig;
+import org.midao.jdbc.core.MjdbcLogger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Slow query log. Invoked by {@link org.midao.jdbc.core.QueryRunner} after every execution (if enabled).
+ * <p/>
+ * Executions which took longer than {@link MjdbcConfig#getSlowQueryThreshold()} are logged as warning.
+ * Additionally every N-th execution (see {@link MjdbcConfig#getSlowQuerySampleRate()}) is logged as info,
+ * so it is possible to see normal executions as well.
+ * <p/>
+ * Output is formatted only if execution is logged: usual (fast, not sampled) execution doesn't allocate anything.
+ */
+public class SlowQueryLog {
+    private static final MjdbcLogger logger = MjdbcLogger.getLogger(SlowQueryLog.class);
+
+    private static final String TYPE_SLOW = "Slow";
+    private static final String TYPE_SAMPLED = "Sampled";
+
+    private static final AtomicLong executions = new AtomicLong();
+
+    /**
+     * Checks if slow query log is enabled
+     *
+     * @return true if either threshold or sample rate is set
+     */
+    public static boolean isEnabled() {
+        return MjdbcConfig.getSlowQueryThreshold() > 0 || MjdbcConfig.getSlowQuerySampleRate() > 0;
+    }
+
+    /**
+     * Logs execution if it is slow or sampled
+     *
+     * @param sql            SQL query
+     * @param params         query parameters (null if not available)
+     * @param elapsedNanos   execution time (nanoseconds)
+     * @param connectionNanos connection acquisition time (nanoseconds)
+     * @param rows           amount of rows returned/updated or batch size. -1 if unknown
+     * @param error          failure cause (null if execution was successful)
+     * @return true if execution was logged
+     */
+    public static boolean record(String sql, Object params, long elapsedNanos, long connectionNanos, int rows, Throwable error) {
+        boolean result = false;
+        long threshold = MjdbcConfig.getSlowQueryThreshold();
+        int sampleRate = MjdbcConfig.getSlowQuerySampleRate();
+
+        if (threshold > 0 && elapsedNanos + connectionNanos >= threshold * 1000000L) {
+            logger.warning(format(TYPE_SLOW, sql, params, elapsedNanos, connectionNanos, rows, error));
+            result = true;
+        } else if (sampleRate > 0 && executions.incrementAndGet() % sampleRate == 0) {
+            logger.info(format(TYPE_SAMPLED, sql, params, elapsedNanos, connectionNanos, rows, error));
+            result = true;
+        }
+
+        return result;
+    }
+
+    /**
+     * Formats execution description according to {@link MjdbcConfig#getSlowQueryOutputFormat()}
+     */
+    private static String format(String type, String sql, Object params, long elapsedNanos, long connectionNanos, int rows, Throwable error) {
+        return String.format(MjdbcConfig.getSlowQueryOutputFormat(), new Object[]{
+                type,
+                sql,
+                params,
+                rows,
+                elapsedNanos / 1000000.0,
+                connectionNanos / 1000000.0,
+                (error != null ? error.toString() : "")});
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.reactive;
+
+/**
+ * Provider of potentially unbounded number of elements, which are published according to the demand
+ * received from it's {@link Subscriber}(s).
+ * <p/>
+ * Contract is the same as java.util.concurrent.Flow.Publisher (and org.reactivestreams.Publisher), so it can be
+ * adapted by a one line wrapper.
+ *
+ * @param <T> published element type
+ */
+public interface Publisher<T> {
+
+    /**
+     * Requests publisher to start streaming data to specified subscriber.
+     * {@link Subscriber#onSubscribe(Subscription)} is invoked before any other subscriber method.
+     *
+     * @param subscriber subscriber which would receive elements
+     */
+    public void subscribe(Subscriber<? super T> subscriber);
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.reactive;
+
+/**
+ * Receiver of elements published by {@link Publisher}.
+ * Elements are received only after they were requested via {@link Subscription#request(long)}.
+ * <p/>
+ * Methods are invoked sequentially (never concurrently).
+ *
+ * @param <T> received element type
+ */
+public interface Subscriber<T> {
+
+    /**
+     * Invoked after {@link Publisher#subscribe(Subscriber)}. No elements are published until demand
+     * is signaled via {@link Subscription#request(long)}
+     *
+     * @param subscription subscription
+     */
+    public void onSubscribe(Subscription subscription);
+
+    /**
+     * Receives next element
+     *
+     * @param item element
+     */
+    public void onNext(T item);
+
+    /**
+     * Invoked on failure. No other methods are invoked afterwards
+     *
+     * @param throwable failure cause
+     */
+    public void onError(Throwable throwable);
+
+    /**
+     * Invoked after all elements were published. No other methods are invoked afterwards
+     */
+    public void onComplete();
+}
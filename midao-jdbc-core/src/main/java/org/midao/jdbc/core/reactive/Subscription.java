@@ -0,0 +1,37 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.reactive;
+
+/**
+ * Link between {@link Publisher} and {@link Subscriber}. Used to signal demand and cancel subscription.
+ */
+public interface Subscription {
+
+    /**
+     * Adds specified amount of elements to the demand. Long.MAX_VALUE - unbounded demand
+     *
+     * @param n amount of elements (should be positive)
+     */
+    public void request(long n);
+
+    /**
+     * Cancels subscription. Publisher stops sending elements and releases resources
+     */
+    public void cancel();
+}
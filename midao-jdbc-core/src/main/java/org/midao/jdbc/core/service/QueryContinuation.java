@@ -0,0 +1,41 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.service;
+
+import java.sql.SQLException;
+
+/**
+ * Unit of work which is executed by {@link org.midao.jdbc.core.ConcurrentQueryRunner} after previous
+ * task had finished successfully. Receives result of the previous task.
+ *
+ * @param <T> previous task result type
+ * @param <R> continuation result type
+ */
+public interface QueryContinuation<T, R> {
+
+    /**
+     * Executes continuation
+     *
+     * @param runner         query runner which is owned by this continuation
+     * @param previousResult result of the previous task
+     * @return continuation result
+     * @throws SQLException
+     */
+    public R execute(QueryRunnerService runner, T previousResult) throws SQLException;
+}
@@ -18,15 +18,21 @@
 
 package org.midao.jdbc.core.statement;
 
+import org.midao.jdbc.core.MjdbcConfig;
 import org.midao.jdbc.core.MjdbcConstants;
 import org.midao.jdbc.core.MjdbcLogger;
 import org.midao.jdbc.core.MjdbcTypes;
 import org.midao.jdbc.core.Overrider;
 import org.midao.jdbc.core.exception.MjdbcException;
 import org.midao.jdbc.core.handlers.HandlersConstants;
+import org.midao.jdbc.core.handlers.model.LobStream;
 import org.midao.jdbc.core.handlers.model.QueryParameters;
+import org.midao.jdbc.core.handlers.model.QueryParametersRowIndex;
+import org.midao.jdbc.core.handlers.output.OutputRowHandler;
+import org.midao.jdbc.core.handlers.type.TypeHandler;
 import org.midao.jdbc.core.handlers.utils.MappingUtils;
 import org.midao.jdbc.core.utils.AssertUtils;
+import org.midao.jdbc.core.utils.ConcurrentCache;
 import org.midao.jdbc.core.utils.MjdbcUtils;
 
 import java.io.InputStream;
@@ -40,7 +46,7 @@ import java.util.Map;
 /**
  * Base StatementHandler. Handles {@link PreparedStatement}
  */
-public class BaseStatementHandler implements StatementHandler {
+public class BaseStatementHandler implements StreamingStatementHandler {
     private static MjdbcLogger logger = MjdbcLogger.getLogger(BaseStatementHandler.class);
 
     protected final Overrider overrider;
@@ -48,6 +54,15 @@ public class BaseStatementHandler implements StatementHandler {
     protected Map<String, Object> localVariables = new HashMap<String, Object>();
     protected boolean useMetadata = true;
 
+    /**
+     * Parameter metadata cache (shared by all statement handlers, keyed by Database URL and SQL string).
+     * Is used if {@link ParameterMetadataCache.ValidationMode#FIRST_TIME} is set
+     */
+    protected static final ParameterMetadataCache parameterMetadataCache = new ParameterMetadataCache();
+
+    // class which declares wrap(Statement) for every statement handler class
+    private static final ConcurrentCache<Class<?>, Class<?>> wrapDeclaringClasses = new ConcurrentCache<Class<?>, Class<?>>(64);
+
     /**
      * Creates new BaseStatementHandler instance
      *
@@ -61,19 +76,53 @@ public class BaseStatementHandler implements StatementHandler {
      * {@inheritDoc}
      */
     public void setStatement(Statement statement, QueryParameters params) throws SQLException {
+        setStatement(statement, null, params);
+    }
+
+    /**
+     * Sets Statement parameters. Database URL and SQL string are used as parameter metadata cache key
+     * (see {@link ParameterMetadataCache.ValidationMode#FIRST_TIME})
+     *
+     * @param statement Statement
+     * @param sql       SQL string Statement was prepared from. If null - parameter metadata is read from Statement
+     * @param params    parameters
+     * @throws SQLException
+     */
+    public void setStatement(Statement statement, String sql, QueryParameters params) throws SQLException {
         AssertUtils.assertNotNull(params);
 
         PreparedStatement preparedStmt = (PreparedStatement) statement;
 
         // check the parameter count, if we can
         ParameterMetaData pmd = null;
+        ParameterMetadataCache.ParameterMetadata cachedPmd = null;
+        String url = null;
         int stmtCount = -1;
         int paramsCount = params == null ? 0 : params.orderSize();
 
+        ParameterMetadataCache.ValidationMode validationMode = MjdbcConfig.getDefaultParameterValidationMode();
+
+        if (useMetadata == true && validationMode == ParameterMetadataCache.ValidationMode.FIRST_TIME && sql != null) {
+            url = getDatabaseUrl(preparedStmt);
+        }
+
+        // Database URL and SQL string are cache key. Without them metadata can be read only from statement
+        if (validationMode == ParameterMetadataCache.ValidationMode.FIRST_TIME && (sql == null || url == null)) {
+            validationMode = ParameterMetadataCache.ValidationMode.ALWAYS;
+        }
+
         try {
-            if (useMetadata == true) {
+            if (useMetadata == true && validationMode == ParameterMetadataCache.ValidationMode.ALWAYS) {
                 pmd = preparedStmt.getParameterMetaData();
                 stmtCount = pmd.getParameterCount();
+            } else if (useMetadata == true && validationMode == ParameterMetadataCache.ValidationMode.FIRST_TIME) {
+                cachedPmd = parameterMetadataCache.get(url, sql);
+
+                if (cachedPmd == null) {
+                    cachedPmd = parameterMetadataCache.put(url, sql, preparedStmt.getParameterMetaData());
+                }
+
+                stmtCount = cachedPmd.getParameterCount();
             } else {
                 // check is not performed, assuming that it is equal. If not - exception would be thrown later...
                 stmtCount = paramsCount;
@@ -114,7 +163,9 @@ public class BaseStatementHandler implements StatementHandler {
 
             if (params.isInParameter(parameterName) == true) {
                 if (parameterValue != null) {
-                    if (parameterType != null && parameterType.intValue() != MjdbcTypes.OTHER) {
+                    if (parameterValue instanceof LobStream) {
+                        setLobStream(preparedStmt, i + 1, (LobStream) parameterValue);
+                    } else if (parameterType != null && parameterType.intValue() != MjdbcTypes.OTHER) {
 
                         try {
                             if (parameterType.intValue() == MjdbcTypes.VARCHAR && parameterValue instanceof Reader) {
@@ -146,7 +197,9 @@ public class BaseStatementHandler implements StatementHandler {
                     // of the actual column type. Oddly, NULL and
                     // OTHER don't work with Oracle's drivers.
                     int sqlType = MjdbcTypes.VARCHAR;
-                    if (useMetadata == true) {
+                    if (cachedPmd != null) {
+                        sqlType = cachedPmd.getParameterType(i);
+                    } else if (useMetadata == true && pmd != null) {
                         try {
                             sqlType = pmd.getParameterType(i + 1);
                         } catch (SQLException e) {
@@ -214,6 +267,133 @@ public class BaseStatementHandler implements StatementHandler {
         return mergedResult;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public <T> T wrap(Statement stmt, TypeHandler typeHandler, OutputRowHandler<T> rowHandler) throws SQLException, MjdbcException {
+        ResultSet rs = stmt.getResultSet();
+        QueryParametersRowIndex rowIndex = null;
+        boolean readNext = true;
+
+        while (rs != null) {
+
+            try {
+                // column names are read only once for every ResultSet and shared by all rows
+                rowIndex = new QueryParametersRowIndex(MappingUtils.getColumnNames(rs.getMetaData()));
+
+                while (readNext == true && rs.next() == true) {
+                    readNext = rowHandler.handleRow(typeHandler.processOutput(stmt, MappingUtils.convertResultSetRow(rs, rowIndex)));
+                }
+            } finally {
+                MjdbcUtils.closeQuietly(rs);
+            }
+
+            if (readNext == true && stmt.getMoreResults() == true) {
+                rs = stmt.getResultSet();
+            } else {
+                rs = null;
+            }
+        }
+
+        return rowHandler.getResult();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Descendants which override {@link #wrap(Statement)} might convert output differently, so streaming is
+     * supported for them only if they override this function as well.
+     */
+    public boolean supportsStreaming() {
+        return getWrapDeclaringClass(this.getClass()) == BaseStatementHandler.class;
+    }
+
+    /**
+     * Returns class which declares {@link #wrap(Statement)} implementation used by statement handler class @clazz.
+     * Result is cached for every class
+     *
+     * @param clazz statement handler class
+     * @return class which declares wrap(Statement)
+     */
+    protected static Class<?> getWrapDeclaringClass(Class<? extends StatementHandler> clazz) {
+        Class<?> result = wrapDeclaringClasses.get(clazz);
+
+        if (result == null) {
+            try {
+                result = clazz.getMethod("wrap", Statement.class).getDeclaringClass();
+            } catch (NoSuchMethodException ex) {
+                // not possible, as wrap is declared by StatementHandler
+                result = StatementHandler.class;
+            }
+
+            wrapDeclaringClasses.put(clazz, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Binds stream with known length via length-aware setBinaryStream/setCharacterStream.
+     * Functions with int length (available in JDBC3) are used, unless length exceeds int range
+     *
+     * @param preparedStmt Statement
+     * @param index        parameter index (starting from 1)
+     * @param value        stream with known length
+     * @throws SQLException
+     */
+    protected void setLobStream(PreparedStatement preparedStmt, int index, LobStream value) throws SQLException {
+        if (value.getLength() <= Integer.MAX_VALUE) {
+
+            if (value.isBinary() == true) {
+                preparedStmt.setBinaryStream(index, value.getBinaryStream(), (int) value.getLength());
+            } else {
+                preparedStmt.setCharacterStream(index, value.getCharacterStream(), (int) value.getLength());
+            }
+
+        } else {
+
+            try {
+                if (value.isBinary() == true) {
+                    //preparedStmt.setBinaryStream(index, value.getBinaryStream(), value.getLength());
+                    MappingUtils.invokeFunction(preparedStmt, "setBinaryStream",
+                            new Class[]{int.class, InputStream.class, long.class},
+                            new Object[]{index, value.getBinaryStream(), value.getLength()});
+                } else {
+                    //preparedStmt.setCharacterStream(index, value.getCharacterStream(), value.getLength());
+                    MappingUtils.invokeFunction(preparedStmt, "setCharacterStream",
+                            new Class[]{int.class, Reader.class, long.class},
+                            new Object[]{index, value.getCharacterStream(), value.getLength()});
+                }
+            } catch (MjdbcException ex) {
+                throw new SQLException("Stream length exceeds int range, but Driver doesn't support JDBC 4.0 stream functions: " + ex.getMessage());
+            }
+
+        }
+    }
+
+    /**
+     * Returns URL of the Database statement was prepared against. Is used as part of parameter metadata cache key
+     *
+     * @param statement Statement
+     * @return Database URL, null if it cannot be read
+     */
+    protected String getDatabaseUrl(Statement statement) {
+        String result = null;
+
+        try {
+            Connection conn = statement.getConnection();
+            DatabaseMetaData metaData = (conn != null ? conn.getMetaData() : null);
+
+            if (metaData != null) {
+                result = metaData.getURL();
+            }
+        } catch (SQLException ex) {
+            result = null;
+        }
+
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      */
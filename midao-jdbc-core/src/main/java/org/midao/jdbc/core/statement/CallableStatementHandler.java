@@ -47,10 +47,10 @@ public class CallableStatementHandler extends BaseStatementHandler {
      * {@inheritDoc}
      */
     @Override
-    public void setStatement(Statement statement, QueryParameters params) throws SQLException {
+    public void setStatement(Statement statement, String sql, QueryParameters params) throws SQLException {
 
         // setting in parameters
-        super.setStatement(statement, params);
+        super.setStatement(statement, sql, params);
 
         if (statement instanceof CallableStatement) {
 
@@ -58,8 +58,8 @@ public class LazyStatementHandler extends CallableStatementHandler {
      * {@inheritDoc}
      */
     @Override
-    public void setStatement(Statement statement, QueryParameters params) throws SQLException {
-        super.setStatement(statement, params);
+    public void setStatement(Statement statement, String sql, QueryParameters params) throws SQLException {
+        super.setStatement(statement, sql, params);
     }
 
     /**
@@ -86,4 +86,15 @@ public class LazyStatementHandler extends CallableStatementHandler {
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * For non lazy output handlers lazy list returned by {@link #wrap(Statement)} is read till the end,
+     * so output is the same as streamed one.
+     */
+    @Override
+    public boolean supportsStreaming() {
+        return getWrapDeclaringClass(this.getClass()) == LazyStatementHandler.class;
+    }
+
 }
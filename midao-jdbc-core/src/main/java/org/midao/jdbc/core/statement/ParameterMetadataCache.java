@@ -0,0 +1,174 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.statement;
+
+import org.midao.jdbc.core.MjdbcTypes;
+
+import org.midao.jdbc.core.utils.ConcurrentCache;
+
+import java.sql.ParameterMetaData;
+import java.sql.SQLException;
+
+/**
+ * Cache of {@link ParameterMetaData} values (parameter count and types) keyed by Database URL and SQL string.
+ * <p/>
+ * Same SQL string might be prepared against different Databases (and therefore have different parameter types),
+ * so Database URL is part of the key.
+ * <p/>
+ * Is used by {@link BaseStatementHandler} to avoid reading parameter metadata (which might be a round-trip
+ * to the Database for some drivers) during every execution.
+ */
+public class ParameterMetadataCache {
+    private static final int DEFAULT_CACHE_LIMIT = 256;
+
+    /**
+     * Specifies when parameter metadata should be read from the Driver
+     */
+    public enum ValidationMode {
+        /**
+         * Parameter metadata is read during every execution (default)
+         */
+        ALWAYS,
+        /**
+         * Parameter metadata is read during first execution of SQL string and cached afterwards
+         */
+        FIRST_TIME,
+        /**
+         * Parameter metadata is never read. Parameters count isn't checked, VARCHAR is used for null values
+         */
+        NEVER
+    }
+
+    private final ConcurrentCache<Key, ParameterMetadata> metadataCache = new ConcurrentCache<Key, ParameterMetadata>(
+            DEFAULT_CACHE_LIMIT);
+
+    /**
+     * Returns cached parameter metadata
+     *
+     * @param url Database URL
+     * @param sql SQL string
+     * @return cached parameter metadata, null if not present
+     */
+    public ParameterMetadata get(String url, String sql) {
+        return this.metadataCache.get(new Key(url, sql));
+    }
+
+    /**
+     * Reads parameter metadata and caches it
+     *
+     * @param url Database URL
+     * @param sql SQL string
+     * @param pmd parameter metadata of statement prepared from this SQL string
+     * @return cached parameter metadata
+     * @throws SQLException if parameter count cannot be read
+     */
+    public ParameterMetadata put(String url, String sql, ParameterMetaData pmd) throws SQLException {
+        ParameterMetadata result = new ParameterMetadata(pmd);
+
+        this.metadataCache.put(new Key(url, sql), result);
+
+        return result;
+    }
+
+    /**
+     * Removes all cached values
+     */
+    public void clear() {
+        this.metadataCache.clear();
+    }
+
+    /**
+     * Cache key: Database URL and SQL string
+     */
+    private static class Key {
+        private final String url;
+        private final String sql;
+
+        private Key(String url, String sql) {
+            this.url = url;
+            this.sql = sql;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            Key key = (Key) o;
+
+            return url.equals(key.url) && sql.equals(key.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * url.hashCode() + sql.hashCode();
+        }
+    }
+
+    /**
+     * Parameter count and SQL types read from {@link ParameterMetaData}
+     */
+    public static class ParameterMetadata {
+        private final int parameterCount;
+        private final int[] parameterTypes;
+
+        /**
+         * Creates new ParameterMetadata instance
+         *
+         * @param pmd parameter metadata
+         * @throws SQLException if parameter count cannot be read
+         */
+        public ParameterMetadata(ParameterMetaData pmd) throws SQLException {
+            this.parameterCount = pmd.getParameterCount();
+            this.parameterTypes = new int[this.parameterCount];
+
+            for (int i = 0; i < this.parameterCount; i++) {
+                try {
+                    this.parameterTypes[i] = pmd.getParameterType(i + 1);
+                } catch (SQLException ex) {
+                    // VARCHAR works with many drivers regardless of the actual column type
+                    this.parameterTypes[i] = MjdbcTypes.VARCHAR;
+                }
+            }
+        }
+
+        /**
+         * Returns parameter count
+         *
+         * @return parameter count
+         */
+        public int getParameterCount() {
+            return parameterCount;
+        }
+
+        /**
+         * Returns parameter SQL type
+         *
+         * @param index parameter index (starting from 0)
+         * @return parameter SQL type. VARCHAR if it is unknown
+         */
+        public int getParameterType(int index) {
+            return (index < this.parameterTypes.length ? this.parameterTypes[index] : MjdbcTypes.VARCHAR);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.statement;
+
+import org.midao.jdbc.core.utils.MjdbcUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * Size bounded LRU cache of {@link PreparedStatement} (and {@link java.sql.CallableStatement}).
+ * <p/>
+ * Statements are cached per physical Connection and are keyed by SQL string, ResultSet type/concurrency and
+ * generated keys settings. Statement is taken out of the cache while it is used (so it cannot be shared) and
+ * is returned by {@link #release(java.sql.Statement)}. Statements are closed only when they are evicted from
+ * the cache, their Connection was closed or their execution failed (see {@link #discard(java.sql.Statement)}).
+ * <p/>
+ * Cache is keyed by physical Connection and is used only while Connection is kept between executions:
+ * manual transaction mode or QueryRunner created with Connection. In automatic transaction mode pooled
+ * Connection is closed after every execution, so statements are not cached there at all - statement reuse
+ * across pool checkouts should be configured in connection pool itself.
+ * <p/>
+ * Is used by {@link org.midao.jdbc.core.AbstractQueryRunner} if statement cache size is set.
+ * Please look at {@link org.midao.jdbc.core.MjdbcConfig#setDefaultStatementCacheSize(int)}
+ */
+public class PreparedStatementCache {
+    private int maxSize;
+
+    private final Map<Connection, Map<Key, PreparedStatement>> cache = new IdentityHashMap<Connection, Map<Key, PreparedStatement>>();
+    private final Map<Statement, Borrowed> borrowed = new IdentityHashMap<Statement, Borrowed>();
+
+    /**
+     * Creates new PreparedStatementCache instance
+     *
+     * @param maxSize max amount of cached statements per Connection
+     */
+    public PreparedStatementCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns max amount of cached statements per Connection
+     *
+     * @return max amount of cached statements per Connection
+     */
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets max amount of cached statements per Connection. New size would be applied during next release
+     *
+     * @param maxSize max amount of cached statements per Connection
+     */
+    public synchronized void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Takes statement out of the cache. Returned statement should be returned via {@link #release(java.sql.Statement)}
+     *
+     * @param conn physical SQL Connection
+     * @param key  statement key
+     * @return cached statement, null if there is no statement cached for this key
+     */
+    public synchronized PreparedStatement take(Connection conn, Key key) {
+        PreparedStatement result = null;
+        Map<Key, PreparedStatement> connCache = this.cache.get(conn);
+
+        if (connCache != null) {
+            result = connCache.remove(key);
+        }
+
+        if (result != null) {
+            this.borrowed.put(result, new Borrowed(conn, key));
+        }
+
+        return result;
+    }
+
+    /**
+     * Registers newly created statement, so it would be cached after {@link #release(java.sql.Statement)}
+     *
+     * @param conn physical SQL Connection
+     * @param key  statement key
+     * @param stmt newly created statement
+     */
+    public synchronized void register(Connection conn, Key key, PreparedStatement stmt) {
+        this.borrowed.put(stmt, new Borrowed(conn, key));
+    }
+
+    /**
+     * Returns statement into the cache. If statement wasn't taken/registered or cannot be reused - it is closed
+     *
+     * @param stmt statement which is no longer used
+     */
+    public synchronized void release(Statement stmt) {
+        Borrowed borrowedStmt = this.borrowed.remove(stmt);
+
+        if (borrowedStmt == null || this.maxSize <= 0) {
+            MjdbcUtils.closeQuietly(stmt);
+            return;
+        }
+
+        PreparedStatement preparedStmt = (PreparedStatement) stmt;
+
+        try {
+            preparedStmt.clearParameters();
+            preparedStmt.clearBatch();
+            preparedStmt.clearWarnings();
+        } catch (SQLException ex) {
+            // statement cannot be reused
+            MjdbcUtils.closeQuietly(stmt);
+            return;
+        }
+
+        Map<Key, PreparedStatement> connCache = this.cache.get(borrowedStmt.conn);
+
+        if (connCache == null) {
+            connCache = new LinkedHashMap<Key, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, PreparedStatement> eldest) {
+                    boolean remove = size() > maxSize;
+
+                    if (remove == true) {
+                        MjdbcUtils.closeQuietly(eldest.getValue());
+                    }
+
+                    return remove;
+                }
+            };
+
+            this.cache.put(borrowedStmt.conn, connCache);
+        }
+
+        PreparedStatement previous = connCache.put(borrowedStmt.key, preparedStmt);
+
+        // same statement was used few times simultaneously
+        if (previous != null && previous != preparedStmt) {
+            MjdbcUtils.closeQuietly(previous);
+        }
+    }
+
+    /**
+     * Closes statement which shouldn't be reused (for example: it's execution failed)
+     *
+     * @param stmt statement which is no longer used
+     */
+    public synchronized void discard(Statement stmt) {
+        this.borrowed.remove(stmt);
+
+        MjdbcUtils.closeQuietly(stmt);
+    }
+
+    /**
+     * Removes (and closes) statements cached for Connections which were closed
+     */
+    public synchronized void purge() {
+        Iterator<Map.Entry<Connection, Map<Key, PreparedStatement>>> iterator = this.cache.entrySet().iterator();
+        Map.Entry<Connection, Map<Key, PreparedStatement>> entry = null;
+        boolean closed = false;
+
+        while (iterator.hasNext() == true) {
+            entry = iterator.next();
+
+            try {
+                closed = entry.getKey().isClosed();
+            } catch (SQLException ex) {
+                closed = true;
+            }
+
+            if (closed == true) {
+                closeAll(entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Closes all cached statements
+     */
+    public synchronized void clear() {
+        for (Map<Key, PreparedStatement> connCache : this.cache.values()) {
+            closeAll(connCache);
+        }
+
+        this.cache.clear();
+    }
+
+    /**
+     * Returns amount of statements cached for Connection
+     *
+     * @param conn physical SQL Connection
+     * @return amount of cached statements
+     */
+    public synchronized int size(Connection conn) {
+        Map<Key, PreparedStatement> connCache = this.cache.get(conn);
+
+        return (connCache != null ? connCache.size() : 0);
+    }
+
+    /**
+     * Closes all statements from the Connection cache
+     *
+     * @param connCache Connection statement cache
+     */
+    private void closeAll(Map<Key, PreparedStatement> connCache) {
+        for (PreparedStatement stmt : connCache.values()) {
+            MjdbcUtils.closeQuietly(stmt);
+        }
+    }
+
+    /**
+     * Statement which was taken out of the cache
+     */
+    private static class Borrowed {
+        private final Connection conn;
+        private final Key key;
+
+        private Borrowed(Connection conn, Key key) {
+            this.conn = conn;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Statement cache key
+     */
+    public static class Key {
+        private final String sql;
+        private final boolean callable;
+        private final int resultSetType;
+        private final int resultSetConcurrency;
+        private final int autoGeneratedKeys;
+        private final String[] generatedColumnNames;
+
+        /**
+         * Creates new Key instance
+         *
+         * @param sql                  SQL string
+         * @param callable             true if statement is {@link java.sql.CallableStatement}
+         * @param resultSetType        ResultSet type
+         * @param resultSetConcurrency ResultSet concurrency
+         * @param autoGeneratedKeys    {@link Statement#RETURN_GENERATED_KEYS} or {@link Statement#NO_GENERATED_KEYS}
+         * @param generatedColumnNames generated column names (might be null)
+         */
+        public Key(String sql, boolean callable, int resultSetType, int resultSetConcurrency,
+                   int autoGeneratedKeys, String[] generatedColumnNames) {
+            this.sql = sql;
+            this.callable = callable;
+            this.resultSetType = resultSetType;
+            this.resultSetConcurrency = resultSetConcurrency;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+            this.generatedColumnNames = generatedColumnNames;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            Key key = (Key) o;
+
+            return callable == key.callable && resultSetType == key.resultSetType
+                    && resultSetConcurrency == key.resultSetConcurrency && autoGeneratedKeys == key.autoGeneratedKeys
+                    && sql.equals(key.sql) && Arrays.equals(generatedColumnNames, key.generatedColumnNames);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            int result = sql.hashCode();
+            result = 31 * result + (callable ? 1 : 0);
+            result = 31 * result + resultSetType;
+            result = 31 * result + resultSetConcurrency;
+            result = 31 * result + autoGeneratedKeys;
+            result = 31 * result + Arrays.hashCode(generatedColumnNames);
+            return result;
+        }
+    }
+}
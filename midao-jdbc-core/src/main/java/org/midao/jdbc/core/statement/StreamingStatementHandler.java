@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.statement;
+
+import org.midao.jdbc.core.exception.MjdbcException;
+import org.midao.jdbc.core.handlers.output.OutputRowHandler;
+import org.midao.jdbc.core.handlers.type.TypeHandler;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * StatementHandler which is able to pass Statement output to {@link OutputRowHandler} row by row,
+ * without caching it.
+ * <p/>
+ * Used by QueryRunner for {@link org.midao.jdbc.core.handlers.output.StreamingOutputHandler}.
+ */
+public interface StreamingStatementHandler extends StatementHandler {
+
+    /**
+     * Reads all Statement result sets and passes every row (processed by @typeHandler) to @rowHandler.
+     * Reading stops when @rowHandler returns false.
+     *
+     * @param stmt        sql Statement
+     * @param typeHandler type handler which is used to process every row
+     * @param rowHandler  row handler
+     * @return result returned by @rowHandler
+     * @throws SQLException
+     * @throws MjdbcException
+     */
+    public <T> T wrap(Statement stmt, TypeHandler typeHandler, OutputRowHandler<T> rowHandler) throws SQLException, MjdbcException;
+
+    /**
+     * Checks if output of {@link #wrap(Statement, TypeHandler, OutputRowHandler)} is the same as output of
+     * {@link #wrap(Statement)} (processed by type handler) for non lazy output handlers.
+     * Streaming is used by QueryRunner only if this function returns true.
+     *
+     * @return true - if this statement handler supports query output streaming
+     */
+    public boolean supportsStreaming();
+}
@@ -18,6 +18,7 @@
 
 package org.midao.jdbc.core.transaction;
 
+import org.midao.jdbc.core.MjdbcConfig;
 import org.midao.jdbc.core.exception.MjdbcException;
 import org.midao.jdbc.core.exception.MjdbcSQLException;
 import org.midao.jdbc.core.handlers.utils.MappingUtils;
@@ -41,6 +42,10 @@ import java.util.Properties;
  * <p/>
  * Allows retrieval of Connection, but this connection is wrapped in Proxy and {@link java.sql.Connection#close()}
  * won't be invoked on it (unless it would be explicitly cast to Implementation class)
+ * <p/>
+ * In direct connection mode (see {@link org.midao.jdbc.core.MjdbcConfig#setDefaultDirectConnection(boolean)})
+ * connection is returned without Proxy and it's state (auto-commit/isolation level) is set only once per
+ * physical connection.
  */
 public class BaseTransactionHandler implements TransactionHandler {
 
@@ -51,6 +56,13 @@ public class BaseTransactionHandler implements TransactionHandler {
     private boolean manualMode = false;
     private Integer isolationLevel = null;
 
+    private final boolean directConnection = MjdbcConfig.isDefaultDirectConnection();
+
+    // state of current connection. Reset every time connection is released
+    private Connection connProxy = null;
+    private boolean connInitialized = false;
+    private Integer connIsolationLevel = null;
+
     /**
      * Creates new BaseTransactionHandler instance
      *
@@ -126,7 +138,7 @@ public class BaseTransactionHandler implements TransactionHandler {
                 this.conn = this.getDataSource().getConnection();
             }
 
-            if (this.conn != null) {
+            if (this.conn != null && (this.directConnection == false || this.connInitialized == false)) {
                 initConnection(this.conn);
             }
 
@@ -136,19 +148,36 @@ public class BaseTransactionHandler implements TransactionHandler {
             throw new SQLException("Null connection");
         }
 
-        if (this.conn.getAutoCommit() != false) {
-            this.conn.setAutoCommit(false);
+        if (this.directConnection == false || this.connInitialized == false) {
+            if (this.conn.getAutoCommit() != false) {
+                this.conn.setAutoCommit(false);
+            }
+
+            this.connInitialized = true;
         }
 
         if (this.isolationLevel != null) {
-            if (this.conn.getTransactionIsolation() != this.isolationLevel.intValue()) {
-                this.conn.setTransactionIsolation(this.isolationLevel);
+            if (this.directConnection == false || this.isolationLevel.equals(this.connIsolationLevel) == false) {
+                if (this.conn.getTransactionIsolation() != this.isolationLevel.intValue()) {
+                    this.conn.setTransactionIsolation(this.isolationLevel);
+                }
+
+                this.connIsolationLevel = this.isolationLevel;
             }
         }
 
-        activeConn = this.conn;
+        if (this.directConnection == true) {
+            activeConn = this.conn;
+        } else {
+            // proxy is created once per physical connection
+            if (this.connProxy == null) {
+                this.connProxy = ConnectionProxy.newInstance(this.conn);
+            }
+
+            activeConn = this.connProxy;
+        }
 
-        return ConnectionProxy.newInstance(activeConn);
+        return activeConn;
     }
 
     /**
@@ -156,9 +185,7 @@ public class BaseTransactionHandler implements TransactionHandler {
      */
     public void closeConnection() {
         if (this.manualMode == false && this.dataSource != null) {
-            MjdbcUtils.closeQuietly(this.conn);
-
-            this.conn = null;
+            releaseConnection();
         }
     }
 
@@ -172,9 +199,7 @@ public class BaseTransactionHandler implements TransactionHandler {
         }
 
         if (this.manualMode == true && this.dataSource != null) {
-            MjdbcUtils.closeQuietly(this.conn);
-
-            this.conn = null;
+            releaseConnection();
         }
     }
 
@@ -188,9 +213,7 @@ public class BaseTransactionHandler implements TransactionHandler {
         }
 
         if (this.manualMode == true && this.dataSource != null) {
-            MjdbcUtils.closeQuietly(this.conn);
-
-            this.conn = null;
+            releaseConnection();
         }
     }
 
@@ -235,9 +258,22 @@ public class BaseTransactionHandler implements TransactionHandler {
         return dataSource;
     }
 
+    /**
+     * Closes current connection and resets it's cached state
+     */
+    private void releaseConnection() {
+        MjdbcUtils.closeQuietly(this.conn);
+
+        this.conn = null;
+        this.connProxy = null;
+        this.connInitialized = false;
+        this.connIsolationLevel = null;
+    }
+
     /**
      * Initializes SQL Connection parameters.
      * Invoked everytime new Connection is requested from {@link org.midao.jdbc.core.transaction.BaseTransactionHandler#getConnection()}
+     * (once per physical connection in direct connection mode)
      *
      * @param conn SQL Connection
      * @throws SQLException if exception would be thrown by Driver/Database
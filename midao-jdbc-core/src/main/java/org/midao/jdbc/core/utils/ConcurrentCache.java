@@ -0,0 +1,181 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.utils;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Size bounded concurrent cache.
+ * <p/>
+ * Reads are not blocking: values are stored in {@link ConcurrentHashMap} and every read only marks entry as
+ * recently used. Eviction uses CLOCK (second chance) approximation of LRU: entries which were read since last
+ * sweep are kept (and their mark is cleared), others are removed. Only one thread performs eviction at a time,
+ * other threads do not wait for it.
+ * <p/>
+ * Cached values are shared between threads, so they should not be modified after they were put into the cache.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class ConcurrentCache<K, V> {
+    private final ConcurrentHashMap<K, Entry<V>> cache;
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+    private volatile int maxSize;
+
+    /**
+     * Creates new ConcurrentCache instance
+     *
+     * @param maxSize max amount of cached values
+     */
+    public ConcurrentCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.cache = new ConcurrentHashMap<K, Entry<V>>(Math.max(16, maxSize));
+    }
+
+    /**
+     * Returns cached value
+     *
+     * @param key key
+     * @return cached value, null if not present
+     */
+    public V get(K key) {
+        V result = null;
+        Entry<V> entry = this.cache.get(key);
+
+        if (entry != null) {
+            // avoiding unnecessary writes of shared memory
+            if (entry.used == false) {
+                entry.used = true;
+            }
+
+            result = entry.value;
+        }
+
+        return result;
+    }
+
+    /**
+     * Puts value into the cache. If cache is full - least recently used values are evicted
+     *
+     * @param key   key
+     * @param value value
+     */
+    public void put(K key, V value) {
+        this.cache.put(key, new Entry<V>(value));
+
+        if (this.cache.size() > this.maxSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Removes value from the cache
+     *
+     * @param key key
+     */
+    public void remove(K key) {
+        this.cache.remove(key);
+    }
+
+    /**
+     * Removes all values from the cache
+     */
+    public void clear() {
+        this.cache.clear();
+    }
+
+    /**
+     * Returns amount of cached values
+     *
+     * @return amount of cached values
+     */
+    public int size() {
+        return this.cache.size();
+    }
+
+    /**
+     * Returns max amount of cached values
+     *
+     * @return max amount of cached values
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets max amount of cached values. Applied during next put
+     *
+     * @param maxSize max amount of cached values
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Removes values until cache size is within limit. Values which were used since last sweep get second chance
+     */
+    private void evict() {
+        if (this.evicting.compareAndSet(false, true) == false) {
+            // other thread is evicting values already
+            return;
+        }
+
+        try {
+            Iterator<Map.Entry<K, Entry<V>>> iterator = null;
+            Map.Entry<K, Entry<V>> entry = null;
+            int limit = Math.max(0, this.maxSize);
+
+            while (this.cache.size() > limit) {
+                iterator = this.cache.entrySet().iterator();
+
+                while (iterator.hasNext() == true && this.cache.size() > limit) {
+                    entry = iterator.next();
+
+                    if (entry.getValue().used == true) {
+                        entry.getValue().used = false;
+                    } else {
+                        iterator.remove();
+                    }
+                }
+            }
+        } finally {
+            this.evicting.set(false);
+        }
+    }
+
+    /**
+     * Cached value along with "recently used" mark
+     *
+     * @param <V> value type
+     */
+    private static class Entry<V> {
+        private final V value;
+        private volatile boolean used;
+
+        private Entry(V value) {
+            this.value = value;
+
+            // new value gets one sweep to be used
+            this.used = true;
+        }
+    }
+}
@@ -47,6 +47,26 @@ public class ConnectionProxy implements java.lang.reflect.InvocationHandler {
                 */
     }
 
+    /**
+     * Returns SQL Connection hidden behind Proxy. If Connection is not a Proxy - it is returned as is
+     *
+     * @param conn SQL Connection (possibly Proxy)
+     * @return SQL Connection
+     */
+    public static Connection getTarget(Connection conn) {
+        Connection result = conn;
+
+        if (conn != null && java.lang.reflect.Proxy.isProxyClass(conn.getClass()) == true) {
+            Object handler = java.lang.reflect.Proxy.getInvocationHandler(conn);
+
+            if (handler instanceof ConnectionProxy) {
+                result = ((ConnectionProxy) handler).conn;
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Creates new ConnectionProxy instance
      *
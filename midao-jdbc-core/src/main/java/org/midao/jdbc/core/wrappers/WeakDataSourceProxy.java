@@ -0,0 +1,86 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.midao.jdbc.core.wrappers;
+
+import javax.sql.DataSource;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+
+/**
+ * SQL DataSource Proxy which references DataSource weakly.
+ * <p/>
+ * Is used by {@link org.midao.jdbc.core.DataSourceEnvironment} to create handlers which are cached per DataSource,
+ * so cached handlers do not prevent DataSource from being garbage collected.
+ */
+public class WeakDataSourceProxy implements java.lang.reflect.InvocationHandler {
+    private final WeakReference<DataSource> ds;
+
+    /**
+     * Creates new SQL DataSource Proxy instance
+     *
+     * @param ds SQL DataSource
+     * @return Proxy SQL DataSource
+     */
+    public static DataSource newInstance(DataSource ds) {
+        return (DataSource) java.lang.reflect.Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class[]{DataSource.class},
+                new WeakDataSourceProxy(ds));
+    }
+
+    /**
+     * Creates new WeakDataSourceProxy instance
+     *
+     * @param ds SQL DataSource
+     */
+    public WeakDataSourceProxy(DataSource ds) {
+        this.ds = new WeakReference<DataSource>(ds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Object result = null;
+        String methodName = method.getName();
+
+        if ("equals".equals(methodName) == true && args != null && args.length == 1) {
+            result = (proxy == args[0]);
+        } else if ("hashCode".equals(methodName) == true && args == null) {
+            result = System.identityHashCode(proxy);
+        } else {
+            DataSource target = ds.get();
+
+            if (target == null && "toString".equals(methodName) == true) {
+                return "Garbage collected DataSource";
+            } else if (target == null) {
+                throw new SQLException("DataSource was garbage collected");
+            }
+
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            } catch (Exception e) {
+                throw new RuntimeException("unexpected invocation exception: " + e.getMessage());
+            }
+        }
+
+        return result;
+    }
+}
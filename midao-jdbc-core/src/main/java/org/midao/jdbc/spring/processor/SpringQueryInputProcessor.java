@@ -23,6 +23,7 @@ import org.midao.jdbc.core.handlers.model.ProcessedInput;
 import org.midao.jdbc.core.handlers.utils.InputUtils;
 import org.midao.jdbc.core.processor.QueryInputProcessor;
 import org.midao.jdbc.core.utils.AssertUtils;
+import org.midao.jdbc.core.utils.ConcurrentCache;
 
 import java.util.*;
 
@@ -39,14 +40,8 @@ public class SpringQueryInputProcessor implements QueryInputProcessor {
     /**
      * Cache of original SQL String to ParsedSql representation
      */
-    @SuppressWarnings("serial")
-    private final Map<String, ProcessedInput> processedInputCache = new LinkedHashMap<String, ProcessedInput>(
-            DEFAULT_CACHE_LIMIT, 0.75f, true) {
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<String, ProcessedInput> eldest) {
-            return size() > DEFAULT_CACHE_LIMIT;
-        }
-    };
+    private final ConcurrentCache<String, ProcessedInput> processedInputCache = new ConcurrentCache<String, ProcessedInput>(
+            DEFAULT_CACHE_LIMIT);
 
     private static final String REGEX_PARAMETER_SEARCH = "[" + InputUtils.getParameterPrefix() + "][a-zA-Z_-]{1,}?[\\.]";
 
@@ -334,15 +329,18 @@ public class SpringQueryInputProcessor implements QueryInputProcessor {
     private ProcessedInput getProcessedInputsFromCache(String originalSql) {
         ProcessedInput processedInput = null;
 
-        synchronized (this.processedInputCache) {
+        if (MjdbcConfig.isQueryInputProcessorUseCache() == true) {
             processedInput = this.processedInputCache.get(originalSql);
-            if (processedInput == null || MjdbcConfig.isQueryInputProcessorUseCache() == false) {
-                processedInput = new ProcessedInput(originalSql);
-            } else {
-                processedInput = new ProcessedInput(processedInput);
-            }
-            return processedInput;
         }
+
+        if (processedInput == null) {
+            processedInput = new ProcessedInput(originalSql);
+        } else {
+            // cached value is never modified, so there is no need to copy parameters structure
+            processedInput = new ProcessedInput(processedInput, true);
+        }
+
+        return processedInput;
     }
 
     /**
@@ -353,13 +351,14 @@ public class SpringQueryInputProcessor implements QueryInputProcessor {
     private void putProcessedInputToCache(ProcessedInput processedInput) {
 
         if (MjdbcConfig.isQueryInputProcessorUseCache() == true) {
-            ProcessedInput clonedProcessedInput = new ProcessedInput(processedInput);
-            synchronized (this.processedInputCache) {
+            ProcessedInput cachedProcessedInput = new ProcessedInput(processedInput, true);
 
-                // no need to keep parameters in the memory. removing just in case
-                clonedProcessedInput.setSqlParameterValues(null);
-                this.processedInputCache.put(processedInput.getOriginalSql(), clonedProcessedInput);
-            }
+            // no need to keep parameters in the memory. removing just in case
+            cachedProcessedInput.setSqlParameterValues(null);
+
+            // cache size might be changed via MjdbcConfig
+            this.processedInputCache.setMaxSize(MjdbcConfig.getQueryInputProcessorCacheSize());
+            this.processedInputCache.put(processedInput.getOriginalSql(), cachedProcessedInput);
         }
     }
 
@@ -18,6 +18,7 @@
 
 package org.midao.jdbc.core;
 
+import junit.framework.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.midao.jdbc.core.handlers.input.InputHandler;
@@ -31,11 +32,16 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.sql.Savepoint;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  */
@@ -72,6 +78,34 @@ public class AsyncQueryRunnerTest {
         verify(runner, times(1)).batch(any(InputHandler[].class));
     }
 
+    @Test
+    public void testBatchIterator() throws Exception {
+        Iterator<Object[]> rows = Arrays.<Object[]>asList(new Object[]{"a"}).iterator();
+        when(runner.batch("", rows, 10)).thenReturn(1L);
+
+        Future<Long> result = asyncRunner.batch("", rows, 10);
+
+        Assert.assertEquals(1L, result.get().longValue());
+        verify(runner, times(1)).batch("", rows, 10);
+    }
+
+    @Test
+    public void testBatchIterable() throws Exception {
+        List<Object[]> rows = Arrays.<Object[]>asList(new Object[]{"a"});
+
+        asyncRunner.batch("", rows, 10).get();
+
+        verify(runner, times(1)).batch("", rows, 10);
+    }
+
+    @Test(expected = java.sql.SQLException.class)
+    public void testBatchIteratorNotQueryRunner() throws Exception {
+        AsyncQueryRunner runner = new AsyncQueryRunner(org.mockito.Mockito.mock(org.midao.jdbc.core.service.QueryRunnerService.class),
+                Executors.newFixedThreadPool(1));
+
+        runner.batch("", Arrays.asList(new Object[]{"a"}), 10);
+    }
+
     @Test
     public void testQuery1() throws Exception {
         asyncRunner.query("", new MapOutputHandler(), "");
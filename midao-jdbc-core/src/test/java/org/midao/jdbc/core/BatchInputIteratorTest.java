@@ -0,0 +1,128 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core;
+
+import junit.framework.Assert;
+import org.junit.Test;
+import org.midao.jdbc.core.exception.MjdbcRuntimeException;
+import org.midao.jdbc.core.handlers.input.query.QueryInputHandler;
+import org.midao.jdbc.core.handlers.model.QueryParameters;
+
+import java.util.*;
+
+public class BatchInputIteratorTest {
+
+    @Test
+    public void testPositional() throws Exception {
+        QueryParameters params = new QueryParameters("a");
+        BatchInputIterator iterator = new BatchInputIterator("INSERT ?", Arrays.asList(new Object[]{"b"}, params).iterator());
+
+        Assert.assertEquals("INSERT ?", iterator.getQueryString());
+
+        Assert.assertEquals(true, iterator.hasNext());
+        Assert.assertEquals("b", iterator.next().getValue("0"));
+        Assert.assertEquals(params, iterator.next());
+        Assert.assertEquals(false, iterator.hasNext());
+    }
+
+    @Test
+    public void testNamed() throws Exception {
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("name", "Superman");
+
+        BatchInputIterator iterator = new BatchInputIterator("INSERT :name", Arrays.asList(map).iterator());
+
+        // first row is read to parse SQL
+        Assert.assertEquals("INSERT ?", iterator.getQueryString());
+
+        Assert.assertEquals(true, iterator.hasNext());
+        Assert.assertEquals("Superman", iterator.next().getValue("name"));
+        Assert.assertEquals(false, iterator.hasNext());
+    }
+
+    @Test
+    public void testInputHandler() throws Exception {
+        BatchInputIterator iterator = new BatchInputIterator(null, Arrays.asList(
+                new QueryInputHandler("INSERT :name", new QueryParameters().set("name", "Batman"))).iterator());
+
+        Assert.assertEquals("INSERT ?", iterator.getQueryString());
+        Assert.assertEquals("Batman", iterator.next().getValue("name"));
+    }
+
+    @Test(expected = MjdbcRuntimeException.class)
+    public void testDifferentSql() throws Exception {
+        BatchInputIterator iterator = new BatchInputIterator(null, Arrays.asList(
+                new QueryInputHandler("INSERT :name", new QueryParameters().set("name", "Batman")),
+                new QueryInputHandler("UPDATE :name", new QueryParameters().set("name", "Batman"))).iterator());
+
+        iterator.next();
+        iterator.next();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testNoElement() throws Exception {
+        new BatchInputIterator("INSERT ?", new ArrayList<Object>().iterator()).next();
+    }
+
+    @Test
+    public void testSourceException() throws Exception {
+        final IllegalStateException cause = new IllegalStateException("Source failed");
+
+        BatchInputIterator iterator = new BatchInputIterator("INSERT ?", new Iterator<Object>() {
+            public boolean hasNext() {
+                return true;
+            }
+
+            public Object next() {
+                throw cause;
+            }
+
+            public void remove() {
+            }
+        });
+
+        try {
+            iterator.nextRow();
+            Assert.fail();
+        } catch (MjdbcRuntimeException ex) {
+            Assert.assertEquals(cause, ex.getCause());
+        }
+    }
+
+    @Test
+    public void testNextRow() throws Exception {
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("name", "Superman");
+
+        BatchInputIterator iterator = new BatchInputIterator("INSERT :name", Arrays.asList(map).iterator());
+
+        Object row = iterator.nextRow();
+
+        Assert.assertEquals(map, row);
+        Assert.assertEquals("Superman", iterator.convert(row).getValue("name"));
+    }
+
+    @Test(expected = MjdbcRuntimeException.class)
+    public void testMapNotStringKey() throws Exception {
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        map.put(1, "Superman");
+
+        new BatchInputIterator("INSERT :name", Arrays.asList(map).iterator()).next();
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core;
+
+import junit.framework.Assert;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.midao.jdbc.core.service.QueryContinuation;
+import org.midao.jdbc.core.service.QueryRunnerService;
+import org.midao.jdbc.core.service.QueryTask;
+import org.midao.jdbc.core.statement.StatementHandler;
+import org.midao.jdbc.core.transaction.TransactionHandler;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ */
+public class ConcurrentQueryRunnerTest {
+    @Mock
+    DataSource ds;
+    @Mock
+    TransactionHandler transactionHandler;
+
+    ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSubmit() throws Exception {
+        ConcurrentQueryRunner runner = new ConcurrentQueryRunner(ds, executor, 2);
+
+        QueryFuture<String> result = runner.submit(new QueryTask<String>() {
+            public String execute(QueryRunnerService runner) throws SQLException {
+                Assert.assertNotNull(runner);
+                return "result";
+            }
+        });
+
+        Assert.assertEquals("result", result.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTransactionHandlerPerTask() throws Exception {
+        when(transactionHandler.newInstance(ds)).thenReturn(mock(TransactionHandler.class), mock(TransactionHandler.class));
+
+        ConcurrentQueryRunner runner = new ConcurrentQueryRunner(ds, null, null, transactionHandler, executor, 2);
+
+        QueryTask<Integer> task = new QueryTask<Integer>() {
+            public Integer execute(QueryRunnerService runner) throws SQLException {
+                return 1;
+            }
+        };
+
+        runner.submit(task).get(1, TimeUnit.SECONDS);
+        runner.submit(task).get(1, TimeUnit.SECONDS);
+
+        verify(transactionHandler, times(2)).newInstance(ds);
+    }
+
+    @Test
+    public void testThen() throws Exception {
+        ConcurrentQueryRunner runner = new ConcurrentQueryRunner(ds, executor, 1);
+
+        QueryFuture<Integer> result = runner.submit(new QueryTask<Integer>() {
+            public Integer execute(QueryRunnerService runner) throws SQLException {
+                return 1;
+            }
+        }).then(new QueryContinuation<Integer, Integer>() {
+            public Integer execute(QueryRunnerService runner, Integer previousResult) throws SQLException {
+                return previousResult + 1;
+            }
+        }).then(new QueryContinuation<Integer, Integer>() {
+            public Integer execute(QueryRunnerService runner, Integer previousResult) throws SQLException {
+                return previousResult * 10;
+            }
+        });
+
+        Assert.assertEquals(20, result.get(1, TimeUnit.SECONDS).intValue());
+    }
+
+    @Test
+    public void testThenFailed() throws Exception {
+        ConcurrentQueryRunner runner = new ConcurrentQueryRunner(ds, executor, 1);
+        final SQLException exception = new SQLException("failed");
+
+        QueryFuture<Integer> result = runner.submit(new QueryTask<Integer>() {
+            public Integer execute(QueryRunnerService runner) throws SQLException {
+                throw exception;
+            }
+        }).then(new QueryContinuation<Integer, Integer>() {
+            public Integer execute(QueryRunnerService runner, Integer previousResult) throws SQLException {
+                Assert.fail();
+                return null;
+            }
+        });
+
+        try {
+            result.get(1, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException ex) {
+            Assert.assertEquals(exception, ex.getCause());
+        }
+    }
+
+    @Test
+    public void testThenFailedSkipsRunner() throws Exception {
+        final AtomicInteger created = new AtomicInteger(0);
+        ConcurrentQueryRunner runner = new ConcurrentQueryRunner(ds, executor, 1) {
+            @Override
+            protected QueryRunnerService createQueryRunner(Class<? extends StatementHandler> statementHandlerClazz) {
+                created.incrementAndGet();
+                return mock(QueryRunnerService.class);
+            }
+        };
+
+        QueryFuture<Integer> first = runner.submit(new QueryTask<Integer>() {
+            public Integer execute(QueryRunnerService runner) throws SQLException {
+                throw new SQLException("failed");
+            }
+        });
+
+        QueryFuture<Integer> result = first.then(new QueryContinuation<Integer, Integer>() {
+            public Integer execute(QueryRunnerService runner, Integer previousResult) throws SQLException {
+                return previousResult;
+            }
+        }).then(new QueryContinuation<Integer, Integer>() {
+            public Integer execute(QueryRunnerService runner, Integer previousResult) throws SQLException {
+                return previousResult;
+            }
+        });
+
+        try {
+            result.get(1, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException ex) {
+            Assert.assertEquals("failed", ex.getCause().getMessage());
+        }
+
+        // continuations of failed task neither create runner nor take in-flight slot
+        Assert.assertEquals(1, created.get());
+        Assert.assertEquals(0, runner.getInFlight());
+    }
+
+    @Test
+    public void testInFlightLimit() throws Exception {
+        ConcurrentQueryRunner runner = new ConcurrentQueryRunner(ds, executor, 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        QueryTask<Integer> task = new QueryTask<Integer>() {
+            public Integer execute(QueryRunnerService runner) throws SQLException {
+                started.countDown();
+
+                try {
+                    release.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    throw new SQLException(ex);
+                }
+
+                return 1;
+            }
+        };
+
+        QueryFuture<Integer> first = runner.submit(task);
+        Assert.assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        QueryFuture<Integer> second = runner.submit(task);
+
+        for (int i = 0; i < 100 && runner.getWaiting() == 0; i++) {
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(1, runner.getInFlight());
+        Assert.assertEquals(1, runner.getWaiting());
+        Assert.assertEquals(false, second.isDone());
+
+        release.countDown();
+
+        Assert.assertEquals(1, first.get(1, TimeUnit.SECONDS).intValue());
+        Assert.assertEquals(1, second.get(1, TimeUnit.SECONDS).intValue());
+        Assert.assertEquals(0, runner.getInFlight());
+    }
+
+    @Test
+    public void testInFlightLimitPerDataSource() throws Exception {
+        ConcurrentQueryRunner runner = new ConcurrentQueryRunner(ds, executor, 1);
+        ConcurrentQueryRunner otherRunner = new ConcurrentQueryRunner(ds, Executors.newSingleThreadExecutor(), 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            QueryFuture<Integer> first = runner.submit(new QueryTask<Integer>() {
+                public Integer execute(QueryRunnerService runner) throws SQLException {
+                    started.countDown();
+
+                    try {
+                        release.await(1, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        throw new SQLException(ex);
+                    }
+
+                    return 1;
+                }
+            });
+            Assert.assertTrue(started.await(1, TimeUnit.SECONDS));
+
+            // slot is taken by the task of other runner
+            QueryFuture<Integer> second = otherRunner.submit(new QueryTask<Integer>() {
+                public Integer execute(QueryRunnerService runner) throws SQLException {
+                    return 2;
+                }
+            });
+
+            Assert.assertEquals(1, otherRunner.getInFlight());
+            Assert.assertEquals(1, otherRunner.getWaiting());
+            Assert.assertEquals(false, second.isDone());
+
+            release.countDown();
+
+            Assert.assertEquals(1, first.get(1, TimeUnit.SECONDS).intValue());
+            Assert.assertEquals(2, second.get(1, TimeUnit.SECONDS).intValue());
+        } finally {
+            otherRunner.close();
+        }
+
+        // limit of other DataSource is independent
+        Assert.assertEquals(5, new ConcurrentQueryRunner(mock(DataSource.class), executor, 5).getMaxInFlight());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInFlightLimitConflict() throws Exception {
+        new ConcurrentQueryRunner(ds, executor, 3);
+        new ConcurrentQueryRunner(ds, executor, 5);
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        ConcurrentQueryRunner runner = new ConcurrentQueryRunner(ds, executor, 1);
+
+        runner.close();
+
+        Assert.assertEquals(true, runner.isClosed());
+        Assert.assertEquals(true, executor.isShutdown());
+
+        QueryFuture<Integer> result = runner.submit(new QueryTask<Integer>() {
+            public Integer execute(QueryRunnerService runner) throws SQLException {
+                Assert.fail();
+                return null;
+            }
+        });
+
+        try {
+            result.get(1, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException ex) {
+            Assert.assertEquals(true, ex.getCause() instanceof RejectedExecutionException);
+        }
+
+        Assert.assertEquals(0, runner.getInFlight());
+    }
+
+    @Test
+    public void testWaitingTaskDoesNotBlockExecutor() throws Exception {
+        ConcurrentQueryRunner runner = new ConcurrentQueryRunner(ds, executor, 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        QueryFuture<Integer> first = runner.submit(new QueryTask<Integer>() {
+            public Integer execute(QueryRunnerService runner) throws SQLException {
+                started.countDown();
+
+                try {
+                    release.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    throw new SQLException(ex);
+                }
+
+                return 1;
+            }
+        });
+        Assert.assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        QueryFuture<Integer> second = runner.submit(new QueryTask<Integer>() {
+            public Integer execute(QueryRunnerService runner) throws SQLException {
+                return 2;
+            }
+        });
+
+        Assert.assertEquals(1, runner.getWaiting());
+
+        // second executor thread is free while second task is waiting for slot
+        Future<String> other = executor.submit(new Callable<String>() {
+            public String call() throws Exception {
+                return "other";
+            }
+        });
+        Assert.assertEquals("other", other.get(1, TimeUnit.SECONDS));
+
+        release.countDown();
+
+        Assert.assertEquals(1, first.get(1, TimeUnit.SECONDS).intValue());
+        Assert.assertEquals(2, second.get(1, TimeUnit.SECONDS).intValue());
+    }
+
+    @Test
+    public void testCancelWaiting() throws Exception {
+        ConcurrentQueryRunner runner = new ConcurrentQueryRunner(ds, executor, 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        QueryFuture<Integer> first = runner.submit(new QueryTask<Integer>() {
+            public Integer execute(QueryRunnerService runner) throws SQLException {
+                started.countDown();
+
+                try {
+                    release.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    throw new SQLException(ex);
+                }
+
+                return 1;
+            }
+        });
+        Assert.assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        QueryFuture<Integer> second = runner.submit(new QueryTask<Integer>() {
+            public Integer execute(QueryRunnerService runner) throws SQLException {
+                Assert.fail();
+                return null;
+            }
+        });
+
+        Assert.assertEquals(true, second.cancel(false));
+
+        release.countDown();
+        Assert.assertEquals(1, first.get(1, TimeUnit.SECONDS).intValue());
+
+        for (int i = 0; i < 100 && runner.getInFlight() > 0; i++) {
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(0, runner.getInFlight());
+        Assert.assertEquals(0, runner.getWaiting());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLimit() throws Exception {
+        new ConcurrentQueryRunner(ds, executor, 0);
+    }
+}
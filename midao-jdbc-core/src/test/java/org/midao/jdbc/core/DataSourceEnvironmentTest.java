@@ -0,0 +1,158 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core;
+
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.midao.jdbc.core.metadata.BaseMetadataHandler;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.sql.DataSource;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+import static org.mockito.Mockito.*;
+
+/**
+ */
+public class DataSourceEnvironmentTest {
+    @Mock
+    DataSource ds;
+    @Mock
+    Connection conn;
+    @Mock
+    DatabaseMetaData metaData;
+
+    @Before
+    public void setUp() throws SQLException {
+        MockitoAnnotations.initMocks(this);
+
+        when(ds.getConnection()).thenReturn(conn);
+        when(conn.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("Sybase SQL Server");
+    }
+
+    @Test
+    public void testGetInstance() throws SQLException {
+        DataSourceEnvironment environment = DataSourceEnvironment.getInstance(ds);
+
+        Assert.assertEquals("Sybase", environment.getDbName());
+        Assert.assertEquals(false, environment.isJDBC3());
+        Assert.assertNotNull(environment.getExceptionHandler());
+        Assert.assertNotNull(environment.getMetadataHandler());
+
+        Assert.assertSame(environment, DataSourceEnvironment.getInstance(ds));
+
+        verify(ds, times(1)).getConnection();
+        verify(conn, times(1)).close();
+    }
+
+    @Test
+    public void testGetInstanceFailed() throws SQLException {
+        when(ds.getConnection()).thenThrow(new SQLException());
+
+        DataSourceEnvironment environment = DataSourceEnvironment.getInstance(ds);
+
+        Assert.assertEquals(true, environment.isJDBC3());
+
+        // failed detection is not cached
+        Assert.assertNotSame(environment, DataSourceEnvironment.getInstance(ds));
+
+        verify(ds, times(2)).getConnection();
+    }
+
+    @Test
+    public void testConfigChange() throws SQLException {
+        DataSourceEnvironment environment = DataSourceEnvironment.getInstance(ds);
+
+        MjdbcConfig.setDefaultMetadataHandler(BaseMetadataHandler.class);
+
+        // environment is detected again, so new handlers are used
+        Assert.assertNotSame(environment, DataSourceEnvironment.getInstance(ds));
+
+        verify(ds, times(2)).getConnection();
+    }
+
+    @Test
+    public void testDataSourceCollected() throws Exception {
+        DataSource collectedDs = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class[]{DataSource.class},
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        Object result = null;
+
+                        if ("getConnection".equals(method.getName()) == true) {
+                            result = conn;
+                        } else if ("hashCode".equals(method.getName()) == true) {
+                            result = System.identityHashCode(proxy);
+                        } else if ("equals".equals(method.getName()) == true) {
+                            result = (proxy == args[0]);
+                        }
+
+                        return result;
+                    }
+                });
+        WeakReference<DataSource> reference = new WeakReference<DataSource>(collectedDs);
+
+        MjdbcConfig.setDefaultMetadataHandler(DataSourceMetadataHandler.class);
+
+        try {
+            Assert.assertNotNull(DataSourceEnvironment.getInstance(collectedDs).getMetadataHandler());
+
+            collectedDs = null;
+
+            for (int i = 0; i < 50 && reference.get() != null; i++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+
+            // cached environment (and metadata handler which keeps DataSource) doesn't prevent DataSource from being collected
+            Assert.assertNull(reference.get());
+        } finally {
+            MjdbcConfig.setDefaultMetadataHandler(BaseMetadataHandler.class);
+        }
+    }
+
+    public static class DataSourceMetadataHandler extends BaseMetadataHandler {
+        private final DataSource ds;
+
+        public DataSourceMetadataHandler(DataSource ds, boolean useCache) throws SQLException {
+            super(ds, useCache);
+
+            this.ds = ds;
+        }
+    }
+
+    @Test
+    public void testRemove() throws SQLException {
+        DataSourceEnvironment environment = DataSourceEnvironment.getInstance(ds);
+
+        DataSourceEnvironment.remove(ds);
+
+        Assert.assertNotSame(environment, DataSourceEnvironment.getInstance(ds));
+
+        verify(ds, times(2)).getConnection();
+    }
+}
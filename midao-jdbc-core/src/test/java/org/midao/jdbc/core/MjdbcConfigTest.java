@@ -23,9 +23,14 @@ import org.junit.Before;
 import org.junit.Test;
 import org.midao.jdbc.core.exception.ExceptionHandler;
 import org.midao.jdbc.core.handlers.type.TypeHandler;
+import org.midao.jdbc.core.handlers.utils.BeanAccessorFactory;
+import org.midao.jdbc.core.handlers.utils.ReflectionBeanAccessorFactory;
 import org.midao.jdbc.core.metadata.MetadataHandler;
+import org.midao.jdbc.core.metrics.BaseMetricsCollector;
+import org.midao.jdbc.core.metrics.MetricsCollector;
 import org.midao.jdbc.core.processor.QueryInputProcessor;
 import org.midao.jdbc.core.processor.QueryOutputProcessor;
+import org.midao.jdbc.core.statement.ParameterMetadataCache;
 import org.midao.jdbc.core.statement.StatementHandler;
 import org.midao.jdbc.core.transaction.TransactionHandler;
 import org.mockito.Mock;
@@ -65,11 +70,167 @@ public class MjdbcConfigTest {
         MjdbcConfig.setQueryInputProcessorUseCache(defaultValue);
     }
 
+    @Test
+    public void testGetQueryInputProcessorCacheSize() throws Exception {
+        int defaultValue = MjdbcConfig.getQueryInputProcessorCacheSize();
+
+        MjdbcConfig.setQueryInputProcessorCacheSize(defaultValue + 1);
+
+        Assert.assertEquals(defaultValue + 1, MjdbcConfig.getQueryInputProcessorCacheSize());
+
+        MjdbcConfig.setQueryInputProcessorCacheSize(defaultValue);
+    }
+
     @Test
     public void testGetDefaultQueryOutputProcessor() throws Exception {
         Assert.assertEquals(true, MjdbcConfig.getDefaultQueryOutputProcessor() instanceof QueryOutputProcessor);
     }
 
+    @Test
+    public void testGetDefaultBeanAccessorFactory() throws Exception {
+        BeanAccessorFactory defaultValue = MjdbcConfig.getDefaultBeanAccessorFactory();
+        BeanAccessorFactory newValue = new ReflectionBeanAccessorFactory();
+
+        Assert.assertEquals(true, defaultValue instanceof BeanAccessorFactory);
+
+        MjdbcConfig.setDefaultBeanAccessorFactory(newValue);
+
+        Assert.assertSame(newValue, MjdbcConfig.getDefaultBeanAccessorFactory());
+
+        MjdbcConfig.setDefaultBeanAccessorFactory(defaultValue);
+    }
+
+    @Test
+    public void testGetDefaultParameterValidationMode() throws Exception {
+        ParameterMetadataCache.ValidationMode defaultValue = MjdbcConfig.getDefaultParameterValidationMode();
+
+        Assert.assertEquals(ParameterMetadataCache.ValidationMode.ALWAYS, defaultValue);
+
+        MjdbcConfig.setDefaultParameterValidationMode(ParameterMetadataCache.ValidationMode.NEVER);
+
+        Assert.assertEquals(ParameterMetadataCache.ValidationMode.NEVER, MjdbcConfig.getDefaultParameterValidationMode());
+
+        MjdbcConfig.setDefaultParameterValidationMode(defaultValue);
+    }
+
+    @Test
+    public void testGetDefaultStatementCacheSize() throws Exception {
+        int defaultValue = MjdbcConfig.getDefaultStatementCacheSize();
+
+        Assert.assertEquals(0, defaultValue);
+
+        MjdbcConfig.setDefaultStatementCacheSize(10);
+
+        Assert.assertEquals(10, MjdbcConfig.getDefaultStatementCacheSize());
+
+        MjdbcConfig.setDefaultStatementCacheSize(defaultValue);
+    }
+
+    @Test
+    public void testGetDefaultBatchChunkSize() throws Exception {
+        int defaultValue = MjdbcConfig.getDefaultBatchChunkSize();
+
+        Assert.assertEquals(0, defaultValue);
+        Assert.assertEquals(false, MjdbcConfig.isDefaultBatchChunkCommit());
+        Assert.assertEquals(false, MjdbcConfig.isDefaultBatchPipelined());
+        Assert.assertEquals(false, MjdbcConfig.isDefaultBatchInsertRewrite());
+        Assert.assertEquals(1000, MjdbcConfig.getDefaultBatchInsertParameterLimit());
+
+        MjdbcConfig.setDefaultBatchChunkSize(1000);
+
+        Assert.assertEquals(1000, MjdbcConfig.getDefaultBatchChunkSize());
+
+        MjdbcConfig.setDefaultBatchChunkSize(defaultValue);
+    }
+
+    @Test
+    public void testGetMetricsCollector() throws Exception {
+        Assert.assertNull(MjdbcConfig.getMetricsCollector());
+
+        MetricsCollector collector = new BaseMetricsCollector();
+        MjdbcConfig.setMetricsCollector(collector);
+
+        Assert.assertEquals(collector, MjdbcConfig.getMetricsCollector());
+
+        MjdbcConfig.setMetricsCollector(null);
+    }
+
+    @Test
+    public void testGetDefaultFetchSize() throws Exception {
+        Assert.assertEquals(0, MjdbcConfig.getDefaultFetchSize());
+
+        MjdbcConfig.setDefaultFetchSize(100);
+        Assert.assertEquals(100, MjdbcConfig.getDefaultFetchSize());
+
+        MjdbcConfig.setDefaultFetchSize(0);
+    }
+
+    @Test
+    public void testGetDefaultLazyReadAheadSize() throws Exception {
+        Assert.assertEquals(0, MjdbcConfig.getDefaultLazyReadAheadSize());
+
+        MjdbcConfig.setDefaultLazyReadAheadSize(50);
+        Assert.assertEquals(50, MjdbcConfig.getDefaultLazyReadAheadSize());
+
+        MjdbcConfig.setDefaultLazyReadAheadSize(0);
+    }
+
+    @Test
+    public void testIsDefaultLazySpillToDisk() throws Exception {
+        Assert.assertEquals(false, MjdbcConfig.isDefaultLazySpillToDisk());
+
+        MjdbcConfig.setDefaultLazySpillToDisk(true);
+        Assert.assertEquals(true, MjdbcConfig.isDefaultLazySpillToDisk());
+
+        MjdbcConfig.setDefaultLazySpillToDisk(false);
+    }
+
+    @Test
+    public void testGetSlowQueryThreshold() throws Exception {
+        Assert.assertEquals(0, MjdbcConfig.getSlowQueryThreshold());
+
+        MjdbcConfig.setSlowQueryThreshold(250);
+        Assert.assertEquals(250, MjdbcConfig.getSlowQueryThreshold());
+
+        MjdbcConfig.setSlowQueryThreshold(0);
+    }
+
+    @Test
+    public void testGetSlowQuerySampleRate() throws Exception {
+        Assert.assertEquals(0, MjdbcConfig.getSlowQuerySampleRate());
+
+        MjdbcConfig.setSlowQuerySampleRate(100);
+        Assert.assertEquals(100, MjdbcConfig.getSlowQuerySampleRate());
+
+        MjdbcConfig.setSlowQuerySampleRate(0);
+    }
+
+    @Test
+    public void testIsDefaultDirectConnection() throws Exception {
+        boolean defaultValue = MjdbcConfig.isDefaultDirectConnection();
+
+        Assert.assertEquals(false, defaultValue);
+
+        MjdbcConfig.setDefaultDirectConnection(true);
+
+        Assert.assertEquals(true, MjdbcConfig.isDefaultDirectConnection());
+
+        MjdbcConfig.setDefaultDirectConnection(defaultValue);
+    }
+
+    @Test
+    public void testIsDefaultStreamLobs() throws Exception {
+        boolean defaultValue = MjdbcConfig.isDefaultStreamLobs();
+
+        Assert.assertEquals(false, defaultValue);
+
+        MjdbcConfig.setDefaultStreamLobs(true);
+
+        Assert.assertEquals(true, MjdbcConfig.isDefaultStreamLobs());
+
+        MjdbcConfig.setDefaultStreamLobs(defaultValue);
+    }
+
     @Test
     public void testGetDefaultStatementHandler() throws Exception {
         Assert.assertEquals(true, MjdbcConfig.getDefaultStatementHandler(overrider) instanceof StatementHandler);
@@ -29,7 +29,16 @@ import org.mockito.MockitoAnnotations;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  */
@@ -63,6 +72,22 @@ public class MjdbcFactoryTest {
         Assert.assertEquals(true, MjdbcFactory.getQueryRunner(ds, EmptyTypeHandler.class, BaseStatementHandler.class) instanceof QueryRunner);
     }
 
+    @Test
+    public void testGetQueryRunnerDataSourceEnvironment() throws Exception {
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+
+        when(ds.getConnection()).thenReturn(conn);
+        when(conn.getMetaData()).thenReturn(metaData);
+
+        QueryRunner first = (QueryRunner) MjdbcFactory.getQueryRunner(ds);
+        QueryRunner second = (QueryRunner) MjdbcFactory.getQueryRunner(ds, EmptyTypeHandler.class);
+
+        Assert.assertSame(first.getExceptionHandler(), second.getExceptionHandler());
+        Assert.assertSame(first.getMetadataHandler(), second.getMetadataHandler());
+
+        verify(ds, times(1)).getConnection();
+    }
+
     @Test
     public void testGetQueryRunnerCoonection() throws Exception {
         Assert.assertEquals(true, MjdbcFactory.getQueryRunner(conn) instanceof QueryRunner);
@@ -83,6 +108,64 @@ public class MjdbcFactoryTest {
         Assert.assertEquals(true, MjdbcFactory.getAsyncQueryRunner(null, null) instanceof AsyncQueryRunner);
     }
 
+    @Test
+    public void testGetConcurrentQueryRunnerDataSource() throws Exception {
+        PooledDataSource pooledDs = mock(PooledDataSource.class);
+        when(pooledDs.getMaxActive()).thenReturn(7);
+
+        Assert.assertEquals(7, MjdbcFactory.getConcurrentQueryRunner(pooledDs).getMaxInFlight());
+        Assert.assertEquals(Integer.MAX_VALUE, MjdbcFactory.getConcurrentQueryRunner(ds).getMaxInFlight());
+
+        // limit is shared by runners of the DataSource
+        Assert.assertEquals(7, MjdbcFactory.getConcurrentQueryRunner(pooledDs).getMaxInFlight());
+
+        MjdbcFactory.shutdownTaskExecutor(pooledDs);
+        MjdbcFactory.shutdownTaskExecutor(ds);
+    }
+
+    @Test
+    public void testCreateTaskExecutor() throws Exception {
+        ExecutorService executor = MjdbcFactory.createTaskExecutor();
+
+        Assert.assertEquals(Integer.valueOf(1), executor.submit(new Callable<Integer>() {
+            public Integer call() throws Exception {
+                return 1;
+            }
+        }).get());
+
+        Assert.assertEquals(Boolean.TRUE, executor.submit(new Callable<Boolean>() {
+            public Boolean call() throws Exception {
+                return Thread.currentThread().isDaemon();
+            }
+        }).get());
+
+        executor.shutdown();
+    }
+
+    @Test
+    public void testTaskExecutorPerDataSource() throws Exception {
+        ExecutorService executor = MjdbcFactory.getTaskExecutor(ds);
+
+        Assert.assertSame(executor, MjdbcFactory.getTaskExecutor(ds));
+        Assert.assertNotSame(executor, MjdbcFactory.getTaskExecutor(mock(DataSource.class)));
+
+        // shared executor is not shut down by the runner
+        ConcurrentQueryRunner runner = MjdbcFactory.getConcurrentQueryRunner(ds);
+        runner.close();
+        Assert.assertEquals(false, executor.isShutdown());
+
+        MjdbcFactory.shutdownTaskExecutor(ds);
+        Assert.assertEquals(true, executor.isShutdown());
+        Assert.assertNotSame(executor, MjdbcFactory.getTaskExecutor(ds));
+
+        MjdbcFactory.shutdownTaskExecutor(ds);
+    }
+
+    @Test
+    public void testGetConcurrentQueryRunner() throws Exception {
+        Assert.assertEquals(true, MjdbcFactory.getConcurrentQueryRunner(ds, Executors.newSingleThreadExecutor(), 1) instanceof ConcurrentQueryRunner);
+    }
+
     @Test(expected = NoClassDefFoundError.class)
     public void testCreateDataSourceProp() throws Exception {
         MjdbcFactory.createDataSource(new Properties());
@@ -107,4 +190,8 @@ public class MjdbcFactoryTest {
     public void testCreateDataSourceUrl4() throws Exception {
         MjdbcFactory.createDataSource("", "", "", "", 0, 0);
     }
+
+    public static abstract class PooledDataSource implements DataSource {
+        public abstract int getMaxActive();
+    }
 }
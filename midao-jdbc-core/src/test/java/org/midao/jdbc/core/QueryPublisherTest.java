@@ -0,0 +1,211 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core;
+
+import junit.framework.Assert;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.midao.jdbc.core.handlers.input.InputHandler;
+import org.midao.jdbc.core.handlers.output.OutputHandler;
+import org.midao.jdbc.core.handlers.output.lazy.LazyOutputHandler;
+import org.midao.jdbc.core.reactive.Subscriber;
+import org.midao.jdbc.core.reactive.Subscription;
+import org.midao.jdbc.core.service.QueryRunnerService;
+import org.midao.jdbc.core.statement.StatementHandler;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ */
+public class QueryPublisherTest {
+    @Mock
+    DataSource ds;
+    @Mock
+    QueryRunnerService queryRunner;
+    @Mock
+    LazyOutputHandler<LazyOutputHandler, String> output;
+    @Mock
+    InputHandler input;
+
+    ExecutorService executor;
+    ConcurrentQueryRunner runner;
+
+    @Before
+    public void setUp() throws SQLException {
+        MockitoAnnotations.initMocks(this);
+
+        executor = Executors.newSingleThreadExecutor();
+        runner = new ConcurrentQueryRunner(ds, executor, 1) {
+            @Override
+            protected QueryRunnerService createQueryRunner(Class<? extends StatementHandler> statementHandlerClazz) {
+                return queryRunner;
+            }
+        };
+
+        when(queryRunner.query(any(InputHandler.class), any(OutputHandler.class))).thenReturn(output);
+        when(output.hasNext()).thenReturn(true, true, true, false);
+        when(output.getNext()).thenReturn("first", "second", "third");
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        TestSubscriber subscriber = new TestSubscriber();
+
+        runner.publish(input, output).subscribe(subscriber);
+
+        Thread.sleep(50);
+        verify(queryRunner, never()).query(any(InputHandler.class), any(OutputHandler.class));
+
+        subscriber.subscription.request(2);
+        subscriber.awaitItems(2);
+        Thread.sleep(50);
+
+        Assert.assertEquals(2, subscriber.getItems().size());
+        Assert.assertEquals(false, subscriber.completed);
+        Assert.assertEquals(1, runner.getInFlight());
+
+        subscriber.subscription.request(5);
+        Assert.assertTrue(subscriber.terminated.await(1, TimeUnit.SECONDS));
+
+        Assert.assertEquals(3, subscriber.getItems().size());
+        Assert.assertEquals("third", subscriber.getItems().get(2));
+        Assert.assertEquals(true, subscriber.completed);
+        Assert.assertNull(subscriber.error);
+        Assert.assertEquals(0, runner.getInFlight());
+
+        verify(queryRunner, times(1)).setTransactionManualMode(true);
+        verify(output, times(1)).close();
+        verify(queryRunner, times(1)).commit();
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        TestSubscriber subscriber = new TestSubscriber();
+
+        runner.publish(input, output).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        subscriber.awaitItems(1);
+
+        subscriber.subscription.cancel();
+
+        for (int i = 0; i < 100 && runner.getInFlight() > 0; i++) {
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(0, runner.getInFlight());
+        Assert.assertEquals(1, subscriber.getItems().size());
+        Assert.assertEquals(false, subscriber.completed);
+
+        verify(output, times(1)).close();
+        verify(queryRunner, times(1)).commit();
+    }
+
+    @Test
+    public void testQueryFailed() throws Exception {
+        SQLException exception = new SQLException("failed");
+        when(queryRunner.query(any(InputHandler.class), any(OutputHandler.class))).thenThrow(exception);
+
+        TestSubscriber subscriber = new TestSubscriber();
+
+        runner.publish(input, output).subscribe(subscriber);
+        subscriber.subscription.request(1);
+
+        Assert.assertTrue(subscriber.terminated.await(1, TimeUnit.SECONDS));
+        Assert.assertEquals(exception, subscriber.error);
+        Assert.assertEquals(0, runner.getInFlight());
+
+        verify(queryRunner, times(1)).rollback();
+    }
+
+    @Test
+    public void testInvalidRequest() throws Exception {
+        TestSubscriber subscriber = new TestSubscriber();
+
+        runner.publish(input, output).subscribe(subscriber);
+        subscriber.subscription.request(0);
+
+        Assert.assertTrue(subscriber.terminated.await(1, TimeUnit.SECONDS));
+        Assert.assertEquals(true, subscriber.error instanceof IllegalArgumentException);
+
+        verify(queryRunner, never()).query(any(InputHandler.class), any(OutputHandler.class));
+    }
+
+    private static class TestSubscriber implements Subscriber<String> {
+        private final List<String> items = new ArrayList<String>();
+        private final CountDownLatch terminated = new CountDownLatch(1);
+
+        private volatile Subscription subscription;
+        private volatile boolean completed = false;
+        private volatile Throwable error;
+
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        public void onNext(String item) {
+            synchronized (items) {
+                items.add(item);
+            }
+        }
+
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        public void onComplete() {
+            completed = true;
+            terminated.countDown();
+        }
+
+        private List<String> getItems() {
+            synchronized (items) {
+                return new ArrayList<String>(items);
+            }
+        }
+
+        private void awaitItems(int amount) throws InterruptedException {
+            for (int i = 0; i < 100 && getItems().size() < amount; i++) {
+                Thread.sleep(10);
+            }
+        }
+    }
+}
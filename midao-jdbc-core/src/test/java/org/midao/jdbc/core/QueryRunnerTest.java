@@ -18,6 +18,7 @@
 
 package org.midao.jdbc.core;
 
+import junit.framework.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.midao.jdbc.core.exception.MjdbcException;
@@ -31,12 +32,15 @@ import org.midao.jdbc.core.handlers.input.query.QueryInputHandler;
 import org.midao.jdbc.core.handlers.xml.XmlInputOutputHandler;
 import org.midao.jdbc.core.handlers.xml.XmlParameters;
 import org.midao.jdbc.core.handlers.model.QueryParameters;
+import org.midao.jdbc.core.handlers.output.MapListOutputHandler;
 import org.midao.jdbc.core.handlers.output.MapOutputHandler;
 import org.midao.jdbc.core.handlers.output.RowCountOutputHandler;
 import org.midao.jdbc.core.handlers.output.lazy.MapLazyOutputHandler;
+import org.midao.jdbc.core.handlers.output.lazy.MapLazyScrollOutputHandler;
 import org.midao.jdbc.core.handlers.type.EmptyTypeHandler;
 import org.midao.jdbc.core.handlers.type.TypeHandler;
 import org.midao.jdbc.core.metadata.MetadataHandler;
+import org.midao.jdbc.core.metrics.MetricsCollector;
 import org.midao.jdbc.core.service.QueryRunnerService;
 import org.midao.jdbc.core.statement.BaseStatementHandler;
 import org.midao.jdbc.core.statement.LazyStatementHandler;
@@ -53,9 +57,13 @@ import java.sql.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -272,6 +280,492 @@ public class QueryRunnerTest {
         verify(metadataHandler, never()).getProcedureParameters(any(Connection.class), any(String.class), any(String.class), any(String.class), any(boolean.class));
     }
 
+    @Test
+    public void testBatchChunked() throws Exception {
+        when(overrider.hasOverride(MjdbcConstants.OVERRIDE_BATCH_CHUNK_SIZE)).thenReturn(true);
+        when(overrider.getOverride(MjdbcConstants.OVERRIDE_BATCH_CHUNK_SIZE)).thenReturn(2);
+        when(preparedStatement.executeBatch()).thenReturn(new int[]{1, 1}, new int[]{1, 1}, new int[]{1});
+
+        int[] rows = queryRunner.batch("bla", new Object[][]{{"a"}, {"b"}, {"c"}, {"d"}, {"e"}});
+
+        Assert.assertEquals(5, rows.length);
+        Assert.assertEquals(1, rows[4]);
+
+        verify(conn, times(1)).prepareStatement(any(String.class));
+        verify(preparedStatement, times(5)).addBatch();
+        verify(preparedStatement, times(3)).executeBatch();
+        verify(typeHandler, times(5)).processInput(any(Statement.class), any(QueryParameters.class));
+        verify(typeHandler, times(5)).afterExecute(any(Statement.class), any(QueryParameters.class), any(QueryParameters.class));
+
+        // intermediate commits are not performed by default
+        verify(transactionHandler, times(1)).commit();
+        verify(transactionHandler, times(1)).closeConnection();
+    }
+
+    @Test
+    public void testBatchChunkedPipelined() throws Exception {
+        when(overrider.hasOverride(MjdbcConstants.OVERRIDE_BATCH_CHUNK_SIZE)).thenReturn(true);
+        when(overrider.getOverride(MjdbcConstants.OVERRIDE_BATCH_CHUNK_SIZE)).thenReturn(2);
+
+        MjdbcConfig.setDefaultBatchPipelined(true);
+        MjdbcConfig.setDefaultBatchChunkCommit(true);
+
+        try {
+            queryRunner.batch("bla", new Object[][]{{"a"}, {"b"}, {"c"}, {"d"}, {"e"}});
+        } finally {
+            MjdbcConfig.setDefaultBatchPipelined(false);
+            MjdbcConfig.setDefaultBatchChunkCommit(false);
+        }
+
+        verify(preparedStatement, times(5)).addBatch();
+        verify(preparedStatement, times(3)).executeBatch();
+        verify(typeHandler, times(5)).processInput(any(Statement.class), any(QueryParameters.class));
+
+        // two intermediate commits and final one
+        verify(transactionHandler, times(3)).commit();
+    }
+
+    @Test
+    public void testBatchChunkedPipelinedOverride() throws Exception {
+        final List<Thread> inputThreads = new ArrayList<Thread>();
+
+        when(overrider.hasOverride(MjdbcConstants.OVERRIDE_BATCH_CHUNK_SIZE)).thenReturn(true);
+        when(overrider.getOverride(MjdbcConstants.OVERRIDE_BATCH_CHUNK_SIZE)).thenReturn(2);
+        when(overrider.hasOverride(MjdbcConstants.OVERRIDE_BATCH_PIPELINED)).thenReturn(true);
+        when(overrider.getOverride(MjdbcConstants.OVERRIDE_BATCH_PIPELINED)).thenReturn(true);
+        when(overrider.hasOverride(MjdbcConstants.OVERRIDE_BATCH_CHUNK_COMMIT)).thenReturn(true);
+        when(overrider.getOverride(MjdbcConstants.OVERRIDE_BATCH_CHUNK_COMMIT)).thenReturn(true);
+        when(typeHandler.processInput(any(Statement.class), any(QueryParameters.class))).then(new Answer<QueryParameters>() {
+            public QueryParameters answer(InvocationOnMock invocation) throws Throwable {
+                inputThreads.add(Thread.currentThread());
+                return processedInput;
+            }
+        });
+
+        queryRunner.batch("bla", new Object[][]{{"a"}, {"b"}, {"c"}, {"d"}, {"e"}});
+
+        verify(preparedStatement, times(5)).addBatch();
+        verify(preparedStatement, times(3)).executeBatch();
+        verify(transactionHandler, times(3)).commit();
+
+        // Type Handler is used only by calling thread
+        Assert.assertEquals(5, inputThreads.size());
+        for (Thread thread : inputThreads) {
+            Assert.assertEquals(Thread.currentThread(), thread);
+        }
+    }
+
+    @Test
+    public void testBatchBeanPipelined() throws Exception {
+        List<PipelineRow> beans = Arrays.asList(new PipelineRow("a"), new PipelineRow("b"), new PipelineRow("c"));
+
+        MjdbcConfig.setDefaultBatchPipelined(true);
+
+        try {
+            ((QueryRunner) queryRunner).batch("INSERT INTO superheroes VALUES (:name)", beans.iterator(), 1);
+        } finally {
+            MjdbcConfig.setDefaultBatchPipelined(false);
+        }
+
+        verify(preparedStatement, times(3)).executeBatch();
+
+        // first chunk is converted by calling thread, next ones - by daemon pipeline thread
+        Assert.assertEquals(Thread.currentThread(), beans.get(0).readThread);
+
+        Thread pipelineThread = beans.get(1).readThread;
+
+        Assert.assertEquals(false, Thread.currentThread() == pipelineThread);
+        Assert.assertEquals(true, pipelineThread.isDaemon());
+        Assert.assertEquals(pipelineThread, beans.get(2).readThread);
+
+        // pipeline is owned by batch execution and is stopped after it
+        pipelineThread.join(5000);
+        Assert.assertEquals(false, pipelineThread.isAlive());
+    }
+
+    public static class PipelineRow {
+        private final String name;
+        private Thread readThread;
+
+        public PipelineRow(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            this.readThread = Thread.currentThread();
+            return this.name;
+        }
+    }
+
+    @Test
+    public void testBatchChunkedFailure() throws Exception {
+        when(overrider.hasOverride(MjdbcConstants.OVERRIDE_BATCH_CHUNK_SIZE)).thenReturn(true);
+        when(overrider.getOverride(MjdbcConstants.OVERRIDE_BATCH_CHUNK_SIZE)).thenReturn(2);
+        when(preparedStatement.executeBatch()).thenReturn(new int[]{1, 1}).thenThrow(new SQLException("Batch failed"));
+
+        try {
+            queryRunner.batch("bla", new Object[][]{{"a"}, {"b"}, {"c"}, {"d"}, {"e"}});
+            Assert.fail();
+        } catch (SQLException ex) {
+            // expected
+        }
+
+        verify(preparedStatement, times(2)).executeBatch();
+        verify(typeHandler, times(4)).processInput(any(Statement.class), any(QueryParameters.class));
+
+        // resources created for failed chunk are released as well
+        verify(typeHandler, times(4)).afterExecute(any(Statement.class), any(QueryParameters.class), any(QueryParameters.class));
+        verify(transactionHandler, times(1)).rollback();
+        verify(transactionHandler, never()).commit();
+    }
+
+    @Test
+    public void testBatchIterator() throws Exception {
+        when(preparedStatement.executeBatch()).thenReturn(new int[]{1, Statement.SUCCESS_NO_INFO}, new int[]{2});
+
+        long rows = ((QueryRunner) queryRunner).batch("bla", Arrays.asList(new Object[]{"a"}, new Object[]{"b"}, new Object[]{"c"}).iterator(), 2);
+
+        // rows without update count are not counted
+        Assert.assertEquals(3, rows);
+
+        verify(conn, times(1)).prepareStatement("bla");
+        verify(preparedStatement, times(3)).addBatch();
+        verify(preparedStatement, times(2)).executeBatch();
+        verify(transactionHandler, times(1)).commit();
+        verify(transactionHandler, times(1)).closeConnection();
+    }
+
+    @Test
+    public void testBatchIterableMap() throws Exception {
+        Map<String, Object> row = new HashMap<String, Object>();
+        row.put("some", "luck");
+
+        ((QueryRunner) queryRunner).batch(sql, Arrays.asList(row, row, row), 10);
+
+        verify(conn, times(1)).prepareStatement("INSERT ? INTO world");
+        verify(preparedStatement, times(3)).addBatch();
+        verify(preparedStatement, times(1)).executeBatch();
+    }
+
+    @Test
+    public void testBatchIteratorFailure() throws Exception {
+        Iterator<Object[]> rows = new Iterator<Object[]>() {
+            private int index = 0;
+
+            public boolean hasNext() {
+                return true;
+            }
+
+            public Object[] next() {
+                if (index++ < 3) {
+                    return new Object[]{"a"};
+                }
+                throw new IllegalStateException("Source failed");
+            }
+
+            public void remove() {
+            }
+        };
+
+        try {
+            ((QueryRunner) queryRunner).batch("bla", rows, 2);
+            Assert.fail();
+        } catch (SQLException ex) {
+            // expected
+        }
+
+        verify(preparedStatement, times(1)).executeBatch();
+        verify(transactionHandler, times(1)).rollback();
+        verify(transactionHandler, never()).commit();
+        verify(transactionHandler, times(1)).closeConnection();
+    }
+
+    @Test
+    public void testBatchIteratorPipelined() throws Exception {
+        final List<Thread> readThreads = new ArrayList<Thread>();
+        final Iterator<Object[]> source = Arrays.asList(new Object[]{"a"}, new Object[]{"b"}, new Object[]{"c"}).iterator();
+
+        Iterator<Object[]> rows = new Iterator<Object[]>() {
+            public boolean hasNext() {
+                readThreads.add(Thread.currentThread());
+                return source.hasNext();
+            }
+
+            public Object[] next() {
+                readThreads.add(Thread.currentThread());
+                return source.next();
+            }
+
+            public void remove() {
+            }
+        };
+
+        MjdbcConfig.setDefaultBatchPipelined(true);
+
+        try {
+            ((QueryRunner) queryRunner).batch("bla", rows, 1);
+        } finally {
+            MjdbcConfig.setDefaultBatchPipelined(false);
+        }
+
+        verify(preparedStatement, times(3)).executeBatch();
+
+        // source is read only by calling thread
+        for (Thread thread : readThreads) {
+            Assert.assertEquals(Thread.currentThread(), thread);
+        }
+    }
+
+    @Test(expected = java.sql.SQLException.class)
+    public void testBatchIteratorChunkSizeZero() throws Exception {
+        ((QueryRunner) queryRunner).batch("bla", Arrays.asList(new Object[]{"a"}).iterator(), 0);
+    }
+
+    @Test
+    public void testBatchInsertRewrite() throws Exception {
+        when(conn.prepareStatement("INSERT INTO world VALUES (?, ?), (?, ?)")).thenReturn(preparedStatement);
+        PreparedStatement singleRowStatement = mock(PreparedStatement.class);
+        when(conn.prepareStatement("INSERT INTO world VALUES (?, ?)")).thenReturn(singleRowStatement);
+        when(singleRowStatement.executeUpdate()).thenReturn(1);
+        when(preparedStatement.executeUpdate()).thenReturn(2, 1);
+
+        MjdbcConfig.setDefaultBatchInsertRewrite(true);
+        MjdbcConfig.setDefaultBatchInsertParameterLimit(4);
+
+        int[] rows = null;
+
+        try {
+            rows = queryRunner.batch("INSERT INTO world VALUES (?, ?)", new Object[][]{{"a", 1}, {"b", 2}, {"c", 3}, {"d", 4}, {"e", 5}});
+        } finally {
+            MjdbcConfig.setDefaultBatchInsertRewrite(false);
+            MjdbcConfig.setDefaultBatchInsertParameterLimit(1000);
+        }
+
+        // two rows per statement. Statement is reused
+        verify(conn, times(1)).prepareStatement("INSERT INTO world VALUES (?, ?), (?, ?)");
+        verify(preparedStatement, times(2)).executeUpdate();
+        verify(preparedStatement, never()).executeBatch();
+
+        verify(singleRowStatement, times(1)).executeUpdate();
+        verify(singleRowStatement, never()).executeBatch();
+
+        Assert.assertEquals(5, rows.length);
+        Assert.assertEquals(1, rows[1]);
+        Assert.assertEquals(Statement.SUCCESS_NO_INFO, rows[3]);
+        Assert.assertEquals(1, rows[4]);
+    }
+
+    @Test
+    public void testBatchInsertRewriteOverride() throws Exception {
+        when(overrider.hasOverride(MjdbcConstants.OVERRIDE_BATCH_INSERT_REWRITE)).thenReturn(true);
+        when(overrider.getOverride(MjdbcConstants.OVERRIDE_BATCH_INSERT_REWRITE)).thenReturn(true);
+        when(conn.prepareStatement("INSERT INTO world VALUES (?, ?), (?, ?), (?, ?)")).thenReturn(preparedStatement);
+        when(preparedStatement.executeUpdate()).thenReturn(3);
+
+        int[] rows = queryRunner.batch("INSERT INTO world VALUES (?, ?)", new Object[][]{{"a", 1}, {"b", 2}, {"c", 3}});
+
+        // original statement is not prepared, as it is not used
+        verify(conn, never()).prepareStatement("INSERT INTO world VALUES (?, ?)");
+        verify(conn, times(1)).prepareStatement("INSERT INTO world VALUES (?, ?), (?, ?), (?, ?)");
+        verify(preparedStatement, times(1)).executeUpdate();
+        verify(preparedStatement, never()).executeBatch();
+
+        Assert.assertEquals(3, rows.length);
+        Assert.assertEquals(1, rows[2]);
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        MetricsCollector metrics = mock(MetricsCollector.class);
+        when(preparedStatement.executeUpdate()).thenReturn(3);
+        when(statementHandler.wrap(any(Statement.class))).thenReturn(Arrays.asList(new QueryParameters().set(HandlersConstants.STMT_UPDATE_COUNT, 0), new QueryParameters(), new QueryParameters()));
+
+        MjdbcConfig.setMetricsCollector(metrics);
+
+        try {
+            queryRunner.query("SELECT name FROM world", new MapOutputHandler(), "bla");
+            queryRunner.update("UPDATE world SET name = ?", "bla");
+
+            when(preparedStatement.execute()).thenThrow(new SQLException("failed"));
+
+            try {
+                queryRunner.query("SELECT name FROM world", new MapOutputHandler(), "bla");
+                Assert.fail();
+            } catch (SQLException ex) {
+                // expected
+            }
+        } finally {
+            MjdbcConfig.setMetricsCollector(null);
+        }
+
+        verify(metrics, times(3)).connectionAcquired(anyLong());
+        verify(metrics, times(1)).statementExecuted(eq("SELECT name FROM world"), anyLong(), eq(2));
+        verify(metrics, times(1)).statementExecuted(eq("UPDATE world SET name = ?"), anyLong(), eq(3));
+        verify(metrics, times(1)).statementFailed(eq("SELECT name FROM world"), anyLong(), any(SQLException.class));
+    }
+
+    @Test
+    public void testQueryOverriddenWrap() throws Exception {
+        final List<QueryParameters> wrapped = Arrays.asList(new QueryParameters().set(HandlersConstants.STMT_UPDATE_COUNT, 0),
+                new QueryParameters().set("name", "wrapped"));
+
+        ((QueryRunner) queryRunner).setTypeHandler(new EmptyTypeHandler(overrider));
+        ((QueryRunner) queryRunner).setStatementHandler(new BaseStatementHandler(overrider) {
+            @Override
+            public List<QueryParameters> wrap(Statement stmt) throws SQLException {
+                return wrapped;
+            }
+        });
+
+        // output is not streamed as it would skip overridden wrap
+        List<Map<String, Object>> result = queryRunner.query("SELECT name FROM world", new MapListOutputHandler(), "bla");
+
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals("wrapped", result.get(0).get("name"));
+    }
+
+    @Test
+    public void testQueryStreamingDefaultConfig() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+
+        when(statement.getResultSet()).thenReturn(rs);
+        when(rs.getMetaData()).thenReturn(rsmd);
+        when(rsmd.getColumnCount()).thenReturn(1);
+        when(rsmd.getColumnLabel(1)).thenReturn("name");
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getObject(1)).thenReturn("first", "second");
+
+        // statement/type handlers are taken from default configuration
+        QueryRunnerService defaultRunner = MjdbcFactory.getQueryRunner(ds);
+        ((QueryRunner) defaultRunner).setTransactionHandler(transactionHandler);
+
+        MapListOutputHandler handler = spy(new MapListOutputHandler());
+
+        List<Map<String, Object>> result = defaultRunner.query("SELECT name FROM world", handler);
+
+        // rows are passed to output handler one by one
+        verify(handler, times(1)).createRowHandler();
+        verify(handler, never()).handle(any(List.class));
+
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals("first", result.get(0).get("name"));
+        Assert.assertEquals("second", result.get(1).get("name"));
+    }
+
+    @Test
+    public void testFetchSize() throws Exception {
+        queryRunner.query("SELECT name FROM world", new MapOutputHandler(), "bla");
+
+        // driver default is used
+        verify(preparedStatement, never()).setFetchSize(anyInt());
+
+        MjdbcConfig.setDefaultFetchSize(100);
+
+        try {
+            queryRunner.query("SELECT name FROM world", new MapOutputHandler(), "bla");
+            verify(preparedStatement, times(1)).setFetchSize(100);
+
+            when(overrider.hasOverride(MjdbcConstants.OVERRIDE_FETCH_SIZE)).thenReturn(true);
+            when(overrider.getOverride(MjdbcConstants.OVERRIDE_FETCH_SIZE)).thenReturn(500);
+
+            queryRunner.update("UPDATE world SET name = ?", "bla");
+            verify(preparedStatement, times(1)).setFetchSize(500);
+        } finally {
+            MjdbcConfig.setDefaultFetchSize(0);
+        }
+    }
+
+    @Test
+    public void testFetchSizeReset() throws Exception {
+        // statement reused from cache still has fetch size set by previous execution
+        when(preparedStatement.getFetchSize()).thenReturn(500);
+
+        queryRunner.query("SELECT name FROM world", new MapOutputHandler(), "bla");
+
+        verify(preparedStatement, times(1)).setFetchSize(0);
+    }
+
+    @Test
+    public void testQueryStatementCache() throws Exception {
+        when(overrider.hasOverride(MjdbcConstants.OVERRIDE_STATEMENT_CACHE_SIZE)).thenReturn(true);
+        when(overrider.getOverride(MjdbcConstants.OVERRIDE_STATEMENT_CACHE_SIZE)).thenReturn(10);
+        when(transactionHandler.getManualMode()).thenReturn(true);
+
+        queryRunner.query("", new MapOutputHandler(), "bla");
+        queryRunner.query("", new MapOutputHandler(), "bla");
+
+        verify(conn, times(1)).prepareStatement(any(String.class));
+        verify(preparedStatement, times(2)).execute();
+        verify(preparedStatement, never()).close();
+
+        when(conn.isClosed()).thenReturn(true);
+        queryRunner.query("", new MapOutputHandler(), "bla");
+
+        // statements of closed connection are closed
+        verify(preparedStatement, times(1)).close();
+    }
+
+    @Test
+    public void testQueryStatementCacheFailure() throws Exception {
+        when(overrider.hasOverride(MjdbcConstants.OVERRIDE_STATEMENT_CACHE_SIZE)).thenReturn(true);
+        when(overrider.getOverride(MjdbcConstants.OVERRIDE_STATEMENT_CACHE_SIZE)).thenReturn(10);
+        when(transactionHandler.getManualMode()).thenReturn(true);
+        when(preparedStatement.execute()).thenThrow(new SQLException()).thenReturn(true);
+
+        try {
+            queryRunner.query("", new MapOutputHandler(), "bla");
+            Assert.fail();
+        } catch (SQLException ex) {
+            // statement which failed is not returned into cache
+            verify(preparedStatement, times(1)).close();
+        }
+
+        queryRunner.query("", new MapOutputHandler(), "bla");
+
+        verify(conn, times(2)).prepareStatement(any(String.class));
+    }
+
+    @Test
+    public void testQueryStatementCacheAutoMode() throws Exception {
+        when(overrider.hasOverride(MjdbcConstants.OVERRIDE_STATEMENT_CACHE_SIZE)).thenReturn(true);
+        when(overrider.getOverride(MjdbcConstants.OVERRIDE_STATEMENT_CACHE_SIZE)).thenReturn(10);
+
+        queryRunner.query("", new MapOutputHandler(), "bla");
+        queryRunner.query("", new MapOutputHandler(), "bla");
+
+        // connection is released after every execution in automatic mode, so statements are not cached
+        verify(conn, times(2)).prepareStatement(any(String.class));
+        verify(preparedStatement, times(2)).close();
+    }
+
+    @Test
+    public void testQueryStatementCacheConnection() throws Exception {
+        when(overrider.hasOverride(MjdbcConstants.OVERRIDE_STATEMENT_CACHE_SIZE)).thenReturn(true);
+        when(overrider.getOverride(MjdbcConstants.OVERRIDE_STATEMENT_CACHE_SIZE)).thenReturn(10);
+
+        QueryRunnerService connRunner = MjdbcFactory.getQueryRunner(conn);
+        modifyPrivate(connRunner.getClass().getSuperclass().getDeclaredField("overrider"), connRunner, overrider);
+
+        connRunner.query("", new MapOutputHandler(), "bla");
+        connRunner.query("", new MapOutputHandler(), "bla");
+
+        // connection is kept by QueryRunner, so statement is reused
+        verify(conn, times(1)).prepareStatement(any(String.class));
+        verify(preparedStatement, never()).close();
+    }
+
+    @Test
+    public void testQueryStreamLobsOnce() throws Exception {
+        QueryRunnerService streamRunner = MjdbcFactory.getQueryRunner(ds);
+        streamRunner.overrideOnce(MjdbcConstants.OVERRIDE_STREAM_LOBS, true);
+
+        streamRunner.query("", new MapOutputHandler(), "bla");
+
+        // once override is read few times during execution and is removed after it
+        Assert.assertEquals(false, ((QueryRunner) streamRunner).getOverrider().hasOverride(MjdbcConstants.OVERRIDE_STREAM_LOBS));
+    }
+
     @Test(expected = java.sql.SQLException.class)
     public void testQuery1SqlNull() throws Exception {
         queryRunner.query((String) null, new MapOutputHandler());
@@ -381,6 +875,26 @@ public class QueryRunnerTest {
 
     }
 
+    @Test
+    public void testQueryLazySpillToDisk() throws SQLException {
+        ((QueryRunner) queryRunner).setStatementHandler(new LazyStatementHandler(new Overrider()));
+        when(transactionHandler.getManualMode()).thenReturn(true);
+        when(conn.createStatement(anyInt(), anyInt())).thenReturn(statement);
+
+        queryRunner.query("some sql", new MapLazyScrollOutputHandler());
+
+        verify(conn, times(1)).createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+
+        when(overrider.hasOverride(MjdbcConstants.OVERRIDE_LAZY_SPILL_TO_DISK)).thenReturn(true);
+        when(overrider.getOverride(MjdbcConstants.OVERRIDE_LAZY_SPILL_TO_DISK)).thenReturn(true);
+
+        queryRunner.query("some sql", new MapLazyScrollOutputHandler());
+
+        // rows are kept in spill file, so scrollable ResultSet is not requested
+        verify(conn, times(1)).createStatement();
+        verify(conn, times(1)).createStatement(anyInt(), anyInt());
+    }
+
     @Test(expected = MjdbcRuntimeException.class)
     public void testQueryLazyException() throws SQLException {
         ((QueryRunner) queryRunner).setStatementHandler(new LazyStatementHandler(new Overrider()));
@@ -44,6 +44,27 @@ public class ProcessedInputTest {
         Assert.assertEquals(0, processedInput.getSqlParameterValues().size());
     }
 
+    @Test
+    public void testConstructorSharedStructure() {
+        ProcessedInput processedInput = new ProcessedInput("original query");
+
+        processedInput.addParameter("name", 1, 2);
+        processedInput.setSqlParameterValues(Arrays.<Object>asList("batman"));
+
+        ProcessedInput sharedClone = new ProcessedInput(processedInput, true);
+
+        Assert.assertSame(processedInput.getSqlParameterNames(), sharedClone.getSqlParameterNames());
+        Assert.assertEquals(Arrays.<Object>asList("batman"), sharedClone.getSqlParameterValues());
+        Assert.assertNotSame(processedInput.getSqlParameterValues(), sharedClone.getSqlParameterValues());
+
+        // modification copies structure, so other instance isn't affected
+        sharedClone.addParameter("origin", 3, 4);
+        processedInput.addParameter("strength", 3, 4);
+
+        Assert.assertEquals(Arrays.asList("name", "origin"), sharedClone.getSqlParameterNames());
+        Assert.assertEquals(Arrays.asList("name", "strength"), processedInput.getSqlParameterNames());
+    }
+
     @Test
     public void testConstructorProcessedInput() {
         Object[] updatedValues = new Object[]{100, "batman", "earth"};
@@ -28,6 +28,9 @@ import org.midao.jdbc.core.handlers.type.UniversalTypeHandler;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.sql.Blob;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.Statement;
@@ -79,6 +82,115 @@ public class QueryParametersLazyListTest {
         Assert.assertEquals(2, queryParametersLazyList.sizeCached());
     }
 
+    @Test
+    public void testReadAhead() throws Exception {
+        queryParametersLazyList.setReadAheadSize(5);
+
+        Assert.assertEquals("Nightcrawler", queryParametersLazyList.get(1).getValue("name"));
+
+        // all rows were read at once (we receive header as first element)
+        Assert.assertEquals(3, queryParametersLazyList.sizeCached());
+        verify(rs, times(3)).next();
+
+        Assert.assertEquals("Lobo", queryParametersLazyList.get(2).getValue("name"));
+        Assert.assertEquals(null, queryParametersLazyList.get(3));
+        verify(rs, times(3)).next();
+    }
+
+    @Test
+    public void testReadAheadLimitedByCache() throws Exception {
+        queryParametersLazyList.setMaxCacheSize(1);
+        queryParametersLazyList.setReadAheadSize(5);
+
+        // requested row is not evicted by read ahead
+        Assert.assertEquals("Nightcrawler", queryParametersLazyList.get(1).getValue("name"));
+        Assert.assertEquals(2, queryParametersLazyList.sizeCached());
+
+        Assert.assertEquals("Lobo", queryParametersLazyList.get(2).getValue("name"));
+    }
+
+    @Test
+    public void testReadPrevious() throws Exception {
+        queryParametersLazyList.setMaxCacheSize(1);
+
+        Assert.assertEquals("Nightcrawler", queryParametersLazyList.get(1).getValue("name"));
+        Assert.assertEquals("Lobo", queryParametersLazyList.get(2).getValue("name"));
+
+        try {
+            queryParametersLazyList.get(1);
+            fail();
+        } catch (MjdbcRuntimeException ex) {
+            // previous value is not present in cache
+        }
+    }
+
+    @Test
+    public void testSetType() throws Exception {
+        queryParametersLazyList.get(1);
+
+        queryParametersLazyList.setType(QueryParametersLazyList.Type.READ_ONLY_SCROLL);
+
+        Assert.assertEquals(2, queryParametersLazyList.sizeCached());
+        Assert.assertEquals("Nightcrawler", queryParametersLazyList.get(1).getValue("name"));
+    }
+
+    @Test
+    public void testSpillToDisk() throws Exception {
+        queryParametersLazyList.setType(QueryParametersLazyList.Type.READ_ONLY_SCROLL);
+        queryParametersLazyList.setSpillToDisk(true);
+        queryParametersLazyList.setMaxCacheSize(1);
+
+        Assert.assertEquals("Lobo", queryParametersLazyList.get(2).getValue("name"));
+
+        // first row was evicted and is read from spill file
+        Assert.assertEquals("Nightcrawler", queryParametersLazyList.get(1).getValue("name"));
+        Assert.assertEquals("Lobo", queryParametersLazyList.get(2).getValue("name"));
+        Assert.assertEquals(null, queryParametersLazyList.get(3));
+        Assert.assertEquals("Nightcrawler", queryParametersLazyList.get(1).getValue("name"));
+
+        verify(rs, times(3)).next();
+        verify(rs, never()).relative(anyInt());
+        verify(rs, never()).first();
+
+        queryParametersLazyList.close();
+    }
+
+    @Test
+    public void testSpillToDiskStreamLobs() throws Exception {
+        Blob blob = mock(Blob.class);
+        InputStream input = new ByteArrayInputStream("Nightcrawler".getBytes());
+        when(blob.getBinaryStream()).thenReturn(input);
+        when(rs.getObject(1)).thenReturn(blob).thenReturn("Lobo");
+
+        queryParametersLazyList.setType(QueryParametersLazyList.Type.READ_ONLY_SCROLL);
+        queryParametersLazyList.setSpillToDisk(true);
+        queryParametersLazyList.setStreamLobs(true);
+        queryParametersLazyList.setMaxCacheSize(1);
+
+        Assert.assertEquals(input, queryParametersLazyList.get(1).getValue("name"));
+        Assert.assertEquals("Lobo", queryParametersLazyList.get(2).getValue("name"));
+
+        // stream cannot be written into spill file, so evicted row is kept in memory
+        Assert.assertEquals(input, queryParametersLazyList.get(1).getValue("name"));
+        Assert.assertEquals("Lobo", queryParametersLazyList.get(2).getValue("name"));
+
+        queryParametersLazyList.close();
+    }
+
+    @Test
+    public void testStreamLobs() throws Exception {
+        Blob blob = mock(Blob.class);
+        InputStream input = new ByteArrayInputStream("Lobo".getBytes());
+        when(blob.getBinaryStream()).thenReturn(input);
+        when(rs.getObject(1)).thenReturn(blob);
+
+        queryParametersLazyList.setStreamLobs(true);
+
+        // LOB is returned as stream, without reading it into memory
+        Assert.assertEquals(input, queryParametersLazyList.get(1).getValue("name"));
+        verify(blob, never()).getBytes(anyLong(), anyInt());
+    }
+
     @Test
     public void testIsEmpty() throws Exception {
         Assert.assertEquals(false, queryParametersLazyList.isEmpty());
@@ -122,6 +234,9 @@ public class QueryParametersLazyListTest {
         Assert.assertEquals(3, result.length);
         Assert.assertEquals("Nightcrawler", ((QueryParameters) result[1]).getValue("name"));
         Assert.assertEquals("Lobo", ((QueryParameters) result[2]).getValue("name"));
+
+        // metadata should be read once for whole ResultSet
+        verify(rs, times(1)).getMetaData();
     }
 
     @Test(expected = MjdbcRuntimeException.class)
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.model;
+
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ */
+public class QueryParametersRingBufferTest {
+
+    @Test
+    public void testPut() throws Exception {
+        QueryParametersRingBuffer buffer = new QueryParametersRingBuffer(3);
+
+        for (int i = 1; i <= 5; i++) {
+            buffer.put(i, new QueryParameters().set("id", i));
+        }
+
+        Assert.assertEquals(3, buffer.size());
+        Assert.assertEquals(false, buffer.contains(2));
+        Assert.assertEquals(null, buffer.get(2));
+        Assert.assertEquals(3, buffer.get(3).getValue("id"));
+        Assert.assertEquals(5, buffer.get(5).getValue("id"));
+        Assert.assertEquals(false, buffer.contains(6));
+
+        // replacing existing value
+        buffer.put(4, new QueryParameters().set("id", 40));
+        Assert.assertEquals(40, buffer.get(4).getValue("id"));
+        Assert.assertEquals(3, buffer.size());
+    }
+
+    @Test
+    public void testPutNotNext() throws Exception {
+        QueryParametersRingBuffer buffer = new QueryParametersRingBuffer(3);
+
+        buffer.put(1, new QueryParameters().set("id", 1));
+        buffer.put(2, new QueryParameters().set("id", 2));
+        buffer.put(10, new QueryParameters().set("id", 10));
+
+        Assert.assertEquals(1, buffer.size());
+        Assert.assertEquals(false, buffer.contains(1));
+        Assert.assertEquals(10, buffer.get(10).getValue("id"));
+    }
+
+    @Test
+    public void testUnlimited() throws Exception {
+        QueryParametersRingBuffer buffer = new QueryParametersRingBuffer(-1);
+
+        for (int i = 1; i <= 100; i++) {
+            buffer.put(i, new QueryParameters().set("id", i));
+        }
+
+        Assert.assertEquals(100, buffer.size());
+
+        for (int i = 1; i <= 100; i++) {
+            Assert.assertEquals(i, buffer.get(i).getValue("id"));
+        }
+    }
+
+    @Test
+    public void testSetMaxSize() throws Exception {
+        QueryParametersRingBuffer buffer = new QueryParametersRingBuffer(20);
+
+        for (int i = 1; i <= 30; i++) {
+            buffer.put(i, new QueryParameters().set("id", i));
+        }
+
+        Assert.assertEquals(20, buffer.size());
+
+        buffer.setMaxSize(5);
+
+        Assert.assertEquals(5, buffer.size());
+        Assert.assertEquals(false, buffer.contains(25));
+        Assert.assertEquals(26, buffer.get(26).getValue("id"));
+
+        buffer.setMaxSize(50);
+
+        for (int i = 31; i <= 60; i++) {
+            buffer.put(i, new QueryParameters().set("id", i));
+        }
+
+        Assert.assertEquals(35, buffer.size());
+        Assert.assertEquals(26, buffer.get(26).getValue("id"));
+        Assert.assertEquals(60, buffer.get(60).getValue("id"));
+    }
+
+    @Test
+    public void testValues() throws Exception {
+        QueryParametersRingBuffer buffer = new QueryParametersRingBuffer(3);
+
+        for (int i = 1; i <= 4; i++) {
+            buffer.put(i, new QueryParameters().set("id", i));
+        }
+
+        List<QueryParameters> values = buffer.values();
+
+        Assert.assertEquals(3, values.size());
+        Assert.assertEquals(2, values.get(0).getValue("id"));
+        Assert.assertEquals(4, values.get(2).getValue("id"));
+
+        buffer.clear();
+
+        Assert.assertEquals(0, buffer.size());
+        Assert.assertEquals(0, buffer.values().size());
+        Assert.assertEquals(false, buffer.contains(4));
+    }
+}
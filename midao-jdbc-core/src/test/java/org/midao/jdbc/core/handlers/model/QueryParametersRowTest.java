@@ -0,0 +1,139 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.model;
+
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.midao.jdbc.core.MjdbcTypes;
+
+import java.util.Arrays;
+
+/**
+ */
+public class QueryParametersRowTest {
+    QueryParametersRowIndex index;
+    QueryParametersRow row;
+
+    @Before
+    public void setUp() throws Exception {
+        index = new QueryParametersRowIndex(new String[]{"NAME", "origin", "strength"});
+        row = new QueryParametersRow(index, new Object[]{"superman", "krypton", 100});
+    }
+
+    @Test
+    public void testGet() {
+        Assert.assertEquals("superman", row.getValue("name"));
+        Assert.assertEquals("superman", row.getValue("Name"));
+        Assert.assertEquals("krypton", row.getValue("ORIGIN"));
+        Assert.assertEquals(100, row.getValue("strength"));
+        Assert.assertEquals(null, row.getValue("power"));
+
+        Assert.assertEquals(MjdbcTypes.OTHER, row.getType("name").intValue());
+        Assert.assertEquals(QueryParameters.Direction.IN, row.getDirection("name"));
+        Assert.assertEquals(null, row.getType("power"));
+
+        Assert.assertEquals("name", row.getNameByPosition(0));
+        Assert.assertEquals(1, row.getFirstPosition("origin").intValue());
+        Assert.assertEquals(true, row.containsKey("NAME"));
+        Assert.assertEquals(false, row.containsKey("power"));
+
+        Assert.assertEquals(3, row.size());
+        Assert.assertEquals(3, row.orderSize());
+        Assert.assertEquals(true, row.isOrderSet());
+        Assert.assertEquals(Arrays.asList("superman", "krypton", 100), Arrays.asList(row.getValuesArray()));
+        Assert.assertEquals(new QueryParameters(row).toMap(), row.toMap());
+    }
+
+    @Test
+    public void testUpdateValue() {
+        row.updateValue("Name", "batman");
+        row.updateType("name", MjdbcTypes.OTHER);
+        row.updateDirection("name", QueryParameters.Direction.IN);
+        row.updatePosition("name", 0);
+
+        Assert.assertEquals("batman", row.getValue("name"));
+
+        // row values shouldn't be shared between rows
+        Assert.assertEquals("superman", new QueryParametersRow(index, new Object[]{"superman", "krypton", 100}).getValue("name"));
+    }
+
+    @Test
+    public void testSet() {
+        row.set("power", "flight");
+
+        Assert.assertEquals("flight", row.getValue("power"));
+        Assert.assertEquals("superman", row.getValue("name"));
+        Assert.assertEquals(4, row.size());
+        Assert.assertEquals(3, row.getFirstPosition("power").intValue());
+
+        row.updateType("name", MjdbcTypes.VARCHAR);
+
+        Assert.assertEquals(MjdbcTypes.VARCHAR, row.getType("name").intValue());
+    }
+
+    @Test
+    public void testUpdateType() {
+        row.updateType("name", MjdbcTypes.VARCHAR);
+
+        Assert.assertEquals(MjdbcTypes.VARCHAR, row.getType("name").intValue());
+        Assert.assertEquals(MjdbcTypes.OTHER, row.getType("origin").intValue());
+        Assert.assertEquals("superman", row.getValue("name"));
+    }
+
+    @Test
+    public void testRemove() {
+        row.remove("origin");
+
+        Assert.assertEquals(false, row.containsKey("origin"));
+        Assert.assertEquals(2, row.size());
+        Assert.assertEquals(2, row.orderSize());
+        Assert.assertEquals("strength", row.getNameByPosition(1));
+    }
+
+    @Test
+    public void testCaseSensitive() {
+        row.setCaseSensitive(false);
+        Assert.assertEquals(false, row.isCaseSensitive());
+
+        row.setCaseSensitive(true);
+        Assert.assertEquals(true, row.isCaseSensitive());
+        Assert.assertEquals("superman", row.getValue("name"));
+        Assert.assertEquals(null, row.getValue("NAME"));
+    }
+
+    @Test
+    public void testDuplicateColumns() {
+        QueryParametersRow duplicateRow = new QueryParametersRow(
+                new QueryParametersRowIndex(new String[]{"id", "name", "ID"}), new Object[]{1, "superman", 2});
+
+        Assert.assertEquals(2, duplicateRow.getValue("id"));
+        Assert.assertEquals(2, duplicateRow.size());
+        Assert.assertEquals(3, duplicateRow.orderSize());
+        Assert.assertEquals(false, duplicateRow.isOrderSet());
+        Assert.assertEquals(Arrays.asList(0, 2), duplicateRow.getOrderList("id"));
+        Assert.assertEquals(false, duplicateRow.usedOnce("id"));
+        Assert.assertEquals(true, duplicateRow.usedOnce("name"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncorrectLength() {
+        new QueryParametersRow(index, new Object[]{"superman"});
+    }
+}
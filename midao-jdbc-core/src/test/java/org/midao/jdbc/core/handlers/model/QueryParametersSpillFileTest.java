@@ -0,0 +1,152 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.model;
+
+import junit.framework.Assert;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ */
+public class QueryParametersSpillFileTest {
+    QueryParametersSpillFile spillFile;
+
+    @Before
+    public void setUp() throws Exception {
+        spillFile = new QueryParametersSpillFile();
+    }
+
+    @After
+    public void tearDown() {
+        spillFile.close();
+    }
+
+    @Test
+    public void testAppendRead() throws Exception {
+        Timestamp timestamp = new Timestamp(1000000L);
+        timestamp.setNanos(123456789);
+
+        QueryParameters params = new QueryParameters();
+        params.set("string", "Nightcrawler");
+        params.set("integer", 5);
+        params.set("long", 6L);
+        params.set("short", (short) 7);
+        params.set("byte", (byte) 8);
+        params.set("double", 9.5d);
+        params.set("float", 10.5f);
+        params.set("boolean", true);
+        params.set("bigDecimal", new BigDecimal("12345.6789"));
+        params.set("bigInteger", new BigInteger("123456789012345678901234567890"));
+        params.set("sqlDate", new java.sql.Date(1000L));
+        params.set("sqlTime", new Time(2000L));
+        params.set("sqlTimestamp", timestamp);
+        params.set("date", new java.util.Date(3000L));
+        params.set("bytes", new byte[]{1, 2, 3});
+        params.set("serialized", Locale.ENGLISH);
+        params.set("null", null);
+
+        spillFile.append(params);
+
+        QueryParameters result = spillFile.read(0);
+
+        Assert.assertEquals(params.size(), result.size());
+
+        for (String key : params.keySet()) {
+            if (params.getValue(key) instanceof byte[]) {
+                Assert.assertEquals(true, Arrays.equals((byte[]) params.getValue(key), (byte[]) result.getValue(key)));
+            } else {
+                Assert.assertEquals(params.getValue(key), result.getValue(key));
+            }
+        }
+
+        Assert.assertEquals(123456789, ((Timestamp) result.getValue("sqlTimestamp")).getNanos());
+    }
+
+    @Test
+    public void testAppendDuplicateColumns() throws Exception {
+        QueryParametersRowIndex index = new QueryParametersRowIndex(new String[]{"id", "name", "id"});
+
+        Assert.assertEquals(true, spillFile.append(new QueryParametersRow(index, new Object[]{1, "Nightcrawler", 2})));
+
+        QueryParametersRow result = (QueryParametersRow) spillFile.read(0);
+
+        // every column is kept, even if column name is used few times
+        Assert.assertEquals(3, result.orderSize());
+        Assert.assertEquals(1, result.getColumnValue(0));
+        Assert.assertEquals("Nightcrawler", result.getColumnValue(1));
+        Assert.assertEquals(2, result.getColumnValue(2));
+        Assert.assertEquals(2, result.getValue("id"));
+    }
+
+    @Test
+    public void testAppendNotSerializable() throws Exception {
+        QueryParameters stream = new QueryParameters();
+        stream.set("name", new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        QueryParameters params = new QueryParameters();
+        params.set("name", "Lobo");
+
+        Assert.assertEquals(false, spillFile.append(stream));
+        Assert.assertEquals(true, spillFile.append(params));
+
+        // row number is kept for row which wasn't written
+        Assert.assertEquals(2, spillFile.size());
+        Assert.assertEquals(null, spillFile.read(0));
+        Assert.assertEquals("Lobo", spillFile.read(1).getValue("name"));
+    }
+
+    @Test
+    public void testCloseTwice() throws Exception {
+        spillFile.close();
+        spillFile.close();
+    }
+
+    @Test
+    public void testRandomAccess() throws Exception {
+        for (int i = 0; i < 3000; i++) {
+            QueryParameters params = new QueryParameters();
+
+            // different column set for every 1000 rows
+            params.set("name" + (i / 1000), "row" + i);
+            params.set("id", i);
+
+            spillFile.append(params);
+        }
+
+        Assert.assertEquals(3000, spillFile.size());
+        Assert.assertEquals(true, spillFile.length() > 0);
+
+        Assert.assertEquals("row2999", spillFile.read(2999).getValue("name2"));
+        Assert.assertEquals(0, spillFile.read(0).getValue("id"));
+        Assert.assertEquals("row1500", spillFile.read(1500).getValue("name1"));
+        Assert.assertEquals(null, spillFile.read(1500).getValue("name0"));
+
+        Assert.assertEquals(null, spillFile.read(3000));
+        Assert.assertEquals(null, spillFile.read(-1));
+    }
+}
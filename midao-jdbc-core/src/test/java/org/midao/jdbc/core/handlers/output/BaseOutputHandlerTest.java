@@ -18,6 +18,7 @@
 
 package org.midao.jdbc.core.handlers.output;
 
+import org.midao.jdbc.core.exception.MjdbcException;
 import org.midao.jdbc.core.handlers.model.QueryParameters;
 
 import java.util.ArrayList;
@@ -50,6 +51,21 @@ public class BaseOutputHandlerTest {
         zoe.setOccupation("child");
     }
 
+    /**
+     * Passes rows (header is skipped) to row handler the same way as {@link org.midao.jdbc.core.statement.StreamingStatementHandler} does
+     */
+    protected <T> T handleRows(StreamingOutputHandler<T> handler, List<QueryParameters> outputList) throws MjdbcException {
+        OutputRowHandler<T> rowHandler = handler.createRowHandler();
+
+        for (int i = 1; i < outputList.size(); i++) {
+            if (rowHandler.handleRow(outputList.get(i)) == false) {
+                break;
+            }
+        }
+
+        return rowHandler.getResult();
+    }
+
     public static class Character {
         private String name;
         private String occupation;
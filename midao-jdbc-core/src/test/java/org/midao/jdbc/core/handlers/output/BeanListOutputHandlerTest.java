@@ -42,6 +42,15 @@ public class BeanListOutputHandlerTest extends BaseOutputHandlerTest {
         Assert.assertArrayEquals(new Object[]{"alison", "agent", 30}, new Object[]{result.get(2).getName(), result.get(2).getOccupation(), result.get(2).getAge()});
     }
 
+    @Test
+    public void testHandleRows() throws MjdbcException {
+        List<Character> result = handleRows(new BeanListOutputHandler<Character>(Character.class), paramsList);
+
+        Assert.assertEquals(3, result.size());
+        Assert.assertArrayEquals(new Object[]{"jack", "sheriff", 36}, new Object[]{result.get(0).getName(), result.get(0).getOccupation(), result.get(0).getAge()});
+        Assert.assertArrayEquals(new Object[]{"alison", "agent", 30}, new Object[]{result.get(2).getName(), result.get(2).getOccupation(), result.get(2).getAge()});
+    }
+
     @Test
     public void testEmpty() throws MjdbcException {
         List<Character> result = new BeanListOutputHandler<Character>(Character.class).handle(emptyList);
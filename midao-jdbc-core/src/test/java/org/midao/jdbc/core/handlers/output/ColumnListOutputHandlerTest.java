@@ -41,6 +41,14 @@ public class ColumnListOutputHandlerTest extends BaseOutputHandlerTest {
         Assert.assertArrayEquals(new Object[]{"jack", "henry", "alison"}, result.toArray());
     }
 
+    @Test
+    public void testHandleRows() throws Exception {
+        List<String> result = handleRows(new ColumnListOutputHandler<String>("occupation"), paramsList);
+
+        Assert.assertArrayEquals(new Object[]{"sheriff", "mechanic", "agent"}, result.toArray());
+        Assert.assertEquals(0, handleRows(new ColumnListOutputHandler<String>(), emptyList).size());
+    }
+
     @Test
     public void testEmpty() throws MjdbcException {
         List<String> result = new ColumnListOutputHandler<String>().handle(emptyList);
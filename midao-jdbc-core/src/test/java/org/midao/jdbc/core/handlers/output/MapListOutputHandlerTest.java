@@ -48,6 +48,15 @@ public class MapListOutputHandlerTest extends BaseOutputHandlerTest {
                 new Object[]{result.get(2).get("name"), result.get(2).get("occupation"), result.get(2).get("age")});
     }
 
+    @Test
+    public void testHandleRows() throws Exception {
+        List<Map<String, Object>> result = handleRows(new MapListOutputHandler(), paramsList);
+
+        Assert.assertEquals(3, result.size());
+        org.junit.Assert.assertArrayEquals(new Object[]{"henry", "mechanic", 36},
+                new Object[]{result.get(1).get("name"), result.get(1).get("occupation"), result.get(1).get("age")});
+    }
+
     @Test
     public void testEmpty() throws MjdbcException {
         MapListOutputHandler handler = new MapListOutputHandler();
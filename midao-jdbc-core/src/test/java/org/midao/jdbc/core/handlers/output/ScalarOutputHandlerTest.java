@@ -39,6 +39,14 @@ public class ScalarOutputHandlerTest extends BaseOutputHandlerTest {
         Assert.assertEquals("jack", result);
     }
 
+    @Test
+    public void testHandleRows() throws Exception {
+        Assert.assertEquals("jack", handleRows(new ScalarOutputHandler<String>(), paramsList));
+        Assert.assertEquals("sheriff", handleRows(new ScalarOutputHandler<String>(1), paramsList));
+        Assert.assertEquals(36, handleRows(new ScalarOutputHandler<Integer>("age"), paramsList).intValue());
+        Assert.assertEquals(null, handleRows(new ScalarOutputHandler<String>(), emptyList));
+    }
+
     @Test
     public void testEmpty() {
         ScalarOutputHandler<String> handler = new ScalarOutputHandler<String>();
@@ -18,8 +18,17 @@
 
 package org.midao.jdbc.core.handlers.output.lazy;
 
+import org.junit.Assert;
 import org.junit.Test;
+import org.midao.jdbc.core.handlers.model.QueryParameters;
 import org.midao.jdbc.core.handlers.model.QueryParametersLazyList;
+import org.midao.jdbc.core.processor.BasicQueryOutputProcessor;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  */
@@ -58,4 +67,19 @@ public class BeanLazyOutputHandlerTest extends BaseLazyOutputHandlerTest {
     public void testEmpty() throws Exception {
         innerTestEmpty(new BeanLazyOutputHandler<Character>(Character.class).handle(new QueryParametersLazyList(stmt, typeHandler, false)));
     }
+
+    @Test
+    public void testProcessorToBean() throws Exception {
+        BasicQueryOutputProcessor processor = spy(new BasicQueryOutputProcessor());
+
+        innerTestGetPrepare();
+        BeanLazyOutputHandler<Character> handler = new BeanLazyOutputHandler<Character>(Character.class, processor).handle(new QueryParametersLazyList(stmt, typeHandler, false));
+
+        Assert.assertEquals("Nightcrawler", handler.getNext().getName());
+        Assert.assertEquals("Nightcrawler", handler.getCurrent().getName());
+        Assert.assertEquals("Lobo", handler.getNext().getName());
+
+        // overridden toBean should be used for every row
+        verify(processor, times(3)).toBean(any(QueryParameters.class), eq(Character.class));
+    }
 }
@@ -18,20 +18,21 @@
 
 package org.midao.jdbc.core.handlers.type;
 
+import junit.framework.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.midao.jdbc.core.MjdbcConstants;
 import org.midao.jdbc.core.MjdbcTypes;
 import org.midao.jdbc.core.Overrider;
 import org.midao.jdbc.core.exception.MjdbcException;
+import org.midao.jdbc.core.handlers.model.LobStream;
 import org.midao.jdbc.core.handlers.model.QueryParameters;
 import org.midao.jdbc.core.handlers.utils.MappingUtils;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.*;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -154,6 +155,104 @@ public class BaseTypeHandlerTest {
         //Assert.assertEquals("Lobo", new String((byte[]) result.getValue("stream")));
     }
 
+    @Test
+    public void testProcessInputStreamLobs() throws Exception {
+        Overrider overrider = new Overrider();
+        overrider.override(MjdbcConstants.OVERRIDE_STREAM_LOBS, true);
+
+        QueryParameters streamParams = new QueryParameters();
+        streamParams.set("blob_stream", input, MjdbcTypes.BLOB);
+        streamParams.set("clob_reader", new StringReader("Wolverine"), MjdbcTypes.CLOB);
+        streamParams.set("sqlXml_reader", new StringReader("Magneto"), MjdbcTypes.SQLXML);
+
+        QueryParameters result = new BaseTypeHandler(overrider).processInput(stmt, streamParams);
+
+        MappingUtils.invokeFunction(verify(conn, never()), "createBlob", new Class[]{}, new Object[]{});
+        MappingUtils.invokeFunction(verify(conn, never()), "createClob", new Class[]{}, new Object[]{});
+        MappingUtils.invokeFunction(verify(conn, never()), "createSQLXML", new Class[]{}, new Object[]{});
+        verify(input, never()).read(any(byte[].class));
+        verify(input, never()).read(any(byte[].class), any(int.class), any(int.class));
+
+        Assert.assertEquals(input, result.getValue("blob_stream"));
+        Assert.assertEquals(MjdbcTypes.VARBINARY, result.getType("blob_stream").intValue());
+        Assert.assertEquals(true, result.getValue("clob_reader") instanceof Reader);
+        Assert.assertEquals(MjdbcTypes.VARCHAR, result.getType("clob_reader").intValue());
+        Assert.assertEquals(true, result.getValue("sqlXml_reader") instanceof Reader);
+        Assert.assertEquals(MjdbcTypes.VARCHAR, result.getType("sqlXml_reader").intValue());
+    }
+
+    @Test
+    public void testProcessInputStreamLobsLength() throws Exception {
+        Overrider overrider = new Overrider();
+        overrider.override(MjdbcConstants.OVERRIDE_STREAM_LOBS, true);
+        overrider.override(MjdbcConstants.OVERRIDE_INT_JDBC3, true);
+
+        QueryParameters streamParams = new QueryParameters();
+        streamParams.set("blob_byte", "Batman".getBytes(), MjdbcTypes.BLOB);
+        streamParams.set("clob_string", "Wolverine", MjdbcTypes.CLOB);
+
+        QueryParameters result = new BaseTypeHandler(overrider).processInput(stmt, streamParams);
+
+        // length is known, so values are streamed even for JDBC3 Drivers
+        MappingUtils.invokeFunction(verify(conn, never()), "createBlob", new Class[]{}, new Object[]{});
+        MappingUtils.invokeFunction(verify(conn, never()), "createClob", new Class[]{}, new Object[]{});
+
+        Assert.assertEquals(true, ((LobStream) result.getValue("blob_byte")).isBinary());
+        Assert.assertEquals(6, ((LobStream) result.getValue("blob_byte")).getLength());
+        Assert.assertEquals(MjdbcTypes.VARBINARY, result.getType("blob_byte").intValue());
+        Assert.assertEquals(false, ((LobStream) result.getValue("clob_string")).isBinary());
+        Assert.assertEquals(9, ((LobStream) result.getValue("clob_string")).getLength());
+        Assert.assertEquals(MjdbcTypes.VARCHAR, result.getType("clob_string").intValue());
+    }
+
+    @Test
+    public void testProcessInputStreamLobsCharset() throws Exception {
+        Overrider overrider = new Overrider();
+        overrider.override(MjdbcConstants.OVERRIDE_STREAM_LOBS, true);
+
+        QueryParameters streamParams = new QueryParameters();
+        streamParams.set("clob_stream", input, MjdbcTypes.CLOB);
+
+        QueryParameters result = new BaseTypeHandler(overrider).processInput(stmt, streamParams);
+
+        // charset of InputStream is unknown, so it is not converted into Reader
+        MappingUtils.invokeFunction(verify(conn, times(1)), "createClob", new Class[]{}, new Object[]{});
+
+        Assert.assertEquals(clob, result.getValue("clob_stream"));
+        Assert.assertEquals(MjdbcTypes.CLOB, result.getType("clob_stream").intValue());
+    }
+
+    @Test
+    public void testProcessInputStreamLobsInOut() throws Exception {
+        Overrider overrider = new Overrider();
+        overrider.override(MjdbcConstants.OVERRIDE_STREAM_LOBS, true);
+
+        QueryParameters streamParams = new QueryParameters();
+        streamParams.set("blob_stream", input, MjdbcTypes.BLOB, QueryParameters.Direction.INOUT);
+
+        QueryParameters result = new BaseTypeHandler(overrider).processInput(stmt, streamParams);
+
+        MappingUtils.invokeFunction(verify(conn, times(1)), "createBlob", new Class[]{}, new Object[]{});
+
+        Assert.assertEquals(blob, result.getValue("blob_stream"));
+        Assert.assertEquals(MjdbcTypes.BLOB, result.getType("blob_stream").intValue());
+    }
+
+    @Test
+    public void testProcessOutputStreamLobs() throws Exception {
+        Overrider overrider = new Overrider();
+        overrider.override(MjdbcConstants.OVERRIDE_STREAM_LOBS, true);
+
+        QueryParameters result = new BaseTypeHandler(overrider).processOutput(stmt, params);
+
+        // statement might be closed after output is processed, so LOBs are still read into memory
+        MappingUtils.invokeFunction(verify(blob, times(1)), "free", new Class[]{}, new Object[]{});
+        MappingUtils.invokeFunction(verify(clob, times(1)), "free", new Class[]{}, new Object[]{});
+
+        Assert.assertEquals(true, result.getValue("blob") instanceof byte[]);
+        Assert.assertEquals(true, result.getValue("clob") instanceof String);
+    }
+
     @Test
     public void testProcessOutputList() throws Exception {
         List<QueryParameters> paramsList = new ArrayList<QueryParameters>();
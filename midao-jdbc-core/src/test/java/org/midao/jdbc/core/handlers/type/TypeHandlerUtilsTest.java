@@ -22,8 +22,10 @@ import junit.framework.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.midao.jdbc.core.MjdbcConstants;
+import org.midao.jdbc.core.MjdbcTypes;
 import org.midao.jdbc.core.Overrider;
 import org.midao.jdbc.core.exception.MjdbcException;
+import org.midao.jdbc.core.handlers.model.QueryParameters;
 import org.midao.jdbc.core.handlers.utils.MappingUtils;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -440,6 +442,58 @@ public class TypeHandlerUtilsTest {
         Assert.assertEquals(false, TypeHandlerUtils.isJDBC3(overrider));
     }
 
+    @Test
+    public void testIsStreamLobsOnce() {
+        Overrider overrider = new Overrider();
+        overrider.overrideOnce(MjdbcConstants.OVERRIDE_STREAM_LOBS, true);
+
+        // value is read few times during execution, so once override is not removed
+        Assert.assertEquals(true, TypeHandlerUtils.isStreamLobs(overrider));
+        Assert.assertEquals(true, TypeHandlerUtils.isStreamLobs(overrider));
+    }
+
+    @Test
+    public void testConvertResultSetLobsToStreams() throws Exception {
+        Reader reader = new StringReader("Wolverine");
+        when(blob.getBinaryStream()).thenReturn(input);
+        when(clob.getCharacterStream()).thenReturn(reader);
+
+        QueryParameters row = new QueryParameters();
+        row.set("blob", blob);
+        row.set("clob", clob);
+        row.set("name", "Logan");
+
+        QueryParameters result = TypeHandlerUtils.convertResultSetLobsToStreams(row);
+
+        MappingUtils.invokeFunction(verify(blob, never()), "free", new Class[]{}, new Object[]{});
+        MappingUtils.invokeFunction(verify(clob, never()), "free", new Class[]{}, new Object[]{});
+
+        Assert.assertEquals(input, result.getValue("blob"));
+        Assert.assertEquals(reader, result.getValue("clob"));
+        Assert.assertEquals("Logan", result.getValue("name"));
+    }
+
+    @Test
+    public void testConvertLobsToStreams() throws Exception {
+        Reader reader = new StringReader("Wolverine");
+        when(blob.getBinaryStream()).thenReturn(input);
+        when(clob.getCharacterStream()).thenReturn(reader);
+
+        QueryParameters params = new QueryParameters();
+        params.set("blob", blob, MjdbcTypes.BLOB);
+        params.set("clob", clob, MjdbcTypes.CLOB);
+        params.set("other", blob);
+
+        QueryParameters result = TypeHandlerUtils.convertLobsToStreams(params);
+
+        MappingUtils.invokeFunction(verify(blob, never()), "free", new Class[]{}, new Object[]{});
+        MappingUtils.invokeFunction(verify(clob, never()), "free", new Class[]{}, new Object[]{});
+
+        Assert.assertEquals(input, result.getValue("blob"));
+        Assert.assertEquals(reader, result.getValue("clob"));
+        Assert.assertEquals(blob, result.getValue("other"));
+    }
+
     @Test
     public void testCopy() throws Exception {
         String data = "rar";
@@ -123,6 +123,46 @@ public class UniversalTypeHandlerTest {
         Assert.assertEquals(true, result.getValue("stream") instanceof InputStream);
     }
 
+    @Test
+    public void testProcessInputStreamLobs() throws Exception {
+        Overrider overrider = new Overrider();
+        overrider.override(MjdbcConstants.OVERRIDE_STREAM_LOBS, true);
+
+        QueryParameters streamParams = new QueryParameters();
+        streamParams.set("blob_stream", input, MjdbcTypes.BLOB);
+        streamParams.set("clob_stream", new ByteArrayInputStream("Wolverine".getBytes()), MjdbcTypes.CLOB);
+        streamParams.set("sqlXml_stream", new ByteArrayInputStream("Magneto".getBytes()), MjdbcTypes.SQLXML);
+
+        QueryParameters result = new UniversalTypeHandler(overrider).processInput(stmt, streamParams);
+
+        verify(input, never()).read(any(byte[].class));
+        verify(input, never()).read(any(byte[].class), any(int.class), any(int.class));
+
+        Assert.assertEquals(input, result.getValue("blob_stream"));
+        Assert.assertEquals(MjdbcTypes.VARBINARY, result.getType("blob_stream").intValue());
+
+        // charset of InputStream is unknown, so it is not converted into Reader
+        Assert.assertEquals("Wolverine", result.getValue("clob_stream"));
+        Assert.assertEquals(MjdbcTypes.VARCHAR, result.getType("clob_stream").intValue());
+        Assert.assertEquals("Magneto", result.getValue("sqlXml_stream"));
+        Assert.assertEquals(MjdbcTypes.VARCHAR, result.getType("sqlXml_stream").intValue());
+    }
+
+    @Test
+    public void testProcessInputStreamLobsJDBC3() throws Exception {
+        Overrider overrider = new Overrider();
+        overrider.override(MjdbcConstants.OVERRIDE_STREAM_LOBS, true);
+        overrider.override(MjdbcConstants.OVERRIDE_INT_JDBC3, true);
+
+        QueryParameters streamParams = new QueryParameters();
+        streamParams.set("blob_stream", input, MjdbcTypes.BLOB);
+
+        QueryParameters result = new UniversalTypeHandler(overrider).processInput(stmt, streamParams);
+
+        // JDBC3 Drivers do not support stream binding without length
+        Assert.assertEquals(true, result.getValue("blob_stream") instanceof byte[]);
+    }
+
     @Test
     public void testProcessInputJDBC3() throws Exception {
         Overrider overrider = new Overrider();
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.utils;
+
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+/**
+ */
+public class GeneratedBeanAccessorFactoryTest {
+    private final BeanAccessorFactory factory = new GeneratedBeanAccessorFactory();
+
+    @Test
+    public void testGetBeanAccessor() throws Exception {
+        BeanAccessor accessor = factory.getBeanAccessor(Pet.class);
+
+        Assert.assertEquals(Pet.class, accessor.getType());
+        Assert.assertSame(accessor, factory.getBeanAccessor(Pet.class));
+    }
+
+    @Test
+    public void testGenerated() throws Exception {
+        GeneratedBeanAccessorFactory.GeneratedBeanAccessor accessor =
+                (GeneratedBeanAccessorFactory.GeneratedBeanAccessor) factory.getBeanAccessor(Pet.class);
+
+        for (String property : new String[]{"age", "name", "weight", "vaccinated", "tags", "owner", "chipId"}) {
+            Assert.assertNotNull(accessor.generatedGetters[accessor.getPropertyIndex(property)]);
+            Assert.assertNotNull(accessor.generatedSetters[accessor.getPropertyIndex(property)]);
+        }
+
+        // getClass is invoked via generated getter, but there is no setter
+        Assert.assertNotNull(accessor.generatedGetters[accessor.getPropertyIndex("class")]);
+        Assert.assertNull(accessor.generatedSetters[accessor.getPropertyIndex("class")]);
+    }
+
+    @Test
+    public void testGetSetValue() throws Exception {
+        BeanAccessor accessor = factory.getBeanAccessor(Pet.class);
+        Pet pet = new Pet();
+        Object owner = new Object();
+
+        accessor.setValue(pet, accessor.getPropertyIndex("age"), 5);
+        accessor.setValue(pet, accessor.getPropertyIndex("name"), "whiskers");
+        accessor.setValue(pet, accessor.getPropertyIndex("weight"), 4.5d);
+        accessor.setValue(pet, accessor.getPropertyIndex("vaccinated"), true);
+        accessor.setValue(pet, accessor.getPropertyIndex("tags"), new String[]{"cat"});
+        accessor.setValue(pet, accessor.getPropertyIndex("owner"), owner);
+        accessor.setValue(pet, accessor.getPropertyIndex("chipId"), 42L);
+
+        Assert.assertEquals(5, pet.getAge());
+        Assert.assertEquals("whiskers", pet.getName());
+        Assert.assertEquals(4.5d, pet.getWeight());
+        Assert.assertEquals(true, pet.isVaccinated());
+        Assert.assertEquals("cat", pet.getTags()[0]);
+        Assert.assertSame(owner, pet.getOwner());
+        Assert.assertEquals(Long.valueOf(42L), pet.getChipId());
+
+        Assert.assertEquals(5, accessor.getValue(pet, accessor.getPropertyIndex("age")));
+        Assert.assertEquals("whiskers", accessor.getValue(pet, accessor.getPropertyIndex("name")));
+        Assert.assertEquals(4.5d, accessor.getValue(pet, accessor.getPropertyIndex("weight")));
+        Assert.assertEquals(true, accessor.getValue(pet, accessor.getPropertyIndex("vaccinated")));
+        Assert.assertEquals("cat", ((String[]) accessor.getValue(pet, accessor.getPropertyIndex("tags")))[0]);
+        Assert.assertSame(owner, accessor.getValue(pet, accessor.getPropertyIndex("owner")));
+        Assert.assertEquals(42L, accessor.getValue(pet, accessor.getPropertyIndex("chipId")));
+        Assert.assertEquals(Pet.class, accessor.getValue(pet, accessor.getPropertyIndex("class")));
+
+        accessor.setValue(pet, accessor.getPropertyIndex("name"), null);
+        Assert.assertNull(pet.getName());
+    }
+
+    @Test
+    public void testSetValueWidening() throws Exception {
+        BeanAccessor accessor = factory.getBeanAccessor(Pet.class);
+        Pet pet = new Pet();
+
+        // same as reflection: primitive widening is allowed
+        accessor.setValue(pet, accessor.getPropertyIndex("weight"), 4);
+
+        Assert.assertEquals(4.0d, pet.getWeight());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSetValueWrongType() throws Exception {
+        BeanAccessor accessor = factory.getBeanAccessor(Pet.class);
+
+        accessor.setValue(new Pet(), accessor.getPropertyIndex("age"), "five");
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSetValueNullPrimitive() throws Exception {
+        BeanAccessor accessor = factory.getBeanAccessor(Pet.class);
+
+        accessor.setValue(new Pet(), accessor.getPropertyIndex("age"), null);
+    }
+
+    @Test
+    public void testSetValueException() throws Exception {
+        BeanAccessor accessor = factory.getBeanAccessor(Pet.class);
+
+        try {
+            accessor.setValue(new Pet(), accessor.getPropertyIndex("name"), "");
+            Assert.fail();
+        } catch (RuntimeException ex) {
+            Assert.assertEquals(IllegalArgumentException.class, ex.getCause().getClass());
+        }
+    }
+
+    @Test
+    public void testNonPublicBean() throws Exception {
+        GeneratedBeanAccessorFactory.GeneratedBeanAccessor accessor =
+                (GeneratedBeanAccessorFactory.GeneratedBeanAccessor) factory.getBeanAccessor(HiddenPet.class);
+        HiddenPet pet = new HiddenPet();
+
+        Assert.assertNull(accessor.generatedSetters[accessor.getPropertyIndex("name")]);
+
+        // reflection is used
+        accessor.setValue(pet, accessor.getPropertyIndex("name"), "whiskers");
+
+        Assert.assertEquals("whiskers", accessor.getValue(pet, accessor.getPropertyIndex("name")));
+    }
+
+    @Test
+    public void testToMap() throws Exception {
+        Pet pet = new Pet();
+        pet.setAge(5);
+        pet.setName("whiskers");
+
+        Map<String, Object> map = factory.getBeanAccessor(Pet.class).toMap(pet);
+
+        Assert.assertEquals(5, map.get("age"));
+        Assert.assertEquals("whiskers", map.get("name"));
+        Assert.assertEquals(false, map.containsKey("class"));
+    }
+
+    public static class Pet {
+        private int age;
+        private String name;
+        private double weight;
+        private boolean vaccinated;
+        private String[] tags;
+        private Object owner;
+        private Long chipId;
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            if ("".equals(name) == true) {
+                throw new IllegalArgumentException("Name cannot be empty");
+            }
+            this.name = name;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public void setWeight(double weight) {
+            this.weight = weight;
+        }
+
+        public boolean isVaccinated() {
+            return vaccinated;
+        }
+
+        public void setVaccinated(boolean vaccinated) {
+            this.vaccinated = vaccinated;
+        }
+
+        public String[] getTags() {
+            return tags;
+        }
+
+        public void setTags(String[] tags) {
+            this.tags = tags;
+        }
+
+        public Object getOwner() {
+            return owner;
+        }
+
+        public void setOwner(Object owner) {
+            this.owner = owner;
+        }
+
+        public Long getChipId() {
+            return chipId;
+        }
+
+        public void setChipId(Long chipId) {
+            this.chipId = chipId;
+        }
+    }
+
+    static class HiddenPet {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
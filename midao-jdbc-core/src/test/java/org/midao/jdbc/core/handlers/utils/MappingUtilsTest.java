@@ -127,6 +127,10 @@ public class MappingUtilsTest {
         Assert.assertEquals(name1, paramsList.get(0).getValue("name"));
         Assert.assertEquals(name2, paramsList.get(1).getValue("name"));
         Assert.assertEquals(name3, paramsList.get(2).getValue("name"));
+
+        // metadata should be read once for whole ResultSet
+        verify(rs, times(1)).getMetaData();
+        verify(rsmd, times(1)).getColumnLabel(1);
     }
 
     @Test
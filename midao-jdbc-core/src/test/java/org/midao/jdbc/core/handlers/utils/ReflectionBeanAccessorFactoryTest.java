@@ -0,0 +1,108 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.handlers.utils;
+
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.beans.PropertyDescriptor;
+import java.util.Map;
+
+/**
+ */
+public class ReflectionBeanAccessorFactoryTest {
+    private final BeanAccessorFactory factory = new ReflectionBeanAccessorFactory();
+
+    @Test
+    public void testGetBeanAccessor() throws Exception {
+        BeanAccessor accessor = factory.getBeanAccessor(MappingUtilsTest.Cat.class);
+
+        Assert.assertEquals(MappingUtilsTest.Cat.class, accessor.getType());
+        Assert.assertSame(accessor, factory.getBeanAccessor(MappingUtilsTest.Cat.class));
+    }
+
+    @Test
+    public void testGetPropertyIndex() throws Exception {
+        BeanAccessor accessor = factory.getBeanAccessor(MappingUtilsTest.Cat.class);
+
+        int ageIndex = accessor.getPropertyIndex("age");
+
+        Assert.assertEquals("age", accessor.getPropertyDescriptors()[ageIndex].getName());
+        Assert.assertEquals(-1, accessor.getPropertyIndex("unknown"));
+    }
+
+    @Test
+    public void testGetSetValue() throws Exception {
+        BeanAccessor accessor = factory.getBeanAccessor(MappingUtilsTest.Cat.class);
+        MappingUtilsTest.Cat cat = new MappingUtilsTest.Cat();
+
+        accessor.setValue(cat, accessor.getPropertyIndex("age"), 5);
+        accessor.setValue(cat, accessor.getPropertyIndex("name"), "whiskers");
+
+        Assert.assertEquals(5, cat.getAge());
+        Assert.assertEquals("whiskers", cat.getName());
+
+        Assert.assertEquals(5, accessor.getValue(cat, accessor.getPropertyIndex("age")));
+        Assert.assertEquals("whiskers", accessor.getValue(cat, accessor.getPropertyIndex("name")));
+    }
+
+    @Test
+    public void testSetValueNoSetter() throws Exception {
+        BeanAccessor accessor = factory.getBeanAccessor(MappingUtilsTest.Cat.class);
+        MappingUtilsTest.Cat cat = new MappingUtilsTest.Cat();
+
+        // class property doesn't have setter - nothing should be done
+        accessor.setValue(cat, accessor.getPropertyIndex("class"), String.class);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSetValueWrongType() throws Exception {
+        BeanAccessor accessor = factory.getBeanAccessor(MappingUtilsTest.Cat.class);
+
+        accessor.setValue(new MappingUtilsTest.Cat(), accessor.getPropertyIndex("age"), "five");
+    }
+
+    @Test
+    public void testPropertyDescriptorsNotModified() throws Exception {
+        BeanAccessor accessor = factory.getBeanAccessor(MappingUtilsTest.Cat.class);
+        MappingUtilsTest.Cat cat = new MappingUtilsTest.Cat();
+
+        accessor.setValue(cat, accessor.getPropertyIndex("age"), 5);
+        Assert.assertEquals(5, accessor.getValue(cat, accessor.getPropertyIndex("age")));
+
+        // accessor should make accessible it's own copies of getters/setters only
+        for (PropertyDescriptor prop : MappingUtils.propertyDescriptors(MappingUtilsTest.Cat.class)) {
+            Assert.assertEquals(false, prop.getReadMethod().isAccessible());
+            Assert.assertEquals(false, prop.getWriteMethod() != null && prop.getWriteMethod().isAccessible());
+        }
+    }
+
+    @Test
+    public void testToMap() throws Exception {
+        MappingUtilsTest.Cat cat = new MappingUtilsTest.Cat();
+        cat.setAge(5);
+        cat.setName("whiskers");
+
+        Map<String, Object> map = factory.getBeanAccessor(MappingUtilsTest.Cat.class).toMap(cat);
+
+        Assert.assertEquals(5, map.get("age"));
+        Assert.assertEquals("whiskers", map.get("name"));
+        Assert.assertEquals(false, map.containsKey("class"));
+    }
+}
@@ -145,6 +145,19 @@ public class BaseMetadataHandlerTest {
         Assert.assertEquals(1, metadataHandler.updateCache(metaData, null, null, "bla"));
     }
 
+    @Test
+    public void testGetProcedureParametersCopy() throws Exception {
+        BaseMetadataHandler metadataHandler = new BaseMetadataHandler(conn, false);
+
+        QueryParameters procedureParams = metadataHandler.getProcedureParameters(conn, null, null, "bla", true);
+        procedureParams.remove("COLUMN_NAME");
+
+        QueryParameters cachedParams = metadataHandler.getProcedureParameters(conn, null, null, "bla", true);
+
+        Assert.assertNotSame(procedureParams, cachedParams);
+        Assert.assertEquals(true, cachedParams.containsKey("COLUMN_NAME"));
+    }
+
     @Test
     public void testGetProcedureParameters() throws Exception {
         QueryRunnerService queryRunner = null;
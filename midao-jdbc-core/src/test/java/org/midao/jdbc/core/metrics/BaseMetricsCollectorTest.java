@@ -0,0 +1,71 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.metrics;
+
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.sql.SQLException;
+
+/**
+ */
+public class BaseMetricsCollectorTest {
+
+    @Test
+    public void testStatementMetrics() throws Exception {
+        BaseMetricsCollector collector = new BaseMetricsCollector();
+
+        collector.statementExecuted("SELECT 1", 1000, 5);
+        collector.statementExecuted("SELECT 1", 3000, -1);
+        collector.batchExecuted("INSERT", 2000, 100);
+        collector.statementFailed("SELECT 1", 500, new SQLException());
+        collector.connectionAcquired(10);
+
+        StatementMetrics select = collector.getStatementMetrics("SELECT 1");
+
+        Assert.assertEquals(3, select.getExecutions());
+        Assert.assertEquals(1, select.getErrors());
+        Assert.assertEquals(3000, select.getLatency().getMax());
+        Assert.assertEquals(1, select.getRows().getCount());
+        Assert.assertEquals(5, select.getRows().getMax());
+
+        Assert.assertEquals(100, collector.getStatementMetrics("INSERT").getRows().getMax());
+        Assert.assertEquals(2, collector.getStatementMetrics().size());
+        Assert.assertEquals(1, collector.getErrors());
+        Assert.assertEquals(1, collector.getConnectionAcquisition().getCount());
+
+        collector.reset();
+
+        Assert.assertNull(collector.getStatementMetrics("SELECT 1"));
+        Assert.assertEquals(0, collector.getErrors());
+    }
+
+    @Test
+    public void testMaxStatements() throws Exception {
+        BaseMetricsCollector collector = new BaseMetricsCollector(1);
+
+        collector.statementExecuted("SELECT 1", 1000, 1);
+        collector.statementExecuted("SELECT 2", 1000, 1);
+        collector.statementExecuted(null, 1000, 1);
+
+        Assert.assertEquals(1, collector.getStatementMetrics().size());
+        Assert.assertNull(collector.getStatementMetrics("SELECT 2"));
+        Assert.assertEquals(2, collector.getStatementMetrics(BaseMetricsCollector.OTHER_STATEMENTS).getExecutions());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.metrics;
+
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ */
+public class HistogramTest {
+
+    @Test
+    public void testIndex() throws Exception {
+        Assert.assertEquals(0, Histogram.getIndex(0));
+        Assert.assertEquals(7, Histogram.getIndex(7));
+        Assert.assertEquals(8, Histogram.getIndex(8));
+        Assert.assertEquals(15, Histogram.getIndex(15));
+        Assert.assertEquals(16, Histogram.getIndex(16));
+        Assert.assertEquals(16, Histogram.getIndex(17));
+
+        // every value is within bounds of it's bucket
+        long[] values = new long[]{9, 100, 1000, 123456789, Long.MAX_VALUE};
+
+        for (long value : values) {
+            int index = Histogram.getIndex(value);
+
+            Assert.assertTrue(value <= Histogram.getUpperBound(index));
+            Assert.assertTrue(value > Histogram.getUpperBound(index - 1));
+        }
+    }
+
+    @Test
+    public void testRecord() throws Exception {
+        Histogram histogram = new Histogram();
+
+        Assert.assertEquals(0, histogram.getMin());
+        Assert.assertEquals(0, histogram.getMax());
+        Assert.assertEquals(0, histogram.getValueAtPercentile(50));
+
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000);
+        }
+        histogram.record(-5);
+
+        Assert.assertEquals(101, histogram.getCount());
+        Assert.assertEquals(0, histogram.getMin());
+        Assert.assertEquals(100000, histogram.getMax());
+        Assert.assertEquals(5050000, histogram.getSum());
+        Assert.assertEquals(100000, histogram.getValueAtPercentile(100));
+
+        long median = histogram.getValueAtPercentile(50);
+        Assert.assertTrue(median >= 50000 && median <= 50000 * 1.125);
+
+        histogram.reset();
+
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getMax());
+    }
+}
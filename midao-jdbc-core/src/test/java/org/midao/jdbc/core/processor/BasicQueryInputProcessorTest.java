@@ -23,7 +23,9 @@ import org.midao.jdbc.core.handlers.model.ProcessedInput;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 public class BasicQueryInputProcessorTest extends BaseInputHandlerTest {
     public void testProcessInputSingle() {
@@ -70,6 +72,20 @@ public class BasicQueryInputProcessorTest extends BaseInputHandlerTest {
         assertTrue(Arrays.equals(testParameters, this.multipleParameterQueryParameters));
     }
 
+    public void testParsedSqlBlockBoundaries() {
+        ProcessedInput processorResult = getQueryInputProcessor().processInput(
+                "SELECT :name, 'it''s :text' FROM cats /* :comment */ WHERE age = :age -- :tail");
+
+        String parsedSql = processorResult.getParsedSql();
+        List<int[]> blocks = processorResult.getParsedSqlBlockBoundaries();
+
+        assertEquals("SELECT ?, 'it''s :text' FROM cats /* :comment */ WHERE age = ? -- :tail", parsedSql);
+        assertEquals(3, blocks.size());
+        assertEquals("'it''s :text'", parsedSql.substring(blocks.get(0)[0], blocks.get(0)[1]));
+        assertEquals("/* :comment */", parsedSql.substring(blocks.get(1)[0], blocks.get(1)[1]));
+        assertEquals("-- :tail", parsedSql.substring(blocks.get(2)[0], blocks.get(2)[1]));
+    }
+
     public void testUnnamedParameterCheck() {
         assertFalse(getQueryInputProcessor().hasUnnamedParameters("/*+ HINT */ xxx /* comment ? */ :a yyyy :b :c :a zzzzz -- :xx ? XX"));
         assertTrue(getQueryInputProcessor().hasUnnamedParameters("/*+ HINT */ xxx /* comment ? */ :a yyyy ? :c :a zzzzz -- :xx ? XX"));
@@ -78,6 +94,14 @@ public class BasicQueryInputProcessorTest extends BaseInputHandlerTest {
         assertTrue(getQueryInputProcessor().hasUnnamedParameters("':yy HINT ' xxx ( comment ? ) :a yyyy :b :c :a zzzzz -- :xx XX"));
     }
 
+    @SuppressWarnings("deprecation")
+    public void testRegexSearch() {
+        BasicQueryInputProcessor processor = (BasicQueryInputProcessor) getQueryInputProcessor();
+
+        assertTrue(Pattern.compile(processor.getRegexParameterSearch()).matcher(getEncodedSingleParameterQuery() + " ").find());
+        assertTrue(Pattern.compile(processor.getRegexSkipBlockSearch()).matcher("xxx 'text' yyy").find());
+    }
+
     public void testProcessInputVarious() {
         ProcessedInput processorResult = null;
         Map<String, Object> processedMap = new HashMap<String, Object>();
@@ -152,6 +176,40 @@ public class BasicQueryInputProcessorTest extends BaseInputHandlerTest {
         assertEquals("\":yy HINT \" xxx /* comment ? */ ? yyyy ? ? ? zzzzz /* :xx XX*/", processorResult.getParsedSql());
     }
 
+    public void testMultilineBlocksInSql() {
+        ProcessedInput processorResult = null;
+
+        Map<String, Object> processedMap = new HashMap<String, Object>();
+        processedMap.put("a", "aa");
+        processedMap.put("b", "bb");
+
+        processorResult = getQueryInputProcessor().processInput("xxx /* comment\n :a ? */ :a 'it''s :b\n :b' -- :a\n:b", processedMap);
+
+        assertEquals("xxx /* comment\n :a ? */ ? 'it''s :b\n :b' -- :a\n?", processorResult.getParsedSql());
+        assertEquals(Arrays.asList("aa", "bb"), processorResult.getSqlParameterValues());
+    }
+
+    public void testLongInList() {
+        StringBuilder originalSql = new StringBuilder("SELECT * FROM t WHERE id IN (");
+        StringBuilder parsedSql = new StringBuilder("SELECT * FROM t WHERE id IN (");
+        Map<String, Object> processedMap = new HashMap<String, Object>();
+
+        for (int i = 0; i < 1000; i++) {
+            originalSql.append(i > 0 ? "," : "").append(":p").append(i);
+            parsedSql.append(i > 0 ? "," : "").append("?");
+            processedMap.put("p" + i, i);
+        }
+
+        originalSql.append(")");
+        parsedSql.append(")");
+
+        ProcessedInput processorResult = getQueryInputProcessor().processInput(originalSql.toString(), processedMap);
+
+        assertEquals(parsedSql.toString(), processorResult.getParsedSql());
+        assertEquals(1000, processorResult.getAmountOfParameters().intValue());
+        assertEquals(999, processorResult.getSqlParameterValues().get(999));
+    }
+
     protected QueryInputProcessor getQueryInputProcessor() {
         return new BasicQueryInputProcessor();
     }
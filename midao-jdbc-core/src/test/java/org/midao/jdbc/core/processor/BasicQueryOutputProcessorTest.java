@@ -32,6 +32,7 @@ import java.sql.Date;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -197,6 +198,96 @@ public class BasicQueryOutputProcessorTest {
         Assert.assertEquals(name2, result.get(1).getName());
     }
 
+    @Test
+    public void testToBeanListDifferentColumns() throws Exception {
+        QueryParameters params1 = new QueryParameters();
+        params1.set("age", 5);
+        params1.set("name", "whiskers");
+
+        paramsList.add(params1);
+
+        QueryParameters params2 = new QueryParameters();
+        params2.set("name", "lucky");
+
+        paramsList.add(params2);
+
+        QueryParameters params3 = new QueryParameters();
+        params3.set("name", "tom");
+        params3.set("age", 7);
+
+        paramsList.add(params3);
+
+        // executing twice: second time mapping plans are taken from cache
+        for (int i = 0; i < 2; i++) {
+            List<Cat> result = queryOutputProcessor.toBeanList(paramsList, Cat.class);
+
+            Assert.assertEquals(3, result.size());
+
+            Assert.assertEquals(5, result.get(0).getAge());
+            Assert.assertEquals("whiskers", result.get(0).getName());
+
+            Assert.assertEquals(0, result.get(1).getAge());
+            Assert.assertEquals("lucky", result.get(1).getName());
+
+            Assert.assertEquals(7, result.get(2).getAge());
+            Assert.assertEquals("tom", result.get(2).getName());
+        }
+
+        Assert.assertEquals("tom", queryOutputProcessor.toBean(params3, Cat.class).getName());
+        Assert.assertEquals(7, queryOutputProcessor.toBean(params3, Cat.class).getAge());
+    }
+
+    @Test
+    public void testToBeanDifferentColumns() throws Exception {
+        BasicQueryOutputProcessor processor = new BasicQueryOutputProcessor();
+
+        QueryParameters params1 = new QueryParameters();
+        params1.set("age", 5);
+        params1.set("name", "whiskers");
+
+        QueryParameters params2 = new QueryParameters();
+        params2.set("age", 7);
+        params2.set("name", "tom");
+
+        QueryParameters params3 = new QueryParameters();
+        params3.set("name", "lucky");
+
+        // mapping plan used for previous row should be reused only if columns and Class are the same
+        Assert.assertEquals(5, processor.toBean(params1, Cat.class).getAge());
+        Assert.assertEquals(7, processor.toBean(params2, Cat.class).getAge());
+        Assert.assertEquals("tom", processor.toBean(params2, Cat.class).getName());
+        Assert.assertEquals(0, processor.toBean(params3, Cat.class).getAge());
+        Assert.assertEquals("lucky", processor.toBean(params3, Cat.class).getName());
+        Assert.assertEquals(0, processor.toBean(params2, SnakeCamel.class).getSnake_age());
+        Assert.assertEquals("whiskers", processor.toBean(params1, Cat.class).getName());
+        Assert.assertNull(processor.toBean((QueryParameters) null, Cat.class));
+    }
+
+    @Test
+    public void testToBeanOverridesChanged() throws Exception {
+        Map<String, String> overrides = new HashMap<String, String>();
+        BasicQueryOutputProcessor processor = new BasicQueryOutputProcessor(overrides);
+
+        QueryParameters params = new QueryParameters();
+        params.set("age", 5);
+        params.set("nick", "whiskers");
+
+        paramsList.add(params);
+
+        Assert.assertNull(processor.toBean(params, Cat.class).getName());
+        Assert.assertNull(processor.toBeanList(paramsList, Cat.class).get(0).getName());
+
+        // mapping plan created before override was added should not be used anymore
+        overrides.put("nick", "name");
+
+        Assert.assertEquals("whiskers", processor.toBean(params, Cat.class).getName());
+        Assert.assertEquals("whiskers", processor.toBeanList(paramsList, Cat.class).get(0).getName());
+
+        overrides.remove("nick");
+
+        Assert.assertNull(processor.toBean(params, Cat.class).getName());
+    }
+
     @Test
     public void testToMap1() throws Exception {
         testToMap("list");
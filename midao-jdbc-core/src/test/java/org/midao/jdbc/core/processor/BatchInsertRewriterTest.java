@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.processor;
+
+import junit.framework.Assert;
+import org.junit.Test;
+import org.midao.jdbc.core.handlers.model.ProcessedInput;
+
+public class BatchInsertRewriterTest {
+
+    @Test
+    public void testGetSql() throws Exception {
+        BatchInsertRewriter rewriter = BatchInsertRewriter.getInstance("INSERT INTO cats (name, age) VALUES (?, ?)");
+
+        Assert.assertNotNull(rewriter);
+        Assert.assertEquals(2, rewriter.getParameterCount());
+        Assert.assertEquals("INSERT INTO cats (name, age) VALUES (?, ?)", rewriter.getSql(1));
+        Assert.assertEquals("INSERT INTO cats (name, age) VALUES (?, ?), (?, ?), (?, ?)", rewriter.getSql(3));
+    }
+
+    @Test
+    public void testGetSqlNested() throws Exception {
+        BatchInsertRewriter rewriter = BatchInsertRewriter.getInstance("insert into cats values (?, lower(?), 'it''s (?)') -- comment ?");
+
+        Assert.assertNotNull(rewriter);
+        Assert.assertEquals(2, rewriter.getParameterCount());
+        Assert.assertEquals("insert into cats values (?, lower(?), 'it''s (?)'), (?, lower(?), 'it''s (?)')", rewriter.getSql(2));
+    }
+
+    @Test
+    public void testGetSqlQuoted() throws Exception {
+        BatchInsertRewriter rewriter = BatchInsertRewriter.getInstance("INSERT INTO \"cats (?)\" VALUES (?, '\")')");
+
+        Assert.assertNotNull(rewriter);
+        Assert.assertEquals(1, rewriter.getParameterCount());
+        Assert.assertEquals("INSERT INTO \"cats (?)\" VALUES (?, '\")'), (?, '\")')", rewriter.getSql(2));
+    }
+
+    @Test
+    public void testGetInstanceProcessedInput() throws Exception {
+        String sql = "INSERT INTO cats (name) VALUES (?)";
+
+        Assert.assertNotNull(BatchInsertRewriter.getInstance(new BasicQueryInputProcessor().processInput(sql)));
+
+        // without block boundaries SQL cannot be checked
+        ProcessedInput processedInput = new ProcessedInput(sql);
+        processedInput.setParsedSql(sql);
+
+        Assert.assertNull(BatchInsertRewriter.getInstance(processedInput));
+    }
+
+    @Test
+    public void testGetMaxRowCount() throws Exception {
+        BatchInsertRewriter rewriter = BatchInsertRewriter.getInstance("INSERT INTO cats (name, age) VALUES (?, ?)");
+
+        Assert.assertEquals(500, rewriter.getMaxRowCount(1000));
+        Assert.assertEquals(1, rewriter.getMaxRowCount(1));
+    }
+
+    @Test
+    public void testNotRewritable() throws Exception {
+        Assert.assertNull(BatchInsertRewriter.getInstance("UPDATE cats SET name = ?"));
+        Assert.assertNull(BatchInsertRewriter.getInstance("INSERT INTO cats (name) SELECT ? FROM dogs"));
+        Assert.assertNull(BatchInsertRewriter.getInstance("INSERT INTO cats (name) VALUES (?) ON DUPLICATE KEY UPDATE name = ?"));
+        Assert.assertNull(BatchInsertRewriter.getInstance("INSERT INTO cats (name) VALUES (?) RETURNING id"));
+        Assert.assertNull(BatchInsertRewriter.getInstance("INSERT INTO cats (name) VALUES ('Tom')"));
+        Assert.assertNull(BatchInsertRewriter.getInstance("INSERT INTO cats (name) VALUES (?), (?)"));
+    }
+}
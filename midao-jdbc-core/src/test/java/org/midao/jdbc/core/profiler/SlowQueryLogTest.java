@@ -0,0 +1,79 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.profiler;
+
+import junit.framework.Assert;
+import org.junit.After;
+import org.junit.Test;
+import org.midao.jdbc.core.MjdbcConfig;
+
+/**
+ */
+public class SlowQueryLogTest {
+
+    @After
+    public void tearDown() {
+        MjdbcConfig.setSlowQueryThreshold(0);
+        MjdbcConfig.setSlowQuerySampleRate(0);
+    }
+
+    @Test
+    public void testIsEnabled() throws Exception {
+        Assert.assertEquals(false, SlowQueryLog.isEnabled());
+
+        MjdbcConfig.setSlowQueryThreshold(100);
+        Assert.assertEquals(true, SlowQueryLog.isEnabled());
+
+        MjdbcConfig.setSlowQueryThreshold(0);
+        MjdbcConfig.setSlowQuerySampleRate(10);
+        Assert.assertEquals(true, SlowQueryLog.isEnabled());
+    }
+
+    @Test
+    public void testRecordDisabled() throws Exception {
+        Assert.assertEquals(false, SlowQueryLog.record("SELECT 1", null, Long.MAX_VALUE / 2, 0, 1, null));
+    }
+
+    @Test
+    public void testRecordSlow() throws Exception {
+        MjdbcConfig.setSlowQueryThreshold(100);
+
+        Assert.assertEquals(false, SlowQueryLog.record("SELECT 1", null, 99 * 1000000L, 0, 1, null));
+        Assert.assertEquals(true, SlowQueryLog.record("SELECT 1", null, 100 * 1000000L, 0, 1, null));
+
+        // connection acquisition time is included
+        Assert.assertEquals(true, SlowQueryLog.record("SELECT 1", null, 50 * 1000000L, 50 * 1000000L, 1, null));
+        Assert.assertEquals(true, SlowQueryLog.record("SELECT 1", "params", 200 * 1000000L, 0, -1, new Exception("failed")));
+    }
+
+    @Test
+    public void testRecordSampled() throws Exception {
+        int logged = 0;
+
+        MjdbcConfig.setSlowQuerySampleRate(3);
+
+        for (int i = 0; i < 9; i++) {
+            if (SlowQueryLog.record("SELECT 1", null, 0, 0, 1, null) == true) {
+                logged++;
+            }
+        }
+
+        Assert.assertEquals(3, logged);
+    }
+}
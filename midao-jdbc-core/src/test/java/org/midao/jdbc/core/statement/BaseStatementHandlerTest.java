@@ -20,19 +20,31 @@ package org.midao.jdbc.core.statement;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.midao.jdbc.core.MjdbcConfig;
 import org.midao.jdbc.core.MjdbcConstants;
+import org.midao.jdbc.core.MjdbcTypes;
 import org.midao.jdbc.core.MjdbcFactory;
+import org.midao.jdbc.core.Overrider;
 import org.midao.jdbc.core.QueryRunner;
 import org.midao.jdbc.core.handlers.input.InputHandler;
 import org.midao.jdbc.core.handlers.input.query.QueryInputHandler;
+import org.midao.jdbc.core.handlers.model.LobStream;
 import org.midao.jdbc.core.handlers.model.QueryParameters;
+import org.midao.jdbc.core.handlers.output.ColumnListOutputHandler;
 import org.midao.jdbc.core.handlers.output.MapOutputHandler;
+import org.midao.jdbc.core.handlers.output.ScalarOutputHandler;
+import org.midao.jdbc.core.handlers.type.EmptyTypeHandler;
 import org.midao.jdbc.core.service.QueryRunnerService;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
 import java.sql.*;
+import java.util.List;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
@@ -53,6 +65,8 @@ public class BaseStatementHandlerTest {
     ParameterMetaData pmd;
     @Mock
     DataSource ds;
+    @Mock
+    DatabaseMetaData metaData;
 
     String sql = "INSERT :some, :remove, :out  INTO world";
     QueryParameters params = new QueryParameters().set("some", "luck").set("remove", null).set("out", "ignored value", QueryParameters.Direction.OUT);
@@ -71,6 +85,9 @@ public class BaseStatementHandlerTest {
         when(conn.prepareCall(any(String.class))).thenReturn(callableStatement);
 
         when(preparedStatement.getParameterMetaData()).thenReturn(pmd);
+        when(preparedStatement.getConnection()).thenReturn(conn);
+        when(conn.getMetaData()).thenReturn(metaData);
+        when(metaData.getURL()).thenReturn("jdbc:first");
         when(callableStatement.getParameterMetaData()).thenReturn(pmd);
         when(pmd.getParameterCount()).thenReturn(params.orderSize());
 
@@ -97,6 +114,97 @@ public class BaseStatementHandlerTest {
         verify(callableStatement, never()).setObject(eq(3), any(String.class));
     }
 
+    @Test
+    public void testSetStatementLobStream() throws Exception {
+        InputStream binaryStream = new ByteArrayInputStream("Batman".getBytes());
+        Reader characterStream = new StringReader("Wolverine");
+
+        QueryParameters lobParams = new QueryParameters();
+        lobParams.set("blob", new LobStream(binaryStream, 6), MjdbcTypes.VARBINARY);
+        lobParams.set("clob", new LobStream(characterStream, 9), MjdbcTypes.VARCHAR);
+        when(pmd.getParameterCount()).thenReturn(lobParams.orderSize());
+
+        new BaseStatementHandler(new Overrider()).setStatement(preparedStatement, lobParams);
+
+        // streams are bound together with their length
+        verify(preparedStatement, times(1)).setBinaryStream(1, binaryStream, 6);
+        verify(preparedStatement, times(1)).setCharacterStream(2, characterStream, 9);
+    }
+
+    @Test
+    public void testSetStatementMetadataFirstTime() throws Exception {
+        ParameterMetadataCache.ValidationMode defaultValue = MjdbcConfig.getDefaultParameterValidationMode();
+
+        try {
+            MjdbcConfig.setDefaultParameterValidationMode(ParameterMetadataCache.ValidationMode.FIRST_TIME);
+            BaseStatementHandler.parameterMetadataCache.clear();
+
+            new BaseStatementHandler(new Overrider()).setStatement(preparedStatement, sql, params);
+            new BaseStatementHandler(new Overrider()).setStatement(preparedStatement, sql, params);
+
+            // metadata is read only once for the same SQL string (cache is shared between statement handlers)
+            verify(preparedStatement, times(1)).getParameterMetaData();
+            verify(pmd, times(1)).getParameterType(2);
+            verify(preparedStatement, times(2)).setNull(eq(2), any(int.class));
+
+            // without SQL string metadata is read from statement
+            new BaseStatementHandler(new Overrider()).setStatement(preparedStatement, params);
+
+            verify(preparedStatement, times(2)).getParameterMetaData();
+
+            // same SQL string against another Database is cached separately
+            when(metaData.getURL()).thenReturn("jdbc:second");
+            new BaseStatementHandler(new Overrider()).setStatement(preparedStatement, sql, params);
+            new BaseStatementHandler(new Overrider()).setStatement(preparedStatement, sql, params);
+
+            verify(preparedStatement, times(3)).getParameterMetaData();
+        } finally {
+            MjdbcConfig.setDefaultParameterValidationMode(defaultValue);
+            BaseStatementHandler.parameterMetadataCache.clear();
+        }
+    }
+
+    @Test
+    public void testSetStatementMetadataFirstTimeQueryRunner() throws Exception {
+        ParameterMetadataCache.ValidationMode defaultValue = MjdbcConfig.getDefaultParameterValidationMode();
+
+        try {
+            MjdbcConfig.setDefaultParameterValidationMode(ParameterMetadataCache.ValidationMode.FIRST_TIME);
+            BaseStatementHandler.parameterMetadataCache.clear();
+
+            for (int i = 0; i < 2; i++) {
+                QueryRunnerService queryRunner = MjdbcFactory.getQueryRunner(ds);
+                ((QueryRunner) queryRunner).setStatementHandler(new BaseStatementHandler(
+                        ((QueryRunner) queryRunner).getOverrider()
+                ));
+
+                queryRunner.update(inputHandler);
+            }
+
+            // SQL string is passed by QueryRunner, so metadata is read only once
+            verify(preparedStatement, times(1)).getParameterMetaData();
+        } finally {
+            MjdbcConfig.setDefaultParameterValidationMode(defaultValue);
+            BaseStatementHandler.parameterMetadataCache.clear();
+        }
+    }
+
+    @Test
+    public void testSetStatementMetadataNever() throws Exception {
+        ParameterMetadataCache.ValidationMode defaultValue = MjdbcConfig.getDefaultParameterValidationMode();
+
+        try {
+            MjdbcConfig.setDefaultParameterValidationMode(ParameterMetadataCache.ValidationMode.NEVER);
+
+            new BaseStatementHandler(new Overrider()).setStatement(preparedStatement, params);
+
+            verify(preparedStatement, never()).getParameterMetaData();
+            verify(preparedStatement, times(1)).setNull(2, MjdbcTypes.VARCHAR);
+        } finally {
+            MjdbcConfig.setDefaultParameterValidationMode(defaultValue);
+        }
+    }
+
     @Test
     public void testWrap() throws Exception {
         invokeQueries();
@@ -112,11 +220,72 @@ public class BaseStatementHandlerTest {
         verify(callableStatement, times(1)).getResultSet();
     }
 
+    @Test
+    public void testWrapRows() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+
+        when(preparedStatement.getResultSet()).thenReturn(rs);
+        when(rs.getMetaData()).thenReturn(rsmd);
+        when(rsmd.getColumnCount()).thenReturn(2);
+        when(rsmd.getColumnLabel(1)).thenReturn("name");
+        when(rsmd.getColumnLabel(2)).thenReturn("age");
+        when(rs.next()).thenReturn(true, true, true, false);
+        when(rs.getObject(1)).thenReturn("jack", "henry", "alison");
+        when(rs.getObject(2)).thenReturn(36, 36, 30);
+
+        List<String> result = new BaseStatementHandler(new Overrider()).wrap(preparedStatement,
+                new EmptyTypeHandler(new Overrider()), new ColumnListOutputHandler<String>("name").createRowHandler());
+
+        org.junit.Assert.assertArrayEquals(new Object[]{"jack", "henry", "alison"}, result.toArray());
+
+        // metadata is read once for whole ResultSet
+        verify(rs, times(1)).getMetaData();
+        verify(rs, times(1)).close();
+        verify(preparedStatement, times(1)).getMoreResults();
+    }
+
+    @Test
+    public void testWrapRowsStop() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+
+        when(preparedStatement.getResultSet()).thenReturn(rs);
+        when(rs.getMetaData()).thenReturn(rsmd);
+        when(rsmd.getColumnCount()).thenReturn(1);
+        when(rsmd.getColumnLabel(1)).thenReturn("name");
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getObject(1)).thenReturn("jack", "henry");
+
+        String result = new BaseStatementHandler(new Overrider()).wrap(preparedStatement,
+                new EmptyTypeHandler(new Overrider()), new ScalarOutputHandler<String>().createRowHandler());
+
+        org.junit.Assert.assertEquals("jack", result);
+
+        // scalar handler needs only first row
+        verify(rs, times(1)).next();
+        verify(preparedStatement, never()).getMoreResults();
+    }
+
     @Test
     public void testReadStatement() throws Exception {
         // nothing to do here, callable uses this part
     }
 
+    @Test
+    public void testSupportsStreaming() throws Exception {
+        org.junit.Assert.assertEquals(true, new BaseStatementHandler(new Overrider()).supportsStreaming());
+        org.junit.Assert.assertEquals(true, new CallableStatementHandler(new Overrider()).supportsStreaming());
+
+        // wrap is overridden - output might differ from the streamed one
+        org.junit.Assert.assertEquals(false, new BaseStatementHandler(new Overrider()) {
+            @Override
+            public List<QueryParameters> wrap(Statement stmt) throws SQLException {
+                return super.wrap(stmt);
+            }
+        }.supportsStreaming());
+    }
+
     @Test
     public void testBeforeClose() throws Exception {
         // nothing to test here
@@ -18,14 +18,18 @@
 
 package org.midao.jdbc.core.statement;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.midao.jdbc.core.Overrider;
+import org.midao.jdbc.core.handlers.model.QueryParameters;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
 import static org.mockito.Mockito.*;
 
@@ -57,4 +61,16 @@ public class LazyStatementHandlerTest {
         verify(stmt, never()).getMoreResults();
         verify(rs, never()).next();
     }
+
+    @Test
+    public void testSupportsStreaming() throws Exception {
+        Assert.assertEquals(true, new LazyStatementHandler(new Overrider()).supportsStreaming());
+
+        Assert.assertEquals(false, new LazyStatementHandler(new Overrider()) {
+            @Override
+            public List<QueryParameters> wrap(Statement stmt) throws SQLException {
+                return super.wrap(stmt);
+            }
+        }.supportsStreaming());
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.statement;
+
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.mockito.Mockito.*;
+
+/**
+ */
+public class PreparedStatementCacheTest {
+    @Mock
+    Connection conn;
+    @Mock
+    PreparedStatement stmt1;
+    @Mock
+    PreparedStatement stmt2;
+
+    PreparedStatementCache cache;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        cache = new PreparedStatementCache(1);
+    }
+
+    private PreparedStatementCache.Key key(String sql) {
+        return new PreparedStatementCache.Key(sql, false, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY,
+                Statement.NO_GENERATED_KEYS, null);
+    }
+
+    @Test
+    public void testTakeRelease() throws Exception {
+        Assert.assertNull(cache.take(conn, key("SELECT 1")));
+
+        cache.register(conn, key("SELECT 1"), stmt1);
+        cache.release(stmt1);
+
+        verify(stmt1, never()).close();
+        verify(stmt1, times(1)).clearParameters();
+        Assert.assertEquals(1, cache.size(conn));
+
+        Assert.assertSame(stmt1, cache.take(conn, key("SELECT 1")));
+        Assert.assertEquals(0, cache.size(conn));
+
+        // statement is not shared while it is used
+        Assert.assertNull(cache.take(conn, key("SELECT 1")));
+    }
+
+    @Test
+    public void testKey() throws Exception {
+        Assert.assertEquals(key("SELECT 1"), key("SELECT 1"));
+        Assert.assertEquals(key("SELECT 1").hashCode(), key("SELECT 1").hashCode());
+        Assert.assertFalse(key("SELECT 1").equals(key("SELECT 2")));
+        Assert.assertFalse(key("SELECT 1").equals(new PreparedStatementCache.Key("SELECT 1", true,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, Statement.NO_GENERATED_KEYS, null)));
+        Assert.assertFalse(key("SELECT 1").equals(new PreparedStatementCache.Key("SELECT 1", false,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, Statement.NO_GENERATED_KEYS, new String[]{"id"})));
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        cache.register(conn, key("SELECT 1"), stmt1);
+        cache.register(conn, key("SELECT 2"), stmt2);
+
+        cache.release(stmt1);
+        cache.release(stmt2);
+
+        verify(stmt1, times(1)).close();
+        verify(stmt2, never()).close();
+        Assert.assertEquals(1, cache.size(conn));
+    }
+
+    @Test
+    public void testReleaseNotRegistered() throws Exception {
+        cache.release(stmt1);
+
+        verify(stmt1, times(1)).close();
+        Assert.assertEquals(0, cache.size(conn));
+    }
+
+    @Test
+    public void testDiscard() throws Exception {
+        cache.register(conn, key("SELECT 1"), stmt1);
+        cache.discard(stmt1);
+
+        verify(stmt1, times(1)).close();
+        Assert.assertEquals(0, cache.size(conn));
+
+        // discarded statement is not returned into the cache
+        cache.release(stmt1);
+        Assert.assertEquals(0, cache.size(conn));
+    }
+
+    @Test
+    public void testPurge() throws Exception {
+        cache.register(conn, key("SELECT 1"), stmt1);
+        cache.release(stmt1);
+
+        cache.purge();
+        verify(stmt1, never()).close();
+
+        when(conn.isClosed()).thenReturn(true);
+        cache.purge();
+
+        verify(stmt1, times(1)).close();
+        Assert.assertEquals(0, cache.size(conn));
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        cache.register(conn, key("SELECT 1"), stmt1);
+        cache.release(stmt1);
+
+        cache.clear();
+
+        verify(stmt1, times(1)).close();
+        Assert.assertEquals(0, cache.size(conn));
+    }
+}
@@ -33,6 +33,8 @@ import org.mockito.MockitoAnnotations;
 import javax.sql.DataSource;
 import java.sql.*;
 
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
@@ -53,6 +55,8 @@ public class BaseTransactionHandlerTest {
     CallableStatement callableStatement;
     @Mock
     DataSource ds;
+    @Mock
+    Connection environmentConn;
 
     String sql = "INSERT luck INTO world;";
     MapOutputHandler outputHandler = new MapOutputHandler();
@@ -117,6 +121,9 @@ public class BaseTransactionHandlerTest {
     private void testManualModeDS(String operation, String type) throws SQLException {
         QueryRunnerService queryRunner = null;
 
+        // first connection is borrowed (and closed) by DataSourceEnvironment
+        when(ds.getConnection()).thenReturn(environmentConn, conn);
+
         queryRunner = MjdbcFactory.getQueryRunner(ds);
 
         queryRunner.setTransactionManualMode(true);
@@ -144,7 +151,8 @@ public class BaseTransactionHandlerTest {
         } else {
             fail();
         }
-        verify(ds, times(1)).getConnection();
+        verify(ds, times(2)).getConnection();
+        verify(environmentConn, times(1)).close();
         verify(conn, times(1)).close();
 
         queryRunner.setTransactionManualMode(false);
@@ -183,7 +191,7 @@ public class BaseTransactionHandlerTest {
             fail();
         }
 
-        verify(ds, times(2)).getConnection();
+        verify(ds, times(3)).getConnection();
         verify(conn, times(2)).close();
     }
 
@@ -304,17 +312,20 @@ public class BaseTransactionHandlerTest {
     public void testIsolationLevelDS() throws SQLException {
         QueryRunnerService queryRunner = null;
 
+        // first connection is borrowed (and closed) by DataSourceEnvironment
+        when(ds.getConnection()).thenReturn(environmentConn, conn);
+
         queryRunner = MjdbcFactory.getQueryRunner(ds);
 
         testIsolationLevel(queryRunner);
 
-        verify(ds, times(4)).getConnection();
+        verify(ds, times(5)).getConnection();
         verify(conn, never()).setTransactionIsolation(any(int.class));
 
         queryRunner.setTransactionIsolationLevel(1);
         testIsolationLevel(queryRunner);
 
-        verify(ds, times(8)).getConnection();
+        verify(ds, times(9)).getConnection();
         verify(conn, times(4)).setTransactionIsolation(any(int.class));
     }
 
@@ -373,4 +384,49 @@ public class BaseTransactionHandlerTest {
         verify(conn, times(1)).releaseSavepoint(null);
         verify(conn, times(1)).rollback(null);
     }
+
+    @Test
+    public void testConnectionProxyReused() throws SQLException {
+        BaseTransactionHandler handler = new BaseTransactionHandler(conn);
+
+        Connection proxy = handler.getConnection();
+
+        assertNotSame(conn, proxy);
+        assertSame(proxy, handler.getConnection());
+    }
+
+    @Test
+    public void testDirectConnection() throws SQLException {
+        when(conn.getAutoCommit()).thenReturn(true);
+        when(conn.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+
+        MjdbcConfig.setDefaultDirectConnection(true);
+        BaseTransactionHandler handler = null;
+
+        try {
+            handler = new BaseTransactionHandler(ds);
+        } finally {
+            MjdbcConfig.setDefaultDirectConnection(false);
+        }
+
+        handler.setManualMode(true);
+        handler.setIsolationLevel(Connection.TRANSACTION_SERIALIZABLE);
+
+        assertSame(conn, handler.getConnection());
+        assertSame(conn, handler.getConnection());
+
+        // state is set only once per physical connection
+        verify(conn, times(1)).getAutoCommit();
+        verify(conn, times(1)).setAutoCommit(false);
+        verify(conn, times(1)).getTransactionIsolation();
+        verify(conn, times(1)).setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+
+        // new physical connection is obtained after commit, so state is checked again
+        handler.commit();
+        handler.getConnection();
+
+        verify(ds, times(2)).getConnection();
+        verify(conn, times(2)).getAutoCommit();
+        verify(conn, times(2)).getTransactionIsolation();
+    }
 }
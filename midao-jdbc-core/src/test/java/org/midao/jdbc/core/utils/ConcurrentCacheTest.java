@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013 Zakhar Prykhoda
+ *
+ *    midao.org
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.midao.jdbc.core.utils;
+
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ */
+public class ConcurrentCacheTest {
+
+    @Test
+    public void testGetPut() throws Exception {
+        ConcurrentCache<String, Integer> cache = new ConcurrentCache<String, Integer>(2);
+
+        Assert.assertNull(cache.get("one"));
+
+        cache.put("one", 1);
+
+        Assert.assertEquals(1, cache.get("one").intValue());
+        Assert.assertEquals(1, cache.size());
+
+        cache.remove("one");
+
+        Assert.assertNull(cache.get("one"));
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        ConcurrentCache<String, Integer> cache = new ConcurrentCache<String, Integer>(2);
+
+        for (int i = 0; i < 10; i++) {
+            cache.put("key" + i, i);
+        }
+
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testMaxSize() throws Exception {
+        ConcurrentCache<String, Integer> cache = new ConcurrentCache<String, Integer>(10);
+
+        cache.put("one", 1);
+        cache.put("two", 2);
+
+        cache.setMaxSize(0);
+        Assert.assertEquals(0, cache.getMaxSize());
+
+        cache.put("three", 3);
+
+        Assert.assertEquals(0, cache.size());
+
+        cache.setMaxSize(10);
+        cache.put("one", 1);
+        cache.clear();
+
+        Assert.assertEquals(0, cache.size());
+    }
+}